@@ -1,23 +1,61 @@
 package com.newgen.cig.cayman.document.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Application configuration class that defines Spring beans for the application.
- * 
- * <p>This configuration class provides bean definitions for HTTP client operations
- * and other application-wide components.</p>
- * 
+ *
+ * <p>This configuration class provides the executors shared by all cabinets. The
+ * OmniDocs HTTP client is defined per cabinet in {@link OmniDocsHttpConfig}.</p>
+ *
  * <h3>Beans Provided:</h3>
  * <ul>
- *   <li>{@link RestTemplate} - HTTP client for external API calls</li>
+ *   <li>{@link AsyncTaskExecutor} - bounded executor for parallel document fetches</li>
+ *   <li>{@link AsyncTaskExecutor} - bounded executor for asynchronous request processing</li>
+ *   <li>{@link AsyncTaskExecutor} - bounded executor for hedged OmniDocs fetches</li>
  * </ul>
- * 
+ *
+ * <h3>Virtual Threads:</h3>
+ * <p>With {@code spring.threads.virtual.enabled: true} on Java 21 or later, Spring Boot
+ * runs Tomcat request handling on virtual threads, and both executors above start a
+ * virtual thread per task instead of keeping a platform pool. Their sizes then become
+ * concurrency limits, so OmniDocs sees the same load. A virtual-thread executor has
+ * no pool or queue to report, so the {@code executor.*} pool metrics are replaced by
+ * two gauges tagged with the bean name: {@code executor.active}, the tasks running,
+ * and {@code executor.pool.max}, the concurrency limit. On Java 17 the property has
+ * no effect. Build with {@code mvn -Pjava21} to target Java 21.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document.batch:
+ *   poolSize: 16                     # Threads shared by all batch fetches
+ *   queueCapacity: 1000              # Queued fetches before callers are rejected
+ *
+ * newgen.cayman.document.async:
+ *   poolSize: 32                     # Threads for OmniDocs I/O of asynchronous requests
+ *   queueCapacity: 200               # Queued requests before new ones are rejected with 503
+ *
+ * newgen.cayman.document.hedging:
+ *   poolSize: 32                     # Threads running hedged fetch attempts
+ *   queueCapacity: 0                 # Attempts queued; when full, fetches run unhedged on the caller
+ *
+ * spring.threads.virtual.enabled: false  # Virtual threads for requests and executors (Java 21+)
+ * </pre>
+ *
  * @author Tarun Vishwakarma
  * @version 1.0
  * @since 2025
@@ -27,37 +65,141 @@ public class AppConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
 
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${newgen.cayman.document.batch.poolSize:16}")
+    private int batchPoolSize;
+
+    @Value("${newgen.cayman.document.batch.queueCapacity:1000}")
+    private int batchQueueCapacity;
+
+    @Value("${newgen.cayman.document.async.poolSize:32}")
+    private int asyncPoolSize;
+
+    @Value("${newgen.cayman.document.async.queueCapacity:200}")
+    private int asyncQueueCapacity;
+
+    @Value("${newgen.cayman.document.hedging.poolSize:32}")
+    private int hedgePoolSize;
+
+    @Value("${newgen.cayman.document.hedging.queueCapacity:0}")
+    private int hedgeQueueCapacity;
+
     /**
-     * Creates and configures a {@link RestTemplate} bean for HTTP operations.
-     * 
-     * <p>The RestTemplate is used for making RESTful API calls to external services,
-     * particularly the Newgen OmniDocs REST web services.</p>
-     * 
-     * <h3>Usage Example:</h3>
-     * <pre>{@code
-     * @Autowired
-     * private RestTemplate restTemplate;
-     * 
-     * String response = restTemplate.getForObject(url, String.class);
-     * }</pre>
-     * 
-     * @param restTemplateBuilder the builder provided by Spring Boot for creating RestTemplate
-     * @return configured RestTemplate instance ready for use
-     * @throws RuntimeException if RestTemplate creation fails
+     * Creates the bounded executor used to fetch documents of a batch in parallel.
+     *
+     * <p>The pool should stay at or below the OmniDocs connection pool's per-route
+     * limit, otherwise fetch threads wait for connections instead of working. On
+     * virtual threads the pool size limits concurrent fetches, and submitters wait
+     * for a free slot instead of queuing.</p>
+     *
+     * @return executor for batch document fetches
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder){
-        logger.trace("Creating RestTemplate bean");
-        logger.info("Configuring RestTemplate bean");
-        try {
-            RestTemplate restTemplate = restTemplateBuilder.build();
-            logger.info("RestTemplate bean created successfully");
-            logger.debug("RestTemplate instance created: {}", restTemplate.getClass().getName());
-            return restTemplate;
-        } catch (Exception e) {
-            logger.error("Exception occurred while creating RestTemplate bean: {}", e.getMessage(), e);
-            throw e;
+    public AsyncTaskExecutor documentFetchExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            logger.info("Configuring document fetch executor on virtual threads. ConcurrencyLimit: {}", batchPoolSize);
+            return virtualThreadExecutor("documentFetchExecutor", "doc-fetch-", batchPoolSize, false);
         }
+        logger.info("Configuring document fetch executor. PoolSize: {}, QueueCapacity: {}", batchPoolSize, batchQueueCapacity);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batchPoolSize);
+        executor.setMaxPoolSize(batchPoolSize);
+        executor.setQueueCapacity(batchQueueCapacity);
+        executor.setThreadNamePrefix("doc-fetch-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
     }
 
+    /**
+     * Creates the bounded executor that runs asynchronous request work: OmniDocs I/O
+     * of the {@code /api/v1/async} endpoints and every {@code StreamingResponseBody}.
+     *
+     * <p>Servlet container threads are released while this pool waits on OmniDocs.
+     * When pool and queue are full, new requests are rejected with {@code 503}
+     * instead of piling up. Pool statistics are exported as {@code executor.*}
+     * metrics tagged {@code name=documentIoExecutor}; on virtual threads only
+     * {@code executor.active} and {@code executor.pool.max} are.</p>
+     *
+     * <p>On virtual threads, pool size plus queue capacity limits the tasks in
+     * flight, and tasks beyond it are rejected with {@code 503} as before.</p>
+     *
+     * @return executor for asynchronous document requests
+     */
+    @Bean
+    public AsyncTaskExecutor documentIoExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            int limit = asyncPoolSize + asyncQueueCapacity;
+            logger.info("Configuring document I/O executor on virtual threads. ConcurrencyLimit: {}", limit);
+            return virtualThreadExecutor("documentIoExecutor", "doc-io-", limit, true);
+        }
+        logger.info("Configuring document I/O executor. PoolSize: {}, QueueCapacity: {}", asyncPoolSize, asyncQueueCapacity);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(asyncPoolSize);
+        executor.setMaxPoolSize(asyncPoolSize);
+        executor.setQueueCapacity(asyncQueueCapacity);
+        executor.setThreadNamePrefix("doc-io-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates the bounded executor that runs the attempts of hedged OmniDocs fetches.
+     *
+     * <p>The default queue capacity of 0 hands attempts straight to idle threads;
+     * when none is idle the fetch runs on the calling thread without a hedge
+     * instead of waiting in a queue.</p>
+     *
+     * @return executor for hedged fetch attempts
+     */
+    @Bean
+    public AsyncTaskExecutor documentHedgeExecutor() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            int limit = hedgePoolSize + hedgeQueueCapacity;
+            logger.info("Configuring document hedge executor on virtual threads. ConcurrencyLimit: {}", limit);
+            return virtualThreadExecutor("documentHedgeExecutor", "doc-hedge-", limit, true);
+        }
+        logger.info("Configuring document hedge executor. PoolSize: {}, QueueCapacity: {}", hedgePoolSize, hedgeQueueCapacity);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hedgePoolSize);
+        executor.setMaxPoolSize(hedgePoolSize);
+        executor.setQueueCapacity(hedgeQueueCapacity);
+        executor.setThreadNamePrefix("doc-hedge-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String name, String threadNamePrefix, int concurrencyLimit,
+                                                          boolean rejectWhenLimitReached) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setRejectTasksWhenLimitReached(rejectWhenLimitReached);
+
+        AtomicInteger active = new AtomicInteger();
+        executor.setTaskDecorator(task -> () -> {
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        });
+        Gauge.builder("executor.active", active, AtomicInteger::get)
+                .description("Tasks running on virtual threads")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("executor.pool.max", () -> concurrencyLimit)
+                .description("Concurrency limit of the virtual-thread executor")
+                .tag("name", name)
+                .register(meterRegistry);
+        return executor;
+    }
 }
@@ -0,0 +1,43 @@
+package com.newgen.cig.cayman.document.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC asynchronous request configuration.
+ *
+ * <p>Runs {@code StreamingResponseBody} and {@code Callable} results on the bounded
+ * {@code documentIoExecutor} instead of Spring's default, which starts an unbounded
+ * thread per task. The async request timeout is taken from
+ * {@code spring.mvc.async.request-timeout}; requests exceeding it are answered with
+ * {@code 503} by {@link com.newgen.cig.cayman.document.exception.GlobalExceptionHandler}.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * spring.mvc.async.request-timeout: 120000   # Milliseconds before an async request times out
+ * </pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Configuration
+public class AsyncWebConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncWebConfig.class);
+
+    @Autowired
+    @Qualifier("documentIoExecutor")
+    private AsyncTaskExecutor documentIoExecutor;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        logger.info("Configuring MVC async support on documentIoExecutor");
+        configurer.setTaskExecutor(documentIoExecutor);
+    }
+}
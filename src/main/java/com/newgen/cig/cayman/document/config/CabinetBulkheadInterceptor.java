@@ -0,0 +1,143 @@
+package com.newgen.cig.cayman.document.config;
+
+import com.newgen.cig.cayman.document.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead that bounds the requests each cabinet serves at once.
+ *
+ * <p>Request threads, the async I/O executor and the batch executor are shared by
+ * all cabinets of {@link CabinetRegistry}. Without a bound, requests piling up on a
+ * slow or hanging OmniDocs server would take every one of them and stall the other
+ * cabinets too. Each cabinet therefore gets its own permits; a request that finds
+ * none free within {@code maxWaitMs} is answered with {@code 503} and
+ * {@code Retry-After} instead of waiting for a thread.</p>
+ *
+ * <p>A permit is taken before the handler runs and returned once the response is
+ * complete. For asynchronous handlers it is held until the async processing ends.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document.bulkhead:
+ *   maxConcurrent: 100   # Requests a cabinet serves at once
+ *   maxWaitMs: 0         # Time to wait for a permit before answering 503
+ * </pre>
+ * <p>Further cabinets override these under {@code newgen.cayman.cabinets.<key>.document.bulkhead}.</p>
+ *
+ * <h3>Metrics:</h3>
+ * <ul>
+ *   <li>{@code cabinet.bulkhead.active} and {@code cabinet.bulkhead.max}</li>
+ *   <li>{@code cabinet.bulkhead.rejected}</li>
+ * </ul>
+ * <p>Like other cabinet meters they carry {@code cabinet=<key>} except for the default cabinet.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Component
+public class CabinetBulkheadInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CabinetBulkheadInterceptor.class);
+
+    private static final String PERMIT_ATTRIBUTE = CabinetBulkheadInterceptor.class.getName() + ".permit";
+
+    @Autowired
+    private ObjectProvider<CabinetRegistry> cabinets;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/v1/**");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            // Dispatch after async processing; the permit is already held
+            return true;
+        }
+        CabinetRegistry.Cabinet cabinet = cabinets.getObject().find(cabinetKey(request));
+        if (cabinet == null) {
+            // Unknown cabinet, answered with 404 by the handler
+            return true;
+        }
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(cabinet.getKey(), k -> new Bulkhead(cabinet));
+        if (!bulkhead.tryAcquire()) {
+            logger.warn("Bulkhead full for cabinet: {}. Requests in progress: {}",
+                    cabinet.getKey(), cabinet.getBulkheadMaxConcurrent());
+            throw new ServiceUnavailableException("Too many requests in progress for cabinet " + cabinet.getKey(), 1);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Bulkhead bulkhead = (Bulkhead) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (bulkhead != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            bulkhead.permits.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String cabinetKey(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables != null ? variables.get("cabinet") : null;
+    }
+
+    private static final class Bulkhead {
+        private final Semaphore permits;
+        private final long maxWaitMs;
+        private final Counter rejected;
+
+        Bulkhead(CabinetRegistry.Cabinet cabinet) {
+            int maxConcurrent = cabinet.getBulkheadMaxConcurrent();
+            this.permits = new Semaphore(maxConcurrent);
+            this.maxWaitMs = cabinet.getBulkheadMaxWaitMs();
+            MeterRegistry meterRegistry = cabinet.getContext().getBean(MeterRegistry.class);
+            Gauge.builder("cabinet.bulkhead.active", permits, p -> maxConcurrent - p.availablePermits())
+                    .description("Requests the cabinet is serving")
+                    .register(meterRegistry);
+            Gauge.builder("cabinet.bulkhead.max", () -> maxConcurrent)
+                    .description("Requests the cabinet may serve at once")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("cabinet.bulkhead.rejected")
+                    .description("Requests rejected because the cabinet was serving its maximum")
+                    .register(meterRegistry);
+        }
+
+        boolean tryAcquire() {
+            try {
+                if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rejected.increment();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.newgen.cig.cayman.document.config;
+
+import com.newgen.cig.cayman.document.exception.CabinetNotFoundException;
+import com.newgen.cig.cayman.document.implementation.DocumentImpl;
+import com.newgen.cig.cayman.document.implementation.Operations;
+import com.newgen.cig.cayman.document.implementation.ProtectedDocumentImpl;
+import com.newgen.cig.cayman.document.model.dao.CabinetProperties;
+import com.newgen.cig.cayman.document.model.dao.CabinetSessionStore;
+import com.newgen.cig.cayman.document.model.dao.ConnectCabinet;
+import com.newgen.cig.cayman.document.model.dao.GlobalSessionService;
+import com.newgen.cig.cayman.document.model.dao.OmniDocsNodes;
+import com.newgen.cig.cayman.document.service.DiskDocumentCacheService;
+import com.newgen.cig.cayman.document.service.DocumentArchiveService;
+import com.newgen.cig.cayman.document.service.DocumentBatchService;
+import com.newgen.cig.cayman.document.service.DocumentCacheService;
+import com.newgen.cig.cayman.document.service.DocumentService;
+import com.newgen.cig.cayman.document.service.DocumentValidatorService;
+import com.newgen.cig.cayman.document.service.LargeDocumentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.IterableConfigurationPropertySource;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of the OmniDocs cabinets this application serves.
+ *
+ * <p>The default cabinet is configured under {@code newgen.cayman.connect.cabinet}
+ * and served by the beans of the application context. Every further cabinet is
+ * configured under {@code newgen.cayman.cabinets.<key>} and gets a child context of
+ * its own with its own credentials, session pool, HTTP connection pool, protection,
+ * session refresh scheduler and document caches, so a slow or failing cabinet does
+ * not take capacity from another. Requests choose a cabinet with the
+ * {@code /api/v1/cabinets/{cabinet}/...} path; paths without it use the default
+ * cabinet, which can also be addressed by its cabinet name.</p>
+ *
+ * <p>A cabinet's properties mirror those of the default cabinet, and anything not
+ * set falls back to the default cabinet's value:</p>
+ * <ul>
+ *   <li>{@code newgen.cayman.cabinets.<key>.*} replaces {@code newgen.cayman.connect.cabinet.*}</li>
+ *   <li>{@code newgen.cayman.cabinets.<key>.document.*} replaces {@code newgen.cayman.document.*}</li>
+ *   <li>{@code newgen.cayman.cabinets.<key>.rate.limit.*} replaces {@code rate.limit.*}</li>
+ * </ul>
+ * <p>The cabinet name defaults to the key. The disk cache directory and the session
+ * store file are placed in a sub-directory named after the key unless set
+ * explicitly. The node list is not inherited, so a cabinet without its own
+ * {@code nodes.urls} is served by its {@code siteURL}. Meters of a cabinet carry the tag {@code cabinet=<key>}; those of the
+ * default cabinet are untagged. Request threads and the batch and hedging executors stay
+ * shared, but every cabinet, the default one included, serves a bounded number of
+ * requests at once (see {@link CabinetBulkheadInterceptor}), so a slow cabinet cannot
+ * occupy all of them.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.cabinets:
+ *   archive:
+ *     cabinetName: worcarchive
+ *     siteURL: http://archive-omnidocs:8080
+ *     username: ENC(...)
+ *     password: ENC(...)
+ *     session:
+ *       poolSize: 2
+ *     http:
+ *       maxTotal: 20
+ *     document:
+ *       protection:
+ *         enabled: true
+ *       bulkhead:
+ *         maxConcurrent: 20
+ *     rate:
+ *       limit:
+ *         capacity: 50
+ * </pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Component
+public class CabinetRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CabinetRegistry.class);
+
+    private static final String CABINETS_PREFIX = "newgen.cayman.cabinets";
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    /** Beans each further cabinet gets its own instance of. */
+    private static final Class<?>[] CABINET_BEANS = {
+            CabinetScheduling.class, CabinetProperties.class, OmniDocsNodes.class, ConnectCabinet.class,
+            CabinetSessionStore.class, GlobalSessionService.class, OmniDocsHttpConfig.class, Operations.class, DocumentImpl.class,
+            ProtectedDocumentImpl.class, DocumentCacheService.class, DiskDocumentCacheService.class,
+            DocumentValidatorService.class, LargeDocumentService.class, DocumentService.class,
+            DocumentBatchService.class, DocumentArchiveService.class};
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cabinet defaultCabinet;
+    private Map<String, Cabinet> cabinets = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        ConfigurableEnvironment environment = context.getEnvironment();
+        defaultCabinet = new Cabinet(null, context);
+        logger.info("Default cabinet: {}", defaultCabinet.getCabinetName());
+
+        Map<String, Cabinet> started = new LinkedHashMap<>();
+        try {
+            for (String key : configuredKeys(environment)) {
+                if (!KEY_PATTERN.matcher(key).matches()) {
+                    throw new IllegalStateException("Invalid cabinet key '" + key + "' under " + CABINETS_PREFIX);
+                }
+                if (key.equals(defaultCabinet.getCabinetName())) {
+                    throw new IllegalStateException("Cabinet key '" + key + "' is the name of the default cabinet");
+                }
+                logger.info("Starting cabinet: {}", key);
+                started.put(key, new Cabinet(key, startCabinet(key, environment)));
+                logger.info("Cabinet {} started. Cabinet name: {}", key, started.get(key).getCabinetName());
+            }
+        } catch (RuntimeException e) {
+            started.values().forEach(cabinet -> cabinet.context.close());
+            throw e;
+        }
+        cabinets = Collections.unmodifiableMap(started);
+        logger.info("Cabinets configured: {}", cabinets.size() + 1);
+    }
+
+    /**
+     * Starts establishing the sessions of the further cabinets once the application
+     * is ready, as the default cabinet does (see
+     * {@link DocumentService#establishSessionsWhenReady()}). Application events do not
+     * reach the child contexts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void establishSessionsWhenReady() {
+        cabinets.values().forEach(cabinet -> cabinet.getDocumentService().establishSessionsWhenReady());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cabinets.values().forEach(cabinet -> {
+            logger.info("Closing cabinet: {}", cabinet.getKey());
+            cabinet.context.close();
+        });
+    }
+
+    /**
+     * Resolves the cabinet a request addresses.
+     *
+     * @param key cabinet key from the request path, or {@code null} for the default cabinet
+     * @return the cabinet
+     * @throws CabinetNotFoundException if no cabinet has this key
+     */
+    public Cabinet get(String key) {
+        Cabinet cabinet = find(key);
+        if (cabinet == null) {
+            throw new CabinetNotFoundException("Cabinet not found: " + key);
+        }
+        return cabinet;
+    }
+
+    /**
+     * @param key cabinet key, or {@code null} for the default cabinet
+     * @return the cabinet, or {@code null} if no cabinet has this key
+     */
+    public Cabinet find(String key) {
+        if (key == null || key.equals(defaultCabinet.getCabinetName())) {
+            return defaultCabinet;
+        }
+        return cabinets.get(key);
+    }
+
+    /**
+     * @return the default cabinet followed by the further cabinets
+     */
+    public List<Cabinet> getCabinets() {
+        List<Cabinet> all = new ArrayList<>();
+        all.add(defaultCabinet);
+        all.addAll(cabinets.values());
+        return all;
+    }
+
+    private static Set<String> configuredKeys(ConfigurableEnvironment environment) {
+        ConfigurationPropertyName prefix = ConfigurationPropertyName.of(CABINETS_PREFIX);
+        Set<String> keys = new LinkedHashSet<>();
+        for (ConfigurationPropertySource source : ConfigurationPropertySources.get(environment)) {
+            if (source instanceof IterableConfigurationPropertySource iterable) {
+                iterable.stream()
+                        .filter(prefix::isAncestorOf)
+                        .map(name -> name.getElement(prefix.getNumberOfElements(), ConfigurationPropertyName.Form.ORIGINAL))
+                        .forEach(keys::add);
+            }
+        }
+        return keys;
+    }
+
+    private ConfigurableApplicationContext startCabinet(String key, ConfigurableEnvironment parentEnvironment) {
+        StandardEnvironment environment = new StandardEnvironment();
+        MutablePropertySources sources = environment.getPropertySources();
+        sources.forEach(source -> sources.remove(source.getName()));
+        parentEnvironment.getPropertySources().forEach(sources::addLast);
+        sources.addFirst(new CabinetPropertySource(key, parentEnvironment));
+        environment.setConversionService(parentEnvironment.getConversionService());
+
+        AnnotationConfigApplicationContext child = new AnnotationConfigApplicationContext();
+        child.setDisplayName("cabinet-" + key);
+        child.setEnvironment(environment);
+        child.setParent(context);
+        child.getBeanFactory().setConversionService(context.getBeanFactory().getConversionService());
+
+        CompositeMeterRegistry cabinetMeters = new CompositeMeterRegistry(meterRegistry.config().clock());
+        cabinetMeters.add(meterRegistry);
+        cabinetMeters.config().commonTags("cabinet", key);
+        child.registerBean("meterRegistry", MeterRegistry.class, () -> cabinetMeters, definition -> {
+            definition.setPrimary(true);
+            definition.setDestroyMethodName("");
+        });
+        child.registerBean("taskScheduler", ThreadPoolTaskScheduler.class, () -> {
+            ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setThreadNamePrefix("cabinet-" + key + "-");
+            return scheduler;
+        });
+        child.register(CABINET_BEANS);
+        try {
+            child.refresh();
+        } catch (RuntimeException e) {
+            child.close();
+            throw e;
+        }
+        child.getBeansOfType(MeterBinder.class).values().forEach(binder -> binder.bindTo(cabinetMeters));
+        return child;
+    }
+
+    /**
+     * Enables {@link org.springframework.scheduling.annotation.Scheduled} session
+     * refresh in a cabinet's child context.
+     */
+    @EnableScheduling
+    static class CabinetScheduling {
+    }
+
+    /**
+     * Answers the default cabinet's property names from the cabinet's own
+     * {@code newgen.cayman.cabinets.<key>} properties.
+     */
+    private static final class CabinetPropertySource extends PropertySource<Environment> {
+
+        private static final String CABINET = "newgen.cayman.connect.cabinet.";
+        private static final String DOCUMENT = "newgen.cayman.document.";
+        private static final String RATE_LIMIT = "rate.limit.";
+        private static final String CABINET_NAME = CABINET + "cabinetName";
+        private static final String DISK_CACHE_DIRECTORY = DOCUMENT + "cache.disk.directory";
+        private static final String SESSION_STORE_FILE = CABINET + "session.store.file";
+        private static final String NODE_URLS = CABINET + "nodes.urls";
+
+        private final String key;
+        private final String prefix;
+
+        CabinetPropertySource(String key, Environment parent) {
+            super("cabinet-" + key, parent);
+            this.key = key;
+            this.prefix = CABINETS_PREFIX + "." + key + ".";
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            String cabinetName = mapped(name);
+            if (cabinetName == null) {
+                return null;
+            }
+            String value = source.getProperty(cabinetName);
+            if (value != null) {
+                return value;
+            }
+            return switch (name) {
+                case CABINET_NAME -> key;
+                case NODE_URLS -> "";
+                case DISK_CACHE_DIRECTORY -> namespaced(source.getProperty(name), false);
+                case SESSION_STORE_FILE -> namespaced(source.getProperty(name), true);
+                default -> null;
+            };
+        }
+
+        private String mapped(String name) {
+            if (name.startsWith(CABINET)) {
+                return prefix + name.substring(CABINET.length());
+            }
+            if (name.startsWith(DOCUMENT)) {
+                return prefix + name.substring("newgen.cayman.".length());
+            }
+            if (name.startsWith(RATE_LIMIT)) {
+                return prefix + name;
+            }
+            return null;
+        }
+
+        private String namespaced(String path, boolean file) {
+            if (path == null) {
+                return null;
+            }
+            Path shared = Paths.get(path);
+            if (file) {
+                Path parent = shared.getParent() != null ? shared.getParent() : Paths.get("");
+                return parent.resolve(key).resolve(shared.getFileName()).toString();
+            }
+            return shared.resolve(key).toString();
+        }
+    }
+
+    /**
+     * One cabinet and the beans that serve it.
+     */
+    public static final class Cabinet {
+
+        private final String key;
+        private final boolean isDefault;
+        private final ConfigurableApplicationContext context;
+        private final String cabinetName;
+        private final DocumentService documentService;
+        private final DocumentValidatorService validators;
+        private final GlobalSessionService sessionService;
+        private final DocumentBatchService batchService;
+        private final DocumentArchiveService archiveService;
+        private final int rateLimitCapacity;
+        private final int rateLimitDurationMinutes;
+        private final boolean streamingEnabled;
+        private final boolean base64PassThrough;
+        private final int bulkheadMaxConcurrent;
+        private final long bulkheadMaxWaitMs;
+
+        Cabinet(String key, ConfigurableApplicationContext context) {
+            this.context = context;
+            this.cabinetName = context.getBean(CabinetProperties.class).getCabinetName();
+            this.key = key != null ? key : cabinetName;
+            this.isDefault = key == null;
+            this.documentService = context.getBean(DocumentService.class);
+            this.validators = context.getBean(DocumentValidatorService.class);
+            this.sessionService = context.getBean(GlobalSessionService.class);
+            this.batchService = context.getBean(DocumentBatchService.class);
+            this.archiveService = context.getBean(DocumentArchiveService.class);
+            Environment environment = context.getEnvironment();
+            this.rateLimitCapacity = environment.getProperty("rate.limit.capacity", Integer.class, 100);
+            this.rateLimitDurationMinutes = environment.getProperty("rate.limit.duration.minutes", Integer.class, 1);
+            this.streamingEnabled = environment.getProperty(
+                    "newgen.cayman.document.streaming.enabled", Boolean.class, false);
+            this.base64PassThrough = environment.getProperty(
+                    "newgen.cayman.document.base64.passThrough", Boolean.class, false);
+            this.bulkheadMaxConcurrent = environment.getProperty(
+                    "newgen.cayman.document.bulkhead.maxConcurrent", Integer.class, 100);
+            this.bulkheadMaxWaitMs = environment.getProperty(
+                    "newgen.cayman.document.bulkhead.maxWaitMs", Long.class, 0L);
+        }
+
+        /**
+         * @return key under {@code newgen.cayman.cabinets}, or the cabinet name for the default cabinet
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return {@code true} for the cabinet configured under {@code newgen.cayman.connect.cabinet}
+         */
+        public boolean isDefault() {
+            return isDefault;
+        }
+
+        public ApplicationContext getContext() {
+            return context;
+        }
+
+        public String getCabinetName() {
+            return cabinetName;
+        }
+
+        public DocumentService getDocumentService() {
+            return documentService;
+        }
+
+        public DocumentValidatorService getValidators() {
+            return validators;
+        }
+
+        public GlobalSessionService getSessionService() {
+            return sessionService;
+        }
+
+        public DocumentBatchService getBatchService() {
+            return batchService;
+        }
+
+        public DocumentArchiveService getArchiveService() {
+            return archiveService;
+        }
+
+        public int getRateLimitCapacity() {
+            return rateLimitCapacity;
+        }
+
+        public int getRateLimitDurationMinutes() {
+            return rateLimitDurationMinutes;
+        }
+
+        /**
+         * @return whether document content is streamed to the client for this cabinet
+         */
+        public boolean isStreamingEnabled() {
+            return streamingEnabled;
+        }
+
+        /**
+         * @return whether base64 content is copied into the response envelope for this cabinet
+         */
+        public boolean isBase64PassThrough() {
+            return base64PassThrough;
+        }
+
+        /**
+         * @return requests this cabinet may serve at once, see {@link CabinetBulkheadInterceptor}
+         */
+        public int getBulkheadMaxConcurrent() {
+            return bulkheadMaxConcurrent;
+        }
+
+        public long getBulkheadMaxWaitMs() {
+            return bulkheadMaxWaitMs;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.newgen.cig.cayman.document.config;
+
+import com.newgen.cig.cayman.document.model.dao.GlobalSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of the OmniDocs session pool, reported as {@code cabinetSession}.
+ *
+ * <p>{@code OUT_OF_SERVICE} until the first cabinet session has been established
+ * and while no session is live, {@code UP} otherwise. It is part of the readiness
+ * group, so {@code /actuator/health/readiness} keeps traffic away until documents
+ * can be served.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * management.endpoint.health.group.readiness.include: readinessState,cabinetSession
+ * </pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Component
+public class CabinetSessionHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private GlobalSessionService sessionService;
+
+    @Override
+    public Health health() {
+        if (!sessionService.isStarted()) {
+            return Health.outOfService().withDetail("reason", "No cabinet session established yet").build();
+        }
+        long live = sessionService.describe().stream().filter(slot -> slot.sessionId() != null).count();
+        Health.Builder health = live > 0 ? Health.up() : Health.outOfService();
+        return health.withDetail("sessions", live)
+                .withDetail("poolSize", sessionService.getPoolSize())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.newgen.cig.cayman.document.config;
+
+import com.newgen.cig.cayman.document.model.dao.GlobalSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint listing the pooled OmniDocs sessions.
+ *
+ * <p>Served at {@code /actuator/cabinetsessions} once exposed through
+ * {@code management.endpoints.web.exposure.include}. Each slot shows its masked
+ * session id, requests in flight, requests served and age. The sessions of a cabinet
+ * of {@link CabinetRegistry} are served at {@code /actuator/cabinetsessions/{cabinet}};
+ * an unknown cabinet yields {@code 404}.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Component
+@Endpoint(id = "cabinetsessions")
+public class CabinetSessionsEndpoint {
+
+    @Autowired
+    private GlobalSessionService sessionService;
+
+    @Autowired
+    private CabinetRegistry cabinets;
+
+    @ReadOperation
+    public List<GlobalSessionService.SessionInfo> sessions() {
+        return sessionService.describe();
+    }
+
+    @ReadOperation
+    public List<GlobalSessionService.SessionInfo> sessions(@Selector String cabinet) {
+        CabinetRegistry.Cabinet found = cabinets.find(cabinet);
+        return found != null ? found.getSessionService().describe() : null;
+    }
+}
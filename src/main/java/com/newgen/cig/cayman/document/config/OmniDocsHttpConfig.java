@@ -0,0 +1,203 @@
+package com.newgen.cig.cayman.document.config;
+
+import com.newgen.cig.cayman.document.utils.CancellationScope;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client configuration for calls to one OmniDocs server.
+ *
+ * <p>The application context configures the default cabinet with it. Every further
+ * cabinet in {@link CabinetRegistry} gets its own instance, so each cabinet has its
+ * own connection pool and a slow cabinet cannot hold the connections of another.</p>
+ *
+ * <h3>Beans Provided:</h3>
+ * <ul>
+ *   <li>{@link PoolingHttpClientConnectionManager} - keep-alive connection pool for OmniDocs</li>
+ *   <li>{@link CloseableHttpClient} - Apache HttpClient backed by the pool</li>
+ *   <li>{@link RestTemplate} - HTTP client for external API calls</li>
+ *   <li>{@link MeterBinder} - pool statistics (leased, pending, available) for actuator</li>
+ * </ul>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.connect.cabinet.http:
+ *   maxTotal: 100                    # Connections across all routes
+ *   maxPerRoute: 50                  # Connections to one OmniDocs host
+ *   connectTimeoutMs: 5000           # TCP connect timeout
+ *   readTimeoutMs: 60000             # Socket inactivity timeout while reading
+ *   responseTimeoutMs: 60000         # Wait for the response head
+ *   connectionRequestTimeoutMs: 5000 # Wait for a pooled connection
+ *   keepAliveMs: 30000               # Reuse period when the server sends no Keep-Alive header
+ *   idleEvictionMs: 30000            # Close connections idle longer than this
+ *   validateAfterInactivityMs: 2000  # Re-check stale connections before reuse
+ * </pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Configuration
+public class OmniDocsHttpConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OmniDocsHttpConfig.class);
+
+    @Value("${newgen.cayman.connect.cabinet.http.maxTotal:100}")
+    private int maxTotal;
+
+    @Value("${newgen.cayman.connect.cabinet.http.maxPerRoute:50}")
+    private int maxPerRoute;
+
+    @Value("${newgen.cayman.connect.cabinet.http.connectTimeoutMs:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${newgen.cayman.connect.cabinet.http.readTimeoutMs:60000}")
+    private long readTimeoutMs;
+
+    @Value("${newgen.cayman.connect.cabinet.http.responseTimeoutMs:60000}")
+    private long responseTimeoutMs;
+
+    @Value("${newgen.cayman.connect.cabinet.http.connectionRequestTimeoutMs:5000}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${newgen.cayman.connect.cabinet.http.keepAliveMs:30000}")
+    private long keepAliveMs;
+
+    @Value("${newgen.cayman.connect.cabinet.http.idleEvictionMs:30000}")
+    private long idleEvictionMs;
+
+    @Value("${newgen.cayman.connect.cabinet.http.validateAfterInactivityMs:2000}")
+    private long validateAfterInactivityMs;
+
+    /**
+     * Creates the pooled connection manager shared by all OmniDocs calls.
+     *
+     * @return connection manager with per-route limits and socket timeouts
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager omniDocsConnectionManager() {
+        logger.info("Configuring OmniDocs connection pool. MaxTotal: {}, MaxPerRoute: {}", maxTotal, maxPerRoute);
+        logger.debug("Connection timeouts - Connect: {} ms, Read: {} ms, ValidateAfterInactivity: {} ms",
+                connectTimeoutMs, readTimeoutMs, validateAfterInactivityMs);
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Creates the Apache HttpClient used for OmniDocs REST calls.
+     *
+     * <p>Connections are kept alive for reuse, and a background evictor closes
+     * expired and idle connections.</p>
+     *
+     * @param omniDocsConnectionManager pooled connection manager
+     * @return configured HTTP client
+     */
+    @Bean
+    public CloseableHttpClient omniDocsHttpClient(PoolingHttpClientConnectionManager omniDocsConnectionManager) {
+        logger.info("Configuring OmniDocs HTTP client. ResponseTimeout: {} ms, ConnectionRequestTimeout: {} ms, KeepAlive: {} ms, IdleEviction: {} ms",
+                responseTimeoutMs, connectionRequestTimeoutMs, keepAliveMs, idleEvictionMs);
+        return HttpClients.custom()
+                .setConnectionManager(omniDocsConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+                .build();
+    }
+
+    /**
+     * Creates and configures a {@link RestTemplate} bean for HTTP operations.
+     *
+     * <p>The RestTemplate is used for making RESTful API calls to external services,
+     * particularly the Newgen OmniDocs REST web services. Requests go through the
+     * pooled {@link CloseableHttpClient} so connections are reused across calls.
+     * Each request is registered with the thread's {@link CancellationScope}, so a
+     * hedged fetch can abort the attempt that lost.</p>
+     *
+     * <h3>Usage Example:</h3>
+     * <pre>{@code
+     * @Autowired
+     * private RestTemplate restTemplate;
+     *
+     * String response = restTemplate.getForObject(url, String.class);
+     * }</pre>
+     *
+     * @param restTemplateBuilder the builder provided by Spring Boot for creating RestTemplate
+     * @param omniDocsHttpClient pooled HTTP client for OmniDocs calls
+     * @return configured RestTemplate instance ready for use
+     * @throws RuntimeException if RestTemplate creation fails
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient omniDocsHttpClient){
+        logger.trace("Creating RestTemplate bean");
+        logger.info("Configuring RestTemplate bean");
+        try {
+            RestTemplate restTemplate = restTemplateBuilder
+                    .requestFactory(() -> new CancellableRequestFactory(omniDocsHttpClient))
+                    .build();
+            logger.info("RestTemplate bean created successfully");
+            logger.debug("RestTemplate instance created: {}", restTemplate.getClass().getName());
+            return restTemplate;
+        } catch (Exception e) {
+            logger.error("Exception occurred while creating RestTemplate bean: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Exports OmniDocs connection pool statistics as
+     * {@code httpcomponents.httpclient.pool.*} metrics tagged {@code httpclient=omnidocs}.
+     *
+     * @param omniDocsConnectionManager pooled connection manager
+     * @return meter binder registered with the actuator registry
+     */
+    @Bean
+    public MeterBinder omniDocsConnectionPoolMetrics(PoolingHttpClientConnectionManager omniDocsConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(omniDocsConnectionManager, "omnidocs");
+    }
+
+    /**
+     * Request factory that registers every OmniDocs request with the calling
+     * thread's {@link CancellationScope}.
+     */
+    private static final class CancellableRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        CancellableRequestFactory(CloseableHttpClient httpClient) {
+            super(httpClient);
+        }
+
+        @Override
+        protected void postProcessHttpRequest(ClassicHttpRequest request) {
+            if (request instanceof Cancellable cancellable) {
+                CancellationScope.register(cancellable);
+            }
+        }
+    }
+}
@@ -29,7 +29,8 @@ import java.util.regex.Pattern;
  * <h3>How It Works:</h3>
  * <ol>
  *   <li>Retrieves the AES secret key from {@code my.security.aes-secret} property</li>
- *   <li>Scans all properties with prefix {@code newgen.cayman.connect.cabinet.}</li>
+ *   <li>Scans all properties with prefix {@code newgen.cayman.connect.cabinet.} or
+ *       {@code newgen.cayman.cabinets.} (further cabinets, see {@link CabinetRegistry})</li>
  *   <li>Identifies encrypted values matching the {@code ENC(...)} pattern</li>
  *   <li>Decrypts the values using AES-256 GCM mode</li>
  *   <li>Replaces encrypted properties with decrypted values</li>
@@ -72,6 +73,9 @@ public class PropertyDecryptionInitializer implements ApplicationContextInitiali
     
     /** Prefix for cabinet-related properties that should be checked for encryption */
     private static final String CABINET_PROPERTY_PREFIX = "newgen.cayman.connect.cabinet.";
+
+    /** Prefix for the properties of further cabinets, which may be encrypted as well */
+    private static final String CABINETS_PROPERTY_PREFIX = "newgen.cayman.cabinets.";
     
     /** Property key for the AES encryption secret */
     private static final String AES_SECRET_PROPERTY = "my.security.aes-secret";
@@ -139,7 +143,7 @@ public class PropertyDecryptionInitializer implements ApplicationContextInitiali
                     String key = entry.getKey();
                     Object value = entry.getValue();
                     
-                    if (key.startsWith(CABINET_PROPERTY_PREFIX)) {
+                    if (key.startsWith(CABINET_PROPERTY_PREFIX) || key.startsWith(CABINETS_PROPERTY_PREFIX)) {
                         totalPropertiesScanned++;
                         
                         // Extract the actual string value from OriginTrackedValue if needed
@@ -3,30 +3,40 @@ package com.newgen.cig.cayman.document.config;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.newgen.cig.cayman.document.exception.TooManyRequestsException;
+import com.newgen.cig.cayman.document.utils.GcraRateLimiter;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Servlet filter that implements rate limiting using the Token Bucket algorithm.
+ * Servlet filter that implements rate limiting using the generic cell rate algorithm.
  * 
  * <p>This filter protects the API from abuse by limiting the number of requests
  * that can be made from a single IP address within a specified time window.</p>
  * 
  * <h3>Algorithm:</h3>
- * <p>Uses the Token Bucket algorithm where:</p>
+ * <p>Uses {@link GcraRateLimiter}, where:</p>
  * <ul>
- *   <li>Each IP address gets a bucket with a fixed capacity of tokens</li>
- *   <li>Each request consumes one token</li>
- *   <li>Tokens refill at a fixed rate (capacity per duration)</li>
- *   <li>Requests are rejected when the bucket is empty</li>
+ *   <li>Each IP address may send up to {@code capacity} requests at once</li>
+ *   <li>One request's allowance comes back every {@code duration / capacity},
+ *       rather than the whole capacity once per duration</li>
+ *   <li>Requests are rejected while the allowance is used up</li>
+ *   <li>The state of an IP address is a single compare-and-set {@code long}, so
+ *       concurrent requests from one address (for example an office behind NAT)
+ *       do not queue on a lock</li>
  * </ul>
  * 
  * <h3>Configuration:</h3>
@@ -42,6 +52,8 @@ import java.util.concurrent.TimeUnit;
  * <h3>Features:</h3>
  * <ul>
  *   <li>Per-IP address rate limiting</li>
+ *   <li>Separate allowances and limits per cabinet for {@code /api/v1/cabinets/{cabinet}/...}
+ *       (see {@link CabinetRegistry})</li>
  *   <li>Support for X-Forwarded-For header (proxy-aware)</li>
  *   <li>Automatic cache eviction after 10 minutes of inactivity</li>
  *   <li>Maximum 10,000 IP addresses tracked simultaneously</li>
@@ -55,7 +67,7 @@ import java.util.concurrent.TimeUnit;
  * @version 1.0
  * @since 2025
  * @see TooManyRequestsException
- * @see TokenBucket
+ * @see GcraRateLimiter
  */
 @Component
 @Order(1)
@@ -70,14 +82,45 @@ public class RateLimitFilter implements Filter {
     @Value("${rate.limit.duration.minutes:1}")
     private int rateLimitDurationMinutes;
     
-    // Cache with automatic eviction after 10 minutes of inactivity
-    private final Cache<String, TokenBucket> cache = Caffeine.newBuilder()
+    // Theoretical arrival time per IP address, evicted after 10 minutes of inactivity
+    private final Cache<String, AtomicLong> cache = Caffeine.newBuilder()
             .expireAfterAccess(10, TimeUnit.MINUTES)
             .maximumSize(10000)
             .build();
 
-    private TokenBucket createNewBucket() {
-        return new TokenBucket(rateLimitCapacity, rateLimitDurationMinutes);
+    private static final String CABINET_PATH = "/api/v1/cabinets/";
+
+    @Autowired
+    private ObjectProvider<CabinetRegistry> cabinets;
+
+    private GcraRateLimiter limiter;
+
+    private final Map<String, GcraRateLimiter> cabinetLimiters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void createLimiter() {
+        limiter = newLimiter(rateLimitCapacity, rateLimitDurationMinutes);
+    }
+
+    private static GcraRateLimiter newLimiter(int capacity, int durationMinutes) {
+        return new GcraRateLimiter(capacity, TimeUnit.MINUTES.toNanos(durationMinutes));
+    }
+
+    /**
+     * Finds the further cabinet addressed by {@code /api/v1/cabinets/{cabinet}/...}.
+     *
+     * @return the cabinet, or {@code null} for the default cabinet or an unknown key
+     */
+    private CabinetRegistry.Cabinet getCabinet(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(CABINET_PATH)) {
+            return null;
+        }
+        int end = path.indexOf('/', CABINET_PATH.length());
+        String key = path.substring(CABINET_PATH.length(), end < 0 ? path.length() : end);
+        CabinetRegistry registry = cabinets.getIfAvailable();
+        CabinetRegistry.Cabinet cabinet = registry != null ? registry.find(key) : null;
+        return cabinet != null && !cabinet.isDefault() ? cabinet : null;
     }
     
     private String getClientIP(HttpServletRequest request) {
@@ -109,13 +152,18 @@ public class RateLimitFilter implements Filter {
         
         logger.trace("Rate limit check for IP: {}", ip);
         
-        TokenBucket bucket = cache.get(ip, k -> createNewBucket());
+        CabinetRegistry.Cabinet cabinet = getCabinet(httpRequest);
+        GcraRateLimiter keyLimiter = cabinet == null ? limiter
+                : cabinetLimiters.computeIfAbsent(cabinet.getKey(),
+                        k -> newLimiter(cabinet.getRateLimitCapacity(), cabinet.getRateLimitDurationMinutes()));
+        AtomicLong state = cache.get(cabinet == null ? ip : cabinet.getKey() + "|" + ip, k -> keyLimiter.newState());
         
-        if (bucket.tryConsume()) {
+        if (keyLimiter.tryAcquire(state)) {
             logger.trace("Request allowed for IP: {}", ip);
             chain.doFilter(request, response);
         } else {
-            logger.warn("Rate limit exceeded for IP: {}", ip);
+            logger.warn("Rate limit exceeded for IP: {}. Next request allowed in {} ms",
+                    ip, TimeUnit.NANOSECONDS.toMillis(keyLimiter.waitNanos(state)));
             throw new TooManyRequestsException("Rate limit exceeded. Please try again later");
         }
     }
@@ -125,70 +173,4 @@ public class RateLimitFilter implements Filter {
         logger.info("RateLimitFilter destroyed, cleaning up cache");
         cache.invalidateAll();
     }
-
-    /**
-     * Simple Token Bucket implementation for rate limiting.
-     * 
-     * <p>The Token Bucket algorithm allows for burst traffic while maintaining
-     * an average rate limit over time.</p>
-     * 
-     * <h3>How It Works:</h3>
-     * <ul>
-     *   <li>Bucket starts with maximum capacity of tokens</li>
-     *   <li>Each request consumes one token</li>
-     *   <li>Tokens refill automatically based on time passed</li>
-     *   <li>Bucket capacity is never exceeded</li>
-     * </ul>
-     * 
-     * <p>This implementation is thread-safe using synchronized methods.</p>
-     * 
-     * @author Tarun Vishwakarma
-     * @version 1.0
-     * @since 2025
-     */
-    private static class TokenBucket {
-        /** Maximum number of tokens the bucket can hold */
-        private final int capacity;
-        
-        /** Time interval (in nanoseconds) for refilling tokens */
-        private final long refillIntervalNanos;
-        
-        /** Number of tokens added during each refill cycle */
-        private final long tokensPerRefill;
-        
-        /** Current number of available tokens */
-        private long availableTokens;
-        
-        /** Timestamp of the last refill operation */
-        private long lastRefillTimestamp;
-
-        public TokenBucket(int capacity, int durationMinutes) {
-            this.capacity = capacity;
-            this.availableTokens = capacity;
-            this.lastRefillTimestamp = System.nanoTime();
-            this.refillIntervalNanos = TimeUnit.MINUTES.toNanos(durationMinutes);
-            this.tokensPerRefill = capacity;
-        }
-
-        public synchronized boolean tryConsume() {
-            refill();
-            if (availableTokens > 0) {
-                availableTokens--;
-                return true;
-            }
-            return false;
-        }
-
-        private void refill() {
-            long now = System.nanoTime();
-            long timePassed = now - lastRefillTimestamp;
-            
-            if (timePassed >= refillIntervalNanos) {
-                long refillCycles = timePassed / refillIntervalNanos;
-                long tokensToAdd = refillCycles * tokensPerRefill;
-                availableTokens = Math.min(capacity, availableTokens + tokensToAdd);
-                lastRefillTimestamp = now - (timePassed % refillIntervalNanos);
-            }
-        }
-    }
 }
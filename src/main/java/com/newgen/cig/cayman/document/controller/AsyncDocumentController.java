@@ -0,0 +1,233 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.config.CabinetRegistry;
+import com.newgen.cig.cayman.document.exception.InvalidParameterException;
+import com.newgen.cig.cayman.document.exception.MissingParameterException;
+import com.newgen.cig.cayman.document.model.dto.ApiResponse;
+import com.newgen.cig.cayman.document.model.dto.DocumentValidator;
+import com.newgen.cig.cayman.document.model.dto.LocalDocument;
+import com.newgen.cig.cayman.document.service.DocumentService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Asynchronous variants of the document endpoints in {@link DocumentController}.
+ *
+ * <h3>Endpoints:</h3>
+ * <ul>
+ *   <li><b>GET</b> {@code /api/v1/async/download/{docIndex}} – Download document as attachment</li>
+ *   <li><b>GET</b> {@code /api/v1/async/fetchDoc/bytes/{docIndex}} – Fetch document inline as bytes</li>
+ *   <li><b>GET</b> {@code /api/v1/async/fetchDoc/base64/{docIndex}} – Fetch document as base64 JSON</li>
+ * </ul>
+ *
+ * <p>Each endpoint is also served under {@code /api/v1/cabinets/{cabinet}/async} for
+ * the cabinets of {@link CabinetRegistry}.</p>
+ *
+ * <p>Handlers return a {@link CompletableFuture} immediately, so the servlet
+ * container thread is released while OmniDocs is called on the bounded
+ * {@code documentIoExecutor}. The document is first brought into a local copy
+ * (memory or disk cache, see {@link DocumentService#openLocalCopy(String)}); the
+ * response is then written from it, which also gives {@code Range} support.
+ * Requests exceeding {@code spring.mvc.async.request-timeout}, or arriving while
+ * the executor is saturated, are answered with {@code 503}.</p>
+ *
+ * <p>Responses carry the same headers as the synchronous endpoints, and
+ * {@code If-None-Match} is answered with {@code 304} before any work is queued.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@RestController
+@RequestMapping({"/api/v1/async", "/api/v1/cabinets/{cabinet}/async"})
+public class AsyncDocumentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncDocumentController.class);
+
+    @Autowired
+    private CabinetRegistry cabinets;
+
+    @Autowired
+    @Qualifier("documentIoExecutor")
+    private Executor executor;
+
+    /**
+     * Downloads a document from OmniDocs as a file attachment without holding a
+     * container thread during the OmniDocs call.
+     *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
+     * @param docIndex unique document identifier in OmniDocs
+     * @param request servlet request carrying conditional and range headers
+     * @return future of the file download response
+     * @throws InvalidParameterException if docIndex is invalid
+     */
+    @GetMapping("/download/{docIndex}")
+    public CompletableFuture<ResponseEntity<?>> downloadDocument(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                                                 @PathVariable String docIndex,
+                                                                 HttpServletRequest request) {
+        logger.trace("Entering async downloadDocument() method with docIndex: {}", docIndex);
+        logger.info("Async request received to download document. DocIndex: {}", docIndex);
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
+
+        validateDocIndex(docIndex);
+
+        ResponseEntity<?> notModified = notModified(cabinet, docIndex, false, request);
+        if (notModified != null) {
+            return CompletableFuture.completedFuture(notModified);
+        }
+        return localCopyResponse(cabinet, docIndex, "attachment", request);
+    }
+
+    /**
+     * Fetches a document as raw inline bytes without holding a container thread
+     * during the OmniDocs call. The base64 format is served by
+     * {@link #fetchDocumentBase64(String, String, HttpServletRequest)}.
+     *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
+     * @param base64 literal "bytes"
+     * @param docIndex unique document identifier in OmniDocs
+     * @param request servlet request carrying conditional and range headers
+     * @return future of the inline response
+     * @throws MissingParameterException when required parameters are missing
+     * @throws InvalidParameterException when parameters are invalid
+     */
+    @GetMapping("/fetchDoc/{base64}/{docIndex}")
+    public CompletableFuture<ResponseEntity<?>> fetchDocument(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                                              @PathVariable String base64, @PathVariable String docIndex,
+                                                              HttpServletRequest request) {
+        logger.trace("Entering async fetchDocument() method with base64: {}, docIndex: {}", base64, docIndex);
+        logger.info("Async request received to fetch document. Format: {}, DocIndex: {}", base64, docIndex);
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
+
+        if (base64 == null || base64.trim().isEmpty()) {
+            logger.warn("Invalid base64 format parameter provided: null or empty");
+            throw new MissingParameterException("Format parameter 'base64' is required");
+        }
+        if (!"bytes".equals(base64)) {
+            logger.warn("Invalid base64 format parameter provided: {}", base64);
+            throw new InvalidParameterException("Invalid format parameter");
+        }
+        validateDocIndex(docIndex);
+
+        ResponseEntity<?> notModified = notModified(cabinet, docIndex, false, request);
+        if (notModified != null) {
+            return CompletableFuture.completedFuture(notModified);
+        }
+        return localCopyResponse(cabinet, docIndex, "inline", request);
+    }
+
+    /**
+     * Fetches a document as a base64 {@link ApiResponse} without holding a container
+     * thread during the OmniDocs call.
+     *
+     * <p>The envelope is always streamed (see {@link Base64Envelope}), whatever
+     * {@code newgen.cayman.document.base64.passThrough} is set to; the JSON is the
+     * same as the buffered form.</p>
+     *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
+     * @param docIndex unique document identifier in OmniDocs
+     * @param request servlet request carrying conditional headers
+     * @return future of the base64 response
+     * @throws InvalidParameterException when docIndex is invalid
+     */
+    @GetMapping("/fetchDoc/base64/{docIndex}")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> fetchDocumentBase64(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                                                                       @PathVariable String docIndex,
+                                                                                       HttpServletRequest request) {
+        logger.trace("Entering async fetchDocumentBase64() method with docIndex: {}", docIndex);
+        logger.info("Async request received to fetch document. Format: base64, DocIndex: {}", docIndex);
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
+        validateDocIndex(docIndex);
+
+        ResponseEntity<StreamingResponseBody> notModified = notModified(cabinet, docIndex, true, request);
+        if (notModified != null) {
+            return CompletableFuture.completedFuture(notModified);
+        }
+        return CompletableFuture.supplyAsync(
+                () -> base64Envelope(cabinet, docIndex, cabinet.getDocumentService().openLocalCopy(docIndex)), executor);
+    }
+
+    private static void validateDocIndex(String docIndex) {
+        if (docIndex == null || docIndex.trim().isEmpty()) {
+            logger.warn("Invalid docIndex provided: null or empty");
+            throw new InvalidParameterException("Document index cannot be null or empty");
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<?>> localCopyResponse(CabinetRegistry.Cabinet cabinet, String docIndex,
+                                                                   String disposition, HttpServletRequest request) {
+        return CompletableFuture.<ResponseEntity<?>>supplyAsync(() -> {
+            try (LocalDocument local = cabinet.getDocumentService().openLocalCopy(docIndex)) {
+                logger.debug("Async fetch completed. DocIndex: {}, Size: {} bytes", docIndex, local.getContentLength());
+                return LocalDocumentResponses.of(docIndex, local, disposition, request, cabinet.getValidators());
+            }
+        }, executor);
+    }
+
+    /**
+     * Builds a base64 {@link ApiResponse} whose {@code data} field is encoded from
+     * the local copy while it is written (see {@link Base64Envelope}). The local
+     * copy is closed once the body has been written.
+     */
+    private ResponseEntity<StreamingResponseBody> base64Envelope(CabinetRegistry.Cabinet cabinet, String docIndex,
+                                                                 LocalDocument local) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CACHE_CONTROL,
+                        cabinet.getValidators().cacheControlFor(local.getMetadata().getCreatedByAppName()));
+        String etag = DocumentValidator.base64Etag(cabinet.getValidators().etag(docIndex, local.getDigest()));
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(out -> {
+            try (local; InputStream in = local.getResource().getInputStream()) {
+                Base64Envelope envelope = Base64Envelope.open(out);
+                in.transferTo(envelope.content());
+                envelope.finish();
+            }
+            logger.debug("Async base64 envelope written. DocIndex: {}", docIndex);
+        });
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the validator cache without queuing any work.
+     *
+     * @return {@code 304} response, or {@code null} if the request must be served
+     */
+    private <T> ResponseEntity<T> notModified(CabinetRegistry.Cabinet cabinet, String docIndex, boolean base64,
+                                              HttpServletRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return null;
+        }
+        DocumentValidator validator = cabinet.getValidators().find(docIndex);
+        if (validator == null) {
+            return null;
+        }
+        String etag = base64 ? validator.getBase64Etag() : validator.getEtag();
+        if (!new ServletWebRequest(request).checkNotModified(etag)) {
+            return null;
+        }
+        logger.info("Document not modified. DocIndex: {}", docIndex);
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL,
+                        cabinet.getValidators().cacheControlFor(validator.getMetadata().getCreatedByAppName()))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.newgen.cig.cayman.document.model.dto.ApiResponse;
+import org.springframework.http.HttpStatus;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Writes an {@link ApiResponse} JSON envelope whose {@code data} field is filled
+ * with base64 content while the content is still being produced.
+ *
+ * <p>The envelope fields are written with a {@link JsonGenerator}; the content is
+ * either base64-encoded chunk by chunk straight into the open string value, or,
+ * when it already is base64 text, copied there as it is. Base64 needs no JSON
+ * escaping, so the payload is never escape-scanned or materialised.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+final class Base64Envelope {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+    private final OutputStream text;
+    private final OutputStream encoder;
+
+    private Base64Envelope(JsonGenerator generator, OutputStream text) {
+        this.generator = generator;
+        this.text = text;
+        this.encoder = Base64.getEncoder().wrap(text);
+    }
+
+    /**
+     * Writes the envelope up to the opening quote of {@code data}.
+     *
+     * @param target response stream; flushed but never closed
+     * @return the open envelope
+     * @throws IOException if writing fails
+     */
+    static Base64Envelope open(OutputStream target) throws IOException {
+        OutputStream out = new FilterOutputStream(target) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                this.out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        JsonGenerator generator = JSON_FACTORY.createGenerator(out);
+        generator.writeStartObject();
+        generator.writeStringField("timestamp", LocalDateTime.now().toString());
+        generator.writeNumberField("status", HttpStatus.OK.value());
+        generator.writeStringField("message", "OK");
+        generator.writeFieldName("data");
+        generator.writeRawValue("\"");
+        generator.flush();
+        return new Base64Envelope(generator, out);
+    }
+
+    /**
+     * @return stream that base64-encodes the document into the {@code data} field
+     */
+    OutputStream content() {
+        return encoder;
+    }
+
+    /**
+     * @return stream that copies base64 text into the {@code data} field as it is;
+     *         the text must be plain base64
+     */
+    OutputStream text() {
+        return text;
+    }
+
+    /**
+     * Flushes the last base64 quantum, if the content was encoded, and closes the {@code data} field and the envelope.
+     *
+     * @throws IOException if writing fails
+     */
+    void finish() throws IOException {
+        encoder.close();
+        generator.writeRaw('"');
+        generator.writeEndObject();
+        generator.close();
+    }
+}
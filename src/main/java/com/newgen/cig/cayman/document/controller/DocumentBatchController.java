@@ -0,0 +1,174 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.config.CabinetRegistry;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.model.dto.BatchDocumentItem;
+import com.newgen.cig.cayman.document.model.dto.BatchDocumentRequest;
+import com.newgen.cig.cayman.document.model.dto.BatchDocumentResult;
+import com.newgen.cig.cayman.document.model.enums.DocumentType;
+import com.newgen.cig.cayman.document.service.DocumentBatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * REST controller for multi-document retrieval.
+ *
+ * <h3>Endpoints:</h3>
+ * <ul>
+ *   <li><b>POST</b> {@code /api/v1/documents/batch} – Fetch several documents in one call</li>
+ *   <li><b>POST</b> {@code /api/v1/documents/zip} – Download several documents as one ZIP archive</li>
+ * </ul>
+ *
+ * <p>Both endpoints are also served under {@code /api/v1/cabinets/{cabinet}/documents}
+ * for the cabinets of {@link CabinetRegistry}.</p>
+ *
+ * <p>Results are streamed in completion order, one per document, each with its own
+ * status. The format follows the {@code Accept} header: {@code multipart/mixed}
+ * yields one binary part per document; anything else yields NDJSON
+ * ({@code application/x-ndjson}) lines with base64 content.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@RestController
+@RequestMapping({"/api/v1/documents", "/api/v1/cabinets/{cabinet}/documents"})
+public class DocumentBatchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBatchController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CabinetRegistry cabinets;
+
+    /**
+     * Fetches several documents in parallel and streams each result as soon as it is ready.
+     *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
+     * @param request document indexes to fetch
+     * @param accept requested response format
+     * @return streamed NDJSON or multipart/mixed response
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> batch(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                                       @RequestBody BatchDocumentRequest request,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        logger.trace("Entering batch() method");
+        DocumentBatchService batchService = cabinets.get(cabinetKey).getBatchService();
+        List<String> docIndexes = batchService.validate(request != null ? request.docIndexes() : null);
+        boolean multipart = accept != null && accept.contains(MediaType.MULTIPART_MIXED_VALUE);
+        logger.info("Batch request received. Documents: {}, Format: {}", docIndexes.size(), multipart ? "multipart" : "ndjson");
+
+        if (multipart) {
+            String boundary = UUID.randomUUID().toString();
+            return ResponseEntity.ok()
+                    .contentType(new MediaType(MediaType.MULTIPART_MIXED, Map.of("boundary", boundary)))
+                    .body(out -> {
+                        batchService.fetchEach(docIndexes, item -> writePart(out, boundary, item));
+                        out.write(("--" + boundary + "--").getBytes(StandardCharsets.US_ASCII));
+                        out.write(CRLF);
+                        out.flush();
+                    });
+        }
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> batchService.fetchEach(docIndexes, item -> writeLine(out, item)));
+    }
+
+    /**
+     * Streams the requested documents as a ZIP archive while they are still being fetched.
+     *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
+     * @param request document indexes to include, in archive order
+     * @return streamed {@code application/zip} attachment
+     */
+    @PostMapping("/zip")
+    public ResponseEntity<StreamingResponseBody> zip(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                                     @RequestBody BatchDocumentRequest request) {
+        logger.trace("Entering zip() method");
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
+        List<String> docIndexes = cabinet.getBatchService().validate(request != null ? request.docIndexes() : null);
+        logger.info("ZIP request received. Documents: {}", docIndexes.size());
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"documents.zip\"")
+                .body(out -> cabinet.getArchiveService().writeZip(docIndexes, out));
+    }
+
+    private void writeLine(OutputStream out, BatchDocumentItem item) throws IOException {
+        BatchDocumentResult result;
+        if (item.isSuccess()) {
+            DocumentResponse metadata = item.getDocument().getMetadata();
+            result = new BatchDocumentResult(item.getDocIndex(), item.getStatus(), null, item.getMessage(),
+                    metadata.getDocumentName(), metadata.getCreatedByAppName(), contentTypeOf(metadata),
+                    Base64.getEncoder().encodeToString(item.getDocument().getContent()));
+        } else {
+            result = errorResult(item);
+        }
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+        out.flush();
+    }
+
+    private void writePart(OutputStream out, String boundary, BatchDocumentItem item) throws IOException {
+        StringBuilder headers = new StringBuilder()
+                .append("--").append(boundary).append("\r\n")
+                .append("X-Document-Index: ").append(item.getDocIndex()).append("\r\n")
+                .append("X-Document-Status: ").append(item.getStatus()).append("\r\n");
+        byte[] body;
+        if (item.isSuccess()) {
+            DocumentResponse metadata = item.getDocument().getMetadata();
+            body = item.getDocument().getContent();
+            headers.append(HttpHeaders.CONTENT_TYPE).append(": ").append(contentTypeOf(metadata)).append("\r\n")
+                    .append(HttpHeaders.CONTENT_DISPOSITION).append(": attachment; filename=\"")
+                    .append(metadata.getDocumentName()).append('.').append(metadata.getCreatedByAppName())
+                    .append("\"\r\n");
+        } else {
+            body = objectMapper.writeValueAsBytes(errorResult(item));
+            headers.append(HttpHeaders.CONTENT_TYPE).append(": ").append(MediaType.APPLICATION_JSON_VALUE).append("\r\n");
+        }
+        headers.append(HttpHeaders.CONTENT_LENGTH).append(": ").append(body.length).append("\r\n\r\n");
+
+        out.write(headers.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(body);
+        out.write(CRLF);
+        out.flush();
+    }
+
+    private static BatchDocumentResult errorResult(BatchDocumentItem item) {
+        return new BatchDocumentResult(item.getDocIndex(), item.getStatus(), item.getErrorCode().getCode(),
+                item.getMessage(), null, null, null, null);
+    }
+
+    private static String contentTypeOf(DocumentResponse metadata) {
+        try {
+            return DocumentType.fromExtension(metadata.getCreatedByAppName()).getContentType();
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.newgen.cig.cayman.document.controller;
 
+import com.newgen.cig.cayman.document.config.CabinetRegistry;
 import com.newgen.cig.cayman.document.exception.InvalidParameterException;
 import com.newgen.cig.cayman.document.exception.MissingParameterException;
+import com.newgen.cig.cayman.document.exception.ResponseAbortedException;
+import com.newgen.cig.cayman.document.interfaces.DocumentInterface;
 import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.model.dto.DocumentFile;
+import com.newgen.cig.cayman.document.model.dto.DocumentValidator;
+import com.newgen.cig.cayman.document.model.dto.LocalDocument;
 import com.newgen.cig.cayman.document.model.dto.ApiResponse;
 import com.newgen.cig.cayman.document.model.dto.ErrorResponse;
 import com.newgen.cig.cayman.document.model.enums.DocumentType;
-import com.newgen.cig.cayman.document.service.DocumentService;
+import com.newgen.cig.cayman.document.service.DiskDocumentCacheService;
+import com.newgen.cig.cayman.document.service.DocumentValidatorService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +23,19 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * REST controller exposing document-related endpoints.
@@ -31,23 +49,50 @@ import org.springframework.web.bind.annotation.RestController;
  *   <li><b>GET</b> {@code /api/v1/sessionId} – Get OmniDocs session id</li>
  *   <li><b>GET</b> {@code /api/v1/download/{docIndex}} – Download document as attachment</li>
  *   <li><b>GET</b> {@code /api/v1/fetchDoc/{base64}/{docIndex}} – Fetch document inline (base64 or bytes)</li>
+ *   <li><b>DELETE</b> {@code /api/v1/cache/{docIndex}} – Drop a changed document from the caches</li>
  * </ul>
  *
+ * <p>Each endpoint is also served under {@code /api/v1/cabinets/{cabinet}} for the
+ * cabinets of {@link CabinetRegistry}; the plain paths use the default cabinet.</p>
+ *
+ * <p>When {@code newgen.cayman.document.streaming.enabled} is {@code true}, the download
+ * and bytes endpoints stream decoded content straight to the servlet output stream
+ * instead of materialising the document as a {@code byte[]}. Documents held in the
+ * on-disk cache are then served with Tomcat sendfile where available, falling back
+ * to {@link FileChannel#transferTo}. Large documents (see
+ * {@link com.newgen.cig.cayman.document.service.LargeDocumentService}) are written by
+ * OmniDocs to a shared download location and served the same way.</p>
+ *
+ * <p>The download and bytes endpoints honour {@code Range} and {@code If-Range}.
+ * Ranged requests are answered with {@code 206 Partial Content} (or
+ * {@code multipart/byteranges} for several ranges) from a local copy of the
+ * document, so repeated ranges do not re-fetch it from OmniDocs.</p>
+ *
+ * <p>With {@code newgen.cayman.document.base64.passThrough} enabled, the base64 endpoint
+ * writes the {@link ApiResponse} envelope by hand and streams the content into its
+ * {@code data} field, so the document is never held as a {@code String}.</p>
+ *
+ * <p>Document responses carry a strong {@code ETag} and a per-type {@code Cache-Control}.
+ * A response streamed from OmniDocs on a cache miss carries no {@code ETag}, since
+ * its headers are sent before the digest of its content is known.
+ * {@code If-None-Match} is answered with {@code 304 Not Modified} from
+ * {@link DocumentValidatorService} before any content is fetched.</p>
+ *
  * @author Tarun Vishwakarma
  * @since 2025
  */
 @RestController
-@RequestMapping("/api/v1")
+@RequestMapping({"/api/v1", "/api/v1/cabinets/{cabinet}"})
 public class DocumentController {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentController.class);
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
     @Autowired
-    private DocumentResponse documentResponse;
-
-    @Autowired
-    private DocumentService documentService;
-
+    private CabinetRegistry cabinets;
 
     /**
      * Simple health check endpoint.
@@ -68,14 +113,16 @@ public class DocumentController {
     /**
      * Retrieves and returns a new session id from OmniDocs.
      *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
      * @return {@link ResponseEntity} containing the session id as plain text
      */
     @GetMapping("/sessionId")
-    public ResponseEntity<?> sessionId() {
+    public ResponseEntity<?> sessionId(@PathVariable(name = "cabinet", required = false) String cabinetKey) {
         logger.trace("Entering sessionId() method");
         logger.info("Request received to get session ID");
-        logger.debug("Calling documentService.getSessionId()");
-        String sessionId = documentService.getSessionId();
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
+        logger.debug("Calling documentService.getSessionId() for cabinet: {}", cabinet.getKey());
+        String sessionId = cabinet.getDocumentService().getSessionId();
         logger.info("Session ID retrieved successfully. SessionId length: {}", sessionId != null ? sessionId.length() : 0);
         logger.debug("Returning session ID with status OK");
         logger.trace("Exiting sessionId() method with success");
@@ -86,23 +133,45 @@ public class DocumentController {
     /**
      * Downloads a document from OmniDocs as a file attachment.
      *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
      * @param docIndex unique document identifier in OmniDocs
-     * @return file download response with appropriate content type
+     * @param request servlet request, used to detect sendfile support
+     * @param response servlet response, written directly in streaming mode
+     * @return file download response with appropriate content type, or {@code null} when streamed
      * @throws InvalidParameterException if parameters are invalid or content is empty
      */
     @GetMapping("/download/{docIndex}")
-    public ResponseEntity<?> downloadDocument(@PathVariable String docIndex){
+    public ResponseEntity<?> downloadDocument(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                              @PathVariable String docIndex, HttpServletRequest request,
+                                              HttpServletResponse response){
         logger.trace("Entering downloadDocument() method with docIndex: {}", docIndex);
         logger.info("Request received to download document. DocIndex: {}", docIndex);
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
         
         // Validate docIndex parameter
         if (docIndex == null || docIndex.trim().isEmpty()) {
             logger.warn("Invalid docIndex provided: null or empty");
             throw new InvalidParameterException("Document index cannot be null or empty");
         }
+
+        if (notModified(cabinet, docIndex, false, request, response)) {
+            logger.info("Document not modified. DocIndex: {}", docIndex);
+            return null;
+        }
+
+        if (request.getHeader(HttpHeaders.RANGE) != null) {
+            return rangeResponse(cabinet, docIndex, "attachment", request);
+        }
+
+        if (cabinet.isStreamingEnabled()) {
+            streamDocument(cabinet, docIndex, "attachment", request, response);
+            logger.trace("Exiting downloadDocument() method with streamed response");
+            return null;
+        }
         
         logger.debug("Fetching document bytes for docIndex: {}", docIndex);
-        byte[] body = documentService.fetchDocBytes(docIndex);
+        DocumentFile document = cabinet.getDocumentService().fetchDocBytes(docIndex);
+        byte[] body = document.getContent();
         logger.debug("Document bytes fetched successfully. Document size: {} bytes", body != null ? body.length : 0);
         
         if (body == null || body.length == 0) {
@@ -110,8 +179,8 @@ public class DocumentController {
             throw new InvalidParameterException("Document content is empty");
         }
         
-        String documentName = documentResponse.getDocumentName();
-        String createdByAppName = documentResponse.getCreatedByAppName();
+        String documentName = document.getMetadata().getDocumentName();
+        String createdByAppName = document.getMetadata().getCreatedByAppName();
         
         if (documentName == null || createdByAppName == null) {
             logger.warn("Document metadata is incomplete. DocumentName: {}, CreatedByAppName: {}", documentName, createdByAppName);
@@ -129,6 +198,9 @@ public class DocumentController {
         return ResponseEntity
                 .ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CACHE_CONTROL, cabinet.getValidators().cacheControlFor(createdByAppName))
+                .eTag(cabinet.getValidators().etag(docIndex, document.getDigest()))
                 .contentType(contentType)
                 .body(body);
     }
@@ -138,16 +210,22 @@ public class DocumentController {
      * Fetches a document as inline content. When path variable {@code base64}
      * equals {@code base64}, returns base64 string; otherwise returns raw bytes.
      *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
      * @param base64 either literal "base64" or "bytes" value for bytes
      * @param docIndex unique document identifier in OmniDocs
-     * @return inline response with document content
+     * @param request servlet request, used to detect sendfile support
+     * @param response servlet response, written directly when bytes are streamed
+     * @return inline response with document content, or {@code null} when streamed
      * @throws MissingParameterException when required parameters are missing
      * @throws InvalidParameterException when parameters are invalid
      */
     @GetMapping("/fetchDoc/{base64}/{docIndex}")
-    public ResponseEntity<?> fetchDocument(@PathVariable String base64, @PathVariable String docIndex){
+    public ResponseEntity<?> fetchDocument(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                           @PathVariable String base64, @PathVariable String docIndex,
+                                           HttpServletRequest request, HttpServletResponse response){
         logger.trace("Entering fetchDocument() method with base64: {}, docIndex: {}", base64, docIndex);
         logger.info("Request received to fetch document. Format: {}, DocIndex: {}", base64, docIndex);
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
 
         // Validate parameters
         if (base64 == null || base64.trim().isEmpty()) {
@@ -173,25 +251,52 @@ public class DocumentController {
             throw new InvalidParameterException("Document index cannot be null or empty");
         }
 
-        Object body;
+        if (notModified(cabinet, docIndex, "base64".equals(base64), request, response)) {
+            logger.info("Document not modified. DocIndex: {}", docIndex);
+            return null;
+        }
+
+        if ("base64".equals(base64) && cabinet.isBase64PassThrough()) {
+            streamBase64(cabinet, docIndex, response);
+            logger.trace("Exiting fetchDocument() method with streamed base64 response");
+            return null;
+        }
+
         if("base64".equals(base64)) {
             logger.debug("Fetching document as base64 string for docIndex: {}", docIndex);
-            body = documentService.fetchDocumentBase64(docIndex);
-            return ResponseEntity
-                    .ok(new ApiResponse<>(200, "OK", body));
-        } else {
-            logger.debug("Fetching document as bytes for docIndex: {}", docIndex);
-            body = documentService.fetchDocBytes(docIndex);
-            logger.debug("Document fetched as bytes. Size: {} bytes", body != null ? ((byte[]) body).length : 0);
+            String encoded = cabinet.getDocumentService().fetchDocumentBase64(docIndex);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            DocumentValidator validator = cabinet.getValidators().find(docIndex);
+            if (validator != null) {
+                builder.eTag(validator.getBase64Etag())
+                        .header(HttpHeaders.CACHE_CONTROL,
+                                cabinet.getValidators().cacheControlFor(validator.getMetadata().getCreatedByAppName()));
+            }
+            return builder.body(new ApiResponse<>(200, "OK", encoded));
         }
 
+        if (request.getHeader(HttpHeaders.RANGE) != null) {
+            return rangeResponse(cabinet, docIndex, "inline", request);
+        }
+
+        if (cabinet.isStreamingEnabled()) {
+            streamDocument(cabinet, docIndex, "inline", request, response);
+            logger.trace("Exiting fetchDocument() method with streamed response");
+            return null;
+        }
+
+        logger.debug("Fetching document as bytes for docIndex: {}", docIndex);
+        DocumentFile document = cabinet.getDocumentService().fetchDocBytes(docIndex);
+        byte[] body = document.getContent();
+        logger.debug("Document fetched as bytes. Size: {} bytes", body != null ? body.length : 0);
+
         if (body == null) {
             logger.warn("Document body is null for docIndex: {}", docIndex);
             throw new InvalidParameterException("Document content is null");
         }
 
-        String documentName = documentResponse.getDocumentName();
-        String createdByAppName = documentResponse.getCreatedByAppName();
+        String documentName = document.getMetadata().getDocumentName();
+        String createdByAppName = document.getMetadata().getCreatedByAppName();
 
         if (documentName == null || createdByAppName == null) {
             logger.warn("Document metadata is incomplete. DocumentName: {}, CreatedByAppName: {}", documentName, createdByAppName);
@@ -209,8 +314,262 @@ public class DocumentController {
         return ResponseEntity
                 .ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CACHE_CONTROL, cabinet.getValidators().cacheControlFor(createdByAppName))
+                .eTag(cabinet.getValidators().etag(docIndex, document.getDigest()))
                 .contentType(contentType)
                 .body(body);
     }
 
+    /**
+     * Drops a document from the caches, for use when it has changed in OmniDocs.
+     *
+     * @param cabinetKey cabinet key from the path, or {@code null} for the default cabinet
+     * @param docIndex unique document identifier in OmniDocs
+     * @return {@code 204 No Content}
+     * @throws InvalidParameterException if docIndex is empty
+     */
+    @DeleteMapping("/cache/{docIndex}")
+    public ResponseEntity<Void> invalidateDocument(@PathVariable(name = "cabinet", required = false) String cabinetKey,
+                                                   @PathVariable String docIndex) {
+        logger.info("Request received to invalidate cached document. DocIndex: {}", docIndex);
+        CabinetRegistry.Cabinet cabinet = cabinets.get(cabinetKey);
+        if (docIndex == null || docIndex.trim().isEmpty()) {
+            logger.warn("Invalid docIndex provided: null or empty");
+            throw new InvalidParameterException("Document index cannot be null or empty");
+        }
+        cabinet.getDocumentService().invalidate(docIndex);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Streams a document to the servlet response, setting headers from the
+     * OmniDocs metadata just before the first content byte is written.
+     *
+     * <p>A document found in the on-disk cache, or a large document that OmniDocs
+     * wrote to the shared download location, is handed to the container without
+     * passing through the JVM heap. A document held in memory is written as it is.
+     * Both carry the entity tag of the content sent.</p>
+     *
+     * @param cabinet cabinet serving the request
+     * @param docIndex unique document identifier in OmniDocs
+     * @param disposition {@code attachment} or {@code inline}
+     * @param request servlet request, used to detect sendfile support
+     * @param response servlet response to write to
+     */
+    private void streamDocument(CabinetRegistry.Cabinet cabinet, String docIndex, String disposition,
+                                HttpServletRequest request, HttpServletResponse response) {
+        logger.debug("Streaming document for docIndex: {}, Disposition: {}", docIndex, disposition);
+
+        DocumentFile inMemory = cabinet.getDocumentService().findCachedDocument(docIndex);
+        if (inMemory != null) {
+            logger.debug("Serving document from memory. DocIndex: {}, Size: {} bytes",
+                    docIndex, inMemory.getContent().length);
+            prepareResponse(cabinet, inMemory.getMetadata(), disposition,
+                    cabinet.getValidators().etag(docIndex, inMemory.getDigest()), response);
+            response.setContentLength(inMemory.getContent().length);
+            try {
+                response.getOutputStream().write(inMemory.getContent());
+                response.flushBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+
+        DiskDocumentCacheService.CachedFile cached = cabinet.getDocumentService().findCachedFile(docIndex);
+        if (cached == null) {
+            cached = cabinet.getDocumentService().fetchLargeDocument(docIndex);
+        }
+        if (cached != null) {
+            try {
+                sendFile(cabinet, docIndex, cached, disposition, request, response);
+                return;
+            } catch (IOException e) {
+                if (response.isCommitted()) {
+                    throw new UncheckedIOException(e);
+                }
+                logger.warn("Unable to serve cached file for docIndex: {}. Falling back to OmniDocs.", docIndex, e);
+                response.reset();
+            } finally {
+                cached.release();
+            }
+        }
+
+        cabinet.getDocumentService().streamDocument(docIndex, metadata -> {
+            prepareResponse(cabinet, metadata, disposition, null, response);
+            return response.getOutputStream();
+        });
+    }
+
+    /**
+     * Streams a document as an {@link ApiResponse} JSON envelope whose {@code data}
+     * field is filled with OmniDocs' base64 text while it is read (see {@link Base64Envelope}).
+     *
+     * <p>A failure before the envelope is opened becomes a normal error response.
+     * Once it is open the status is sent, so the failure is raised as a
+     * {@link ResponseAbortedException} and the connection is closed rather than
+     * ending a 200 with truncated JSON.</p>
+     *
+     * @param cabinet cabinet serving the request
+     * @param docIndex unique document identifier in OmniDocs
+     * @param response servlet response to write to
+     */
+    private void streamBase64(CabinetRegistry.Cabinet cabinet, String docIndex, HttpServletResponse response) {
+        logger.debug("Streaming base64 envelope for docIndex: {}", docIndex);
+        Base64Envelope[] envelope = new Base64Envelope[1];
+
+        try {
+            writeBase64(cabinet, docIndex, response, envelope);
+        } catch (RuntimeException e) {
+            if (envelope[0] == null && !response.isCommitted()) {
+                response.reset();
+                throw e;
+            }
+            throw new ResponseAbortedException("Base64 response for docIndex " + docIndex + " failed after it was committed", e);
+        }
+    }
+
+    /**
+     * Writes the envelope. A document held in memory is encoded into it and carries
+     * the entity tag of its content; a streamed one carries none.
+     */
+    private void writeBase64(CabinetRegistry.Cabinet cabinet, String docIndex, HttpServletResponse response,
+                             Base64Envelope[] envelope) {
+        DocumentFile inMemory = cabinet.getDocumentService().findCachedDocument(docIndex);
+        if (inMemory != null) {
+            response.setHeader(HttpHeaders.ETAG,
+                    DocumentValidator.base64Etag(cabinet.getValidators().etag(docIndex, inMemory.getDigest())));
+        }
+        DocumentInterface.ContentSink sink = metadata -> {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cabinet.getValidators().cacheControlFor(metadata.getCreatedByAppName()));
+            envelope[0] = Base64Envelope.open(response.getOutputStream());
+            return envelope[0].text();
+        };
+
+        try {
+            if (inMemory != null) {
+                sink.open(inMemory.getMetadata());
+                envelope[0].content().write(inMemory.getContent());
+            } else {
+                cabinet.getDocumentService().streamDocumentBase64(docIndex, sink);
+            }
+            envelope[0].finish();
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serves a cached file with zero-copy transfer. Tomcat's sendfile is used when
+     * the connector supports it; otherwise the file channel is transferred to the
+     * response stream.
+     */
+    private void sendFile(CabinetRegistry.Cabinet cabinet, String docIndex, DiskDocumentCacheService.CachedFile cached,
+                          String disposition, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        prepareResponse(cabinet, cached.getMetadata(), disposition,
+                cabinet.getValidators().etag(docIndex, cached.getDigest()), response);
+        response.setContentLengthLong(cached.getSize());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            logger.debug("Serving cached file via sendfile. Path: {}, Size: {} bytes", cached.getPath(), cached.getSize());
+            request.setAttribute(SENDFILE_FILENAME, cached.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, cached.getSize());
+            return;
+        }
+
+        logger.debug("Serving cached file via transferTo. Path: {}, Size: {} bytes", cached.getPath(), cached.getSize());
+        try (FileChannel channel = FileChannel.open(cached.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+        response.flushBuffer();
+    }
+
+    /**
+     * Sets status, content type, disposition and cache headers from the OmniDocs
+     * metadata, and the entity tag of the content about to be sent when it is known.
+     */
+    private void prepareResponse(CabinetRegistry.Cabinet cabinet, DocumentResponse metadata, String disposition,
+                                 String etag, HttpServletResponse response) {
+        String documentName = metadata.getDocumentName();
+        String createdByAppName = metadata.getCreatedByAppName();
+
+        if (documentName == null || createdByAppName == null) {
+            logger.warn("Document metadata is incomplete. DocumentName: {}, CreatedByAppName: {}", documentName, createdByAppName);
+            throw new InvalidParameterException("Document metadata is incomplete");
+        }
+
+        String filename = documentName + "." + createdByAppName;
+        String contentType = DocumentType.fromExtension(createdByAppName).getContentType();
+        logger.info("Preparing streamed response. Filename: {}, ContentType: {}", filename, contentType);
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition + "; filename=\"" + filename + "\"");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cabinet.getValidators().cacheControlFor(createdByAppName));
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the validator cache without fetching content.
+     *
+     * @param cabinet cabinet serving the request
+     * @param docIndex unique document identifier in OmniDocs
+     * @param base64 whether the base64 JSON representation was requested
+     * @param request servlet request carrying the conditional headers
+     * @param response servlet response; set to {@code 304} when not modified
+     * @return {@code true} if a {@code 304 Not Modified} response was prepared
+     */
+    private boolean notModified(CabinetRegistry.Cabinet cabinet, String docIndex, boolean base64,
+                                HttpServletRequest request, HttpServletResponse response) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        DocumentValidator validator = cabinet.getValidators().find(docIndex);
+        if (validator == null) {
+            logger.debug("No validator known for docIndex: {}. Conditional request falls through.", docIndex);
+            return false;
+        }
+        String etag = base64 ? validator.getBase64Etag() : validator.getEtag();
+        if (!new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                cabinet.getValidators().cacheControlFor(validator.getMetadata().getCreatedByAppName()));
+        return true;
+    }
+
+    /**
+     * Answers a {@code Range} request from a local copy of the document, so repeated
+     * ranges do not re-fetch it from OmniDocs.
+     *
+     * @param cabinet cabinet serving the request
+     * @param docIndex unique document identifier in OmniDocs
+     * @param disposition {@code attachment} or {@code inline}
+     * @param request servlet request carrying the range headers
+     * @return partial or full content response
+     * @see LocalDocumentResponses
+     */
+    private ResponseEntity<?> rangeResponse(CabinetRegistry.Cabinet cabinet, String docIndex, String disposition,
+                                            HttpServletRequest request) {
+        logger.debug("Range request for docIndex: {}, Range: {}, If-Range: {}",
+                docIndex, request.getHeader(HttpHeaders.RANGE), request.getHeader(HttpHeaders.IF_RANGE));
+        try (LocalDocument local = cabinet.getDocumentService().openLocalCopy(docIndex)) {
+            logger.info("Serving range from local copy. DocIndex: {}, Size: {} bytes", docIndex, local.getContentLength());
+            return LocalDocumentResponses.of(docIndex, local, disposition, request, cabinet.getValidators());
+        }
+    }
+
 }
@@ -0,0 +1,80 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.exception.InvalidParameterException;
+import com.newgen.cig.cayman.document.model.dto.LocalDocument;
+import com.newgen.cig.cayman.document.model.enums.DocumentType;
+import com.newgen.cig.cayman.document.service.DocumentValidatorService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds document responses from a {@link LocalDocument}.
+ *
+ * <p>Spring MVC turns a {@link Resource} body into {@code 206} single or multipart
+ * ranges, or {@code 416} for unsatisfiable ranges. {@code If-Range} is checked
+ * here: when the validator does not match the current entity tag, the range is
+ * ignored and the full document is sent.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+final class LocalDocumentResponses {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalDocumentResponses.class);
+
+    private LocalDocumentResponses() {
+    }
+
+    /**
+     * @param docIndex unique document identifier in OmniDocs
+     * @param local local copy of the document
+     * @param disposition {@code attachment} or {@code inline}
+     * @param request servlet request carrying any range headers
+     * @param validators source of entity tags and cache headers
+     * @return full or partial content response
+     * @throws InvalidParameterException if the document metadata is incomplete
+     */
+    static ResponseEntity<Resource> of(String docIndex, LocalDocument local, String disposition,
+                                       HttpServletRequest request, DocumentValidatorService validators) {
+        String documentName = local.getMetadata().getDocumentName();
+        String createdByAppName = local.getMetadata().getCreatedByAppName();
+        if (documentName == null || createdByAppName == null) {
+            logger.warn("Document metadata is incomplete. DocumentName: {}, CreatedByAppName: {}", documentName, createdByAppName);
+            throw new InvalidParameterException("Document metadata is incomplete");
+        }
+
+        String filename = documentName + "." + createdByAppName;
+        String etag = validators.etag(docIndex, local.getDigest());
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition + "; filename=\"" + filename + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CACHE_CONTROL, validators.cacheControlFor(createdByAppName))
+                .contentType(MediaType.valueOf(DocumentType.fromExtension(createdByAppName).getContentType()));
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (request.getHeader(HttpHeaders.RANGE) != null && ifRange != null && !ifRange.equals(etag)) {
+            logger.info("If-Range validator does not match. Sending full document. DocIndex: {}", docIndex);
+            try {
+                return builder.contentLength(local.getContentLength())
+                        .body(new InputStreamResource(local.getResource().getInputStream()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        logger.debug("Serving local copy. DocIndex: {}, Size: {} bytes", docIndex, local.getContentLength());
+        return builder.body(local.getResource());
+    }
+}
@@ -0,0 +1,26 @@
+package com.newgen.cig.cayman.document.exception;
+
+import com.newgen.cig.cayman.document.model.enums.ErrorCode;
+
+/**
+ * Exception thrown when a request names a cabinet that is not configured.
+ *
+ * <h3>HTTP Status:</h3>
+ * <p>Results in HTTP 404 (Not Found) response</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ * @see ErrorCode#RESOURCE_NOT_FOUND
+ * @see com.newgen.cig.cayman.document.config.CabinetRegistry
+ */
+public class CabinetNotFoundException extends BaseException {
+
+    /**
+     * Constructs a new CabinetNotFoundException with the specified details.
+     *
+     * @param details descriptive message about the unknown cabinet
+     */
+    public CabinetNotFoundException(String details) {
+        super(ErrorCode.RESOURCE_NOT_FOUND, details);
+    }
+}
@@ -5,7 +5,9 @@ import com.newgen.cig.cayman.document.model.enums.ErrorCode;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
@@ -17,11 +19,13 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Centralized exception handling for all REST controllers.
@@ -39,6 +43,8 @@ import java.util.List;
  *   <li>Malformed JSON requests</li>
  *   <li>404 No handler and method not allowed</li>
  *   <li>External service 4xx/5xx and connectivity issues</li>
+ *   <li>Async request timeouts and saturated executors (503)</li>
+ *   <li>Failures after the response was committed, which abort the connection</li>
  *   <li>Generic catch-all for unexpected exceptions</li>
  * </ul>
  *
@@ -78,7 +84,36 @@ public class GlobalExceptionHandler {
         logger.debug("Returning error response - Status: {}, ErrorCode: {}", 
                 ex.getErrorCode().getHttpStatus().value(),
                 ex.getErrorCode().getCode());
-        return new ResponseEntity<>(errorResponse, ex.getErrorCode().getHttpStatus());
+        // Content type is fixed so errors can be written even when the client only accepts
+        // a binary or streaming format such as application/pdf or application/x-ndjson
+        return ResponseEntity.status(ex.getErrorCode().getHttpStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
+
+    // Handle OmniDocs calls rejected by the concurrency limit or circuit breaker
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailable(
+            ServiceUnavailableException ex, HttpServletRequest request) {
+        logger.warn("OmniDocs call rejected - Path: {}, Method: {}, Reason: {}, RetryAfter: {} s",
+                request.getRequestURI(),
+                request.getMethod(),
+                ex.getDetails(),
+                ex.getRetryAfterSeconds());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getErrorCode().getCode(),
+                ex.getErrorCode().getMessage(),
+                ex.getDetails(),
+                request.getRequestURI()
+        );
+
+        logger.debug("Returning service unavailable error response");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
     }
 
     // Handle validation errors
@@ -322,6 +357,62 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
+    // Handle asynchronous requests that outlive spring.mvc.async.request-timeout
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleAsyncRequestTimeout(
+            AsyncRequestTimeoutException ex, HttpServletRequest request) {
+        logger.warn("Async request timed out - Path: {}, Method: {}",
+                request.getRequestURI(),
+                request.getMethod());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ErrorCode.TIMEOUT_ERROR.getCode(),
+                ErrorCode.TIMEOUT_ERROR.getMessage(),
+                "The document could not be retrieved in time. Please try again later",
+                request.getRequestURI()
+        );
+
+        logger.debug("Returning async timeout error response");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
+
+    // Handle a saturated executor (pool and queue full)
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecution(
+            RejectedExecutionException ex, HttpServletRequest request) {
+        logger.warn("Request rejected by saturated executor - Path: {}, Method: {}, Message: {}",
+                request.getRequestURI(),
+                request.getMethod(),
+                ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ErrorCode.TOO_MANY_REQUESTS.getCode(),
+                "Service busy",
+                "Too many documents are being retrieved. Please try again later",
+                request.getRequestURI()
+        );
+
+        logger.debug("Returning executor rejection error response");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse);
+    }
+
+    // A committed response cannot carry an error body; rethrown so the container closes the connection
+    @ExceptionHandler(ResponseAbortedException.class)
+    public void handleResponseAborted(ResponseAbortedException ex, HttpServletRequest request) {
+        logger.error("Response aborted after it was committed - Path: {}, Method: {}, Cause: {}",
+                request.getRequestURI(),
+                request.getMethod(),
+                ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+        throw ex;
+    }
+
     // Handle all other exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, HttpServletRequest request) {
@@ -0,0 +1,25 @@
+package com.newgen.cig.cayman.document.exception;
+
+/**
+ * Exception thrown when a response fails after its status and part of its body
+ * have already been sent, so no error response can replace it.
+ *
+ * <p>{@link GlobalExceptionHandler} lets it propagate to the servlet container,
+ * which closes the connection instead of completing the response. The client
+ * sees a truncated transfer rather than a 200 with an incomplete body.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class ResponseAbortedException extends RuntimeException {
+
+    /**
+     * Constructs a new ResponseAbortedException.
+     *
+     * @param message description of the response that was aborted
+     * @param cause the failure that interrupted the response
+     */
+    public ResponseAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,45 @@
+package com.newgen.cig.cayman.document.exception;
+
+import com.newgen.cig.cayman.document.model.enums.ErrorCode;
+
+/**
+ * Exception thrown when a call to an external service is rejected before it is
+ * made, because the service is overloaded, its circuit breaker is open or the
+ * application has not yet connected to it.
+ *
+ * <h3>HTTP Status:</h3>
+ * <p>Results in HTTP 503 (Service Unavailable) response with a {@code Retry-After} header</p>
+ *
+ * <h3>Common Causes:</h3>
+ * <ul>
+ *   <li>Too many OmniDocs calls already in flight</li>
+ *   <li>Recent OmniDocs calls failed or were too slow</li>
+ *   <li>No cabinet session established yet during startup</li>
+ * </ul>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ * @see ErrorCode#EXTERNAL_SERVICE_ERROR
+ */
+public class ServiceUnavailableException extends ExternalServiceException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new ServiceUnavailableException with the specified details.
+     *
+     * @param details descriptive message about why the call was rejected
+     * @param retryAfterSeconds seconds after which the client may retry
+     */
+    public ServiceUnavailableException(String details, long retryAfterSeconds) {
+        super(details);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return seconds after which the client may retry
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,30 +1,105 @@
 package com.newgen.cig.cayman.document.implementation;
 
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.newgen.cig.cayman.document.exception.*;
 import com.newgen.cig.cayman.document.interfaces.DocumentInterface;
 import com.newgen.cig.cayman.document.model.dao.*;
+import com.newgen.cig.cayman.document.utils.CancellationScope;
+import com.newgen.cig.cayman.document.utils.HedgePolicy;
+import com.newgen.cig.cayman.document.utils.JsonBase64Scanner;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
 /**
  * OmniDocs integration implementation for {@link DocumentInterface}.
  *
  * <p>Manages cabinet connectivity and document retrieval via REST
- * and parses responses to populate {@link com.newgen.cig.cayman.document.model.dao.DocumentResponse}.</p>
+ * and parses responses into per-call {@link com.newgen.cig.cayman.document.model.dao.DocumentResponse} results.</p>
  *
  * <h3>Responsibilities:</h3>
  * <ul>
  *   <li>Establish a session with the OmniDocs cabinet</li>
  *   <li>Call the document fetch API and extract content/metadata</li>
  *   <li>Map service errors to domain exceptions</li>
+ *   <li>Renew an expired session and replay the request once</li>
+ *   <li>Send each request to an OmniDocs node picked by {@link OmniDocsNodes}</li>
  * </ul>
  *
+ * <h3>Session Renewal:</h3>
+ * <p>When OmniDocs rejects a document request because the session expired, the
+ * pooled session is replaced through {@link GlobalSessionService.Lease#renew()} and the
+ * request is sent once more with the new session. Requests that fail on the same expired
+ * session wait for one shared reconnect instead of each logging in; a request whose
+ * session was already replaced just replays. A streamed request is replayed only if nothing was
+ * written to its sink. Renewals are counted in {@code omnidocs.session.renewals} tagged
+ * {@code result=success|failure}. Set
+ * {@code newgen.cayman.connect.cabinet.session.renewOnExpiry: false} to turn this off.
+ * With sticky node routing, a session whose node is out of rotation is renewed the
+ * same way, so the request moves to a healthy node.</p>
+ *
+ * <h3>Hedged Fetches:</h3>
+ * <p>With hedging enabled, {@link #fetchDoc(String)} and the streaming methods send a
+ * second identical request when the first has not answered within a percentile of
+ * recent latencies. The first request runs on the caller's thread and only the hedge
+ * on the hedge executor. A fetch is raced until a whole response arrives; a stream
+ * only until its metadata is read, before anything is written to the sink, after
+ * which the winning request alone streams the content. The other request is aborted.
+ * A budget keeps hedges to a small share of requests, so a slow OmniDocs does not
+ * see double load.</p>
+ * <pre>
+ * newgen.cayman.document.hedging:
+ *   enabled: false
+ *   percentile: 95        # Latency percentile after which a fetch is hedged
+ *   windowSize: 1000      # Recent fetch latencies considered
+ *   minimumSamples: 20    # Latencies needed before fetches are hedged
+ *   minDelayMs: 50        # Lowest hedge delay
+ *   budgetPercent: 5      # Hedges allowed per 100 fetches
+ *   maxBurst: 10          # Hedges allowed back to back
+ * </pre>
+ * <p>Hedges are counted in {@code omnidocs.hedge.requests} tagged
+ * {@code result=sent|won|denied}; the current delay is {@code omnidocs.hedge.delay}.</p>
+ *
  * @author Tarun Vishwakarma
  * @since 2025
  */
@@ -32,9 +107,15 @@ import org.springframework.web.client.RestTemplate;
 public class DocumentImpl implements DocumentInterface {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentImpl.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    /** Leads a resumed response parser back to an (emptied) docContent value. */
+    private static final byte[] RESUME_PREFIX =
+            "{\"NGOGetDocumentBDOResponse\":{\"docContent\":\"\"".getBytes(StandardCharsets.UTF_8);
+    private static final int RESUME_TOKENS = 5;
 
-    @Autowired
-    private DocumentResponse docResponse;
+    private static final int HEDGE_PENDING = 0;
+    private static final int HEDGE_STARTED = 1;
+    private static final int HEDGE_SKIPPED = 2;
 
     @Autowired
     private RestTemplate restTemplate;
@@ -45,9 +126,75 @@ public class DocumentImpl implements DocumentInterface {
     @Autowired
     private CabinetProperties properties;
 
+    @Autowired
+    private OmniDocsNodes nodes;
+
     @Autowired
     private GlobalSessionService sessionService;
-    
+
+    @Autowired
+    @Qualifier("documentHedgeExecutor")
+    private AsyncTaskExecutor hedgeExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${newgen.cayman.connect.cabinet.session.renewOnExpiry:true}")
+    private boolean renewOnExpiry;
+
+    @Value("${newgen.cayman.document.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${newgen.cayman.document.hedging.percentile:95}")
+    private double hedgePercentile;
+
+    @Value("${newgen.cayman.document.hedging.windowSize:1000}")
+    private int hedgeWindowSize;
+
+    @Value("${newgen.cayman.document.hedging.minimumSamples:20}")
+    private int hedgeMinimumSamples;
+
+    @Value("${newgen.cayman.document.hedging.minDelayMs:50}")
+    private long hedgeMinDelayMs;
+
+    @Value("${newgen.cayman.document.hedging.budgetPercent:5}")
+    private int hedgeBudgetPercent;
+
+    @Value("${newgen.cayman.document.hedging.maxBurst:10}")
+    private int hedgeMaxBurst;
+
+    private HedgePolicy hedgePolicy;
+    private Counter hedgesSent;
+    private Counter hedgesWon;
+    private Counter hedgesDenied;
+
+    private Counter renewalSuccesses;
+    private Counter renewalFailures;
+
+    @PostConstruct
+    public void init() {
+        renewalSuccesses = renewalCounter("success");
+        renewalFailures = renewalCounter("failure");
+        logger.info("Session renewal on expiry {}", renewOnExpiry ? "enabled" : "disabled");
+
+        if (!hedgingEnabled) {
+            logger.info("Hedged document fetches disabled");
+            return;
+        }
+        hedgePolicy = new HedgePolicy(hedgeWindowSize, hedgePercentile, hedgeMinimumSamples,
+                TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs), hedgeBudgetPercent, hedgeMaxBurst);
+        hedgesSent = hedgeCounter("sent");
+        hedgesWon = hedgeCounter("won");
+        hedgesDenied = hedgeCounter("denied");
+        Gauge.builder("omnidocs.hedge.delay", hedgePolicy,
+                        policy -> Math.max(0, policy.hedgeDelayNanos()) / 1_000_000.0)
+                .description("Delay after which an OmniDocs document fetch is hedged, 0 while warming up")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        logger.info("Hedged document fetches enabled. Percentile: {}, Window: {}, MinDelay: {} ms, Budget: {}%, MaxBurst: {}",
+                hedgePercentile, hedgeWindowSize, hedgeMinDelayMs, hedgeBudgetPercent, hedgeMaxBurst);
+    }
+
     /**
      * Connects to the OmniDocs cabinet and returns the raw JSON response.
      *
@@ -83,14 +230,144 @@ public class DocumentImpl implements DocumentInterface {
          * Fetches a document as base64 string using the given document index.
          *
          * @param docIndex unique identifier of the document in OmniDocs
-         * @return base64 encoded document content
+         * @return per-call result carrying base64 content and metadata
          * @throws InvalidParameterException when docIndex is invalid
-         * @throws SessionExpiredException when session is missing/expired
+         * @throws SessionExpiredException when the session is rejected even after renewal
          * @throws DocumentNotFoundException when document cannot be found
          * @throws ExternalServiceException for upstream errors or bad responses
          */
      @Override
-    public String fetchDoc(String docIndex) {
+    public DocumentResponse fetchDoc(String docIndex) {
+        return withSessionRenewal(docIndex, sessionId -> fetchWithHedging(docIndex, sessionId), () -> true);
+    }
+
+    private DocumentResponse fetchWithHedging(String docIndex, String sessionId) {
+        if (!hedgingEnabled) {
+            return fetchOnce(docIndex, sessionId);
+        }
+        return hedged(docIndex, lane -> {
+            DocumentResponse result = fetchOnce(docIndex, sessionId);
+            lane.claim();
+            return result;
+        });
+    }
+
+    private DocumentResponse streamWithHedging(String docIndex, String sessionId, ContentSink sink, boolean base64) {
+        if (!hedgingEnabled) {
+            return streamOnce(docIndex, sessionId, sink, base64);
+        }
+        return hedged(docIndex, lane -> streamOnce(docIndex, sessionId, metadata -> {
+            lane.claim();
+            return sink.open(metadata);
+        }, base64));
+    }
+
+    /**
+     * Runs a request on the calling thread and, if it has not claimed the call after
+     * the hedge delay, an identical one on the hedge executor. The first request to
+     * claim the call wins and the other is aborted; if both fail, the hedge's failure
+     * is thrown.
+     *
+     * @param docIndex unique identifier of the document in OmniDocs
+     * @param request the request, given the lane it runs in; it calls
+     *                {@link HedgedCall.Lane#claim()} before its result is used
+     * @return result of the winning request
+     */
+    private DocumentResponse hedged(String docIndex, Function<HedgedCall.Lane, DocumentResponse> request) {
+        hedgePolicy.onCall();
+        long delayNanos = hedgePolicy.hedgeDelayNanos();
+        HedgedCall call = new HedgedCall(docIndex, request);
+        if (delayNanos < 0) {
+            logger.debug("Too few latencies recorded to hedge. Fetching unhedged. DocIndex: {}", docIndex);
+            return call.primary.run();
+        }
+
+        CompletableFuture<Void> timer = CompletableFuture.runAsync(() -> call.launchHedge(delayNanos),
+                CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, Runnable::run));
+        try {
+            return call.primary.run();
+        } catch (RuntimeException e) {
+            if (!call.awaitsHedge()) {
+                throw e;
+            }
+            return call.awaitHedge(e);
+        } finally {
+            timer.cancel(false);
+            call.close();
+        }
+    }
+
+    /**
+     * Leases a pooled session for a document request and, if OmniDocs rejects the
+     * session, replaces it and runs the request once more.
+     *
+     * @param docIndex document index, used for logging
+     * @param call the request, given the id of the leased session
+     * @param replayable tells whether the request can still be replayed after it failed
+     * @return result of the request
+     */
+    private DocumentResponse withSessionRenewal(String docIndex, Function<String, DocumentResponse> call,
+                                                BooleanSupplier replayable) {
+        try (GlobalSessionService.Lease lease = sessionService.acquire()) {
+            try {
+                return call.apply(lease.getSessionId());
+            } catch (SessionExpiredException e) {
+                if (!renewOnExpiry || !replayable.getAsBoolean()) {
+                    throw e;
+                }
+                logger.warn("Session rejected by OmniDocs. Renewing session and replaying request. DocIndex: {}", docIndex);
+                return call.apply(renewSession(lease));
+            }
+        }
+    }
+
+    /**
+     * Replaces the expired session of a lease. Leases holding the same expired session
+     * share one reconnect; if the session was already replaced, the lease moves to the
+     * new session without reconnecting.
+     *
+     * @param lease lease whose session OmniDocs rejected
+     * @return id of the session to replay with
+     * @throws CabinetConnectionException if the cabinet cannot be reconnected
+     */
+    private String renewSession(GlobalSessionService.Lease lease) {
+        try {
+            if (lease.renew()) {
+                renewalSuccesses.increment();
+                logger.info("Session renewed after expiry");
+            } else {
+                logger.debug("Joined in-flight session renewal");
+            }
+            return lease.getSessionId();
+        } catch (RuntimeException e) {
+            renewalFailures.increment();
+            logger.error("Failed to renew expired session", e);
+            throw e;
+        }
+    }
+
+    private Counter renewalCounter(String result) {
+        return Counter.builder("omnidocs.session.renewals")
+                .description("OmniDocs sessions renewed after a request was rejected as expired")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter hedgeCounter(String result) {
+        return Counter.builder("omnidocs.hedge.requests")
+                .description("Hedged OmniDocs document fetches")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetches a document with a single getDocumentJSON request.
+     */
+    private DocumentResponse fetchOnce(String docIndex, String sessionId) {
+        return nodes.call(sessionId, attempt -> fetchFrom(attempt, docIndex, sessionId));
+    }
+
+    private DocumentResponse fetchFrom(OmniDocsNodes.Attempt attempt, String docIndex, String sessionId) {
         logger.trace("Entering fetchDoc() method with docIndex: {}", docIndex);
         logger.info("Fetching document. DocIndex: {}", docIndex);
         
@@ -99,27 +376,10 @@ public class DocumentImpl implements DocumentInterface {
             throw new InvalidParameterException("Document index cannot be null or empty");
         }
         
-        String url = properties.getSiteURL()
-                + properties.getSiteURI()
-                + properties.getDocumentRequest();
+        String url = documentUrl(attempt.getBaseUrl());
         logger.debug("Constructed API URL: {}", url);
 
-        DocumentRequest.NGOGetDocumentBDO bdo = new DocumentRequest.NGOGetDocumentBDO();
-        bdo.setCabinetName(properties.getCabinetName());
-        bdo.setUserName("");
-        bdo.setUserPassword("");
-        
-        String sessionId = sessionService.getSessionId();
-        if (sessionId == null || sessionId.trim().isEmpty()) {
-            logger.error("Session ID is null or empty");
-            throw new SessionExpiredException("Session ID is not available. Please login again");
-        }
-        
-        bdo.setUserDBId(sessionId);
-        bdo.setDocIndex(docIndex);
-        bdo.setAuthToken("");
-        bdo.setAuthTokenType("");
-        bdo.setLocale("en_us");
+        DocumentRequest.NGOGetDocumentBDO bdo = buildDocumentRequest(docIndex, sessionId);
 
         logger.trace("Request BDO created. CabinetName: {}, DocIndex: {}, SessionId: {}", 
                 bdo.getCabinetName(), docIndex, sessionId);
@@ -159,8 +419,6 @@ public class DocumentImpl implements DocumentInterface {
             
             String statusCode = trimString(responseNode.get("statusCode").toString());
             String message = trimString(responseNode.get("message").toString());
-            docResponse.setMessage(message);
-            docResponse.setStatusCode(statusCode);
         
             logger.debug("Response statusCode: {}, message: {}", statusCode, message);
         
@@ -182,42 +440,484 @@ public class DocumentImpl implements DocumentInterface {
                 String documentSize = responseNode.get("documentSize") != null ? 
                         trimString(responseNode.get("documentSize").toString()) : "";
 
-                docResponse.setDocContent(ret);
-                docResponse.setCreatedByAppName(createdByAppName);
-                docResponse.setDocumentName(documentName);
-                docResponse.setDocumentType(documentType);
-                docResponse.setDocumentSize(documentSize);
-
                 logger.info("Document metadata extracted. Name: {}, Type: {}, Size: {}, AppName: {}", 
                         documentName, documentType, documentSize, createdByAppName);
                 logger.debug("Document content length: {} characters", ret != null ? ret.length() : 0);
                 logger.trace("Exiting fetchDoc() method with success");
-                return ret;
+                return new DocumentResponse(createdByAppName, ret, documentName, documentSize,
+                        documentType, message, statusCode);
             }
 
             logger.error("Error occurred in API response. StatusCode: {}, Message: {}", statusCode, message);
-            
-            // Map specific error codes to exceptions
-            if ("404".equals(statusCode) || message.toLowerCase().contains("not found")) {
-                throw new DocumentNotFoundException("Document not found with docIndex: " + docIndex + ". " + message);
-            } else if ("401".equals(statusCode) || message.toLowerCase().contains("unauthorized")) {
-                throw new SessionExpiredException("Session expired or unauthorized: " + message);
-            } else if ("429".equals(statusCode) || message.toLowerCase().contains("too many")) {
-                throw new TooManyRequestsException("Too many requests: " + message);
-            }
-            
-            throw new ExternalServiceException("Failed to fetch document: " + message);
+            throw toStatusException(statusCode, message, docIndex);
 
         } catch (DocumentNotFoundException | SessionExpiredException | TooManyRequestsException | 
                  InvalidParameterException | ExternalServiceException e) {
             throw e;
         } catch (Exception e) {
+            if (CancellationScope.isCurrentCancelled()) {
+                logger.debug("Hedged fetch lost and was aborted. DocIndex: {}", docIndex);
+                throw new CancellationException("Fetch aborted for docIndex: " + docIndex);
+            }
             logger.error("Exception occurred while fetching document. DocIndex: {}", docIndex, e);
             logger.error("Error message: {}, Cause:", e.getMessage(), e.getCause());
             throw new ExternalServiceException("Failed to fetch document for docIndex: " + docIndex, e);
         }
     }
 
+    /**
+     * Streams a document into the stream supplied by {@code sink}.
+     *
+     * <p>The getDocumentJSON body is walked token by token and {@code docContent}
+     * is base64-decoded incrementally, so memory use stays at a fixed buffer
+     * regardless of document size. When OmniDocs sends {@code docContent} before
+     * the status and name fields, the decoded bytes are spooled to a temporary
+     * file until the metadata needed for response headers is known.</p>
+     *
+     * @param docIndex unique identifier of the document in OmniDocs
+     * @param sink supplies the destination stream once metadata is known
+     * @return document metadata (docContent is not populated)
+     * @throws InvalidParameterException when docIndex is invalid
+     * @throws SessionExpiredException when the session is rejected even after renewal
+     * @throws DocumentNotFoundException when document cannot be found
+     * @throws ExternalServiceException for upstream errors or bad responses
+     */
+    @Override
+    public DocumentResponse streamDoc(String docIndex, ContentSink sink) {
+        return stream(docIndex, sink, false);
+    }
+
+    /**
+     * Streams a document's base64 text into the stream supplied by {@code sink}.
+     *
+     * <p>Works like {@link #streamDoc(String, ContentSink)}, except that the
+     * {@code docContent} characters are copied from the response body as they are
+     * rather than decoded, so the text is never decoded and re-encoded on its way
+     * to a client that wants base64.</p>
+     *
+     * @param docIndex unique identifier of the document in OmniDocs
+     * @param sink supplies the destination stream once metadata is known
+     * @return document metadata (docContent is not populated)
+     * @throws InvalidParameterException when docIndex is invalid
+     * @throws SessionExpiredException when the session is rejected even after renewal
+     * @throws DocumentNotFoundException when document cannot be found
+     * @throws ExternalServiceException for upstream errors or bad responses
+     * @see JsonBase64Scanner
+     */
+    @Override
+    public DocumentResponse streamBase64Doc(String docIndex, ContentSink sink) {
+        return stream(docIndex, sink, true);
+    }
+
+    private DocumentResponse stream(String docIndex, ContentSink sink, boolean base64) {
+        AtomicBoolean opened = new AtomicBoolean();
+        ContentSink tracked = metadata -> {
+            opened.set(true);
+            return sink.open(metadata);
+        };
+        return withSessionRenewal(docIndex, sessionId -> streamWithHedging(docIndex, sessionId, tracked, base64),
+                () -> !opened.get());
+    }
+
+    private DocumentResponse streamOnce(String docIndex, String sessionId, ContentSink sink, boolean base64) {
+        return nodes.call(sessionId, attempt -> streamFrom(attempt, docIndex, sessionId, metadata -> {
+            attempt.answered();
+            return sink.open(metadata);
+        }, base64));
+    }
+
+    private DocumentResponse streamFrom(OmniDocsNodes.Attempt attempt, String docIndex, String sessionId,
+                                        ContentSink sink, boolean base64) {
+        logger.trace("Entering streamDoc() method with docIndex: {}", docIndex);
+        logger.info("Streaming document. DocIndex: {}, Base64: {}", docIndex, base64);
+
+        if (docIndex == null || docIndex.trim().isEmpty()) {
+            logger.error("Document index is null or empty");
+            throw new InvalidParameterException("Document index cannot be null or empty");
+        }
+
+        String url = documentUrl(attempt.getBaseUrl());
+        DocumentRequest.NGOGetDocumentBDO bdo = buildDocumentRequest(docIndex, sessionId);
+        logger.info("Executing streaming fetchDoc API. URL: {}, DocIndex: {}", url, docIndex);
+
+        try {
+            DocumentResponse metadata = restTemplate.execute(url, HttpMethod.POST,
+                    restTemplate.httpEntityCallback(bdo),
+                    response -> readDocumentStream(response.getBody(), docIndex, sink, base64));
+
+            logger.info("Document streamed successfully. DocIndex: {}, Name: {}, Type: {}, Size: {}",
+                    docIndex, metadata.getDocumentName(), metadata.getCreatedByAppName(), metadata.getDocumentSize());
+            logger.trace("Exiting streamDoc() method with success");
+            return metadata;
+        } catch (DocumentNotFoundException | SessionExpiredException | TooManyRequestsException |
+                 InvalidParameterException | ExternalServiceException | JsonParsingException |
+                 CancellationException e) {
+            throw e;
+        } catch (Exception e) {
+            if (CancellationScope.isCurrentCancelled()) {
+                logger.debug("Hedged stream lost and was aborted. DocIndex: {}", docIndex);
+                throw new CancellationException("Stream aborted for docIndex: " + docIndex);
+            }
+            logger.error("Exception occurred while streaming document. DocIndex: {}", docIndex, e);
+            throw new ExternalServiceException("Failed to stream document for docIndex: " + docIndex, e);
+        }
+    }
+
+    /**
+     * Fetches a document through the OmniDocs {@code downloadLocation} option.
+     *
+     * <p>OmniDocs writes the document to the given path and the JSON response only
+     * carries status and metadata. Should OmniDocs send {@code docContent} anyway it
+     * is skipped without being buffered.</p>
+     *
+     * @param docIndex unique identifier of the document in OmniDocs
+     * @param downloadLocation file path, as seen by the OmniDocs server
+     * @return document metadata (docContent is not populated)
+     * @throws InvalidParameterException when docIndex or downloadLocation is invalid
+     * @throws SessionExpiredException when the session is rejected even after renewal
+     * @throws DocumentNotFoundException when document cannot be found
+     * @throws ExternalServiceException for upstream errors or bad responses
+     */
+    @Override
+    public DocumentResponse downloadDoc(String docIndex, String downloadLocation) {
+        return withSessionRenewal(docIndex, sessionId -> downloadOnce(docIndex, sessionId, downloadLocation), () -> true);
+    }
+
+    private DocumentResponse downloadOnce(String docIndex, String sessionId, String downloadLocation) {
+        return nodes.call(sessionId, attempt -> downloadFrom(attempt, docIndex, sessionId, downloadLocation));
+    }
+
+    private DocumentResponse downloadFrom(OmniDocsNodes.Attempt attempt, String docIndex, String sessionId,
+                                          String downloadLocation) {
+        logger.trace("Entering downloadDoc() method with docIndex: {}, downloadLocation: {}", docIndex, downloadLocation);
+        logger.info("Downloading document to shared location. DocIndex: {}", docIndex);
+
+        if (docIndex == null || docIndex.trim().isEmpty()) {
+            logger.error("Document index is null or empty");
+            throw new InvalidParameterException("Document index cannot be null or empty");
+        }
+        if (downloadLocation == null || downloadLocation.trim().isEmpty()) {
+            logger.error("Download location is null or empty");
+            throw new InvalidParameterException("Download location cannot be null or empty");
+        }
+
+        String url = documentUrl(attempt.getBaseUrl());
+        DocumentRequest.NGOGetDocumentBDO bdo = buildDocumentRequest(docIndex, sessionId);
+        bdo.setDownloadLocation(downloadLocation);
+        logger.info("Executing fetchDoc API with download location. URL: {}, DocIndex: {}", url, docIndex);
+
+        try {
+            DocumentResponse metadata = restTemplate.execute(url, HttpMethod.POST,
+                    restTemplate.httpEntityCallback(bdo),
+                    response -> readDownloadResponse(response.getBody(), docIndex));
+
+            logger.info("Document written to download location. DocIndex: {}, Name: {}, Type: {}, Size: {}",
+                    docIndex, metadata.getDocumentName(), metadata.getCreatedByAppName(), metadata.getDocumentSize());
+            logger.trace("Exiting downloadDoc() method with success");
+            return metadata;
+        } catch (DocumentNotFoundException | SessionExpiredException | TooManyRequestsException |
+                 InvalidParameterException | ExternalServiceException | JsonParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Exception occurred while downloading document. DocIndex: {}", docIndex, e);
+            throw new ExternalServiceException("Failed to download document for docIndex: " + docIndex, e);
+        }
+    }
+
+    /**
+     * Reads status and metadata from a getDocumentJSON response, skipping any content.
+     *
+     * @param body upstream response body
+     * @param docIndex document index, used for error messages
+     * @return parsed metadata
+     * @throws IOException on read failures
+     */
+    private DocumentResponse readDownloadResponse(InputStream body, String docIndex) throws IOException {
+        if (body == null) {
+            logger.error("Received null response body");
+            throw new ExternalServiceException("Received empty response from document service");
+        }
+
+        String statusCode = null;
+        String message = null;
+        String createdByAppName = null;
+        String documentName = null;
+        String documentType = null;
+        String documentSize = null;
+        boolean responseFound = false;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ExternalServiceException("Invalid response format: Missing NGOGetDocumentBDOResponse");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT || !"NGOGetDocumentBDOResponse".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                responseFound = true;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    switch (name) {
+                        case "statusCode" -> statusCode = parser.getValueAsString();
+                        case "message" -> message = parser.getValueAsString();
+                        case "createdByAppName" -> createdByAppName = parser.getValueAsString();
+                        case "documentName" -> documentName = parser.getValueAsString();
+                        case "documentType" -> documentType = parser.getValueAsString();
+                        case "documentSize" -> documentSize = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to parse download response. DocIndex: {}", docIndex, e);
+            throw new JsonParsingException("Failed to parse document response", e);
+        }
+
+        if (!responseFound) {
+            logger.error("Received null NGOGetDocumentBDOResponse in download response. DocIndex: {}", docIndex);
+            throw new ExternalServiceException("Invalid response format: Missing NGOGetDocumentBDOResponse");
+        }
+        if (statusCode == null || message == null) {
+            logger.error("Missing required fields in response");
+            throw new ExternalServiceException("Invalid response format: Missing statusCode or message");
+        }
+        if (!"0".equals(statusCode)) {
+            logger.error("Error occurred in API response. StatusCode: {}, Message: {}", statusCode, message);
+            throw toStatusException(statusCode, message, docIndex);
+        }
+
+        return new DocumentResponse(valueOrEmpty(createdByAppName), null,
+                valueOrEmpty(documentName), valueOrEmpty(documentSize), valueOrEmpty(documentType),
+                message, statusCode);
+    }
+
+    /**
+     * Walks a getDocumentJSON response body and writes the document to the sink.
+     *
+     * @param body upstream response body
+     * @param docIndex document index, used for error messages
+     * @param sink destination supplier
+     * @param base64 write the base64 text instead of the decoded bytes
+     * @return parsed metadata
+     * @throws IOException on read, decode or write failures
+     */
+    private DocumentResponse readDocumentStream(InputStream body, String docIndex, ContentSink sink,
+                                                boolean base64) throws IOException {
+        if (body == null) {
+            logger.error("Received null response body");
+            throw new ExternalServiceException("Received empty response from document service");
+        }
+
+        String statusCode = null;
+        String message = null;
+        String createdByAppName = null;
+        String documentName = null;
+        String documentType = null;
+        String documentSize = null;
+        boolean responseFound = false;
+        boolean contentFound = false;
+        boolean contentWritten = false;
+        Path spool = null;
+
+        try {
+            JsonParser parser = JSON_FACTORY.createParser(body);
+            try {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new ExternalServiceException("Invalid response format: Missing NGOGetDocumentBDOResponse");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    if (parser.nextToken() != JsonToken.START_OBJECT || !"NGOGetDocumentBDOResponse".equals(field)) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    responseFound = true;
+
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        switch (name) {
+                            case "statusCode" -> statusCode = parser.getValueAsString();
+                            case "message" -> message = parser.getValueAsString();
+                            case "createdByAppName" -> createdByAppName = parser.getValueAsString();
+                            case "documentName" -> documentName = parser.getValueAsString();
+                            case "documentType" -> documentType = parser.getValueAsString();
+                            case "documentSize" -> documentSize = parser.getValueAsString();
+                            case "docContent" -> {
+                                if (value != JsonToken.VALUE_STRING) {
+                                    parser.skipChildren();
+                                } else if ("0".equals(statusCode) && documentName != null && createdByAppName != null) {
+                                    logger.debug("Metadata available before content. Streaming directly. DocIndex: {}", docIndex);
+                                    OutputStream out = sink.open(new DocumentResponse(createdByAppName, null,
+                                            documentName, valueOrEmpty(documentSize), valueOrEmpty(documentType),
+                                            message, statusCode));
+                                    parser = copyContent(parser, body, out, base64);
+                                    out.flush();
+                                    contentFound = true;
+                                    contentWritten = true;
+                                    logger.debug("Content written directly to sink. DocIndex: {}", docIndex);
+                                } else {
+                                    logger.debug("Content precedes metadata. Spooling to temporary file. DocIndex: {}", docIndex);
+                                    spool = Files.createTempFile("omnidocs-", ".spool");
+                                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(spool))) {
+                                        parser = copyContent(parser, body, out, base64);
+                                    }
+                                    contentFound = true;
+                                }
+                            }
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+            } finally {
+                parser.close();
+            }
+
+            if (!responseFound) {
+                logger.error("Received null NGOGetDocumentBDOResponse in streamed JSON. DocIndex: {}", docIndex);
+                throw new ExternalServiceException("Invalid response format: Missing NGOGetDocumentBDOResponse");
+            }
+            if (statusCode == null || message == null) {
+                logger.error("Missing required fields in response");
+                throw new ExternalServiceException("Invalid response format: Missing statusCode or message");
+            }
+            if (!"0".equals(statusCode)) {
+                logger.error("Error occurred in API response. StatusCode: {}, Message: {}", statusCode, message);
+                throw toStatusException(statusCode, message, docIndex);
+            }
+            if (!contentFound) {
+                logger.error("Document content is missing in response");
+                throw new DocumentNotFoundException("Document content not found for docIndex: " + docIndex);
+            }
+
+            DocumentResponse metadata = new DocumentResponse(valueOrEmpty(createdByAppName), null,
+                    valueOrEmpty(documentName), valueOrEmpty(documentSize), valueOrEmpty(documentType),
+                    message, statusCode);
+            if (!contentWritten) {
+                OutputStream out = sink.open(metadata);
+                Files.copy(spool, out);
+                out.flush();
+            }
+            return metadata;
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to parse streamed document response. DocIndex: {}", docIndex, e);
+            throw new JsonParsingException("Failed to parse document response", e);
+        } finally {
+            if (spool != null) {
+                Files.deleteIfExists(spool);
+            }
+        }
+    }
+
+    /**
+     * Writes the current {@code docContent} value to {@code out}: decoded, or for
+     * base64 as the text itself. The text is copied straight from the body by a
+     * {@link JsonBase64Scanner}, after which parsing resumes with a new parser
+     * that is first walked back to the same place in the response.
+     *
+     * @return parser positioned on the {@code docContent} value, ready for the next field
+     */
+    private static JsonParser copyContent(JsonParser parser, InputStream body, OutputStream out,
+                                          boolean base64) throws IOException {
+        if (!base64) {
+            long decoded = parser.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, out);
+            logger.debug("Decoded {} bytes", decoded);
+            return parser;
+        }
+        ByteArrayOutputStream buffered = new ByteArrayOutputStream();
+        if (parser.releaseBuffered(buffered) < 0) {
+            // Not a byte parser, as for a UTF-16 body: fall back to re-encoding the content
+            OutputStream encoder = Base64.getEncoder().wrap(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    this.out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+            parser.readBinaryValue(Base64Variants.MIME_NO_LINEFEEDS, encoder);
+            encoder.close();
+            return parser;
+        }
+        InputStream rest = JsonBase64Scanner.copy(
+                new SequenceInputStream(new ByteArrayInputStream(buffered.toByteArray()), body), out);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        parser.close();
+
+        JsonParser resumed = JSON_FACTORY.createParser(
+                new SequenceInputStream(new ByteArrayInputStream(RESUME_PREFIX), rest));
+        for (int i = 0; i < RESUME_TOKENS; i++) {
+            resumed.nextToken();
+        }
+        return resumed;
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Builds the getDocumentJSON URL of a node from cabinet properties.
+     */
+    private String documentUrl(String baseUrl) {
+        return baseUrl
+                + properties.getSiteURI()
+                + properties.getDocumentRequest();
+    }
+
+    /**
+     * Builds the getDocumentJSON request for a leased session.
+     *
+     * @param docIndex document index to fetch
+     * @param sessionId id of the leased session
+     * @return populated request BDO
+     * @throws SessionExpiredException when no session is available
+     */
+    private DocumentRequest.NGOGetDocumentBDO buildDocumentRequest(String docIndex, String sessionId) {
+        DocumentRequest.NGOGetDocumentBDO bdo = new DocumentRequest.NGOGetDocumentBDO();
+        bdo.setCabinetName(properties.getCabinetName());
+        bdo.setUserName("");
+        bdo.setUserPassword("");
+
+        if (sessionId == null || sessionId.trim().isEmpty()) {
+            logger.error("Session ID is null or empty");
+            throw new SessionExpiredException("Session ID is not available. Please login again");
+        }
+
+        bdo.setUserDBId(sessionId);
+        bdo.setDocIndex(docIndex);
+        bdo.setAuthToken("");
+        bdo.setAuthTokenType("");
+        bdo.setLocale("en_us");
+        return bdo;
+    }
+
+    /**
+     * Maps a non-zero OmniDocs status code to a domain exception.
+     *
+     * @param statusCode OmniDocs status code
+     * @param message OmniDocs status message
+     * @param docIndex document index, used for error messages
+     * @return exception to throw
+     */
+    private BaseException toStatusException(String statusCode, String message, String docIndex) {
+        if ("404".equals(statusCode) || message.toLowerCase().contains("not found")) {
+            return new DocumentNotFoundException("Document not found with docIndex: " + docIndex + ". " + message);
+        } else if ("401".equals(statusCode) || message.toLowerCase().contains("unauthorized")) {
+            return new SessionExpiredException("Session expired or unauthorized: " + message);
+        } else if ("429".equals(statusCode) || message.toLowerCase().contains("too many")) {
+            return new TooManyRequestsException("Too many requests: " + message);
+        }
+        return new ExternalServiceException("Failed to fetch document: " + message);
+    }
+
      /**
          * Parses a JSON string into {@link JsonNode}.
          *
@@ -266,4 +966,148 @@ public class DocumentImpl implements DocumentInterface {
         logger.trace("Exiting trimString() method");
         return trimmed;
     }
+
+    /**
+     * One hedged call: the primary request runs on the caller's thread and, once
+     * the hedge delay has passed, a hedge request on the hedge executor.
+     *
+     * <p>A request claims the call when its result is about to be used: a fetch
+     * once it has the whole response, a stream once the metadata is read and just
+     * before the sink is opened. The first claim wins and aborts the other request.
+     * The winner's time to claim is recorded as a latency sample and, when the hedge
+     * wins, so is the time the aborted primary had been waiting, so slow requests
+     * are not left out of the hedge delay.</p>
+     */
+    private final class HedgedCall {
+        private final String docIndex;
+        private final Function<Lane, DocumentResponse> request;
+        private final Lane primary = new Lane(false);
+        private final Lane hedge = new Lane(true);
+        private final AtomicReference<Lane> winner = new AtomicReference<>();
+        private final AtomicInteger hedgeState = new AtomicInteger(HEDGE_PENDING);
+        /** Completes with the hedge's result, or {@code null} if no hedge was sent. */
+        private final CompletableFuture<DocumentResponse> hedgeResult = new CompletableFuture<>();
+
+        private HedgedCall(String docIndex, Function<Lane, DocumentResponse> request) {
+            this.docIndex = docIndex;
+            this.request = request;
+        }
+
+        private void launchHedge(long delayNanos) {
+            if (!hedgeState.compareAndSet(HEDGE_PENDING, HEDGE_STARTED)) {
+                return;
+            }
+            logger.debug("No response within {} ms. DocIndex: {}", TimeUnit.NANOSECONDS.toMillis(delayNanos), docIndex);
+            if (!hedgePolicy.tryAcquireHedge()) {
+                hedgesDenied.increment();
+                logger.debug("Hedge budget exhausted. Waiting for the first request. DocIndex: {}", docIndex);
+                hedgeResult.complete(null);
+                return;
+            }
+            try {
+                hedgeExecutor.execute(() -> {
+                    try {
+                        hedgeResult.complete(hedge.run());
+                    } catch (RuntimeException | Error e) {
+                        hedgeResult.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                hedgesDenied.increment();
+                logger.debug("Hedge executor busy. Waiting for the first request. DocIndex: {}", docIndex);
+                hedgeResult.complete(null);
+                return;
+            }
+            hedgesSent.increment();
+            logger.info("Document request slower than {} ms. Sent hedged request. DocIndex: {}",
+                    TimeUnit.NANOSECONDS.toMillis(delayNanos), docIndex);
+        }
+
+        /**
+         * Called after the primary failed.
+         *
+         * @return {@code true} if a hedge was started and may still answer
+         */
+        private boolean awaitsHedge() {
+            return winner.get() != primary && !hedgeState.compareAndSet(HEDGE_PENDING, HEDGE_SKIPPED);
+        }
+
+        private DocumentResponse awaitHedge(RuntimeException primaryFailure) {
+            try {
+                DocumentResponse result = hedgeResult.get();
+                if (result == null) {
+                    throw primaryFailure;
+                }
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExternalServiceException("Interrupted while fetching document for docIndex: " + docIndex, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new ExternalServiceException("Failed to fetch document for docIndex: " + docIndex, cause);
+            }
+        }
+
+        /**
+         * Stops a hedge that has not been sent yet, and aborts one still running
+         * when neither request claimed the call.
+         */
+        private void close() {
+            hedgeState.compareAndSet(HEDGE_PENDING, HEDGE_SKIPPED);
+            if (winner.compareAndSet(null, primary)) {
+                hedge.scope.cancel();
+            }
+        }
+
+        /**
+         * One of the two requests.
+         */
+        private final class Lane {
+            private final boolean isHedge;
+            private final CancellationScope scope = new CancellationScope();
+            private volatile long startedAt;
+
+            private Lane(boolean isHedge) {
+                this.isHedge = isHedge;
+            }
+
+            private DocumentResponse run() {
+                startedAt = System.nanoTime();
+                if (winner.get() != null) {
+                    throw new CancellationException("Hedged request no longer needed for docIndex: " + docIndex);
+                }
+                return scope.call(() -> request.apply(this));
+            }
+
+            /**
+             * Claims the call for this request and aborts the other one.
+             *
+             * @throws CancellationException if the other request claimed it first
+             */
+            void claim() {
+                if (!winner.compareAndSet(null, this)) {
+                    if (winner.get() == this) {
+                        return;
+                    }
+                    throw new CancellationException("Hedged request lost for docIndex: " + docIndex);
+                }
+                long now = System.nanoTime();
+                hedgePolicy.recordLatency(now - startedAt);
+                if (isHedge) {
+                    hedgesWon.increment();
+                    hedgePolicy.recordLatency(now - primary.startedAt);
+                    primary.scope.cancel();
+                } else {
+                    hedgeState.compareAndSet(HEDGE_PENDING, HEDGE_SKIPPED);
+                    hedge.scope.cancel();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,333 @@
+package com.newgen.cig.cayman.document.implementation;
+
+import com.newgen.cig.cayman.document.exception.DocumentNotFoundException;
+import com.newgen.cig.cayman.document.exception.InvalidParameterException;
+import com.newgen.cig.cayman.document.exception.SessionExpiredException;
+import com.newgen.cig.cayman.document.exception.ServiceUnavailableException;
+import com.newgen.cig.cayman.document.interfaces.DocumentInterface;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.utils.AdaptiveConcurrencyLimit;
+import com.newgen.cig.cayman.document.utils.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Protection layer around {@link DocumentImpl} that keeps a slow or failing
+ * OmniDocs server from being flooded with requests.
+ *
+ * <p>Document calls ({@code fetchDoc}, {@code streamDoc} and {@code downloadDoc})
+ * pass two checks before they are made:</p>
+ * <ul>
+ *   <li>a {@link CircuitBreaker} that opens when too many recent calls failed or
+ *       were slow, and lets a few trial calls through after a pause</li>
+ *   <li>an {@link AdaptiveConcurrencyLimit} whose in-flight limit grows while calls
+ *       are fast and shrinks when they slow down or fail</li>
+ * </ul>
+ * <p>A rejected call fails immediately with {@link ServiceUnavailableException},
+ * answered with {@code 503} and {@code Retry-After}. {@code connectCabinet} is never
+ * limited, so sessions can still be refreshed while the breaker is open.</p>
+ *
+ * <p>OmniDocs errors, timeouts and unreadable responses count as failures. Not found,
+ * invalid parameter and expired session responses show that OmniDocs is answering
+ * and count as successes. For streamed documents the latency is measured until the
+ * metadata has been read, so slow clients do not shrink the limit, and a failure to
+ * write to the client is not held against OmniDocs.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document.protection:
+ *   enabled: false
+ *   limit:
+ *     initial: 20              # Starting in-flight limit
+ *     min: 4                   # Floor the limit shrinks to
+ *     max: 50                  # Ceiling, normally the connection pool's maxPerRoute
+ *     latencyThresholdMs: 2000 # Slower calls shrink the limit
+ *     backoffRatio: 0.9        # Factor applied when the limit shrinks
+ *   breaker:
+ *     windowSize: 50           # Recent calls considered
+ *     minimumCalls: 20         # Calls needed before the breaker may open
+ *     failureRateThreshold: 50 # Percent of failed calls that opens the breaker
+ *     slowCallRateThreshold: 80 # Percent of slow calls that opens the breaker
+ *     slowCallDurationMs: 10000 # Calls slower than this are slow
+ *     openDurationMs: 30000    # Pause before trial calls
+ *     halfOpenCalls: 5         # Trial calls deciding whether to close
+ * </pre>
+ *
+ * <h3>Metrics:</h3>
+ * <ul>
+ *   <li>{@code omnidocs.protection.limit} and {@code omnidocs.protection.inflight}</li>
+ *   <li>{@code omnidocs.protection.circuit.state} tagged {@code state=closed|open|half_open}, 1 for the current state</li>
+ *   <li>{@code omnidocs.protection.rejected} tagged {@code reason=limit|circuit_open}</li>
+ * </ul>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Service
+@Primary
+public class ProtectedDocumentImpl implements DocumentInterface {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProtectedDocumentImpl.class);
+
+    @Autowired
+    private DocumentImpl delegate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${newgen.cayman.document.protection.enabled:false}")
+    private boolean enabled;
+
+    @Value("${newgen.cayman.document.protection.limit.initial:20}")
+    private int initialLimit;
+
+    @Value("${newgen.cayman.document.protection.limit.min:4}")
+    private int minLimit;
+
+    @Value("${newgen.cayman.document.protection.limit.max:50}")
+    private int maxLimit;
+
+    @Value("${newgen.cayman.document.protection.limit.latencyThresholdMs:2000}")
+    private long latencyThresholdMs;
+
+    @Value("${newgen.cayman.document.protection.limit.backoffRatio:0.9}")
+    private double backoffRatio;
+
+    @Value("${newgen.cayman.document.protection.breaker.windowSize:50}")
+    private int windowSize;
+
+    @Value("${newgen.cayman.document.protection.breaker.minimumCalls:20}")
+    private int minimumCalls;
+
+    @Value("${newgen.cayman.document.protection.breaker.failureRateThreshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${newgen.cayman.document.protection.breaker.slowCallRateThreshold:80}")
+    private int slowCallRateThreshold;
+
+    @Value("${newgen.cayman.document.protection.breaker.slowCallDurationMs:10000}")
+    private long slowCallDurationMs;
+
+    @Value("${newgen.cayman.document.protection.breaker.openDurationMs:30000}")
+    private long openDurationMs;
+
+    @Value("${newgen.cayman.document.protection.breaker.halfOpenCalls:5}")
+    private int halfOpenCalls;
+
+    private AdaptiveConcurrencyLimit limit;
+    private CircuitBreaker breaker;
+    private long slowCallNanos;
+    private Counter limitRejections;
+    private Counter circuitRejections;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("OmniDocs call protection disabled");
+            return;
+        }
+        limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs), backoffRatio);
+        breaker = new CircuitBreaker("omnidocs", windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, TimeUnit.MILLISECONDS.toNanos(openDurationMs), halfOpenCalls);
+        slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMs);
+
+        Gauge.builder("omnidocs.protection.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Adaptive limit on OmniDocs document calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("omnidocs.protection.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("OmniDocs document calls in flight")
+                .register(meterRegistry);
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("omnidocs.protection.circuit.state", breaker, b -> b.getState() == state ? 1 : 0)
+                    .description("OmniDocs circuit breaker state, 1 for the current state")
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        limitRejections = rejections("limit");
+        circuitRejections = rejections("circuit_open");
+        logger.info("OmniDocs call protection enabled. Limit: {} ({}-{}), LatencyThreshold: {} ms, "
+                        + "FailureRate: {}%, SlowCallRate: {}% over {} calls, OpenDuration: {} ms",
+                initialLimit, minLimit, maxLimit, latencyThresholdMs,
+                failureRateThreshold, slowCallRateThreshold, windowSize, openDurationMs);
+    }
+
+    @Override
+    public String connectCabinet() {
+        return delegate.connectCabinet();
+    }
+
+    @Override
+    public DocumentResponse fetchDoc(String docIndex) {
+        if (!enabled) {
+            return delegate.fetchDoc(docIndex);
+        }
+        return guarded(docIndex, call -> delegate.fetchDoc(docIndex));
+    }
+
+    @Override
+    public DocumentResponse streamDoc(String docIndex, ContentSink sink) {
+        if (!enabled) {
+            return delegate.streamDoc(docIndex, sink);
+        }
+        return guarded(docIndex, call -> delegate.streamDoc(docIndex, metadata -> call.open(sink, metadata)));
+    }
+
+    @Override
+    public DocumentResponse streamBase64Doc(String docIndex, ContentSink sink) {
+        if (!enabled) {
+            return delegate.streamBase64Doc(docIndex, sink);
+        }
+        return guarded(docIndex, call -> delegate.streamBase64Doc(docIndex, metadata -> call.open(sink, metadata)));
+    }
+
+    @Override
+    public DocumentResponse downloadDoc(String docIndex, String downloadLocation) {
+        if (!enabled) {
+            return delegate.downloadDoc(docIndex, downloadLocation);
+        }
+        return guarded(docIndex, call -> delegate.downloadDoc(docIndex, downloadLocation));
+    }
+
+    private DocumentResponse guarded(String docIndex, Function<Call, DocumentResponse> operation) {
+        if (!breaker.tryAcquire()) {
+            circuitRejections.increment();
+            long retryAfter = breaker.getRetryAfterSeconds();
+            logger.warn("OmniDocs circuit breaker open. Rejecting call. DocIndex: {}, RetryAfter: {} s",
+                    docIndex, retryAfter);
+            throw new ServiceUnavailableException("Document service is temporarily unavailable", retryAfter);
+        }
+        if (!limit.tryAcquire()) {
+            breaker.onIgnored();
+            limitRejections.increment();
+            logger.warn("OmniDocs concurrency limit reached. Rejecting call. DocIndex: {}, Limit: {}",
+                    docIndex, limit.getLimit());
+            throw new ServiceUnavailableException("Too many document requests in progress", 1);
+        }
+
+        Call call = new Call();
+        // An Error, or anything else that is not a normal return, counts as a failure
+        boolean failed = true;
+        boolean ignored = false;
+        try {
+            DocumentResponse result = operation.apply(call);
+            failed = false;
+            return result;
+        } catch (RuntimeException e) {
+            if (call.clientFailed) {
+                logger.debug("Client write failed. Call outcome ignored. DocIndex: {}", docIndex);
+                ignored = true;
+            } else {
+                failed = isUpstreamFailure(e);
+            }
+            throw e;
+        } finally {
+            if (ignored) {
+                limit.onIgnored();
+                breaker.onIgnored();
+            } else {
+                complete(call, failed);
+            }
+        }
+    }
+
+    private void complete(Call call, boolean failed) {
+        long latency = call.latencyNanos();
+        breaker.onResult(failed, latency >= slowCallNanos);
+        if (failed) {
+            limit.onDropped();
+        } else {
+            limit.onSuccess(latency);
+        }
+        logger.trace("OmniDocs call completed. Failed: {}, Latency: {} ms, Limit: {}, InFlight: {}",
+                failed, TimeUnit.NANOSECONDS.toMillis(latency), limit.getLimit(), limit.getInFlight());
+    }
+
+    private static boolean isUpstreamFailure(RuntimeException e) {
+        return !(e instanceof DocumentNotFoundException
+                || e instanceof InvalidParameterException
+                || e instanceof SessionExpiredException);
+    }
+
+    private Counter rejections(String reason) {
+        return Counter.builder("omnidocs.protection.rejected")
+                .description("OmniDocs document calls rejected without being made")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Timing of one call, and whether writing to the client failed.
+     */
+    private static final class Call {
+        private final long startedAt = System.nanoTime();
+        private volatile long metadataAt;
+        private volatile boolean clientFailed;
+
+        OutputStream open(ContentSink sink, DocumentResponse metadata) throws IOException {
+            metadataAt = System.nanoTime();
+            try {
+                return new ClientOutputStream(sink.open(metadata));
+            } catch (IOException | RuntimeException e) {
+                clientFailed = true;
+                throw e;
+            }
+        }
+
+        long latencyNanos() {
+            long end = metadataAt != 0 ? metadataAt : System.nanoTime();
+            return end - startedAt;
+        }
+
+        /** Flags write failures, which are caused by the client rather than OmniDocs. */
+        private final class ClientOutputStream extends FilterOutputStream {
+            ClientOutputStream(OutputStream out) {
+                super(out);
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    out.write(b);
+                } catch (IOException e) {
+                    clientFailed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException e) {
+                    clientFailed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    clientFailed = true;
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.newgen.cig.cayman.document.interfaces;
 
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Abstraction for interacting with Newgen OmniDocs cabinet.
  *
@@ -20,7 +25,54 @@ public interface DocumentInterface {
      * Fetches a document as base64 using the given document index.
      *
      * @param docIndex unique document identifier in OmniDocs
-     * @return base64 encoded document content
+     * @return immutable per-call result with base64 content and metadata
+     */
+    DocumentResponse fetchDoc(String docIndex);
+    /**
+     * Streams the decoded document content into the stream supplied by {@code sink}
+     * without holding the whole document in memory.
+     *
+     * @param docIndex unique document identifier in OmniDocs
+     * @param sink supplies the destination stream once the document metadata is known
+     * @return document metadata (without content)
+     */
+    DocumentResponse streamDoc(String docIndex, ContentSink sink);
+    /**
+     * Streams the document's base64 text, as OmniDocs sent it, into the stream
+     * supplied by {@code sink}, without decoding it.
+     *
+     * @param docIndex unique document identifier in OmniDocs
+     * @param sink supplies the destination stream once the document metadata is known;
+     *             it receives plain base64 without line breaks
+     * @return document metadata (without content)
+     */
+    DocumentResponse streamBase64Doc(String docIndex, ContentSink sink);
+    /**
+     * Asks OmniDocs to write the document to {@code downloadLocation} instead of
+     * returning it inline as base64.
+     *
+     * @param docIndex unique document identifier in OmniDocs
+     * @param downloadLocation file path, as seen by the OmniDocs server, to write the document to
+     * @return document metadata (without content)
+     */
+    DocumentResponse downloadDoc(String docIndex, String downloadLocation);
+
+    /**
+     * Destination for streamed document content.
+     *
+     * <p>Invoked exactly once, after the upstream status and document metadata
+     * have been read, so callers can set response headers before any byte is written.</p>
      */
-    String fetchDoc(String docIndex);
+    @FunctionalInterface
+    interface ContentSink {
+        /**
+         * Opens the stream that receives the decoded document bytes, or the base64
+         * text for {@link #streamBase64Doc(String, ContentSink)}.
+         *
+         * @param metadata document metadata (docContent is not populated)
+         * @return stream to write decoded content to; it is flushed but not closed
+         * @throws IOException if the destination cannot be opened
+         */
+        OutputStream open(DocumentResponse metadata) throws IOException;
+    }
 }
@@ -0,0 +1,183 @@
+package com.newgen.cig.cayman.document.model.dao;
+
+import com.newgen.cig.cayman.document.interfaces.DecryptionService;
+import com.newgen.cig.cayman.document.interfaces.EncryptionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional local store that keeps the pooled cabinet sessions across restarts.
+ *
+ * <p>The sessions are written, encrypted with the global AES key of
+ * {@link EncryptionService}, to a single file whenever the pool changes and at
+ * shutdown. On startup {@link GlobalSessionService} restores the sessions that have
+ * not yet expired and uses them without logging in; a restored session that
+ * OmniDocs rejects is replaced like any expired session. Sessions saved for another
+ * cabinet are ignored.</p>
+ *
+ * <p>Writes go to a temporary file that is then moved over the store, so a crash
+ * never leaves a half-written file. An unreadable store is logged and ignored.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.connect.cabinet.session.store:
+ *   enabled: false
+ *   file: ${java.io.tmpdir}/caymen-document-api/cabinet-sessions.enc
+ * </pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Component
+public class CabinetSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CabinetSessionStore.class);
+
+    private final EncryptionService encryption;
+    private final DecryptionService decryption;
+    private final String cabinetName;
+    private final boolean enabled;
+    private final Path file;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CabinetSessionStore(EncryptionService encryption, DecryptionService decryption,
+                               @Value("${newgen.cayman.connect.cabinet.cabinetName}") String cabinetName,
+                               @Value("${newgen.cayman.connect.cabinet.session.store.enabled:false}") boolean enabled,
+                               @Value("${newgen.cayman.connect.cabinet.session.store.file:${java.io.tmpdir}/caymen-document-api/cabinet-sessions.enc}") String file) {
+        this.encryption = encryption;
+        this.decryption = decryption;
+        this.cabinetName = cabinetName;
+        this.enabled = enabled;
+        this.file = Paths.get(file).toAbsolutePath();
+        logger.info("Cabinet session store {}{}", enabled ? "enabled. File: " : "disabled", enabled ? this.file : "");
+    }
+
+    /**
+     * @return {@code true} if sessions are persisted
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads the saved sessions.
+     *
+     * @return saved sessions indexed by slot, with {@code null} for empty slots;
+     *         empty if the store is disabled, missing, unreadable or for another cabinet
+     */
+    public List<GlobalSessionService.SessionSnapshot> load() {
+        if (!enabled || !Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        try {
+            String cipherText = Files.readString(file, StandardCharsets.UTF_8);
+            StoredSessions stored = decryption.decryptObjectGlobalAes(cipherText, StoredSessions.class);
+            if (!Objects.equals(cabinetName, stored.cabinetName()) || stored.sessions() == null) {
+                logger.info("Saved cabinet sessions belong to another cabinet. Ignoring {}", file);
+                return Collections.emptyList();
+            }
+            List<GlobalSessionService.SessionSnapshot> sessions = new ArrayList<>();
+            for (StoredSession session : stored.sessions()) {
+                while (sessions.size() <= session.slot()) {
+                    sessions.add(null);
+                }
+                sessions.set(session.slot(), session.toSnapshot());
+            }
+            return sessions;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read saved cabinet sessions from {}. Logging in instead: {}", file, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Replaces the saved sessions. Failures are logged only.
+     *
+     * @param sessions sessions indexed by slot, with {@code null} for empty slots
+     */
+    public void save(List<GlobalSessionService.SessionSnapshot> sessions) {
+        if (!enabled) {
+            return;
+        }
+        List<StoredSession> stored = new ArrayList<>();
+        for (int slot = 0; slot < sessions.size(); slot++) {
+            GlobalSessionService.SessionSnapshot session = sessions.get(slot);
+            if (session != null) {
+                stored.add(StoredSession.of(slot, session));
+            }
+        }
+        lock.lock();
+        try {
+            if (stored.isEmpty()) {
+                Files.deleteIfExists(file);
+                logger.debug("No sessions to save. Removed {}", file);
+                return;
+            }
+            String cipherText = encryption.encryptObjectGlobalAes(new StoredSessions(cabinetName, stored));
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, cipherText, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.debug("Saved {} cabinet session(s) to {}", stored.size(), file);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not save cabinet sessions to {}: {}", file, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Encrypted file content.
+     *
+     * @param cabinetName cabinet the sessions belong to
+     * @param sessions saved sessions
+     */
+    public record StoredSessions(String cabinetName, List<StoredSession> sessions) {
+    }
+
+    /**
+     * One saved session, with times in epoch milliseconds.
+     *
+     * @param slot pool slot the session was in
+     * @param sessionId OmniDocs UserDBId
+     * @param createdAt when the session was created
+     * @param refreshedAt when the session was last created or extended
+     * @param expiresAt when OmniDocs is expected to expire the session
+     * @param refreshDueAt when the session should be refreshed ahead of its expiry
+     */
+    public record StoredSession(int slot, String sessionId, long createdAt, long refreshedAt,
+                                long expiresAt, long refreshDueAt) {
+
+        static StoredSession of(int slot, GlobalSessionService.SessionSnapshot session) {
+            return new StoredSession(slot, session.sessionId(), session.createdAt().toEpochMilli(),
+                    session.refreshedAt().toEpochMilli(), session.expiresAt().toEpochMilli(),
+                    session.refreshDueAt().toEpochMilli());
+        }
+
+        GlobalSessionService.SessionSnapshot toSnapshot() {
+            return new GlobalSessionService.SessionSnapshot(sessionId, Instant.ofEpochMilli(createdAt),
+                    Instant.ofEpochMilli(refreshedAt), Instant.ofEpochMilli(expiresAt),
+                    Instant.ofEpochMilli(refreshDueAt));
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.newgen.cig.cayman.document.model.dao;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.utils.NodeBalancer;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +15,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
     /**
      * Manages establishing and closing sessions with the OmniDocs cabinet.
@@ -23,9 +26,21 @@ import java.util.Map;
      * <h3>Responsibilities:</h3>
      * <ul>
      *   <li>Generate connect/disconnect XML</li>
-     *   <li>Execute XML and store session id in {@link GlobalSessionService}</li>
+     *   <li>Execute the connect call and return the new session id to {@link GlobalSessionService}</li>
+     *   <li>Check that a session is still valid with a cheap keep-alive call</li>
+     *   <li>Disconnect retired sessions with {@code NGODisconnectCabinet}</li>
      * </ul>
      *
+     * <p>All calls go through the {@code executeAPIJSON} channel. The keep-alive
+     * option is {@code newgen.cayman.connect.cabinet.session.keepAliveOption}
+     * (default {@code NGOGetCabinetProperty}); any cabinet call that needs a
+     * UserDBId and returns little data will do.</p>
+     *
+     * <p>Calls are spread over the cabinet's nodes by {@link OmniDocsNodes}. A login
+     * binds the new session to its node when sessions are sticky; a keep-alive for a
+     * session whose node is out of rotation reports the session invalid so it is
+     * replaced on a healthy node.</p>
+     *
      * @author Tarun Vishwakarma
      * @since 2025
      */
@@ -33,15 +48,15 @@ import java.util.Map;
 public class ConnectCabinet {
     private static final Logger logger = LoggerFactory.getLogger(ConnectCabinet.class);
 
-    @Autowired
-    private GlobalSessionService sessionService;
-
     @Autowired
     private RestTemplate restTemplate;
     
     @Autowired
     private CabinetProperties properties;
 
+    @Autowired
+    private OmniDocsNodes nodes;
+
     @Value("${newgen.cayman.connect.cabinet.username}")
     private String username;
     @Value("${newgen.cayman.connect.cabinet.password}")
@@ -50,6 +65,8 @@ public class ConnectCabinet {
     private String cabinetName;
     @Value("${newgen.cayman.connect.cabinet.userExists}")
     private String userExists;
+    @Value("${newgen.cayman.connect.cabinet.session.keepAliveOption:NGOGetCabinetProperty}")
+    private String keepAliveOption;
 
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -69,25 +86,40 @@ public class ConnectCabinet {
         return userExists;
     }
 
-    public void setSessionId(String sessionId){
-        logger.trace("Setting session ID: {}", sessionId);
-        sessionService.setSessionId(sessionId);
-        logger.debug("Session ID set successfully");
-    }
-
-    public String getSessionId(){
-        logger.trace("Getting session ID");
-        String sessionId = sessionService.getSessionId();
-        logger.debug("Session ID retrieved: {}", sessionId);
-        return sessionId;
-    }
-
     @PostConstruct
     public void init() {
         logger.info("ConnectCabinet component initialized");
         logger.debug("Cabinet configuration - Name: {}, Username: {}", cabinetName, username);
     }
 
+    /**
+     * Connects to the cabinet and returns the id of the new session.
+     *
+     * @return UserDBId of the new session
+     * @throws com.newgen.cig.cayman.document.exception.CabinetConnectionException on errors
+     *         or when the response carries no UserDBId
+     */
+    public String login() {
+        NodeBalancer.Node node = nodes.choose();
+        String responseBody = connect(node);
+        try {
+            JsonNode userDbIdNode = objectMapper.readTree(responseBody)
+                    .path("NGOExecuteAPIResponseBDO")
+                    .path("outputData")
+                    .path("NGOConnectCabinet_Output")
+                    .path("UserDBId");
+            if (userDbIdNode.isMissingNode() || userDbIdNode.isNull() || userDbIdNode.asText().trim().isEmpty()) {
+                logger.error("UserDBId missing from cabinet connect response");
+                throw new com.newgen.cig.cayman.document.exception.CabinetConnectionException("UserDBId not found in cabinet response");
+            }
+            String sessionId = userDbIdNode.isNumber() ? String.valueOf(userDbIdNode.asLong()) : userDbIdNode.asText();
+            nodes.bind(sessionId, node);
+            return sessionId;
+        } catch (JsonProcessingException e) {
+            throw new com.newgen.cig.cayman.document.exception.CabinetConnectionException("Invalid cabinet connect response", e);
+        }
+    }
+
     /**
      * Connects to the cabinet and returns raw JSON response.
      *
@@ -95,8 +127,12 @@ public class ConnectCabinet {
      * @throws com.newgen.cig.cayman.document.exception.CabinetConnectionException on errors
      */
     public String connect() {
+        return connect(nodes.choose());
+    }
+
+    private String connect(NodeBalancer.Node node) {
         logger.trace("Entering connect() method");
-        logger.info("Connecting to cabinet. CabinetName: {}, Username: {}", cabinetName, username);
+        logger.info("Connecting to cabinet. CabinetName: {}, Username: {}, Node: {}", cabinetName, username, node);
         
         if (cabinetName == null || cabinetName.trim().isEmpty()) {
             logger.error("Cabinet name is null or empty");
@@ -114,12 +150,6 @@ public class ConnectCabinet {
         }
 
         try {
-            // Build the same URL as fetchDoc
-            String url = properties.getSiteURL()
-                    + properties.getSiteURI()
-                    + properties.getRequestJson();
-            logger.debug("Constructed API URL: {}", url);
-
             // Build request JSON structure
             Map<String, Object> ngoConnectCabinetInput = new HashMap<>();
             ngoConnectCabinetInput.put("Option", "NGOConnectCabinet");
@@ -129,28 +159,8 @@ public class ConnectCabinet {
             ngoConnectCabinetInput.put("UserPassword", this.password);
             ngoConnectCabinetInput.put("locale", "en_us");
 
-            Map<String, Object> inputData = new HashMap<>();
-            inputData.put("NGOConnectCabinet_Input", ngoConnectCabinetInput);
-
-            Map<String, Object> ngoExecuteAPOBDO = new HashMap<>();
-            ngoExecuteAPOBDO.put("inputData", inputData);
-            ngoExecuteAPOBDO.put("base64Encoded", "N");
-            ngoExecuteAPOBDO.put("locale", "en_us");
-            ngoExecuteAPOBDO.put("authToken", "");
-            ngoExecuteAPOBDO.put("authTokenType", "");
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("NGOExecuteAPOBDO", ngoExecuteAPOBDO);
-
             logger.debug("Request body created for cabinet connection");
-            logger.trace("Sending POST request to URL: {}", url);
-
-            ResponseEntity<String> response = restTemplate.postForEntity(url, requestBody, String.class);
-            
-            logger.info("API call completed successfully. HTTP Status: {}", response.getStatusCode());
-            logger.debug("Response status code: {}", response.getStatusCode());
-
-            String responseBody = response.getBody();
+            String responseBody = executeApi(node, "NGOConnectCabinet", ngoConnectCabinetInput);
             
             if (responseBody == null || responseBody.trim().isEmpty()) {
                 logger.error("Received null or empty response body");
@@ -184,8 +194,7 @@ public class ConnectCabinet {
                     JsonNode userDbIdNode = connectOutput.get("UserDBId");
                     if (userDbIdNode != null) {
                         String userDbId = String.valueOf(userDbIdNode.asLong());
-                        logger.info("Cabinet connected successfully. UserDBId: {}", userDbId);
-                        setSessionId(userDbId);
+                        logger.debug("Cabinet connected successfully. UserDBId length: {}", userDbId.length());
                     }
                 }
             }
@@ -202,4 +211,100 @@ public class ConnectCabinet {
             throw new com.newgen.cig.cayman.document.exception.CabinetConnectionException("Failed to connect to cabinet: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Checks that a session is still accepted by OmniDocs, which also keeps it
+     * from expiring for idleness.
+     *
+     * @param sessionId UserDBId to check
+     * @return {@code true} if OmniDocs accepted the session
+     * @throws com.newgen.cig.cayman.document.exception.CabinetConnectionException if OmniDocs
+     *         cannot be reached, in which case the session's state is unknown
+     */
+    public boolean keepAlive(String sessionId) {
+        logger.trace("Entering keepAlive() method");
+        if (!nodes.isSessionNodeAvailable(sessionId)) {
+            logger.info("Node of session is out of rotation. Reporting session invalid. CabinetName: {}", cabinetName);
+            return false;
+        }
+        String statusCode = sessionCall(nodes::nodeFor, keepAliveOption, sessionId);
+        boolean valid = "0".equals(statusCode);
+        logger.debug("Keep-alive completed. Option: {}, StatusCode: {}, Valid: {}", keepAliveOption, statusCode, valid);
+        return valid;
+    }
+
+    /**
+     * Ends a session with {@code NGODisconnectCabinet}, releasing it on the
+     * OmniDocs server and in the licence pool. With sticky sessions the call goes
+     * to the session's node even when that node is out of rotation.
+     *
+     * @param sessionId UserDBId to disconnect
+     * @return {@code true} if OmniDocs confirmed the disconnect
+     * @throws com.newgen.cig.cayman.document.exception.CabinetConnectionException if OmniDocs
+     *         cannot be reached
+     */
+    public boolean disconnect(String sessionId) {
+        logger.trace("Entering disconnect() method");
+        String statusCode;
+        try {
+            statusCode = sessionCall(nodes::nodeOf, "NGODisconnectCabinet", sessionId);
+        } finally {
+            nodes.unbind(sessionId);
+        }
+        boolean disconnected = "0".equals(statusCode);
+        logger.info("Cabinet disconnect completed. CabinetName: {}, StatusCode: {}", cabinetName, statusCode);
+        return disconnected;
+    }
+
+    /**
+     * Runs a cabinet option that only needs the session on the node {@code route}
+     * picks for it and returns its status code.
+     */
+    private String sessionCall(Function<String, NodeBalancer.Node> route, String option, String sessionId) {
+        Map<String, Object> input = new HashMap<>();
+        input.put("Option", option);
+        input.put("CabinetName", this.cabinetName);
+        input.put("UserDBId", sessionId);
+        input.put("locale", "en_us");
+        try {
+            String responseBody = executeApi(route.apply(sessionId), option, input);
+            JsonNode statusCode = objectMapper.readTree(responseBody == null ? "{}" : responseBody)
+                    .path("NGOExecuteAPIResponseBDO")
+                    .path("statusCode");
+            return statusCode.isMissingNode() ? "" : statusCode.asText();
+        } catch (Exception e) {
+            logger.warn("Cabinet call failed. Option: {}, CabinetName: {}: {}", option, cabinetName, e.getMessage());
+            throw new com.newgen.cig.cayman.document.exception.CabinetConnectionException(
+                    "Failed to execute " + option + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Posts one option to the {@code executeAPIJSON} endpoint of a node and returns the raw response body.
+     */
+    private String executeApi(NodeBalancer.Node node, String option, Map<String, Object> input) {
+
+        Map<String, Object> inputData = new HashMap<>();
+        inputData.put(option + "_Input", input);
+
+        Map<String, Object> ngoExecuteAPOBDO = new HashMap<>();
+        ngoExecuteAPOBDO.put("inputData", inputData);
+        ngoExecuteAPOBDO.put("base64Encoded", "N");
+        ngoExecuteAPOBDO.put("locale", "en_us");
+        ngoExecuteAPOBDO.put("authToken", "");
+        ngoExecuteAPOBDO.put("authTokenType", "");
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("NGOExecuteAPOBDO", ngoExecuteAPOBDO);
+
+        return nodes.call(node, attempt -> {
+            String url = attempt.getBaseUrl()
+                    + properties.getSiteURI()
+                    + properties.getRequestJson();
+            logger.trace("Sending POST request to URL: {}", url);
+            ResponseEntity<String> response = restTemplate.postForEntity(url, requestBody, String.class);
+            logger.info("API call completed successfully. Option: {}, HTTP Status: {}", option, response.getStatusCode());
+            return response.getBody();
+        });
+    }
 }
@@ -2,105 +2,93 @@ package com.newgen.cig.cayman.document.model.dao;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
-@Component
-public class DocumentResponse {
+/**
+ * Immutable result of a single OmniDocs getDocumentJSON call.
+ *
+ * <p>A new instance is created per request, so document content and metadata
+ * can never leak between concurrent callers.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class DocumentResponse {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentResponse.class);
-    private String createdByAppName;
-    private String docContent;
-    private String documentName;
-    private String documentSize;
-    private String documentType;
-    private String message;
-    private String statusCode;
+    private final String createdByAppName;
+    private final String docContent;
+    private final String documentName;
+    private final String documentSize;
+    private final String documentType;
+    private final String message;
+    private final String statusCode;
+
+    public DocumentResponse(String createdByAppName, String docContent, String documentName,
+                            String documentSize, String documentType, String message, String statusCode) {
+        this.createdByAppName = createdByAppName;
+        this.docContent = docContent;
+        this.documentName = documentName;
+        this.documentSize = documentSize;
+        this.documentType = documentType;
+        this.message = message;
+        this.statusCode = statusCode;
+    }
 
     public String getCreatedByAppName() {
         logger.trace("Getting createdByAppName");
         return createdByAppName;
     }
 
-    public void setCreatedByAppName(String createdByAppName) {
-        logger.trace("Setting createdByAppName: {}", createdByAppName);
-        logger.debug("Previous createdByAppName: {}, New createdByAppName: {}", this.createdByAppName, createdByAppName);
-        this.createdByAppName = createdByAppName;
-    }
-
     public String getDocContent() {
         logger.trace("Getting docContent");
         logger.debug("DocContent length: {}", docContent != null ? docContent.length() : 0);
         return docContent;
     }
 
-    public void setDocContent(String docContent) {
-        logger.trace("Setting docContent");
-        logger.debug("Previous docContent length: {}, New docContent length: {}", 
-                this.docContent != null ? this.docContent.length() : 0,
-                docContent != null ? docContent.length() : 0);
-        this.docContent = docContent;
-    }
-
     public String getDocumentName() {
         logger.trace("Getting documentName");
         return documentName;
     }
 
-    public void setDocumentName(String documentName) {
-        logger.trace("Setting documentName: {}", documentName);
-        logger.debug("Previous documentName: {}, New documentName: {}", this.documentName, documentName);
-        this.documentName = documentName;
-    }
-
     public String getDocumentSize() {
         logger.trace("Getting documentSize");
         return documentSize;
     }
 
-    public void setDocumentSize(String documentSize) {
-        logger.trace("Setting documentSize: {}", documentSize);
-        logger.debug("Previous documentSize: {}, New documentSize: {}", this.documentSize, documentSize);
-        this.documentSize = documentSize;
-    }
-
     public String getDocumentType() {
         logger.trace("Getting documentType");
         return documentType;
     }
 
-    public void setDocumentType(String documentType) {
-        logger.trace("Setting documentType: {}", documentType);
-        logger.debug("Previous documentType: {}, New documentType: {}", this.documentType, documentType);
-        this.documentType = documentType;
-    }
-
     public String getMessage() {
         logger.trace("Getting message");
         return message;
     }
 
-    public void setMessage(String message) {
-        logger.trace("Setting message: {}", message);
-        logger.debug("Previous message: {}, New message: {}", this.message, message);
-        this.message = message;
-    }
-
     public String getStatusCode() {
         logger.trace("Getting statusCode");
         return statusCode;
     }
 
-    public void setStatusCode(String statusCode) {
-        logger.trace("Setting statusCode: {}", statusCode);
-        logger.debug("Previous statusCode: {}, New statusCode: {}", this.statusCode, statusCode);
-        this.statusCode = statusCode;
+    /**
+     * Returns a copy of this response without document content, for callers
+     * that only need metadata.
+     *
+     * @return metadata-only copy
+     */
+    public DocumentResponse withoutContent() {
+        if (docContent == null) {
+            return this;
+        }
+        return new DocumentResponse(createdByAppName, null, documentName, documentSize,
+                documentType, message, statusCode);
     }
 
     @Override
     public String toString() {
         return "DocumentResponse{" +
                 "createdByAppName='" + createdByAppName + '\'' +
-                ", docContent='" + docContent + '\'' +
+                ", docContent=" + (docContent != null ? docContent.length() + " chars" : "null") +
                 ", documentName='" + documentName + '\'' +
                 ", documentSize='" + documentSize + '\'' +
                 ", documentType='" + documentType + '\'' +
@@ -1,164 +1,567 @@
 package com.newgen.cig.cayman.document.model.dao;
 
+import com.newgen.cig.cayman.document.exception.CabinetConnectionException;
+import com.newgen.cig.cayman.document.exception.ServiceUnavailableException;
+import com.newgen.cig.cayman.document.utils.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * Service for managing global session state across the application.
- * 
- * <p>This service maintains a single session ID that is shared across all requests.
- * The session ID is refreshed periodically by a scheduled task to ensure continuous
- * connectivity with the OmniDocs cabinet.</p>
- * 
- * <h3>Thread Safety:</h3>
- * <p>This service uses synchronized methods to ensure thread-safe access to the
- * session ID in a multi-threaded environment.</p>
- * 
+ * Pool of OmniDocs cabinet sessions shared across the application.
+ *
+ * <p>Instead of sending all traffic through one UserDBId, the service keeps up to
+ * {@code poolSize} sessions and leases one to every document request. A lease is
+ * returned when the request completes, so the pool knows how many requests each
+ * session is serving.</p>
+ *
+ * <h3>Selection:</h3>
+ * <ul>
+ *   <li>{@code least-in-flight} (default) – the live session serving the fewest
+ *       requests; when every live session is busy and a slot is still empty, a new
+ *       session is created in it</li>
+ *   <li>{@code round-robin} – slots in turn, creating the session of an empty slot</li>
+ * </ul>
+ *
  * <h3>Session Lifecycle:</h3>
  * <ul>
- *   <li>Session is initialized on application startup</li>
- *   <li>Session is refreshed every 5 minutes automatically</li>
- *   <li>Session can be manually cleared if needed</li>
+ *   <li>Sessions are created in the background once the application is ready
+ *       ({@code eager: true}) or on first use; the first slot is always filled in the
+ *       background so readiness can be reported</li>
+ *   <li>Until the first session exists, requests wait up to {@code startupWaitMs} for
+ *       it and are then answered with 503 and {@code Retry-After}</li>
+ *   <li>Each session is refreshed ahead of its expiry, after {@code refreshAhead} of
+ *       {@code ttlSeconds} less a random jitter, so sessions created together are not
+ *       all refreshed together; a failed refresh keeps the old session</li>
+ *   <li>A refresh first validates the session with a keep-alive call and keeps it if
+ *       OmniDocs still accepts it; only an invalid session is replaced by a new login</li>
+ *   <li>Sessions retired while still valid, including every session at shutdown, are
+ *       ended with {@code NGODisconnectCabinet} so they do not linger on the server</li>
+ *   <li>With the {@link CabinetSessionStore} enabled, the pool is saved whenever a
+ *       session is created or refreshed and at shutdown, where sessions are kept open
+ *       instead of disconnected. Unexpired saved sessions are restored at startup and
+ *       used without a login; one OmniDocs rejects is replaced on first use like any
+ *       expired session</li>
+ *   <li>A session rejected by OmniDocs is replaced through {@link Lease#renew()};
+ *       requests that hit the same rejected session share one reconnect</li>
  * </ul>
- * 
+ *
+ * <h3>Thread Safety:</h3>
+ * <p>Each session is an immutable {@link SessionSnapshot} held in an
+ * {@link AtomicReferenceArray}. A refresh publishes a new snapshot, so reading or
+ * leasing a session is wait-free and never sees a half-updated session. In-flight
+ * counts are kept per slot in an {@link AtomicIntegerArray}. A request counts against
+ * its slot before the slot's session exists, so concurrent requests spread over
+ * empty slots instead of all waiting for the same one. Session creation runs through
+ * a {@link SingleFlight} per slot.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.connect.cabinet.session:
+ *   poolSize: 1                  # Concurrent OmniDocs sessions
+ *   selection: least-in-flight   # least-in-flight | round-robin
+ *   eager: true                  # Create every session at startup
+ *   startupWaitMs: 5000          # How long early requests wait for the first session
+ *   ttlSeconds: 600              # Lifetime of an OmniDocs session
+ *   refreshAhead: 0.75           # Share of the lifetime after which a session is refreshed
+ * </pre>
+ *
+ * <p>Sessions created, kept by a keep-alive and disconnected are counted in
+ * {@code omnidocs.session.created}, {@code omnidocs.session.reused} and
+ * {@code omnidocs.session.disconnected}. Per-session in-flight counts and ages are exported as
+ * {@code omnidocs.session.inflight} and {@code omnidocs.session.age} tagged
+ * {@code slot}, and listed by the {@code cabinetsessions} actuator endpoint.</p>
+ *
  * @author Tarun Vishwakarma
- * @version 1.0
+ * @version 2.0
  * @since 2025
  */
 @Service
 public class GlobalSessionService {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalSessionService.class);
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    private String sessionId;
-    private LocalDateTime sessionCreatedAt;
-    private LocalDateTime sessionLastRefreshedAt;
-    private volatile boolean isSessionValid = false;
+    @Autowired
+    private ConnectCabinet cabinet;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CabinetSessionStore sessionStore;
+
+    @Value("${newgen.cayman.connect.cabinet.session.poolSize:1}")
+    private int poolSize;
+
+    @Value("${newgen.cayman.connect.cabinet.session.selection:least-in-flight}")
+    private String selection;
+
+    @Value("${newgen.cayman.connect.cabinet.session.eager:true}")
+    private boolean eager;
+
+    @Value("${newgen.cayman.connect.cabinet.session.startupWaitMs:5000}")
+    private long startupWaitMs;
+
+    @Value("${newgen.cayman.connect.cabinet.session.ttlSeconds:600}")
+    private long ttlSeconds;
+
+    @Value("${newgen.cayman.connect.cabinet.session.refreshAhead:0.75}")
+    private double refreshAhead;
+
+    private AtomicReferenceArray<SessionSnapshot> slots;
+    private AtomicIntegerArray inFlight;
+    private AtomicLongArray leases;
+    private boolean roundRobin;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final SingleFlight<Integer, SessionSnapshot> creations = new SingleFlight<>();
+    private final CountDownLatch firstSession = new CountDownLatch(1);
+    private Counter sessionsCreated;
+    private Counter sessionsReused;
+    private Counter sessionsDisconnected;
+
+    @PostConstruct
+    public void init() {
+        if (poolSize < 1) {
+            throw new IllegalStateException("newgen.cayman.connect.cabinet.session.poolSize must be at least 1");
+        }
+        if (ttlSeconds < 1 || refreshAhead <= 0 || refreshAhead >= 1) {
+            throw new IllegalStateException(
+                    "newgen.cayman.connect.cabinet.session.ttlSeconds must be positive and refreshAhead between 0 and 1");
+        }
+        roundRobin = "round-robin".equalsIgnoreCase(selection);
+        slots = new AtomicReferenceArray<>(poolSize);
+        inFlight = new AtomicIntegerArray(poolSize);
+        leases = new AtomicLongArray(poolSize);
+        sessionsCreated = Counter.builder("omnidocs.session.created")
+                .description("OmniDocs sessions created by a cabinet login")
+                .register(meterRegistry);
+        sessionsReused = Counter.builder("omnidocs.session.reused")
+                .description("OmniDocs sessions kept after a successful keep-alive")
+                .register(meterRegistry);
+        sessionsDisconnected = Counter.builder("omnidocs.session.disconnected")
+                .description("Retired OmniDocs sessions ended with NGODisconnectCabinet")
+                .register(meterRegistry);
+        for (int i = 0; i < poolSize; i++) {
+            int slot = i;
+            Gauge.builder("omnidocs.session.inflight", this, s -> s.inFlight.get(slot))
+                    .description("Document requests in flight on an OmniDocs session")
+                    .tag("slot", String.valueOf(slot))
+                    .register(meterRegistry);
+            Gauge.builder("omnidocs.session.age", this, s -> ageOf(slot))
+                    .description("Age of an OmniDocs session")
+                    .tag("slot", String.valueOf(slot))
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+        logger.info("Session pool configured. PoolSize: {}, Selection: {}, Eager: {}, TTL: {} s, RefreshAhead: {}",
+                poolSize, roundRobin ? "round-robin" : "least-in-flight", eager, ttlSeconds, refreshAhead);
+        restoreSessions();
+    }
+
+    /**
+     * @return number of session slots
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return {@code true} if every session should be created at startup
+     */
+    public boolean isEager() {
+        return eager;
+    }
+
+    /**
+     * Tells whether a slot's session should be refreshed now: its refresh-ahead time
+     * has passed, or the slot is empty and is filled in the background, which is the
+     * first slot always and every slot when sessions are created at startup.
+     *
+     * @param slot slot number
+     * @return {@code true} if the slot should be refreshed
+     */
+    public boolean isRefreshDue(int slot) {
+        SessionSnapshot session = slots.get(slot);
+        return session == null ? eager || slot == 0 : !Instant.now().isBefore(session.refreshDueAt());
+    }
 
     /**
-     * Sets the session ID and marks the session as valid.
-     * 
-     * <p>This method is thread-safe and logs all session updates for audit purposes.</p>
-     * 
-     * @param sessionId the new session ID to store
+     * @return {@code true} once the first session has been established
      */
-    public synchronized void setSessionId(String sessionId) {
+    public boolean isStarted() {
+        return firstSession.getCount() == 0;
+    }
+
+    /**
+     * Leases a session for one request. The lease must be closed when the
+     * request completes.
+     *
+     * @return lease on a live session
+     * @throws ServiceUnavailableException if the first session is not established in time
+     * @throws CabinetConnectionException if no session exists and none can be created
+     */
+    public Lease acquire() {
+        if (!isStarted()) {
+            awaitFirstSession();
+        }
+        int slot = roundRobin ? Math.floorMod(nextSlot.getAndIncrement(), poolSize) : leastLoadedSlot();
+        inFlight.incrementAndGet(slot);
+        SessionSnapshot session = slots.get(slot);
+        if (session == null) {
+            try {
+                session = create(slot, null).value();
+            } catch (CabinetConnectionException e) {
+                inFlight.decrementAndGet(slot);
+                int fallback = leastLoadedLiveSlot();
+                if (fallback < 0) {
+                    throw e;
+                }
+                logger.warn("Could not create session in slot {}. Using slot {}", slot, fallback);
+                slot = fallback;
+                inFlight.incrementAndGet(slot);
+                session = slots.get(slot);
+            }
+        }
+        leases.incrementAndGet(slot);
+        return new Lease(slot, session);
+    }
+
+    /**
+     * Refreshes the session of a slot. A session OmniDocs still accepts is kept and
+     * its expiry extended; an invalid session, or an empty slot, gets a new login.
+     *
+     * @param slot slot to refresh
+     * @return id of the slot's session after the refresh
+     * @throws CabinetConnectionException if OmniDocs cannot be reached; the old session is kept
+     */
+    public String refresh(int slot) {
+        SessionSnapshot current = slots.get(slot);
+        if (current != null) {
+            if (cabinet.keepAlive(current.sessionId())) {
+                SessionSnapshot extended = extend(current);
+                if (slots.compareAndSet(slot, current, extended)) {
+                    sessionsReused.increment();
+                    persist();
+                    logger.debug("Session still valid. Keeping it. Slot: {}, SessionId: {}",
+                            slot, maskSessionId(current.sessionId()));
+                    return extended.sessionId();
+                }
+                logger.debug("Session replaced during keep-alive. Slot: {}", slot);
+                return create(slot, current).value().sessionId();
+            }
+            logger.info("Session no longer valid. Replacing it. Slot: {}, SessionId: {}",
+                    slot, maskSessionId(current.sessionId()));
+        }
+        return create(slot, current).value().sessionId();
+    }
+
+    /**
+     * Returns the id of the least loaded live session without leasing it.
+     *
+     * @return a session id, or null if no session exists
+     */
+    public String getSessionId() {
+        SessionSnapshot session = getSnapshot();
+        return session == null ? null : session.sessionId();
+    }
+
+    /**
+     * Returns the least loaded live session without leasing it.
+     *
+     * @return snapshot of the session, or null if no session exists
+     */
+    public SessionSnapshot getSnapshot() {
+        SessionSnapshot best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < poolSize; i++) {
+            SessionSnapshot session = slots.get(i);
+            int load = inFlight.get(i);
+            if (session != null && load < bestLoad) {
+                best = session;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Places a session obtained elsewhere in the first slot.
+     *
+     * @param sessionId the session ID to store
+     */
+    public void setSessionId(String sessionId) {
         logger.trace("Entering setSessionId() method");
-        
-        String previousSessionId = this.sessionId;
-        LocalDateTime now = LocalDateTime.now();
-        
-        if (previousSessionId == null) {
-            logger.info("Initializing new session. SessionId: {}", maskSessionId(sessionId));
-            this.sessionCreatedAt = now;
-        } else {
-            logger.info("Updating existing session. Previous SessionId: {}, New SessionId: {}", 
-                    maskSessionId(previousSessionId), maskSessionId(sessionId));
-        }
-        
-        this.sessionId = sessionId;
-        this.sessionLastRefreshedAt = now;
-        this.isSessionValid = (sessionId != null && !sessionId.trim().isEmpty());
-        
-        logger.debug("Session state updated. Valid: {}, Created: {}, LastRefreshed: {}", 
-                isSessionValid, 
-                sessionCreatedAt != null ? sessionCreatedAt.format(DATE_FORMATTER) : "N/A",
-                sessionLastRefreshedAt.format(DATE_FORMATTER));
-        
-        logger.trace("Exiting setSessionId() method");
-    }
-
-    /**
-     * Retrieves the current session ID.
-     * 
-     * <p>This method is thread-safe and returns the cached session ID without
-     * creating a new session.</p>
-     * 
-     * @return the current session ID, or null if no session exists
-     */
-    public synchronized String getSessionId() {
-        logger.trace("Entering getSessionId() method");
-        
         if (sessionId == null || sessionId.trim().isEmpty()) {
-            logger.warn("Session ID is null or empty. Session may not be initialized.");
-            logger.trace("Exiting getSessionId() method with null session");
-            return null;
+            SessionSnapshot previous = slots.getAndSet(0, null);
+            if (previous != null) {
+                persist();
+                retire(previous);
+            }
+            return;
+        }
+        SessionSnapshot previous = slots.getAndSet(0, newSnapshot(sessionId));
+        firstSession.countDown();
+        logSessionChange(0, previous, sessionId);
+        persist();
+        if (previous != null && !previous.sessionId().equals(sessionId)) {
+            retire(previous);
         }
-        
-        logger.debug("Retrieving session ID. SessionId: {}, Valid: {}, Age: {} seconds", 
-                maskSessionId(sessionId), 
-                isSessionValid,
-                sessionLastRefreshedAt != null ? 
-                        java.time.Duration.between(sessionLastRefreshedAt, LocalDateTime.now()).getSeconds() : "N/A");
-        
-        logger.trace("Exiting getSessionId() method with valid session");
-        return sessionId;
     }
 
     /**
-     * Checks if the current session is valid.
-     * 
+     * Checks if at least one session is live.
+     *
      * @return true if a valid session exists, false otherwise
      */
-    public synchronized boolean isSessionValid() {
-        logger.trace("Checking session validity. Valid: {}", isSessionValid);
-        return isSessionValid;
+    public boolean isSessionValid() {
+        return getSnapshot() != null;
     }
 
     /**
-     * Gets the timestamp when the session was created.
-     * 
-     * @return the session creation timestamp, or null if no session exists
+     * Removes every session from the pool and disconnects it.
      */
-    public synchronized LocalDateTime getSessionCreatedAt() {
-        return sessionCreatedAt;
+    public void clearSession() {
+        logger.trace("Entering clearSession() method");
+        List<SessionSnapshot> cleared = new ArrayList<>();
+        for (int i = 0; i < poolSize; i++) {
+            SessionSnapshot previous = slots.getAndSet(i, null);
+            if (previous != null) {
+                logger.info("Clearing session. Slot: {}, SessionId: {}", i, maskSessionId(previous.sessionId()));
+                cleared.add(previous);
+            }
+        }
+        persist();
+        cleared.forEach(this::retire);
+        logger.trace("Exiting clearSession() method");
     }
 
     /**
-     * Gets the timestamp when the session was last refreshed.
-     * 
-     * @return the last refresh timestamp, or null if no session exists
+     * Ends the pool at shutdown. With the session store enabled the sessions are
+     * saved and left open for the next start; otherwise they are disconnected.
      */
-    public synchronized LocalDateTime getSessionLastRefreshedAt() {
-        return sessionLastRefreshedAt;
+    @PreDestroy
+    public void shutdown() {
+        if (sessionStore.isEnabled()) {
+            persist();
+            logger.info("Saved cabinet sessions for the next start. Not disconnecting them");
+            return;
+        }
+        clearSession();
     }
 
     /**
-     * Clears the current session ID and marks the session as invalid.
-     * 
-     * <p>This method should be called when logging out or when a session
-     * needs to be explicitly invalidated.</p>
+     * Describes every slot for monitoring.
+     *
+     * @return one entry per slot, in slot order
      */
-    public synchronized void clearSession() {
-        logger.trace("Entering clearSession() method");
-        
-        if (sessionId != null) {
-            logger.info("Clearing session. Previous SessionId: {}, Created: {}, LastRefreshed: {}", 
-                    maskSessionId(sessionId),
-                    sessionCreatedAt != null ? sessionCreatedAt.format(DATE_FORMATTER) : "N/A",
-                    sessionLastRefreshedAt != null ? sessionLastRefreshedAt.format(DATE_FORMATTER) : "N/A");
+    public List<SessionInfo> describe() {
+        List<SessionInfo> info = new ArrayList<>(poolSize);
+        Instant now = Instant.now();
+        for (int i = 0; i < poolSize; i++) {
+            SessionSnapshot session = slots.get(i);
+            info.add(session == null
+                    ? new SessionInfo(i, null, inFlight.get(i), leases.get(i), null, null, null, 0)
+                    : new SessionInfo(i, maskSessionId(session.sessionId()), inFlight.get(i), leases.get(i),
+                            session.createdAt(), session.refreshedAt(), session.expiresAt(),
+                            Duration.between(session.createdAt(), now).getSeconds()));
+        }
+        return info;
+    }
+
+    /**
+     * Creates the session of a slot, sharing the connect with concurrent callers.
+     * When the slot no longer holds {@code expected}, it was already replaced and
+     * the current session is returned as shared.
+     *
+     * <p>The session the new one replaces is retired. OmniDocs may still accept it,
+     * for instance when it was given up only because its node left rotation, and it
+     * would otherwise hold a licence until it expires.</p>
+     */
+    private SingleFlight.Result<SessionSnapshot> create(int slot, SessionSnapshot expected) {
+        SessionSnapshot current = slots.get(slot);
+        if (current != expected && current != null) {
+            return new SingleFlight.Result<>(current, true);
+        }
+        SessionSnapshot[] replaced = new SessionSnapshot[1];
+        SingleFlight.Result<SessionSnapshot> result = creations.executeShared(slot, () -> {
+            SessionSnapshot latest = slots.get(slot);
+            if (latest != expected && latest != null) {
+                return latest;
+            }
+            String sessionId = cabinet.login();
+            SessionSnapshot created = newSnapshot(sessionId);
+            slots.set(slot, created);
+            firstSession.countDown();
+            sessionsCreated.increment();
+            logSessionChange(slot, latest, sessionId);
+            persist();
+            replaced[0] = latest;
+            return created;
+        });
+        if (result.shared()) {
+            logger.debug("Joined in-flight session creation. Slot: {}", slot);
+        } else if (replaced[0] != null && !replaced[0].sessionId().equals(result.value().sessionId())) {
+            retire(replaced[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Picks the slot with the fewest requests in flight, counting requests waiting
+     * for an empty slot's session. On a tie a live session wins over an empty slot.
+     */
+    private int leastLoadedSlot() {
+        int best = 0;
+        for (int i = 1; i < poolSize; i++) {
+            int load = inFlight.get(i);
+            int bestLoad = inFlight.get(best);
+            if (load < bestLoad || (load == bestLoad && slots.get(best) == null && slots.get(i) != null)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private int leastLoadedLiveSlot() {
+        int best = -1;
+        for (int i = 0; i < poolSize; i++) {
+            if (slots.get(i) != null && (best < 0 || inFlight.get(i) < inFlight.get(best))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Puts the unexpired sessions of the session store back in their slots. They are
+     * not validated here; the first request or refresh using one finds out whether
+     * OmniDocs still accepts it.
+     */
+    private void restoreSessions() {
+        List<SessionSnapshot> saved = sessionStore.load();
+        Instant now = Instant.now();
+        int restored = 0;
+        for (int i = 0; i < Math.min(poolSize, saved.size()); i++) {
+            SessionSnapshot session = saved.get(i);
+            if (session != null && session.sessionId() != null && now.isBefore(session.expiresAt())) {
+                slots.set(i, session);
+                restored++;
+                logger.info("Restored saved session. Slot: {}, SessionId: {}, Expires: {}",
+                        i, maskSessionId(session.sessionId()), session.expiresAt());
+            }
+        }
+        if (restored > 0) {
+            firstSession.countDown();
+        }
+    }
+
+    /**
+     * Saves the current sessions to the session store, if enabled.
+     */
+    private void persist() {
+        if (!sessionStore.isEnabled()) {
+            return;
+        }
+        List<SessionSnapshot> sessions = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            sessions.add(slots.get(i));
+        }
+        sessionStore.save(sessions);
+    }
+
+    private long ageOf(int slot) {
+        SessionSnapshot session = slots.get(slot);
+        return session == null ? 0 : Duration.between(session.createdAt(), Instant.now()).getSeconds();
+    }
+
+    private void awaitFirstSession() {
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(startupWaitMs));
+        try {
+            if (firstSession.await(startupWaitMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the cabinet session", retryAfterSeconds);
+        }
+        logger.warn("No cabinet session established within {} ms. Rejecting request", startupWaitMs);
+        throw new ServiceUnavailableException("Document service is starting. No cabinet session yet", retryAfterSeconds);
+    }
+
+    /**
+     * Builds the snapshot of a session created now. The refresh-ahead point is moved
+     * earlier by up to a tenth of the lifetime at random.
+     */
+    private SessionSnapshot newSnapshot(String sessionId) {
+        Instant now = Instant.now();
+        long ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        long aheadMillis = (long) (ttlMillis * refreshAhead);
+        long jitterMillis = ThreadLocalRandom.current().nextLong(Math.max(1, Math.min(aheadMillis, ttlMillis / 10)));
+        return new SessionSnapshot(sessionId, now, now, now.plusMillis(ttlMillis),
+                now.plusMillis(aheadMillis - jitterMillis));
+    }
+
+    /**
+     * Builds the snapshot of a session kept by a keep-alive: same id and creation
+     * time, with refresh and expiry counted from now.
+     */
+    private SessionSnapshot extend(SessionSnapshot session) {
+        SessionSnapshot renewed = newSnapshot(session.sessionId());
+        return new SessionSnapshot(session.sessionId(), session.createdAt(), renewed.refreshedAt(),
+                renewed.expiresAt(), renewed.refreshDueAt());
+    }
+
+    /**
+     * Ends a session that was taken out of the pool. Failures are logged only; the
+     * session then expires on the server by itself.
+     */
+    private void retire(SessionSnapshot session) {
+        try {
+            if (cabinet.disconnect(session.sessionId())) {
+                sessionsDisconnected.increment();
+                logger.info("Disconnected retired session. SessionId: {}", maskSessionId(session.sessionId()));
+            } else {
+                logger.debug("OmniDocs did not confirm disconnect. SessionId: {}", maskSessionId(session.sessionId()));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to disconnect retired session. SessionId: {}: {}",
+                    maskSessionId(session.sessionId()), e.getMessage());
+        }
+    }
+
+    private void logSessionChange(int slot, SessionSnapshot previous, String sessionId) {
+        if (previous == null) {
+            logger.info("Initializing new session. Slot: {}, SessionId: {}", slot, maskSessionId(sessionId));
         } else {
-            logger.debug("Attempting to clear session, but no session exists");
-        }
-        
-        this.sessionId = null;
-        this.isSessionValid = false;
-        this.sessionCreatedAt = null;
-        this.sessionLastRefreshedAt = null;
-        
-        logger.debug("Session cleared successfully");
-        logger.trace("Exiting clearSession() method");
+            logger.info("Replacing session. Slot: {}, Previous SessionId: {}, New SessionId: {}",
+                    slot, maskSessionId(previous.sessionId()), maskSessionId(sessionId));
+        }
     }
 
     /**
      * Masks the session ID for secure logging.
      * Only shows first 8 characters followed by asterisks.
-     * 
+     *
      * @param sessionId the session ID to mask
      * @return masked session ID for logging
      */
@@ -171,4 +574,76 @@ public class GlobalSessionService {
         }
         return sessionId.substring(0, 8) + "***";
     }
+
+    /**
+     * Immutable state of one pooled session. A refresh publishes a new snapshot
+     * instead of changing this one.
+     *
+     * @param sessionId OmniDocs UserDBId
+     * @param createdAt when the session was created
+     * @param refreshedAt when the session was last created or extended
+     * @param expiresAt when OmniDocs is expected to expire the session
+     * @param refreshDueAt when the session should be refreshed ahead of its expiry
+     */
+    public record SessionSnapshot(String sessionId, Instant createdAt, Instant refreshedAt,
+                                  Instant expiresAt, Instant refreshDueAt) {
+    }
+
+    /**
+     * Session leased to one request. Closing the lease returns it to the pool.
+     */
+    public final class Lease implements AutoCloseable {
+        private final int slot;
+        private SessionSnapshot session;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(int slot, SessionSnapshot session) {
+            this.slot = slot;
+            this.session = session;
+        }
+
+        /**
+         * @return id of the leased session
+         */
+        public String getSessionId() {
+            return session.sessionId();
+        }
+
+        /**
+         * Replaces the leased session after OmniDocs rejected it, and moves the lease
+         * to the new session. Leases on the same rejected session share one reconnect.
+         *
+         * @return {@code true} if this lease reconnected, {@code false} if it joined
+         *         another lease's reconnect or the session had already been replaced
+         * @throws CabinetConnectionException if the cabinet cannot be reconnected
+         */
+        public boolean renew() {
+            SingleFlight.Result<SessionSnapshot> result = create(slot, session);
+            session = result.value();
+            return !result.shared();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                inFlight.decrementAndGet(slot);
+            }
+        }
+    }
+
+    /**
+     * Monitoring view of one slot.
+     *
+     * @param slot slot number
+     * @param sessionId masked session id, or null for an empty slot
+     * @param inFlight requests currently using the slot
+     * @param leases requests served by the slot
+     * @param createdAt when the session was created
+     * @param refreshedAt when the session was last created or extended
+     * @param expiresAt when OmniDocs is expected to expire the session
+     * @param ageSeconds age of the session
+     */
+    public record SessionInfo(int slot, String sessionId, int inFlight, long leases, Instant createdAt,
+                              Instant refreshedAt, Instant expiresAt, long ageSeconds) {
+    }
 }
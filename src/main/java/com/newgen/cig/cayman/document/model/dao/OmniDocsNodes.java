@@ -0,0 +1,467 @@
+package com.newgen.cig.cayman.document.model.dao;
+
+import com.newgen.cig.cayman.document.exception.DocumentNotFoundException;
+import com.newgen.cig.cayman.document.exception.InvalidParameterException;
+import com.newgen.cig.cayman.document.exception.SessionExpiredException;
+import com.newgen.cig.cayman.document.exception.TooManyRequestsException;
+import com.newgen.cig.cayman.document.utils.NodeBalancer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Spreads OmniDocs calls over the REST web service nodes of a cabinet.
+ *
+ * <p>Every call made by {@link ConnectCabinet} and
+ * {@link com.newgen.cig.cayman.document.implementation.DocumentImpl} goes through
+ * {@link #call(String, Function)}, which picks a node with {@link NodeBalancer} and
+ * records the outcome against it. Without {@code nodes.urls}, {@code siteURL} is the
+ * only node and calls behave as before.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.connect.cabinet.nodes:
+ *   urls:                        # Base URLs of the nodes; siteURL when empty
+ *   selection: least-outstanding # least-outstanding | ewma
+ *   sticky: false                # Sessions are only valid on the node that created them
+ *   ewmaDecayMs: 10000           # How fast old latencies lose weight
+ *   ejection:
+ *     consecutiveFailures: 5     # Failed or slow calls in a row that eject a node
+ *     slowCallDurationMs: 10000  # Calls slower than this count as failed
+ *     baseMs: 30000              # First ejection; each further one in a row lasts longer
+ *     maxMs: 300000              # Longest ejection
+ *   probe:
+ *     enabled: true
+ *     intervalMs: 10000
+ *     timeoutMs: 2000            # Connect and read timeout of a probe
+ *     path:                      # Probed below each node; siteURI when empty
+ * </pre>
+ *
+ * <h3>Outcomes:</h3>
+ * <p>A call fails against its node when the node cannot be reached, answers with an
+ * error or sends a response that cannot be read. Document not found, invalid
+ * parameters, expired sessions and throttling are answers, and aborted hedges are
+ * not counted at all. A streamed call is answered once its content starts to flow,
+ * so its latency is the time to the first byte and a later client write failure is
+ * not held against the node.</p>
+ *
+ * <h3>Sticky Sessions:</h3>
+ * <p>With {@code sticky: true} a session is bound to the node that created it and
+ * every call with that session is sent there. When that node is ejected or fails its
+ * probe while another node is available, calls with the session throw
+ * {@link SessionExpiredException}, so the session is renewed on a healthy node, and
+ * keep-alives report it invalid. A session the balancer has not seen, such as one
+ * restored at startup, is bound to the first node it is used on.</p>
+ *
+ * <h3>Health Probing:</h3>
+ * <p>With more than one node, each node is sent a GET on {@code probe.path} every
+ * {@code probe.intervalMs}. Any answer below 500 marks the node healthy; a server
+ * error or no answer within {@code probe.timeoutMs} takes it out of rotation until a
+ * probe succeeds again. Probes use a client of their own rather than the cabinet's
+ * connection pool, and run in parallel on probe threads, so a hanging node neither
+ * delays the probes of the others nor holds up the scheduler that refreshes sessions.
+ * A node still being probed is skipped until its probe ends.</p>
+ *
+ * <h3>Metrics:</h3>
+ * <p>Calls are timed in {@code omnidocs.node.requests} tagged {@code node} and
+ * {@code outcome=success|failure}. Per node, {@code omnidocs.node.inflight},
+ * {@code omnidocs.node.latency} (the decayed average) and {@code omnidocs.node.available}
+ * are exported, and ejections are counted in {@code omnidocs.node.ejections}.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Component
+public class OmniDocsNodes {
+
+    private static final Logger logger = LoggerFactory.getLogger(OmniDocsNodes.class);
+
+    @Autowired
+    private CabinetProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.urls:}")
+    private String[] urls;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.selection:least-outstanding}")
+    private String selection;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.sticky:false}")
+    private boolean sticky;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.ewmaDecayMs:10000}")
+    private long ewmaDecayMs;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.ejection.consecutiveFailures:5}")
+    private int consecutiveFailures;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.ejection.slowCallDurationMs:10000}")
+    private long slowCallDurationMs;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.ejection.baseMs:30000}")
+    private long ejectionBaseMs;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.ejection.maxMs:300000}")
+    private long ejectionMaxMs;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.probe.enabled:true}")
+    private boolean probeEnabled;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.probe.timeoutMs:2000}")
+    private int probeTimeoutMs;
+
+    @Value("${newgen.cayman.connect.cabinet.nodes.probe.path:}")
+    private String probePath;
+
+    private NodeBalancer balancer;
+    private final Map<String, NodeBalancer.Node> sessionNodes = new ConcurrentHashMap<>();
+    private final Map<NodeBalancer.Node, Timer> successes = new HashMap<>();
+    private final Map<NodeBalancer.Node, Timer> failures = new HashMap<>();
+    private final Map<NodeBalancer.Node, Counter> ejections = new HashMap<>();
+    private final Set<NodeBalancer.Node> probing = ConcurrentHashMap.newKeySet();
+    private RestTemplate probeClient;
+    private ThreadPoolTaskExecutor probeExecutor;
+
+    @PostConstruct
+    public void init() {
+        List<String> nodeUrls = new ArrayList<>();
+        for (String url : urls) {
+            if (!url.isBlank()) {
+                nodeUrls.add(stripTrailingSlash(url.trim()));
+            }
+        }
+        if (nodeUrls.isEmpty()) {
+            nodeUrls.add(stripTrailingSlash(properties.getSiteURL()));
+        }
+        try {
+            balancer = new NodeBalancer(nodeUrls, NodeBalancer.Selection.of(selection),
+                    TimeUnit.MILLISECONDS.toNanos(ewmaDecayMs), consecutiveFailures,
+                    TimeUnit.MILLISECONDS.toNanos(slowCallDurationMs),
+                    TimeUnit.MILLISECONDS.toNanos(ejectionBaseMs), TimeUnit.MILLISECONDS.toNanos(ejectionMaxMs));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid newgen.cayman.connect.cabinet.nodes configuration: "
+                    + e.getMessage(), e);
+        }
+        for (NodeBalancer.Node node : balancer.getNodes()) {
+            successes.put(node, requestTimer(node, "success"));
+            failures.put(node, requestTimer(node, "failure"));
+            ejections.put(node, Counter.builder("omnidocs.node.ejections")
+                    .description("Times an OmniDocs node was taken out of rotation after failed or slow calls")
+                    .tag("node", node.getUrl())
+                    .register(meterRegistry));
+            Gauge.builder("omnidocs.node.inflight", node, NodeBalancer.Node::getInFlight)
+                    .description("OmniDocs calls in flight on a node")
+                    .tag("node", node.getUrl())
+                    .register(meterRegistry);
+            Gauge.builder("omnidocs.node.latency", node, n -> n.getEwmaNanos() / 1_000_000.0)
+                    .description("Decayed average latency of an OmniDocs node")
+                    .tag("node", node.getUrl())
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("omnidocs.node.available", node, n -> n.isAvailable() ? 1 : 0)
+                    .description("Whether an OmniDocs node is in rotation")
+                    .tag("node", node.getUrl())
+                    .register(meterRegistry);
+        }
+        if (probeEnabled && nodeUrls.size() > 1) {
+            SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+            requestFactory.setConnectTimeout(probeTimeoutMs);
+            requestFactory.setReadTimeout(probeTimeoutMs);
+            probeClient = new RestTemplate(requestFactory);
+            probeExecutor = new ThreadPoolTaskExecutor();
+            probeExecutor.setCorePoolSize(nodeUrls.size());
+            probeExecutor.setMaxPoolSize(nodeUrls.size());
+            probeExecutor.setThreadNamePrefix("omnidocs-probe-" + properties.getCabinetName() + "-");
+            probeExecutor.initialize();
+        }
+        logger.info("OmniDocs nodes configured. Nodes: {}, Selection: {}, Sticky: {}, ConsecutiveFailures: {}, "
+                        + "SlowCall: {} ms, Ejection: {}-{} ms",
+                nodeUrls, selection, sticky, consecutiveFailures, slowCallDurationMs, ejectionBaseMs, ejectionMaxMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (probeExecutor != null) {
+            probeExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return the nodes of this cabinet, in configuration order
+     */
+    public List<NodeBalancer.Node> getNodes() {
+        return balancer.getNodes();
+    }
+
+    /**
+     * @return {@code true} if sessions are bound to the node that created them
+     */
+    public boolean isSticky() {
+        return sticky;
+    }
+
+    /**
+     * Sends a call to a node picked by the balancer and records its outcome.
+     *
+     * @param sessionId session the call is made with, or {@code null} for a login
+     * @param request the call, given the attempt holding the node's base URL
+     * @return result of the call
+     * @throws SessionExpiredException if sessions are sticky and the session's node is
+     *         out of rotation while another node is available
+     */
+    public <T> T call(String sessionId, Function<Attempt, T> request) {
+        return call(nodeFor(sessionId), request);
+    }
+
+    /**
+     * Sends a call to the given node and records its outcome.
+     *
+     * @param node node to call
+     * @param request the call, given the attempt holding the node's base URL
+     * @return result of the call
+     */
+    public <T> T call(NodeBalancer.Node node, Function<Attempt, T> request) {
+        Attempt attempt = new Attempt(node);
+        node.start();
+        boolean failed = true;
+        boolean abandoned = false;
+        try {
+            T result = request.apply(attempt);
+            failed = false;
+            return result;
+        } catch (CancellationException e) {
+            abandoned = true;
+            throw e;
+        } catch (RuntimeException e) {
+            failed = isNodeFailure(e);
+            throw e;
+        } finally {
+            if (abandoned) {
+                node.abandon();
+            } else {
+                complete(attempt, failed && attempt.answeredAt == 0);
+            }
+        }
+    }
+
+    /**
+     * Picks the node for a new login.
+     *
+     * @return the chosen node
+     */
+    public NodeBalancer.Node choose() {
+        return balancer.choose();
+    }
+
+    /**
+     * Binds a session to the node that created it. Does nothing unless sessions are sticky.
+     *
+     * @param sessionId id of the new session
+     * @param node node that created it
+     */
+    public void bind(String sessionId, NodeBalancer.Node node) {
+        if (sticky) {
+            sessionNodes.put(sessionId, node);
+        }
+    }
+
+    /**
+     * Returns the node a session was created on, whether or not it is in rotation,
+     * so the session can still be ended there.
+     *
+     * @param sessionId id of a session
+     * @return the session's node if sessions are sticky and it is known, otherwise a
+     *         node picked by the balancer
+     */
+    public NodeBalancer.Node nodeOf(String sessionId) {
+        NodeBalancer.Node node = sticky && sessionId != null ? sessionNodes.get(sessionId) : null;
+        return node != null ? node : balancer.choose();
+    }
+
+    /**
+     * Forgets the node of a session that was disconnected.
+     *
+     * @param sessionId id of the disconnected session
+     */
+    public void unbind(String sessionId) {
+        sessionNodes.remove(sessionId);
+    }
+
+    /**
+     * @param sessionId id of a session
+     * @return {@code false} if sessions are sticky and the session's node is out of rotation
+     *         while another node is available
+     */
+    public boolean isSessionNodeAvailable(String sessionId) {
+        if (!sticky || sessionId == null) {
+            return true;
+        }
+        NodeBalancer.Node node = sessionNodes.get(sessionId);
+        return node == null || node.isAvailable() || !balancer.hasAvailable();
+    }
+
+    /**
+     * Returns the node a call with the session must go to.
+     *
+     * @param sessionId id of a session, or {@code null}
+     * @return the session's node if sessions are sticky, otherwise a node picked by the balancer
+     * @throws SessionExpiredException if the session's node is out of rotation while
+     *         another node is available
+     */
+    public NodeBalancer.Node nodeFor(String sessionId) {
+        if (!sticky || sessionId == null) {
+            return balancer.choose();
+        }
+        NodeBalancer.Node node = sessionNodes.computeIfAbsent(sessionId, id -> balancer.choose());
+        if (!node.isAvailable() && balancer.hasAvailable()) {
+            logger.warn("Node of session is out of rotation. Session will be renewed. Node: {}", node.getUrl());
+            throw new SessionExpiredException("OmniDocs node of the session is unavailable: " + node.getUrl());
+        }
+        return node;
+    }
+
+    /**
+     * Starts probing every node on the probe threads and returns without waiting.
+     * Nodes that do not answer are taken out of rotation. Skipped when the cabinet has
+     * a single node.
+     */
+    @Scheduled(fixedDelayString = "${newgen.cayman.connect.cabinet.nodes.probe.intervalMs:10000}",
+            initialDelayString = "${newgen.cayman.connect.cabinet.nodes.probe.intervalMs:10000}")
+    public void probeNodes() {
+        if (probeExecutor == null) {
+            return;
+        }
+        String path = probePath == null || probePath.isBlank() ? properties.getSiteURI() : probePath;
+        for (NodeBalancer.Node node : balancer.getNodes()) {
+            if (!probing.add(node)) {
+                logger.debug("Previous health probe still running. Node: {}", node.getUrl());
+                continue;
+            }
+            try {
+                probeExecutor.execute(() -> {
+                    try {
+                        probeNode(node, path);
+                    } finally {
+                        probing.remove(node);
+                    }
+                });
+            } catch (RuntimeException e) {
+                probing.remove(node);
+                logger.warn("Unable to start health probe. Node: {}", node.getUrl(), e);
+            }
+        }
+    }
+
+    private void probeNode(NodeBalancer.Node node, String path) {
+        boolean healthy = probe(node.getUrl() + path);
+        if (healthy != node.isHealthy()) {
+            if (healthy) {
+                logger.info("OmniDocs node answered its health probe. Back in rotation. Node: {}", node.getUrl());
+            } else {
+                logger.warn("OmniDocs node failed its health probe. Out of rotation. Node: {}", node.getUrl());
+            }
+        }
+        node.setHealthy(healthy);
+    }
+
+    private boolean probe(String url) {
+        try {
+            probeClient.getForEntity(url, String.class);
+            return true;
+        } catch (HttpClientErrorException e) {
+            return true;
+        } catch (RestClientException e) {
+            logger.debug("Health probe failed. Url: {}: {}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    private void complete(Attempt attempt, boolean failed) {
+        NodeBalancer.Node node = attempt.node;
+        long latency = attempt.latencyNanos();
+        (failed ? failures : successes).get(node).record(latency, TimeUnit.NANOSECONDS);
+        if (node.complete(latency, failed)) {
+            ejections.get(node).increment();
+            logger.warn("OmniDocs node ejected after failed or slow calls. Node: {}", node.getUrl());
+        }
+    }
+
+    private static boolean isNodeFailure(RuntimeException e) {
+        return !(e instanceof DocumentNotFoundException
+                || e instanceof InvalidParameterException
+                || e instanceof SessionExpiredException
+                || e instanceof TooManyRequestsException);
+    }
+
+    private Timer requestTimer(NodeBalancer.Node node, String outcome) {
+        return Timer.builder("omnidocs.node.requests")
+                .description("OmniDocs calls sent to a node")
+                .tag("node", node.getUrl())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * One call on a node.
+     */
+    public static final class Attempt {
+        private final NodeBalancer.Node node;
+        private final long startedAt = System.nanoTime();
+        private volatile long answeredAt;
+
+        private Attempt(NodeBalancer.Node node) {
+            this.node = node;
+        }
+
+        /**
+         * @return base URL of the node the call goes to
+         */
+        public String getBaseUrl() {
+            return node.getUrl();
+        }
+
+        /**
+         * Marks the call answered: latency stops here and a later failure is not
+         * held against the node.
+         */
+        public void answered() {
+            if (answeredAt == 0) {
+                answeredAt = System.nanoTime();
+            }
+        }
+
+        private long latencyNanos() {
+            return (answeredAt != 0 ? answeredAt : System.nanoTime()) - startedAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.newgen.cig.cayman.document.model.dto;
+
+import com.newgen.cig.cayman.document.model.enums.ErrorCode;
+
+/**
+ * Outcome of fetching one document of a batch: either the document or the
+ * error that prevented it.
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class BatchDocumentItem {
+
+    private final String docIndex;
+    private final DocumentFile document;
+    private final ErrorCode errorCode;
+    private final String message;
+
+    private BatchDocumentItem(String docIndex, DocumentFile document, ErrorCode errorCode, String message) {
+        this.docIndex = docIndex;
+        this.document = document;
+        this.errorCode = errorCode;
+        this.message = message;
+    }
+
+    public static BatchDocumentItem success(String docIndex, DocumentFile document) {
+        return new BatchDocumentItem(docIndex, document, null, "OK");
+    }
+
+    public static BatchDocumentItem failure(String docIndex, ErrorCode errorCode, String message) {
+        return new BatchDocumentItem(docIndex, null, errorCode, message);
+    }
+
+    public String getDocIndex() {
+        return docIndex;
+    }
+
+    /**
+     * @return fetched document, or {@code null} if the fetch failed
+     */
+    public DocumentFile getDocument() {
+        return document;
+    }
+
+    /**
+     * @return error code, or {@code null} on success
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isSuccess() {
+        return document != null;
+    }
+
+    /**
+     * @return HTTP status describing this item
+     */
+    public int getStatus() {
+        return errorCode == null ? 200 : errorCode.getHttpStatus().value();
+    }
+}
@@ -0,0 +1,10 @@
+package com.newgen.cig.cayman.document.model.dto;
+
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/v1/documents/batch} and {@code POST /api/v1/documents/zip}.
+ *
+ * @param docIndexes document indexes to fetch; duplicates are fetched once
+ */
+public record BatchDocumentRequest(List<String> docIndexes) {}
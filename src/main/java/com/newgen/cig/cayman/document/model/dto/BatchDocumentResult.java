@@ -0,0 +1,24 @@
+package com.newgen.cig.cayman.document.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of an NDJSON batch response, describing a single document.
+ *
+ * <p>Successful items carry the document as base64 in {@code data}; failed items
+ * carry the error code and message instead, so one missing document does not
+ * fail the whole batch.</p>
+ *
+ * @param docIndex requested document index
+ * @param status HTTP status for this document
+ * @param errorCode application error code when the fetch failed
+ * @param message status message
+ * @param documentName document name from OmniDocs
+ * @param createdByAppName document extension from OmniDocs
+ * @param contentType content type derived from the extension
+ * @param data base64 document content
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchDocumentResult(String docIndex, int status, String errorCode, String message,
+                                  String documentName, String createdByAppName, String contentType,
+                                  String data) {}
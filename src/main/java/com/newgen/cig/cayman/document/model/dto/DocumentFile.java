@@ -0,0 +1,48 @@
+package com.newgen.cig.cayman.document.model.dto;
+
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.utils.Digests;
+
+/**
+ * Decoded document bytes together with the metadata of the call that produced them.
+ *
+ * <p>Immutable and created per request, so controllers can build response
+ * headers without reading shared state.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class DocumentFile {
+
+    private final DocumentResponse metadata;
+    private final byte[] content;
+    private volatile String digest;
+
+    public DocumentFile(DocumentResponse metadata, byte[] content) {
+        this.metadata = metadata;
+        this.content = content;
+    }
+
+    /**
+     * @return document metadata; {@code docContent} is not populated
+     */
+    public DocumentResponse getMetadata() {
+        return metadata;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * @return hex SHA-256 of the content, computed on first use
+     */
+    public String getDigest() {
+        String value = digest;
+        if (value == null) {
+            value = Digests.sha256Hex(content);
+            digest = value;
+        }
+        return value;
+    }
+}
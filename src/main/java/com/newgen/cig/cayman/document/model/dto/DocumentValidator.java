@@ -0,0 +1,59 @@
+package com.newgen.cig.cayman.document.model.dto;
+
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+
+/**
+ * Cache validators for a document: its entity tag and the metadata needed to
+ * answer a conditional request without fetching content.
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class DocumentValidator {
+
+    private final String etag;
+    private final String digest;
+    private final DocumentResponse metadata;
+
+    public DocumentValidator(String etag, String digest, DocumentResponse metadata) {
+        this.etag = etag;
+        this.digest = digest;
+        this.metadata = metadata;
+    }
+
+    /**
+     * @return quoted strong entity tag for the decoded document
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return entity tag of the base64 JSON representation, which differs from the binary one
+     */
+    public String getBase64Etag() {
+        return base64Etag(etag);
+    }
+
+    /**
+     * @param etag quoted entity tag of the decoded document, may be {@code null}
+     * @return entity tag of its base64 JSON representation, or {@code null}
+     */
+    public static String base64Etag(String etag) {
+        return etag == null ? null : etag.substring(0, etag.length() - 1) + "-b64\"";
+    }
+
+    /**
+     * @return hex SHA-256 of the decoded content
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return document metadata; {@code docContent} is not populated
+     */
+    public DocumentResponse getMetadata() {
+        return metadata;
+    }
+}
@@ -0,0 +1,75 @@
+package com.newgen.cig.cayman.document.model.dto;
+
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import org.springframework.core.io.Resource;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A document available locally, in memory or on disk, so that byte ranges can
+ * be served from it without going back to OmniDocs.
+ *
+ * <p>A copy backed by the disk cache keeps its file pinned until {@link #close()};
+ * a copy spooled to a temporary file deletes it on close.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class LocalDocument implements AutoCloseable {
+
+    private final DocumentResponse metadata;
+    private final Resource resource;
+    private final long contentLength;
+    private final String digest;
+    private final Runnable release;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public LocalDocument(DocumentResponse metadata, Resource resource, long contentLength, String digest) {
+        this(metadata, resource, contentLength, digest, () -> { });
+    }
+
+    public LocalDocument(DocumentResponse metadata, Resource resource, long contentLength, String digest,
+                         Runnable release) {
+        this.metadata = metadata;
+        this.resource = resource;
+        this.contentLength = contentLength;
+        this.digest = digest;
+        this.release = release;
+    }
+
+    /**
+     * @return document metadata; {@code docContent} is not populated
+     */
+    public DocumentResponse getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return readable, seekable view of the decoded content
+     */
+    public Resource getResource() {
+        return resource;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return hex SHA-256 of the content, or {@code null} if unknown
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Releases the underlying cached or temporary file, if any. Closing twice has no
+     * further effect.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+}
@@ -14,28 +14,30 @@ import java.util.Arrays;
  */
 public enum DocumentType {
 
-    DOCX("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
-    GIF("gif", MediaType.IMAGE_GIF_VALUE),
-    HEIC("heic", "image/heic"),
-    JFIF("jfif", "image/jpeg"),
-    JPEG("jpeg", MediaType.IMAGE_JPEG_VALUE),
-    JPG("jpg", MediaType.IMAGE_JPEG_VALUE),
-    JSP("jsp", "text/html"),
-    PDF("pdf", MediaType.APPLICATION_PDF_VALUE),
-    PNG("png", MediaType.IMAGE_PNG_VALUE),
-    TIF("tif", "image/tiff"),
-    TIFF("tiff", "image/tiff"),
-    TXT("txt", MediaType.TEXT_PLAIN_VALUE),
-    ZIP("zip", "application/zip");
+    DOCX("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document", true),
+    GIF("gif", MediaType.IMAGE_GIF_VALUE, true),
+    HEIC("heic", "image/heic", true),
+    JFIF("jfif", "image/jpeg", true),
+    JPEG("jpeg", MediaType.IMAGE_JPEG_VALUE, true),
+    JPG("jpg", MediaType.IMAGE_JPEG_VALUE, true),
+    JSP("jsp", "text/html", false),
+    PDF("pdf", MediaType.APPLICATION_PDF_VALUE, true),
+    PNG("png", MediaType.IMAGE_PNG_VALUE, true),
+    TIF("tif", "image/tiff", false),
+    TIFF("tiff", "image/tiff", false),
+    TXT("txt", MediaType.TEXT_PLAIN_VALUE, false),
+    ZIP("zip", "application/zip", true);
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentType.class);
 
     private final String extension;
     private final String contentType;
+    private final boolean compressed;
 
-    DocumentType(String extension, String contentType){
+    DocumentType(String extension, String contentType, boolean compressed){
         this.extension = extension;
         this.contentType = contentType;
+        this.compressed = compressed;
     }
 
     public String getExtension() {
@@ -46,6 +48,13 @@ public enum DocumentType {
         return contentType;
     }
 
+    /**
+     * @return whether the format is already compressed, so deflating it again gains nothing
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
     /**
      * Resolves {@link DocumentType} from a file extension.
      *
@@ -0,0 +1,779 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.newgen.cig.cayman.document.model.dao.CabinetProperties;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.utils.Digests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Second cache tier that keeps decoded documents as files on local disk.
+ *
+ * <p>Intended for documents too large for {@link DocumentCacheService}. Each entry
+ * is a {@code .bin} content file plus a {@code .meta} properties file holding the
+ * OmniDocs metadata and the name of the content file. Both are written to temporary
+ * names and moved into place atomically, so a crash never leaves a half-written
+ * entry visible. Every write gets a content file of its own, so replacing an entry
+ * never changes the bytes of a file being read. On startup the index is rebuilt
+ * from the {@code .meta} files, ordered by the content file's last-modified time,
+ * which is touched on every hit; this keeps LRU order across restarts.</p>
+ *
+ * <h3>Pinning:</h3>
+ * <p>{@link #get(String)} returns a pinned file, which the caller releases with
+ * {@link CachedFile#release()} once it has finished reading. Eviction, expiry and
+ * invalidation remove an entry from the index at once, but never delete a pinned
+ * file. A released file that was read recently is deleted by the second
+ * {@link #sweep()} after its last read, so a container that opens the file just
+ * after the request handler returns (Tomcat sendfile, a {@code Resource} body)
+ * still finds it; once open, a deleted file stays readable. Files awaiting deletion
+ * do not count towards {@code maxSizeBytes}.</p>
+ *
+ * <h3>Entries being written:</h3>
+ * <p>Bytes written to a {@link PendingFile} count towards {@code maxSizeBytes} as
+ * they are written, evicting older entries to make room. A pending file that grows
+ * past {@code maxEntryBytes}, for which OmniDocs may not have declared a size, or
+ * that finds no room left by other pending files, is given up and deleted at once.</p>
+ *
+ * <p>getDocumentJSON reports no document version, so entries expire
+ * {@code ttlSeconds} after they were written, and {@link #invalidate(String)} drops
+ * a document known to have changed.</p>
+ *
+ * <p>The index is guarded by a {@link ReentrantLock} rather than a monitor, because
+ * files are moved and evicted while it is held; a virtual thread blocked on that
+ * I/O would otherwise pin its carrier thread.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document.cache.disk:
+ *   enabled: true
+ *   directory: /var/cache/caymen-documents
+ *   maxSizeBytes: 10737418240   # LRU budget for all cached files
+ *   maxEntryBytes: 1073741824   # Larger documents are never written
+ *   ttlSeconds: 86400           # Time to live after writing; 0 keeps entries until evicted
+ *   sweepIntervalMs: 60000      # Expiry and deferred deletion check
+ * </pre>
+ *
+ * <h3>Metrics:</h3>
+ * <ul>
+ *   <li>{@code documents.disk.cache.requests} tagged {@code result=hit|miss}</li>
+ *   <li>{@code documents.disk.cache.bytes} and {@code documents.disk.cache.entries}</li>
+ *   <li>{@code documents.disk.cache.pending.bytes}, written to entries not yet committed</li>
+ *   <li>{@code documents.disk.cache.evictions} and {@code documents.disk.cache.expirations}</li>
+ * </ul>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Service
+public class DiskDocumentCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskDocumentCacheService.class);
+    private static final String DATA_SUFFIX = ".bin";
+    private static final String META_SUFFIX = ".meta";
+    private static final String TEMP_MARKER = ".tmp-";
+
+    @Autowired
+    private CabinetProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${newgen.cayman.document.cache.disk.enabled:false}")
+    private boolean enabled;
+
+    @Value("${newgen.cayman.document.cache.disk.directory:${java.io.tmpdir}/caymen-document-cache}")
+    private String directory;
+
+    @Value("${newgen.cayman.document.cache.disk.maxSizeBytes:10737418240}")
+    private long maxSizeBytes;
+
+    @Value("${newgen.cayman.document.cache.disk.maxEntryBytes:1073741824}")
+    private long maxEntryBytes;
+
+    @Value("${newgen.cayman.document.cache.disk.ttlSeconds:86400}")
+    private long ttlSeconds;
+
+    /** Access-ordered index; iteration starts at the least recently used entry. Guarded by {@link #lock}. */
+    private final LinkedHashMap<String, CachedFile> index = new LinkedHashMap<>(64, 0.75f, true);
+    /** Files no longer indexed that are pinned or were read recently. Guarded by {@link #lock}. */
+    private final List<CachedFile> retired = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Bytes of indexed entries. Written under {@link #lock}; read without it to check the budget. */
+    private volatile long totalBytes;
+    /** Bytes written to pending files that have not been committed or given up. */
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    private Path root;
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+    private Counter expirations;
+
+    @PostConstruct
+    public void init() {
+        logger.info("Disk document cache initialized. Enabled: {}, Directory: {}, MaxSize: {} bytes, MaxEntry: {} bytes, TTL: {} s",
+                enabled, directory, maxSizeBytes, maxEntryBytes, ttlSeconds);
+        hits = Counter.builder("documents.disk.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("documents.disk.cache.requests").tag("result", "miss").register(meterRegistry);
+        evictions = Counter.builder("documents.disk.cache.evictions").register(meterRegistry);
+        expirations = Counter.builder("documents.disk.cache.expirations").register(meterRegistry);
+        Gauge.builder("documents.disk.cache.bytes", this, DiskDocumentCacheService::getTotalBytes)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("documents.disk.cache.entries", this, DiskDocumentCacheService::getEntryCount)
+                .register(meterRegistry);
+        Gauge.builder("documents.disk.cache.pending.bytes", pendingBytes, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+
+        if (!enabled) {
+            return;
+        }
+        try {
+            root = Files.createDirectories(Paths.get(directory));
+            loadIndex();
+        } catch (IOException e) {
+            logger.error("Unable to initialize disk document cache at {}. Disk cache disabled.", directory, e);
+            enabled = false;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Looks up a document and pins its file for reading.
+     *
+     * @param docIndex document index
+     * @return pinned cached file, to be released by the caller, or {@code null} on a
+     *         miss or when the cache is disabled
+     */
+    public CachedFile get(String docIndex) {
+        if (!enabled) {
+            return null;
+        }
+        String key = key(docIndex);
+        CachedFile file;
+        lock.lock();
+        try {
+            file = index.get(key);
+            if (file != null && file.isExpired()) {
+                index.remove(key);
+                expirations.increment();
+                discard(file);
+                logger.debug("Disk cache entry expired. DocIndex: {}", docIndex);
+                file = null;
+            }
+            if (file != null) {
+                file.pinLocked();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (file != null && !Files.isRegularFile(file.getPath())) {
+            file.release();
+            file = null;
+        }
+        if (file == null) {
+            misses.increment();
+            logger.debug("Disk cache miss. DocIndex: {}", docIndex);
+            return null;
+        }
+        hits.increment();
+        try {
+            Files.setLastModifiedTime(file.getPath(), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Unable to touch cached file {}", file.getPath(), e);
+        }
+        logger.debug("Disk cache hit. DocIndex: {}, Size: {} bytes", docIndex, file.getSize());
+        return file;
+    }
+
+    /**
+     * Drops a document, for use when it has changed in OmniDocs. A file being read
+     * is deleted once released.
+     *
+     * @param docIndex document index
+     */
+    public void invalidate(String docIndex) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            CachedFile file = index.remove(key(docIndex));
+            if (file != null) {
+                discard(file);
+                logger.debug("Disk cache entry invalidated. DocIndex: {}", docIndex);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Expires entries past their time to live and deletes released files that are
+     * no longer indexed. A file read since the previous sweep is kept until the next.
+     */
+    @Scheduled(fixedDelayString = "${newgen.cayman.document.cache.disk.sweepIntervalMs:60000}",
+            initialDelayString = "${newgen.cayman.document.cache.disk.sweepIntervalMs:60000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            Iterator<CachedFile> live = index.values().iterator();
+            while (live.hasNext()) {
+                CachedFile file = live.next();
+                if (file.isExpired()) {
+                    live.remove();
+                    expirations.increment();
+                    discard(file);
+                } else if (file.pins == 0) {
+                    file.recentlyRead = false;
+                }
+            }
+            Iterator<CachedFile> pending = retired.iterator();
+            while (pending.hasNext()) {
+                CachedFile file = pending.next();
+                if (file.pins > 0) {
+                    continue;
+                }
+                if (file.recentlyRead) {
+                    file.recentlyRead = false;
+                } else if (deleteData(file)) {
+                    pending.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts writing a new entry. Bytes written to the returned writer go to a
+     * temporary file that only becomes visible on {@link PendingFile#commit}.
+     *
+     * @param docIndex document index
+     * @param declaredSize content length reported by OmniDocs, or a negative value if unknown
+     * @return pending entry, or {@code null} when the cache is disabled, the document
+     *         is declared larger than {@code maxEntryBytes} or the file cannot be created
+     */
+    public PendingFile begin(String docIndex, long declaredSize) {
+        if (!enabled) {
+            return null;
+        }
+        if (declaredSize > entryLimit()) {
+            logger.debug("Document too large for disk cache. DocIndex: {}, Size: {} bytes", docIndex, declaredSize);
+            return null;
+        }
+        String key = key(docIndex);
+        Path temp = root.resolve(fileName(key) + DATA_SUFFIX + TEMP_MARKER + UUID.randomUUID());
+        try {
+            return new PendingFile(key, temp, new BufferedOutputStream(Files.newOutputStream(temp)));
+        } catch (IOException e) {
+            logger.warn("Unable to create disk cache file for docIndex: {}", docIndex, e);
+            return null;
+        }
+    }
+
+    /**
+     * Takes ownership of a document file that already exists on disk, such as one
+     * written by OmniDocs to its download location. The file is moved into the cache
+     * directory (a rename when both are on the same file system) and its digest is
+     * computed from the local copy.
+     *
+     * @param docIndex document index
+     * @param source file holding the decoded document; moved, never copied in place
+     * @param metadata OmniDocs metadata stored alongside the content
+     * @return the cached entry, not pinned, or {@code null} when the cache is disabled or the file is too large
+     * @throws IOException if the file cannot be moved or read
+     */
+    public CachedFile adopt(String docIndex, Path source, DocumentResponse metadata) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        String key = key(docIndex);
+        Path temp = root.resolve(fileName(key) + DATA_SUFFIX + TEMP_MARKER + UUID.randomUUID());
+        try {
+            Files.move(source, temp, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.debug("Download location is on another file system. Copying {} into disk cache", source);
+            Files.move(source, temp);
+        }
+        try {
+            return publish(key, temp, digestOf(temp), metadata);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private CachedFile commit(PendingFile pending, DocumentResponse metadata) throws IOException {
+        return publish(pending.key, pending.temp, HexFormat.of().formatHex(pending.digest.digest()), metadata);
+    }
+
+    /** Moves a complete temporary file into place and indexes it. */
+    private CachedFile publish(String key, Path temp, String digest, DocumentResponse metadata) throws IOException {
+        long size = Files.size(temp);
+        if (size > entryLimit()) {
+            logger.debug("Document exceeds disk cache entry limit. Size: {} bytes", size);
+            Files.deleteIfExists(temp);
+            return null;
+        }
+
+        String name = fileName(key);
+        Path data = root.resolve(name + "-" + UUID.randomUUID() + DATA_SUFFIX);
+        Path meta = root.resolve(name + META_SUFFIX);
+        Path metaTemp = root.resolve(name + META_SUFFIX + TEMP_MARKER + UUID.randomUUID());
+        long created = System.currentTimeMillis();
+
+        Properties props = new Properties();
+        props.setProperty("key", key);
+        props.setProperty("data", data.getFileName().toString());
+        props.setProperty("created", String.valueOf(created));
+        props.setProperty("size", String.valueOf(size));
+        props.setProperty("createdByAppName", nullToEmpty(metadata.getCreatedByAppName()));
+        props.setProperty("documentName", nullToEmpty(metadata.getDocumentName()));
+        props.setProperty("documentSize", nullToEmpty(metadata.getDocumentSize()));
+        props.setProperty("documentType", nullToEmpty(metadata.getDocumentType()));
+        props.setProperty("digest", digest);
+        try (OutputStream out = Files.newOutputStream(metaTemp)) {
+            props.store(out, null);
+        }
+
+        CachedFile file = new CachedFile(key, data, size, toMetadata(props), digest, created);
+        file.recentlyRead = true;
+        lock.lock();
+        try {
+            Files.move(temp, data, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(metaTemp, meta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            CachedFile previous = index.put(key, file);
+            if (previous != null) {
+                totalBytes -= previous.getSize();
+                retire(previous);
+            }
+            totalBytes += size;
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Document written to disk cache. Key: {}, Size: {} bytes", key, size);
+        return file;
+    }
+
+    private static String digestOf(Path file) throws IOException {
+        MessageDigest digest = Digests.sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Counts bytes about to be written to a pending file towards the budget,
+     * evicting entries if needed.
+     *
+     * @return {@code false}, with nothing counted, if entries being written take the whole budget
+     */
+    private boolean reserve(long bytes) {
+        if (totalBytes + pendingBytes.addAndGet(bytes) <= maxSizeBytes) {
+            return true;
+        }
+        lock.lock();
+        try {
+            evictIfNeeded();
+            if (totalBytes + pendingBytes.get() <= maxSizeBytes) {
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        pendingBytes.addAndGet(-bytes);
+        return false;
+    }
+
+    /**
+     * Removes least recently used entries until the cache, together with the
+     * entries being written, is within budget. Caller holds the lock.
+     */
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedFile>> it = index.entrySet().iterator();
+        while (totalBytes + pendingBytes.get() > maxSizeBytes && it.hasNext()) {
+            Map.Entry<String, CachedFile> eldest = it.next();
+            it.remove();
+            evictions.increment();
+            discard(eldest.getValue());
+            logger.debug("Evicted document from disk cache. Key: {}", eldest.getKey());
+        }
+    }
+
+    /** Unindexes an entry's files: the meta file now, the content file once it is not read. Caller holds the lock. */
+    private void discard(CachedFile file) {
+        try {
+            Files.deleteIfExists(root.resolve(fileName(file.key) + META_SUFFIX));
+        } catch (IOException e) {
+            logger.warn("Unable to delete disk cache metadata for key: {}", file.key, e);
+        }
+        totalBytes -= file.getSize();
+        retire(file);
+    }
+
+    /** Deletes a content file that is no longer indexed, or defers it while the file is read. Caller holds the lock. */
+    private void retire(CachedFile file) {
+        if (file.pins > 0 || file.recentlyRead || !deleteData(file)) {
+            retired.add(file);
+        }
+    }
+
+    /** Caller holds the lock. */
+    private boolean deleteData(CachedFile file) {
+        try {
+            Files.deleteIfExists(file.getPath());
+            file.deleted = true;
+            return true;
+        } catch (IOException e) {
+            logger.warn("Unable to delete disk cache file {}. Retrying on the next sweep.", file.getPath(), e);
+            return false;
+        }
+    }
+
+    private long entryLimit() {
+        return Math.min(maxEntryBytes, maxSizeBytes);
+    }
+
+    /** Rebuilds the index from {@code .meta} files and removes leftovers from interrupted writes. */
+    private void loadIndex() throws IOException {
+        List<CachedFile> loaded = new ArrayList<>();
+        Set<Path> referenced = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root)) {
+            for (Path path : files) {
+                String name = path.getFileName().toString();
+                if (name.contains(TEMP_MARKER)) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                if (!name.endsWith(META_SUFFIX)) {
+                    continue;
+                }
+                Properties props = new Properties();
+                try (InputStream in = Files.newInputStream(path)) {
+                    props.load(in);
+                }
+                String stem = name.substring(0, name.length() - META_SUFFIX.length());
+                Path data = root.resolve(props.getProperty("data", stem + DATA_SUFFIX));
+                if (!Files.isRegularFile(data)) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                long created = Long.parseLong(props.getProperty("created", String.valueOf(lastModified(data))));
+                CachedFile file = new CachedFile(props.getProperty("key"), data, Files.size(data),
+                        toMetadata(props), props.getProperty("digest"), created);
+                if (file.isExpired()) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                referenced.add(data);
+                loaded.add(file);
+            }
+        }
+        loaded.sort(Comparator.comparingLong(file -> lastModified(file.getPath())));
+
+        lock.lock();
+        try {
+            for (CachedFile file : loaded) {
+                index.put(file.key, file);
+                totalBytes += file.getSize();
+            }
+            evictIfNeeded();
+        } finally {
+            lock.unlock();
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + DATA_SUFFIX)) {
+            for (Path data : files) {
+                if (!referenced.contains(data)) {
+                    Files.deleteIfExists(data);
+                }
+            }
+        }
+        logger.info("Disk document cache index loaded. Entries: {}, Size: {} bytes", index.size(), totalBytes);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static DocumentResponse toMetadata(Properties props) {
+        return new DocumentResponse(props.getProperty("createdByAppName", ""), null,
+                props.getProperty("documentName", ""), props.getProperty("documentSize", ""),
+                props.getProperty("documentType", ""), null, "0");
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private String key(String docIndex) {
+        return DocumentCacheService.cacheKey(properties.getCabinetName(), docIndex);
+    }
+
+    private static String fileName(String key) {
+        return Digests.sha256Hex(key);
+    }
+
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A document held on disk. Files handed out by {@link #get(String)} are pinned
+     * and must be released once read.
+     */
+    public final class CachedFile {
+        private final String key;
+        private final Path path;
+        private final long size;
+        private final DocumentResponse metadata;
+        private final String digest;
+        private final long createdAt;
+        /** Readers holding the file. Guarded by {@link #lock}, as are the flags below. */
+        private int pins;
+        /** Read, or written, since the previous sweep. */
+        private boolean recentlyRead;
+        private boolean deleted;
+
+        private CachedFile(String key, Path path, long size, DocumentResponse metadata, String digest, long createdAt) {
+            this.key = key;
+            this.path = path;
+            this.size = size;
+            this.metadata = metadata;
+            this.digest = digest;
+            this.createdAt = createdAt;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public DocumentResponse getMetadata() {
+            return metadata;
+        }
+
+        /**
+         * @return hex SHA-256 of the content, or {@code null} for entries written before digests were recorded
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * Pins the file so it is not deleted while read.
+         *
+         * @return {@code false} if the file has already been deleted
+         */
+        public boolean pin() {
+            lock.lock();
+            try {
+                if (deleted) {
+                    return false;
+                }
+                pinLocked();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Releases a pin taken by {@link #get(String)} or {@link #pin()}.
+         */
+        public void release() {
+            lock.lock();
+            try {
+                if (pins > 0) {
+                    pins--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void pinLocked() {
+            pins++;
+            recentlyRead = true;
+        }
+
+        private boolean isExpired() {
+            return ttlSeconds > 0 && System.currentTimeMillis() - createdAt >= TimeUnit.SECONDS.toMillis(ttlSeconds);
+        }
+    }
+
+    /**
+     * An entry being written. Write failures are recorded rather than thrown so
+     * that a full disk never breaks the download that is populating the cache.
+     * The same applies once the entry outgrows {@code maxEntryBytes} or the budget.
+     */
+    public final class PendingFile {
+        private final String key;
+        private final Path temp;
+        private final OutputStream file;
+        private final MessageDigest digest = Digests.sha256();
+        private boolean failed;
+        /** Bytes written and counted in {@link #pendingBytes}. */
+        private long written;
+
+        private PendingFile(String key, Path temp, OutputStream file) {
+            this.key = key;
+            this.temp = temp;
+            this.file = file;
+        }
+
+        /**
+         * @return stream receiving the document bytes; never throws
+         */
+        public OutputStream stream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    if (failed) {
+                        return;
+                    }
+                    if (written + len > entryLimit()) {
+                        logger.debug("Document exceeds disk cache entry limit while written. Key: {}, Written: {} bytes",
+                                key, written);
+                        fail();
+                        return;
+                    }
+                    if (!reserve(len)) {
+                        logger.debug("No disk cache budget left for documents being written. Key: {}", key);
+                        fail();
+                        return;
+                    }
+                    written += len;
+                    try {
+                        file.write(b, off, len);
+                        digest.update(b, off, len);
+                    } catch (IOException e) {
+                        logger.warn("Disk cache write failed for key: {}", key, e);
+                        fail();
+                    }
+                }
+            };
+        }
+
+        /**
+         * Publishes the entry atomically.
+         *
+         * @param metadata OmniDocs metadata stored alongside the content
+         */
+        public void commit(DocumentResponse metadata) {
+            unreserve();
+            try {
+                file.close();
+                if (failed) {
+                    Files.deleteIfExists(temp);
+                    return;
+                }
+                DiskDocumentCacheService.this.commit(this, metadata);
+            } catch (IOException e) {
+                logger.warn("Unable to commit disk cache entry for key: {}", key, e);
+                abort();
+            }
+        }
+
+        /**
+         * Discards the entry.
+         */
+        public void abort() {
+            unreserve();
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.debug("Unable to close disk cache file {}", temp, e);
+            }
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("Unable to delete disk cache file {}", temp, e);
+            }
+        }
+
+        /** Stops writing and deletes what was written; {@link #commit} then publishes nothing. */
+        private void fail() {
+            failed = true;
+            abort();
+        }
+
+        private void unreserve() {
+            pendingBytes.addAndGet(-written);
+            written = 0;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.newgen.cig.cayman.document.exception.BaseException;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.model.dto.LocalDocument;
+import com.newgen.cig.cayman.document.model.enums.DocumentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams several documents to the client as a single ZIP archive.
+ *
+ * <p>Documents are fetched ahead of the writer on the shared
+ * {@code documentFetchExecutor}, at most {@code parallelism} at a time. Each fetch
+ * produces a local copy (see {@link DocumentService#openLocalCopy(String)}), so the
+ * archive starts flowing as soon as the first document is ready. Heap use stays
+ * bounded: small documents are held in memory, and larger ones are held in the
+ * on-disk cache, or in a temporary file when the cache cannot take them, and
+ * copied through a fixed buffer. A cached file that disappears before its entry
+ * is written is fetched again. When the archive ends early, because the client
+ * went away or a write failed, prefetches that have not started are dropped and
+ * the copies of those that have are closed once they are ready.</p>
+ *
+ * <p>Already-compressed formats, as flagged by {@link DocumentType#isCompressed()},
+ * are written as {@code STORED} entries; everything else is deflated. Documents
+ * that cannot be fetched are listed in a trailing {@code _errors.txt} entry
+ * instead of failing the archive.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Service
+public class DocumentArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentArchiveService.class);
+    private static final String ERRORS_ENTRY = "_errors.txt";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    @Qualifier("documentFetchExecutor")
+    private Executor executor;
+
+    @Value("${newgen.cayman.document.batch.parallelism:8}")
+    private int parallelism;
+
+    /**
+     * Writes a ZIP archive of the given documents to {@code out}.
+     *
+     * @param docIndexes validated document indexes, in archive order
+     * @param out destination stream; not closed
+     * @throws IOException if writing to the client fails
+     */
+    public void writeZip(List<String> docIndexes, OutputStream out) throws IOException {
+        logger.info("Writing ZIP archive of {} documents with prefetch window {}", docIndexes.size(), parallelism);
+        Deque<Prefetch> window = new ArrayDeque<>();
+        int next = 0;
+        Set<String> names = new HashSet<>();
+        StringBuilder errors = new StringBuilder();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            for (String docIndex : docIndexes) {
+                while (next < docIndexes.size() && window.size() < parallelism) {
+                    String prefetch = docIndexes.get(next++);
+                    window.add(new Prefetch(prefetch));
+                }
+
+                LocalDocument document;
+                try {
+                    document = window.poll().future.get();
+                } catch (ExecutionException e) {
+                    skip(docIndex, e.getCause(), errors);
+                    continue;
+                }
+
+                try (document) {
+                    String name = uniqueName(document.getMetadata(), docIndex, names);
+                    if (!writeEntry(zip, name, document)) {
+                        logger.warn("Local copy of docIndex: {} was removed before it was archived. Fetching it again.", docIndex);
+                        try (LocalDocument refetched = documentService.openLocalCopy(docIndex, true)) {
+                            if (!writeEntry(zip, name, refetched)) {
+                                skip(docIndex, new IOException("Local copy removed again before it was archived"), errors);
+                                continue;
+                            }
+                        } catch (RuntimeException e) {
+                            skip(docIndex, e, errors);
+                            continue;
+                        }
+                    }
+                }
+                logger.debug("ZIP entry written. DocIndex: {}, Size: {} bytes", docIndex, document.getContentLength());
+            }
+
+            if (!errors.isEmpty()) {
+                zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+                zip.write(errors.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+            logger.info("ZIP archive completed. Documents: {}", docIndexes.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing ZIP archive", e);
+        } finally {
+            window.forEach(Prefetch::discard);
+        }
+    }
+
+    /**
+     * One document fetched ahead of the writer on the fetch executor.
+     */
+    private final class Prefetch {
+        private final CompletableFuture<LocalDocument> future = new CompletableFuture<>();
+        /** Set by the task when it starts, or by {@link #discard()} to keep it from starting. */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Prefetch(String docIndex) {
+            executor.execute(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                try {
+                    future.complete(documentService.openLocalCopy(docIndex, true));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+
+        /**
+         * Keeps the fetch from starting if it has not, otherwise closes its copy once it is ready.
+         */
+        private void discard() {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+                return;
+            }
+            future.thenAccept(LocalDocument::close);
+        }
+    }
+
+    private static void skip(String docIndex, Throwable cause, StringBuilder errors) {
+        String reason = cause instanceof BaseException base ? base.getErrorCode().getCode() + " " + base.getMessage()
+                : String.valueOf(cause.getMessage());
+        logger.warn("Skipping document in ZIP archive. DocIndex: {}, Reason: {}", docIndex, reason);
+        errors.append(docIndex).append(": ").append(reason).append('\n');
+    }
+
+    /**
+     * Writes one entry. The content is opened before the entry is started, so a
+     * local copy that has gone missing leaves the archive untouched.
+     *
+     * @return {@code false} if the local copy's file no longer exists
+     */
+    private boolean writeEntry(ZipOutputStream zip, String name, LocalDocument document) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        InputStream in;
+        try {
+            if (isCompressed(document.getMetadata())) {
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(document.getContentLength());
+                entry.setCompressedSize(document.getContentLength());
+                entry.setCrc(crcOf(document));
+            }
+            in = document.getResource().getInputStream();
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            return false;
+        }
+        try (in) {
+            zip.putNextEntry(entry);
+            in.transferTo(zip);
+        }
+        zip.closeEntry();
+        return true;
+    }
+
+    /** STORED entries need their CRC before the data, so local copies are read twice. */
+    private static long crcOf(LocalDocument document) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = document.getResource().getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static boolean isCompressed(DocumentResponse metadata) {
+        try {
+            return DocumentType.fromExtension(metadata.getCreatedByAppName()).isCompressed();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String uniqueName(DocumentResponse metadata, String docIndex, Set<String> names) {
+        String base = metadata.getDocumentName() != null && !metadata.getDocumentName().isBlank()
+                ? metadata.getDocumentName() : docIndex;
+        base = base.replaceAll("[\\\\/:*?\"<>|]", "_");
+        String extension = metadata.getCreatedByAppName() != null && !metadata.getCreatedByAppName().isBlank()
+                ? "." + metadata.getCreatedByAppName() : "";
+        String name = base + extension;
+        for (int copy = 2; !names.add(name); copy++) {
+            name = base + " (" + copy + ")" + extension;
+        }
+        return name;
+    }
+}
@@ -0,0 +1,153 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.newgen.cig.cayman.document.exception.BaseException;
+import com.newgen.cig.cayman.document.exception.InvalidParameterException;
+import com.newgen.cig.cayman.document.exception.MissingParameterException;
+import com.newgen.cig.cayman.document.model.dto.BatchDocumentItem;
+import com.newgen.cig.cayman.document.model.enums.ErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches several documents in parallel and hands each result over as soon as
+ * it is available.
+ *
+ * <p>Fetches run on the shared {@code documentFetchExecutor}, and each batch keeps
+ * at most {@code parallelism} of them in flight, so one large batch cannot occupy
+ * the whole pool or flood OmniDocs. Every document is fetched through
+ * {@link DocumentService}, so the caches and in-flight coalescing apply.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document.batch:
+ *   parallelism: 8    # Concurrent OmniDocs fetches per batch
+ *   maxItems: 100     # Larger batches are rejected
+ * </pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Service
+public class DocumentBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentBatchService.class);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    @Qualifier("documentFetchExecutor")
+    private Executor executor;
+
+    @Value("${newgen.cayman.document.batch.parallelism:8}")
+    private int parallelism;
+
+    @Value("${newgen.cayman.document.batch.maxItems:100}")
+    private int maxItems;
+
+    /**
+     * Receives batch results in completion order.
+     */
+    @FunctionalInterface
+    public interface ResultHandler {
+        void accept(BatchDocumentItem item) throws IOException;
+    }
+
+    /**
+     * Validates and de-duplicates the requested document indexes.
+     *
+     * @param docIndexes requested document indexes
+     * @return distinct document indexes in request order
+     * @throws MissingParameterException if no document index is given
+     * @throws InvalidParameterException if an index is blank or the batch is too large
+     */
+    public List<String> validate(List<String> docIndexes) {
+        if (docIndexes == null || docIndexes.isEmpty()) {
+            logger.warn("Batch request without document indexes");
+            throw new MissingParameterException("docIndexes must contain at least one document index");
+        }
+        LinkedHashSet<String> distinct = new LinkedHashSet<>();
+        for (String docIndex : docIndexes) {
+            if (docIndex == null || docIndex.trim().isEmpty()) {
+                logger.warn("Batch request contains an empty document index");
+                throw new InvalidParameterException("Document index cannot be null or empty");
+            }
+            distinct.add(docIndex.trim());
+        }
+        if (distinct.size() > maxItems) {
+            logger.warn("Batch request too large. Items: {}, Max: {}", distinct.size(), maxItems);
+            throw new InvalidParameterException("A batch may contain at most " + maxItems + " documents");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * Fetches all documents, calling {@code handler} on the caller's thread as each
+     * completes. If the handler fails, for example because the client disconnected,
+     * the remaining fetches are cancelled and the exception is rethrown.
+     *
+     * @param docIndexes validated document indexes
+     * @param handler receives each result
+     * @throws IOException if the handler fails
+     */
+    public void fetchEach(List<String> docIndexes, ResultHandler handler) throws IOException {
+        logger.info("Fetching batch of {} documents with parallelism {}", docIndexes.size(), parallelism);
+        ExecutorCompletionService<BatchDocumentItem> completion = new ExecutorCompletionService<>(executor);
+        List<Future<BatchDocumentItem>> futures = new ArrayList<>();
+        int next = 0;
+        int running = 0;
+        try {
+            while (next < docIndexes.size() && running < parallelism) {
+                futures.add(submit(completion, docIndexes.get(next++)));
+                running++;
+            }
+            while (running > 0) {
+                BatchDocumentItem item = completion.take().get();
+                running--;
+                if (next < docIndexes.size()) {
+                    futures.add(submit(completion, docIndexes.get(next++)));
+                    running++;
+                }
+                logger.debug("Batch item completed. DocIndex: {}, Status: {}", item.getDocIndex(), item.getStatus());
+                handler.accept(item);
+            }
+            logger.info("Batch of {} documents completed", docIndexes.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch fetch task failed unexpectedly", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Future<BatchDocumentItem> submit(ExecutorCompletionService<BatchDocumentItem> completion, String docIndex) {
+        return completion.submit(() -> fetch(docIndex));
+    }
+
+    private BatchDocumentItem fetch(String docIndex) {
+        try {
+            return BatchDocumentItem.success(docIndex, documentService.fetchDocBytes(docIndex));
+        } catch (BaseException e) {
+            logger.warn("Batch item failed. DocIndex: {}, Code: {}", docIndex, e.getErrorCode().getCode());
+            return BatchDocumentItem.failure(docIndex, e.getErrorCode(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error in batch item. DocIndex: {}", docIndex, e);
+            return BatchDocumentItem.failure(docIndex, ErrorCode.DOCUMENT_FETCH_ERROR, e.getMessage());
+        }
+    }
+}
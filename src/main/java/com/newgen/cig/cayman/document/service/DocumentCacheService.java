@@ -0,0 +1,173 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.newgen.cig.cayman.document.model.dao.CabinetProperties;
+import com.newgen.cig.cayman.document.model.dto.DocumentFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * In-memory cache of decoded documents, bounded by total byte size.
+ *
+ * <p>Entries are keyed by cabinet and docIndex and weighed by their content length,
+ * so the cache never holds more than the configured heap budget. Documents larger
+ * than the per-entry cap are never cached.</p>
+ *
+ * <p>getDocumentJSON does not report a document version, so a cached entry cannot
+ * tell that OmniDocs holds a newer one. Entries live for {@code ttlSeconds} at most;
+ * a document known to have changed is dropped from every cache tier with
+ * {@link DocumentService#invalidate(String)}.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document.cache.memory:
+ *   enabled: true
+ *   maxWeightBytes: 268435456  # Total heap budget for cached content
+ *   maxEntryBytes: 10485760    # Larger documents bypass the cache
+ *   ttlSeconds: 600            # Time to live after population
+ * </pre>
+ *
+ * <h3>Metrics:</h3>
+ * <ul>
+ *   <li>{@code cache.gets}, {@code cache.puts}, {@code cache.evictions} tagged {@code cache=documents}</li>
+ *   <li>{@code documents.cache.bytes} - bytes currently held</li>
+ * </ul>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Service
+public class DocumentCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentCacheService.class);
+    private static final String CACHE_NAME = "documents";
+
+    @Autowired
+    private CabinetProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${newgen.cayman.document.cache.memory.enabled:false}")
+    private boolean enabled;
+
+    @Value("${newgen.cayman.document.cache.memory.maxWeightBytes:268435456}")
+    private long maxWeightBytes;
+
+    @Value("${newgen.cayman.document.cache.memory.maxEntryBytes:10485760}")
+    private long maxEntryBytes;
+
+    @Value("${newgen.cayman.document.cache.memory.ttlSeconds:600}")
+    private long ttlSeconds;
+
+    private Cache<String, DocumentFile> cache;
+
+    @PostConstruct
+    public void init() {
+        logger.info("Document cache initialized. Enabled: {}, MaxWeight: {} bytes, MaxEntry: {} bytes, TTL: {} s",
+                enabled, maxWeightBytes, maxEntryBytes, ttlSeconds);
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((String key, DocumentFile file) -> file.getContent().length)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("documents.cache.bytes", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L))
+                        .orElse(0L))
+                .description("Bytes of document content held in the in-memory cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached document for {@code docIndex}.
+     *
+     * @param docIndex document index
+     * @return cached document, or {@code null} on a miss or when the cache is disabled
+     */
+    public DocumentFile get(String docIndex) {
+        if (!enabled) {
+            return null;
+        }
+        DocumentFile file = cache.getIfPresent(key(docIndex));
+        logger.debug("Document cache {}. DocIndex: {}", file != null ? "hit" : "miss", docIndex);
+        return file;
+    }
+
+    /**
+     * Caches a document if it is within the per-entry size cap.
+     *
+     * @param docIndex document index
+     * @param file decoded document with metadata
+     */
+    public void put(String docIndex, DocumentFile file) {
+        if (!enabled || file == null || file.getContent() == null) {
+            return;
+        }
+        if (!isCacheable(file.getContent().length)) {
+            logger.debug("Document too large to cache. DocIndex: {}, Size: {} bytes", docIndex, file.getContent().length);
+            return;
+        }
+        cache.put(key(docIndex), file);
+        logger.debug("Document cached. DocIndex: {}, Size: {} bytes", docIndex, file.getContent().length);
+    }
+
+    /**
+     * Removes a document from the cache.
+     *
+     * @param docIndex document index
+     */
+    public void invalidate(String docIndex) {
+        cache.invalidate(key(docIndex));
+    }
+
+    /**
+     * @param size content length in bytes
+     * @return whether a document of this size may be cached
+     */
+    public boolean isCacheable(long size) {
+        return enabled && size <= maxEntryBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Builds the cache key from cabinet and docIndex.
+     *
+     * @param docIndex document index
+     * @return cache key
+     */
+    String key(String docIndex) {
+        return cacheKey(properties.getCabinetName(), docIndex);
+    }
+
+    /**
+     * Key format shared by all document cache tiers.
+     *
+     * @param cabinetName OmniDocs cabinet
+     * @param docIndex document index
+     * @return cache key
+     */
+    static String cacheKey(String cabinetName, String docIndex) {
+        return cabinetName + "/" + docIndex;
+    }
+}
@@ -3,15 +3,42 @@ package com.newgen.cig.cayman.document.service;
 import com.newgen.cig.cayman.document.exception.*;
 import com.newgen.cig.cayman.document.implementation.Operations;
 import com.newgen.cig.cayman.document.interfaces.DocumentInterface;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
 import com.newgen.cig.cayman.document.model.dao.GlobalSessionService;
+import com.newgen.cig.cayman.document.model.dto.DocumentFile;
+import com.newgen.cig.cayman.document.model.dto.LocalDocument;
+import com.newgen.cig.cayman.document.utils.Base64DecodingOutputStream;
+import com.newgen.cig.cayman.document.utils.CapturingOutputStream;
+import com.newgen.cig.cayman.document.utils.Digests;
+import com.newgen.cig.cayman.document.utils.SingleFlight;
+import com.newgen.cig.cayman.document.utils.SpoolingSingleFlight;
+import com.newgen.cig.cayman.document.utils.TeeOutputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.HexFormat;
 
 /**
  * Service class for document management operations with Newgen OmniDocs.
@@ -23,22 +50,33 @@ import java.util.Base64;
  * <h3>Key Features:</h3>
  * <ul>
  *   <li>Session ID management with OmniDocs cabinet</li>
- *   <li>Automatic session refresh every 5 minutes</li>
+ *   <li>Sessions refreshed in the background ahead of their expiry</li>
  *   <li>Document retrieval in multiple formats (base64, bytes)</li>
+ *   <li>Streaming document retrieval with bounded memory</li>
+ *   <li>Size-bounded in-memory document cache</li>
+ *   <li>On-disk cache for large documents, served zero-copy</li>
+ *   <li>Large documents fetched through the OmniDocs download location</li>
+ *   <li>Concurrent fetches of the same document share one OmniDocs call</li>
+ *   <li>Records entity tags of served documents for conditional requests</li>
  *   <li>Automatic XML response parsing</li>
  *   <li>Global session caching for performance</li>
  * </ul>
  * 
  * <h3>Session Management:</h3>
- * <p>The service maintains a single session with the cabinet that is automatically
- * refreshed every 5 minutes. This ensures continuous connectivity without creating
- * unnecessary sessions for each request.</p>
+ * <p>The service fills the {@link GlobalSessionService} session pool in the background
+ * once the application is ready, unless sessions are created on first use. A background check replaces each pooled session
+ * shortly before it expires, so requests never wait for a refresh. Sessions are
+ * refreshed one at a time, so a failed refresh leaves the other sessions serving.</p>
  * 
  * <h3>Service Dependencies:</h3>
  * <ul>
  *   <li>{@link DocumentInterface} - OmniDocs cabinet integration</li>
  *   <li>{@link Operations} - XML parsing and utility operations</li>
  *   <li>{@link GlobalSessionService} - Session state management</li>
+ *   <li>{@link DocumentCacheService} - In-memory document cache</li>
+ *   <li>{@link DiskDocumentCacheService} - On-disk document cache</li>
+ *   <li>{@link DocumentValidatorService} - Entity tags of served documents</li>
+ *   <li>{@link LargeDocumentService} - Download-location fetches of large documents</li>
  * </ul>
  * 
  * @author Tarun Vishwakarma
@@ -64,90 +102,126 @@ public class DocumentService {
     @Autowired
     private Operations operations;
 
+    @Autowired
+    private DocumentCacheService documentCache;
+
+    @Autowired
+    private DiskDocumentCacheService diskCache;
+
+    @Autowired
+    private DocumentValidatorService validators;
+
+    @Autowired
+    private LargeDocumentService largeDocuments;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    private final SingleFlight<String, DocumentResponse> fetches = new SingleFlight<>();
+    private final SpoolingSingleFlight<String, DocumentResponse> streams = new SpoolingSingleFlight<>();
+    private Counter coalescedFetches;
+
     /**
-     * Initializes the service and creates the initial session on application startup.
-     * 
-     * <p>This method is called automatically after dependency injection is complete.
-     * It establishes the first connection to the OmniDocs cabinet and stores the
-     * session ID for subsequent use.</p>
+     * Initializes the service after dependency injection is complete.
      * 
-     * @throws CabinetConnectionException if initial session creation fails
+     * <p>No cabinet login happens here, so a slow OmniDocs does not hold up context
+     * startup; sessions are established by {@link #establishSessionsWhenReady()}.</p>
      */
     @PostConstruct
-    public void initializeSession() {
+    public void init() {
         logger.info("========== Initializing DocumentService ==========");
-        logger.debug("Starting initial session creation on application startup");
-        
-        try {
-            createNewSession();
-            logger.info("DocumentService initialized successfully with session");
-        } catch (Exception e) {
-            logger.error("Failed to initialize DocumentService with session. Application may not function correctly.", e);
-            // Don't throw exception to allow application to start, scheduled task will retry
-        }
-        
+        coalescedFetches = Counter.builder("documents.fetch.coalesced")
+                .description("OmniDocs document fetches saved by sharing an in-flight call")
+                .register(meterRegistry);
         logger.info("========== DocumentService Initialization Complete ==========");
     }
 
     /**
-     * Scheduled task that refreshes the session every 5 minutes.
+     * Starts establishing cabinet sessions in the background once the application
+     * is ready.
+     * 
+     * <p>The work runs on the scheduler thread that also runs
+     * {@link #refreshSessionsAhead()}, so the two never refresh a slot at the same
+     * time. If the login fails, the next refresh check retries it. Until the first
+     * session exists the {@code cabinetSession} health indicator, part of the
+     * readiness group, reports {@code OUT_OF_SERVICE}.</p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void establishSessionsWhenReady() {
+        logger.info("Application ready. Establishing cabinet sessions in the background");
+        taskScheduler.schedule(this::refreshSessionsAhead, Instant.now());
+    }
+
+    /**
+     * Scheduled task that refreshes pooled sessions ahead of their expiry.
      * 
-     * <p>This method runs automatically in the background to maintain an active
-     * session with the OmniDocs cabinet. If session creation fails, it will retry
-     * up to 3 times before giving up.</p>
+     * <p>This method runs automatically in the background to maintain active
+     * sessions with the OmniDocs cabinet. It replaces only the sessions whose
+     * refresh-ahead time has passed (see {@link GlobalSessionService#isRefreshDue(int)});
+     * if creation fails, it will retry up to 3 times before giving up and the
+     * old session keeps serving. Empty slots are left to be filled on demand, or
+     * filled here when sessions are created at startup.</p>
      * 
      * <h3>Schedule:</h3>
      * <ul>
-     *   <li>Fixed rate: 5 minutes (300,000 milliseconds)</li>
-     *   <li>Initial delay: 5 minutes after startup</li>
+     *   <li>Fixed delay: {@code newgen.cayman.connect.cabinet.session.refreshCheckMs}
+     *       (default 5 seconds) between checks</li>
      * </ul>
      * 
      * <h3>Error Handling:</h3>
      * <p>If session refresh fails after all retry attempts, the error is logged
-     * but the application continues to run. The next scheduled execution will
-     * attempt to create a new session.</p>
+     * but the application continues to run. The session stays due, so the next
+     * check attempts to create a new session again.</p>
      * 
-     * @see #createNewSession()
+     * @see #refreshSession(int)
      */
-    @Scheduled(fixedRate = 300000, initialDelay = 300000) // 5 minutes = 300,000 ms
-    public void refreshSessionPeriodically() {
-        logger.info("========== Scheduled Session Refresh Started ==========");
-        logger.debug("Executing scheduled session refresh task");
+    @Scheduled(fixedDelayString = "${newgen.cayman.connect.cabinet.session.refreshCheckMs:5000}",
+            initialDelayString = "${newgen.cayman.connect.cabinet.session.refreshCheckMs:5000}")
+    public void refreshSessionsAhead() {
+        logger.trace("Checking pooled sessions for refresh");
         
-        try {
-            createNewSession();
-            logger.info("Scheduled session refresh completed successfully");
-        } catch (Exception e) {
-            logger.error("Scheduled session refresh failed. Next attempt in 5 minutes.", e);
+        for (int slot = 0; slot < globalSessionService.getPoolSize(); slot++) {
+            if (!globalSessionService.isRefreshDue(slot)) {
+                continue;
+            }
+            logger.info("Session in slot {} is due for refresh", slot);
+            try {
+                refreshSession(slot);
+                logger.info("Scheduled session refresh completed successfully. Slot: {}", slot);
+            } catch (Exception e) {
+                logger.error("Scheduled session refresh failed for slot {}. Retrying on the next check.", slot, e);
+            }
         }
-        
-        logger.info("========== Scheduled Session Refresh Ended ==========");
     }
 
     /**
-     * Creates a new session with the OmniDocs cabinet with retry logic.
+     * Refreshes the session of one pool slot with retry logic.
      * 
-     * <p>This method establishes a connection to the cabinet, extracts the session ID,
-     * and stores it in the global session service. It includes retry logic to handle
-     * transient failures.</p>
+     * <p>This method has the session pool validate the slot's session with a
+     * keep-alive call and keep it, or connect to the cabinet and place a new session
+     * in the slot when the old one is invalid or the slot is empty. It includes retry
+     * logic to handle transient failures.</p>
      * 
      * <h3>Process Flow:</h3>
      * <ol>
-     *   <li>Attempts to connect to cabinet (with retries)</li>
-     *   <li>Parses XML response to extract UserDBId</li>
-     *   <li>Validates the session ID</li>
-     *   <li>Stores session ID in GlobalSessionService</li>
+     *   <li>Validates the current session, if any (with retries)</li>
+     *   <li>Keeps a valid session and extends its expiry</li>
+     *   <li>Otherwise connects to cabinet and replaces the slot's session in GlobalSessionService</li>
      * </ol>
      * 
      * <h3>Retry Logic:</h3>
      * <p>If connection fails, retries up to 3 times with 1 second delay between attempts.</p>
      * 
+     * @param slot pool slot to fill
      * @return the newly created session ID
      * @throws CabinetConnectionException if all retry attempts fail
      */
-    private String createNewSession() {
-        logger.trace("Entering createNewSession() method");
-        logger.info("Creating new cabinet session");
+    private String refreshSession(int slot) {
+        logger.trace("Entering refreshSession() method");
+        logger.info("Refreshing cabinet session. Slot: {}", slot);
         
         int attempt = 0;
         Exception lastException = null;
@@ -158,35 +232,13 @@ public class DocumentService {
             try {
                 logger.debug("Session creation attempt {} of {}", attempt, MAX_RETRY_ATTEMPTS);
                 
-                // Connect to cabinet
-                logger.debug("Connecting to cabinet to establish new session");
-                String response = doc.connectCabinet();
-                
-                if (response == null || response.trim().isEmpty()) {
-                    logger.warn("Cabinet connection returned empty response on attempt {}", attempt);
-                    throw new CabinetConnectionException("Empty response from cabinet connection");
-                }
-                
-                logger.debug("Cabinet connection successful. Response length: {} characters", response.length());
-                
-                // Extract session ID from JSON
-                logger.trace("Extracting UserDBId from JSON response");
-                String sessionId = operations.getValueFromJSON(response, "NGOExecuteAPIResponseBDO.outputData.NGOConnectCabinet_Output.UserDBId");
-                
-                if (sessionId == null || sessionId.trim().isEmpty()) {
-                    logger.error("Failed to extract valid session ID from JSON response on attempt {}", attempt);
-                    throw new JsonParsingException("UserDBId not found in cabinet response");
-                }
+                // Keep the slot's session if still valid, otherwise connect to cabinet
+                logger.debug("Validating or establishing session");
+                String sessionId = globalSessionService.refresh(slot);
                 
-                logger.debug("Session ID extracted successfully. SessionId: {}...", 
-                        sessionId.length() > 8 ? sessionId.substring(0, 8) : "***");
-                
-                // Store session ID
-                globalSessionService.setSessionId(sessionId);
-                
-                logger.info("New session created successfully. Attempt: {}, SessionId length: {}", 
-                        attempt, sessionId.length());
-                logger.trace("Exiting createNewSession() method with success");
+                logger.info("Session refreshed successfully. Slot: {}, Attempt: {}, SessionId length: {}", 
+                        slot, attempt, sessionId.length());
+                logger.trace("Exiting refreshSession() method with success");
                 
                 return sessionId;
                 
@@ -223,8 +275,8 @@ public class DocumentService {
         }
         
         // All attempts failed
-        logger.error("Failed to create session after {} attempts", MAX_RETRY_ATTEMPTS);
-        logger.trace("Exiting createNewSession() method with failure");
+        logger.error("Failed to create session in slot {} after {} attempts", slot, MAX_RETRY_ATTEMPTS);
+        logger.trace("Exiting refreshSession() method with failure");
         throw new CabinetConnectionException(
                 "Failed to create cabinet session after " + MAX_RETRY_ATTEMPTS + " attempts", 
                 lastException);
@@ -234,7 +286,7 @@ public class DocumentService {
      * Retrieves the current cached session ID without creating a new one.
      * 
      * <p>This method returns the session ID maintained by the GlobalSessionService.
-     * The session is automatically refreshed by the scheduled task every 5 minutes.</p>
+     * Sessions are refreshed in the background ahead of their expiry.</p>
      * 
      * <h3>Behavior:</h3>
      * <ul>
@@ -249,20 +301,19 @@ public class DocumentService {
         logger.trace("Entering getSessionId() method");
         logger.info("Retrieving cached session ID");
         
-        String sessionId = globalSessionService.getSessionId();
+        GlobalSessionService.SessionSnapshot session = globalSessionService.getSnapshot();
         
-        if (sessionId == null || sessionId.trim().isEmpty()) {
+        if (session == null) {
             logger.warn("No valid session available. Session may not be initialized yet.");
-            logger.debug("Session state - Valid: {}", globalSessionService.isSessionValid());
-        } else {
-            logger.info("Cached session ID retrieved successfully. SessionId length: {}", sessionId.length());
-            logger.debug("Session metadata - Created: {}, LastRefreshed: {}", 
-                    globalSessionService.getSessionCreatedAt(),
-                    globalSessionService.getSessionLastRefreshedAt());
+            logger.trace("Exiting getSessionId() method");
+            return null;
         }
+        logger.info("Cached session ID retrieved successfully. SessionId length: {}", session.sessionId().length());
+        logger.debug("Session metadata - Created: {}, LastRefreshed: {}, Expires: {}", 
+                session.createdAt(), session.refreshedAt(), session.expiresAt());
         
         logger.trace("Exiting getSessionId() method");
-        return sessionId;
+        return session.sessionId();
     }
 
     /**
@@ -290,13 +341,30 @@ public class DocumentService {
         logger.info("Fetching document as base64 string. DocIndex: {}", docIndex);
         
         try {
+            DocumentFile cached = documentCache.get(docIndex);
+            if (cached != null) {
+                logger.info("Document served from cache as base64. DocIndex: {}", docIndex);
+                validators.record(docIndex, cached.getMetadata(), cached.getDigest());
+                return Base64.getEncoder().encodeToString(cached.getContent());
+            }
+
             logger.debug("Calling doc.fetchDoc() for docIndex: {}", docIndex);
-            String base64Document = doc.fetchDoc(docIndex);
+            DocumentResponse result = fetchShared(docIndex);
+            String base64Document = result.getDocContent();
             
             if (base64Document == null || base64Document.trim().isEmpty()) {
                 logger.warn("Document fetch returned empty result for docIndex: {}", docIndex);
                 throw new DocumentNotFoundException("Document not found or empty: " + docIndex);
             }
+
+            if (documentCache.isCacheable(base64Document.length() / 4L * 3)) {
+                DocumentFile document = new DocumentFile(result.withoutContent(),
+                        Base64.getDecoder().decode(base64Document));
+                documentCache.put(docIndex, document);
+                validators.record(docIndex, result, document.getDigest());
+            } else {
+                validators.record(docIndex, result, Digests.sha256HexOfBase64(base64Document));
+            }
             
             logger.info("Document fetched successfully as base64. DocIndex: {}, Base64 length: {}", 
                     docIndex, base64Document.length());
@@ -309,6 +377,9 @@ public class DocumentService {
         } catch (DocumentNotFoundException e) {
             logger.error("Document not found. DocIndex: {}", docIndex, e);
             throw e;
+        } catch (ServiceUnavailableException e) {
+            logger.warn("OmniDocs call rejected. DocIndex: {}, Reason: {}", docIndex, e.getDetails());
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching document as base64. DocIndex: {}", docIndex, e);
             throw new ExternalServiceException("Failed to fetch document: " + e.getMessage(), e);
@@ -330,19 +401,27 @@ public class DocumentService {
      * </ul>
      * 
      * @param docIndex the unique document index in the cabinet
-     * @return byte array containing the raw document data
+     * @return decoded document bytes with the metadata of this call
      * @throws DocumentNotFoundException if document with given index doesn't exist
      * @throws ExternalServiceException if cabinet service is unavailable
      * @throws IllegalArgumentException if base64 decoding fails
      * @see #fetchDocumentBase64(String) for base64 format
      */
-    public byte[] fetchDocBytes(String docIndex) {
+    public DocumentFile fetchDocBytes(String docIndex) {
         logger.trace("Entering fetchDocBytes() method with docIndex: {}", docIndex);
         logger.info("Fetching document as byte array. DocIndex: {}", docIndex);
         
         try {
+            DocumentFile cached = documentCache.get(docIndex);
+            if (cached != null) {
+                logger.info("Document served from cache. DocIndex: {}, Size: {} bytes", docIndex, cached.getContent().length);
+                validators.record(docIndex, cached.getMetadata(), cached.getDigest());
+                return cached;
+            }
+
             logger.debug("Fetching document as base64 first for docIndex: {}", docIndex);
-            String base64Pdf = doc.fetchDoc(docIndex);
+            DocumentResponse result = fetchShared(docIndex);
+            String base64Pdf = result.getDocContent();
             
             if (base64Pdf == null || base64Pdf.trim().isEmpty()) {
                 logger.warn("Document fetch returned empty result for docIndex: {}", docIndex);
@@ -365,11 +444,17 @@ public class DocumentService {
                             "Document too small");
             logger.trace("Exiting fetchDocBytes() method with success");
             
-            return documentBytes;
+            DocumentFile document = new DocumentFile(result.withoutContent(), documentBytes);
+            documentCache.put(docIndex, document);
+            validators.record(docIndex, document.getMetadata(), document.getDigest());
+            return document;
             
         } catch (DocumentNotFoundException e) {
             logger.error("Document not found. DocIndex: {}", docIndex, e);
             throw e;
+        } catch (ServiceUnavailableException e) {
+            logger.warn("OmniDocs call rejected. DocIndex: {}, Reason: {}", docIndex, e.getDetails());
+            throw e;
         } catch (IllegalArgumentException e) {
             logger.error("Failed to decode base64 document. DocIndex: {}", docIndex, e);
             throw new ExternalServiceException("Invalid base64 encoding in document: " + e.getMessage(), e);
@@ -378,4 +463,561 @@ public class DocumentService {
             throw new ExternalServiceException("Failed to fetch document: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Fetches a document from OmniDocs, joining an identical fetch if one is
+     * already in flight. Every waiter receives the same immutable result, or
+     * the same exception.
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @return document response including base64 content
+     */
+    private DocumentResponse fetchShared(String docIndex) {
+        SingleFlight.Result<DocumentResponse> result = fetches.executeShared(docIndex, () -> doc.fetchDoc(docIndex));
+        if (result.shared()) {
+            coalescedFetches.increment();
+            logger.debug("Joined in-flight fetch for docIndex: {}", docIndex);
+        }
+        return result.value();
+    }
+
+    /**
+     * Looks up a document in the in-memory cache.
+     *
+     * <p>Callers can serve a hit together with the entity tag of its content, which
+     * a response streamed through {@link #streamDocument(String, DocumentInterface.ContentSink)}
+     * cannot carry on a miss.</p>
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @return cached document, or {@code null} if the document is not in memory
+     */
+    public DocumentFile findCachedDocument(String docIndex) {
+        logger.trace("Entering findCachedDocument() method with docIndex: {}", docIndex);
+        DocumentFile cached = documentCache.get(docIndex);
+        if (cached != null) {
+            validators.record(docIndex, cached.getMetadata(), cached.getDigest());
+        }
+        return cached;
+    }
+
+    /**
+     * Looks up a document in the on-disk cache.
+     *
+     * <p>Callers can serve a hit with zero-copy file transfer instead of going
+     * through {@link #streamDocument(String, DocumentInterface.ContentSink)}.</p>
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @return cached file, pinned until the caller calls
+     *         {@link DiskDocumentCacheService.CachedFile#release()}, or {@code null}
+     *         if the document is not on disk
+     */
+    public DiskDocumentCacheService.CachedFile findCachedFile(String docIndex) {
+        logger.trace("Entering findCachedFile() method with docIndex: {}", docIndex);
+        DiskDocumentCacheService.CachedFile file = diskCache.get(docIndex);
+        if (file != null && file.getDigest() != null) {
+            validators.record(docIndex, file.getMetadata(), file.getDigest());
+        }
+        return file;
+    }
+
+    /**
+     * Fetches a large document through the OmniDocs download location.
+     *
+     * <p>Only documents that {@link LargeDocumentService} classifies as large are
+     * fetched this way. The content lands in the on-disk cache, so callers serve
+     * the returned file exactly like a {@link #findCachedFile(String)} hit.</p>
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @return cached file, pinned like a {@link #findCachedFile(String)} hit, or
+     *         {@code null} when the inline path should be used
+     * @throws DocumentNotFoundException if document with given index doesn't exist
+     */
+    public DiskDocumentCacheService.CachedFile fetchLargeDocument(String docIndex) {
+        logger.trace("Entering fetchLargeDocument() method with docIndex: {}", docIndex);
+        if (!largeDocuments.isLarge(docIndex)) {
+            return null;
+        }
+        logger.debug("Fetching docIndex: {} through the download location", docIndex);
+        return largeDocuments.download(docIndex);
+    }
+
+    /**
+     * Drops a document from both cache tiers and forgets its validator, so the
+     * next request fetches it from OmniDocs. Use when a document is known to have
+     * changed, since getDocumentJSON reports no version to detect it by.
+     *
+     * @param docIndex the unique document index in the cabinet
+     */
+    public void invalidate(String docIndex) {
+        logger.info("Invalidating cached document. DocIndex: {}", docIndex);
+        documentCache.invalidate(docIndex);
+        diskCache.invalidate(docIndex);
+        validators.invalidate(docIndex);
+    }
+
+    /**
+     * Returns a local copy of a document suitable for serving byte ranges.
+     *
+     * <p>The in-memory and on-disk caches are checked first. On a miss a large
+     * document is fetched through the download location; otherwise the document
+     * is streamed once from OmniDocs into whichever cache tier accepts it, so
+     * subsequent range requests for the same document are served locally. While
+     * it streams, the content is also spooled to a temporary file; if neither tier
+     * keeps the document, the copy is read from that file rather than fetched
+     * again, and its decoded bytes are returned.</p>
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @return local copy with metadata and content digest; the caller closes it once
+     *         the content has been read
+     * @throws DocumentNotFoundException if document with given index doesn't exist
+     * @throws ExternalServiceException if cabinet service is unavailable
+     */
+    public LocalDocument openLocalCopy(String docIndex) {
+        return openLocalCopy(docIndex, false);
+    }
+
+    /**
+     * Like {@link #openLocalCopy(String)}, but a document that neither cache tier
+     * can hold may instead be spooled to a temporary file, deleted when the copy is
+     * closed. Only for callers that finish reading the content before closing it.
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @param spool spool an uncacheable document to a temporary file rather than
+     *              holding its decoded bytes in memory
+     * @return local copy with metadata and content digest; the caller closes it once
+     *         the content has been read
+     * @throws DocumentNotFoundException if document with given index doesn't exist
+     * @throws ExternalServiceException if cabinet service is unavailable
+     */
+    public LocalDocument openLocalCopy(String docIndex, boolean spool) {
+        logger.trace("Entering openLocalCopy() method with docIndex: {}", docIndex);
+
+        LocalDocument local = findLocalCopy(docIndex);
+        if (local != null) {
+            return local;
+        }
+
+        DiskDocumentCacheService.CachedFile downloaded = fetchLargeDocument(docIndex);
+        if (downloaded != null) {
+            return new LocalDocument(downloaded.getMetadata(), new FileSystemResource(downloaded.getPath()),
+                    downloaded.getSize(), downloaded.getDigest(), downloaded::release);
+        }
+
+        if (!diskCache.isEnabled() && !spool) {
+            logger.debug("No local copy of docIndex: {}. Serving decoded bytes.", docIndex);
+            DocumentFile file = fetchDocBytes(docIndex);
+            return new LocalDocument(file.getMetadata(), new ByteArrayResource(file.getContent()),
+                    file.getContent().length, file.getDigest());
+        }
+
+        logger.debug("No local copy of docIndex: {}. Streaming it from OmniDocs.", docIndex);
+        LocalDocument spooled = spoolLocalCopy(docIndex);
+        if (spool) {
+            return spooled;
+        }
+        try (spooled) {
+            local = findLocalCopy(docIndex);
+            if (local != null) {
+                return local;
+            }
+            logger.debug("Document could not be cached. Serving decoded bytes for docIndex: {}", docIndex);
+            byte[] content = spooled.getResource().getContentAsByteArray();
+            return new LocalDocument(spooled.getMetadata(), new ByteArrayResource(content),
+                    content.length, spooled.getDigest());
+        } catch (IOException e) {
+            throw new ExternalServiceException("Failed to read spooled document: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams a document once into a temporary file, deleted when the returned copy
+     * is closed. The stream populates the cache tiers as any other stream does.
+     */
+    private LocalDocument spoolLocalCopy(String docIndex) {
+        Path file;
+        try {
+            file = Files.createTempFile("caymen-local-", ".tmp");
+        } catch (IOException e) {
+            throw new ExternalServiceException("Unable to create temporary file: " + e.getMessage(), e);
+        }
+        MessageDigest digest = Digests.sha256();
+        OutputStream[] out = new OutputStream[1];
+        try {
+            DocumentResponse metadata = streamDocument(docIndex, meta ->
+                    out[0] = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), digest));
+            if (out[0] != null) {
+                out[0].close();
+            }
+            return new LocalDocument(metadata, new FileSystemResource(file), Files.size(file),
+                    HexFormat.of().formatHex(digest.digest()), () -> deleteTemporary(file));
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(out[0]);
+            deleteTemporary(file);
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ExternalServiceException("Failed to spool document: " + e.getMessage(), e);
+        }
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close temporary file", e);
+        }
+    }
+
+    private static void deleteTemporary(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Unable to delete temporary file {}", file, e);
+        }
+    }
+
+    private LocalDocument findLocalCopy(String docIndex) {
+        DocumentFile cached = findCachedDocument(docIndex);
+        if (cached != null) {
+            return new LocalDocument(cached.getMetadata(), new ByteArrayResource(cached.getContent()),
+                    cached.getContent().length, cached.getDigest());
+        }
+        DiskDocumentCacheService.CachedFile file = findCachedFile(docIndex);
+        if (file != null) {
+            return new LocalDocument(file.getMetadata(), new FileSystemResource(file.getPath()),
+                    file.getSize(), file.getDigest(), file::release);
+        }
+        return null;
+    }
+
+    /**
+     * Streams a document from the cabinet straight into a caller-supplied stream.
+     *
+     * <p>Unlike {@link #fetchDocBytes(String)}, the document is never held in memory
+     * as a whole: base64 content is decoded chunk by chunk while it is read from
+     * OmniDocs and written to the stream returned by {@code sink}.</p>
+     *
+     * <p>On a miss the decoded bytes also populate the cache: documents small enough
+     * go to memory, larger ones to disk. A document whose declared size fits the
+     * memory tier is not written to disk at all.</p>
+     *
+     * <p>Concurrent calls for the same document share one OmniDocs call: the first
+     * caller streams it, and the others are served from whichever cache tier it
+     * landed in, or from a spool file the first caller writes when neither tier
+     * holds it. If the first caller's client disconnects, the others start over.</p>
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @param sink opens the destination stream once document metadata is known
+     * @return document metadata (without content)
+     * @throws DocumentNotFoundException if document with given index doesn't exist
+     * @throws ExternalServiceException if cabinet service is unavailable
+     * @see DocumentInterface#streamDoc(String, DocumentInterface.ContentSink)
+     */
+    public DocumentResponse streamDocument(String docIndex, DocumentInterface.ContentSink sink) {
+        return stream(docIndex, sink, false);
+    }
+
+    /**
+     * Streams a document's base64 text from the cabinet straight into a
+     * caller-supplied stream.
+     *
+     * <p>On a miss the text OmniDocs sent is passed through as it is read, without
+     * being decoded and re-encoded for the caller; a decoded copy still feeds the
+     * cache tiers and the validators, exactly as for {@link #streamDocument}. Cache
+     * hits and callers who joined another caller's stream are served by encoding
+     * the cached bytes.</p>
+     *
+     * @param docIndex the unique document index in the cabinet
+     * @param sink opens the destination stream once document metadata is known;
+     *             it receives plain base64 without line breaks
+     * @return document metadata (without content)
+     * @throws DocumentNotFoundException if document with given index doesn't exist
+     * @throws ExternalServiceException if cabinet service is unavailable
+     * @see DocumentInterface#streamBase64Doc(String, DocumentInterface.ContentSink)
+     */
+    public DocumentResponse streamDocumentBase64(String docIndex, DocumentInterface.ContentSink sink) {
+        return stream(docIndex, sink, true);
+    }
+
+    private DocumentResponse stream(String docIndex, DocumentInterface.ContentSink sink, boolean base64) {
+        logger.trace("Entering streamDocument() method with docIndex: {}", docIndex);
+        logger.info("Streaming document. DocIndex: {}, Base64: {}", docIndex, base64);
+
+        try {
+            EncodingSink encoding = base64 ? new EncodingSink(sink) : null;
+            DocumentInterface.ContentSink local = base64 ? encoding : sink;
+            DocumentFile cached = documentCache.get(docIndex);
+            if (cached != null) {
+                logger.info("Document streamed from cache. DocIndex: {}, Size: {} bytes", docIndex, cached.getContent().length);
+                validators.record(docIndex, cached.getMetadata(), cached.getDigest());
+                OutputStream out = local.open(cached.getMetadata());
+                out.write(cached.getContent());
+                finish(encoding, out);
+                return cached.getMetadata();
+            }
+
+            while (true) {
+                boolean[] leader = new boolean[1];
+                try (SpoolingSingleFlight.Outcome<DocumentResponse> outcome = streams.execute(docIndex, spooler -> {
+                    leader[0] = true;
+                    return streamFromOmniDocs(docIndex, sink, spooler, base64);
+                })) {
+                    if (!outcome.shared()) {
+                        return outcome.value();
+                    }
+                    coalescedFetches.increment();
+                    logger.debug("Joined in-flight stream for docIndex: {}", docIndex);
+                    if (serveShared(docIndex, outcome, local)) {
+                        finish(encoding, null);
+                        return outcome.value();
+                    }
+                    logger.debug("Shared stream left no copy of docIndex: {}. Streaming it again.", docIndex);
+                    return streamFromOmniDocs(docIndex, sink, null, base64);
+                } catch (AbandonedStreamException e) {
+                    if (leader[0]) {
+                        throw e.getCause();
+                    }
+                    logger.debug("Client of the shared stream disconnected. Retrying docIndex: {}", docIndex);
+                }
+            }
+
+        } catch (ServiceUnavailableException e) {
+            logger.warn("OmniDocs call rejected. DocIndex: {}, Reason: {}", docIndex, e.getDetails());
+            throw e;
+        } catch (BaseException e) {
+            logger.error("Error streaming document. DocIndex: {}", docIndex, e);
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error streaming document. DocIndex: {}", docIndex, e);
+            throw new ExternalServiceException("Failed to stream document: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams a document from OmniDocs into {@code sink} and the cache tiers. When
+     * neither tier will hold the document, it is also written to the spool of the
+     * shared call, so callers who joined the call can be served from it.
+     *
+     * <p>For base64 the client receives OmniDocs' text as is, and the copies are
+     * fed through a {@link Base64DecodingOutputStream}.</p>
+     *
+     * @param spooler spool of the shared call, or {@code null} when not coalesced
+     * @param base64 pass the base64 text to {@code sink} instead of the decoded bytes
+     * @throws AbandonedStreamException if writing to {@code sink} failed
+     */
+    private DocumentResponse streamFromOmniDocs(String docIndex, DocumentInterface.ContentSink sink,
+                                                SpoolingSingleFlight.Spooler spooler, boolean base64) {
+        CapturingOutputStream[] capture = new CapturingOutputStream[1];
+        MessageDigest digest = Digests.sha256();
+        DiskDocumentCacheService.PendingFile[] pending = new DiskDocumentCacheService.PendingFile[1];
+        ClientOutputStream[] client = new ClientOutputStream[1];
+        Base64DecodingOutputStream[] decoder = new Base64DecodingOutputStream[1];
+        DocumentInterface.ContentSink target = meta -> {
+            long declared = declaredSize(meta);
+            boolean memory = declared >= 0 && documentCache.isCacheable(declared);
+            if (!memory) {
+                pending[0] = diskCache.begin(docIndex, declared);
+            }
+            client[0] = new ClientOutputStream(sink.open(meta));
+            OutputStream out = base64 ? OutputStream.nullOutputStream() : client[0];
+            if (pending[0] != null) {
+                out = new TeeOutputStream(out, pending[0].stream());
+            } else if (spooler != null && !memory) {
+                out = new TeeOutputStream(out, spooler.open());
+            }
+            if (documentCache.isEnabled()) {
+                out = capture[0] = new CapturingOutputStream(out, documentCache.getMaxEntryBytes());
+            }
+            out = new DigestOutputStream(out, digest);
+            if (!base64) {
+                return out;
+            }
+            decoder[0] = new Base64DecodingOutputStream(out);
+            return new TeeOutputStream(client[0], decoder[0]);
+        };
+        DocumentResponse metadata;
+        try {
+            metadata = base64 ? doc.streamBase64Doc(docIndex, target) : doc.streamDoc(docIndex, target);
+            if (decoder[0] != null) {
+                decoder[0].finish();
+            }
+        } catch (IOException e) {
+            if (pending[0] != null) {
+                pending[0].abort();
+            }
+            throw new ExternalServiceException("Failed to decode document content for docIndex: " + docIndex, e);
+        } catch (RuntimeException e) {
+            if (pending[0] != null) {
+                pending[0].abort();
+            }
+            if (client[0] != null && client[0].failed) {
+                throw new AbandonedStreamException(e);
+            }
+            throw e;
+        }
+
+        if (capture[0] != null && capture[0].getCaptured() != null) {
+            documentCache.put(docIndex, new DocumentFile(metadata, capture[0].getCaptured()));
+            if (pending[0] != null) {
+                pending[0].abort();
+            }
+        } else if (pending[0] != null) {
+            pending[0].commit(metadata);
+        }
+        validators.record(docIndex, metadata, HexFormat.of().formatHex(digest.digest()));
+        logger.info("Document streamed successfully. DocIndex: {}, Declared size: {}",
+                docIndex, metadata.getDocumentSize());
+        logger.trace("Exiting streamDocument() method with success");
+        return metadata;
+    }
+
+    /**
+     * Serves a caller who joined another caller's stream, from the memory cache,
+     * the disk cache or the leader's spool, whichever holds the document.
+     *
+     * @return {@code false} if none of them does
+     */
+    private boolean serveShared(String docIndex, SpoolingSingleFlight.Outcome<DocumentResponse> outcome,
+                                DocumentInterface.ContentSink sink) throws IOException {
+        DocumentFile cached = documentCache.get(docIndex);
+        if (cached != null) {
+            OutputStream out = sink.open(cached.getMetadata());
+            out.write(cached.getContent());
+            out.flush();
+            return true;
+        }
+        DiskDocumentCacheService.CachedFile file = diskCache.get(docIndex);
+        if (file != null) {
+            try (InputStream in = Files.newInputStream(file.getPath())) {
+                copy(in, sink.open(file.getMetadata()));
+                return true;
+            } finally {
+                file.release();
+            }
+        }
+        try (InputStream in = outcome.openSpool()) {
+            if (in == null) {
+                return false;
+            }
+            copy(in, sink.open(outcome.value()));
+            return true;
+        }
+    }
+
+    /**
+     * Ends a served copy: flushes the last base64 quantum when the caller wanted
+     * base64, otherwise just flushes {@code out}.
+     */
+    private static void finish(EncodingSink encoding, OutputStream out) throws IOException {
+        if (encoding != null) {
+            encoding.finish();
+        } else if (out != null) {
+            out.flush();
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        in.transferTo(out);
+        out.flush();
+    }
+
+    private static long declaredSize(DocumentResponse metadata) {
+        try {
+            return Long.parseLong(metadata.getDocumentSize().trim());
+        } catch (RuntimeException e) {
+            return -1L;
+        }
+    }
+
+    /** Records whether writing to the client failed, as opposed to reading from OmniDocs. */
+    private static final class ClientOutputStream extends FilterOutputStream {
+        private boolean failed;
+
+        private ClientOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                out.write(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Base64-encodes content served from a local copy into a sink that expects
+     * base64 text.
+     */
+    private static final class EncodingSink implements DocumentInterface.ContentSink {
+        private final DocumentInterface.ContentSink target;
+        private OutputStream encoder;
+
+        private EncodingSink(DocumentInterface.ContentSink target) {
+            this.target = target;
+        }
+
+        @Override
+        public OutputStream open(DocumentResponse metadata) throws IOException {
+            encoder = Base64.getEncoder().wrap(new FilterOutputStream(target.open(metadata)) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    this.out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+            return encoder;
+        }
+
+        private void finish() throws IOException {
+            if (encoder != null) {
+                encoder.close();
+            }
+        }
+    }
+
+    /**
+     * A shared stream ended because its leader's client went away, which says
+     * nothing about the document, so callers who joined it retry.
+     */
+    private static final class AbandonedStreamException extends RuntimeException {
+        private AbandonedStreamException(RuntimeException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized RuntimeException getCause() {
+            return (RuntimeException) super.getCause();
+        }
+    }
+}
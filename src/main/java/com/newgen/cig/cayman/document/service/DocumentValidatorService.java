@@ -0,0 +1,152 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.newgen.cig.cayman.document.model.dao.CabinetProperties;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.model.dto.DocumentValidator;
+import com.newgen.cig.cayman.document.model.enums.DocumentType;
+import com.newgen.cig.cayman.document.utils.Digests;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Keeps entity tags and metadata of recently served documents so conditional
+ * requests can be answered with {@code 304 Not Modified} without fetching content.
+ *
+ * <p>Entity tags are strong and derived from the docIndex and a SHA-256 of the
+ * decoded content. The cache holds only validators, never content,
+ * so it can retain far more documents than the content caches. OmniDocs metadata
+ * carries no modification time, so no {@code Last-Modified} validator is produced.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document:
+ *   validators:
+ *     maxEntries: 100000
+ *     ttlSeconds: 3600
+ *   http:
+ *     cacheControl: private, no-cache     # Default for all types
+ *     cacheControlByType:
+ *       pdf: private, max-age=3600        # Per DocumentType extension
+ * </pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Service
+public class DocumentValidatorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentValidatorService.class);
+    private static final String CACHE_CONTROL_BY_TYPE = "newgen.cayman.document.http.cacheControlByType.";
+
+    @Autowired
+    private CabinetProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${newgen.cayman.document.validators.maxEntries:100000}")
+    private long maxEntries;
+
+    @Value("${newgen.cayman.document.validators.ttlSeconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${newgen.cayman.document.http.cacheControl:private, no-cache}")
+    private String defaultCacheControl;
+
+    private Cache<String, DocumentValidator> validators;
+
+    @PostConstruct
+    public void init() {
+        logger.info("Document validator cache initialized. MaxEntries: {}, TTL: {} s, Default Cache-Control: {}",
+                maxEntries, ttlSeconds, defaultCacheControl);
+        validators = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, validators, "documentValidators");
+    }
+
+    /**
+     * Records the validators for a document whose content digest is known.
+     *
+     * @param docIndex document index
+     * @param metadata document metadata
+     * @param digest hex SHA-256 of the decoded content
+     * @return the recorded validator
+     */
+    public DocumentValidator record(String docIndex, DocumentResponse metadata, String digest) {
+        DocumentValidator validator = new DocumentValidator(etag(docIndex, digest), digest,
+                metadata.withoutContent());
+        validators.put(key(docIndex), validator);
+        logger.debug("Validator recorded. DocIndex: {}, ETag: {}", docIndex, validator.getEtag());
+        return validator;
+    }
+
+    /**
+     * @param docIndex document index
+     * @return known validator, or {@code null} if the document has not been served recently
+     */
+    public DocumentValidator find(String docIndex) {
+        DocumentValidator validator = validators.getIfPresent(key(docIndex));
+        logger.trace("Validator lookup for docIndex: {} - {}", docIndex, validator != null ? "hit" : "miss");
+        return validator;
+    }
+
+    /**
+     * Forgets the validator of a document, so conditional requests fetch it again.
+     *
+     * @param docIndex document index
+     */
+    public void invalidate(String docIndex) {
+        validators.invalidate(key(docIndex));
+    }
+
+    /**
+     * Builds a strong entity tag. The docIndex is hashed together with the content
+     * digest, so the tag changes whenever the content does. The document version is
+     * not part of the tag: documents are always served at their latest version, and
+     * a new version with the same content may keep the tag.
+     *
+     * @param docIndex document index
+     * @param digest hex SHA-256 of the decoded content
+     * @return quoted entity tag, or {@code null} if the digest is unknown
+     */
+    public String etag(String docIndex, String digest) {
+        if (digest == null) {
+            return null;
+        }
+        return "\"" + Digests.sha256Hex(docIndex + ":" + digest).substring(0, 40) + "\"";
+    }
+
+    /**
+     * @param createdByAppName document extension as reported by OmniDocs
+     * @return {@code Cache-Control} value configured for the document type
+     */
+    public String cacheControlFor(String createdByAppName) {
+        try {
+            DocumentType type = DocumentType.fromExtension(createdByAppName);
+            return environment.getProperty(CACHE_CONTROL_BY_TYPE + type.getExtension(), defaultCacheControl);
+        } catch (IllegalArgumentException e) {
+            return defaultCacheControl;
+        }
+    }
+
+    private String key(String docIndex) {
+        return DocumentCacheService.cacheKey(properties.getCabinetName(), docIndex);
+    }
+}
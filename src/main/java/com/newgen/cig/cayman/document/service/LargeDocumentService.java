@@ -0,0 +1,238 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.newgen.cig.cayman.document.exception.ExternalServiceException;
+import com.newgen.cig.cayman.document.exception.JsonParsingException;
+import com.newgen.cig.cayman.document.interfaces.DocumentInterface;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.model.dto.DocumentValidator;
+import com.newgen.cig.cayman.document.model.enums.DocumentType;
+import com.newgen.cig.cayman.document.utils.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves large documents out of the getDocumentJSON channel by using the OmniDocs
+ * {@code downloadLocation} option.
+ *
+ * <p>Inline fetches carry the document as base64 inside JSON, a third larger than
+ * the document and parsed on every byte. For documents above a size threshold, or
+ * of selected {@link DocumentType}s, OmniDocs is instead asked to write the file to
+ * a directory shared with this service. The file is then moved into
+ * {@link DiskDocumentCacheService}, from where it is served with zero-copy transfer.</p>
+ *
+ * <p>Size and type are only known once a document has been seen, and OmniDocs has
+ * no cheaper call that reports them, so the decision is made before fetching: a
+ * document never seen before takes the download path, which costs no more than an
+ * inline fetch and already keeps a large document out of the JSON channel. The
+ * metadata it returns is recorded in {@link DocumentValidatorService} and decides
+ * later fetches, so a document that turned out small goes inline from then on.
+ * Setting {@code downloadUnknown} to {@code false} sends unseen documents inline
+ * instead, for servers that ignore {@code downloadLocation}. Any failure of
+ * the download path (OmniDocs error, missing or truncated file) is reported as
+ * {@code null} so callers fall back to the inline path; only "not found" is thrown.</p>
+ *
+ * <h3>Configuration:</h3>
+ * <pre>
+ * newgen.cayman.document.largeDocument:
+ *   enabled: true
+ *   thresholdBytes: 20971520                      # Declared documentSize at or above this
+ *   types: tif,tiff                               # DocumentType extensions always downloaded
+ *   downloadUnknown: true                         # Download documents whose metadata is not yet known
+ *   directory: /mnt/omnidocs-download             # Shared directory as mounted on this host
+ *   remoteDirectory: D:/omnidocs-download         # Same directory as seen by OmniDocs
+ * </pre>
+ *
+ * <h3>Metrics:</h3>
+ * <ul>
+ *   <li>{@code documents.download.location} tagged {@code result=success|fallback}</li>
+ * </ul>
+ *
+ * <p>Requires the on-disk cache; the mode is switched off at startup without it.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+@Service
+public class LargeDocumentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LargeDocumentService.class);
+
+    @Autowired
+    private DocumentInterface doc;
+
+    @Autowired
+    private DiskDocumentCacheService diskCache;
+
+    @Autowired
+    private DocumentValidatorService validators;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${newgen.cayman.document.largeDocument.enabled:false}")
+    private boolean enabled;
+
+    @Value("${newgen.cayman.document.largeDocument.thresholdBytes:20971520}")
+    private long thresholdBytes;
+
+    @Value("${newgen.cayman.document.largeDocument.types:}")
+    private String[] types;
+
+    @Value("${newgen.cayman.document.largeDocument.downloadUnknown:true}")
+    private boolean downloadUnknown;
+
+    @Value("${newgen.cayman.document.largeDocument.directory:}")
+    private String directory;
+
+    @Value("${newgen.cayman.document.largeDocument.remoteDirectory:}")
+    private String remoteDirectory;
+
+    private final SingleFlight<String, DiskDocumentCacheService.CachedFile> downloads = new SingleFlight<>();
+    private final Set<DocumentType> largeTypes = EnumSet.noneOf(DocumentType.class);
+    private Path localRoot;
+    private Counter successes;
+    private Counter fallbacks;
+
+    @PostConstruct
+    public void init() {
+        successes = Counter.builder("documents.download.location").tag("result", "success").register(meterRegistry);
+        fallbacks = Counter.builder("documents.download.location").tag("result", "fallback").register(meterRegistry);
+        for (String type : types) {
+            if (!type.isBlank()) {
+                largeTypes.add(DocumentType.fromExtension(type.trim()));
+            }
+        }
+        if (!enabled) {
+            logger.info("Large-document mode disabled");
+            return;
+        }
+        if (directory.isBlank() || !diskCache.isEnabled()) {
+            logger.warn("Large-document mode needs a download directory and the disk cache. Mode disabled.");
+            enabled = false;
+            return;
+        }
+        try {
+            localRoot = Files.createDirectories(Paths.get(directory));
+        } catch (IOException e) {
+            logger.error("Unable to access download directory {}. Large-document mode disabled.", directory, e);
+            enabled = false;
+            return;
+        }
+        if (remoteDirectory.isBlank()) {
+            remoteDirectory = localRoot.toAbsolutePath().toString();
+        }
+        logger.info("Large-document mode enabled. Threshold: {} bytes, Types: {}, DownloadUnknown: {}, Directory: {}, Remote: {}",
+                thresholdBytes, largeTypes, downloadUnknown, localRoot, remoteDirectory);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param docIndex document index
+     * @return {@code true} if the document should be fetched through the download
+     *         location: it is known to be large, or not known at all and
+     *         {@code downloadUnknown} is set
+     */
+    public boolean isLarge(String docIndex) {
+        if (!enabled) {
+            return false;
+        }
+        DocumentValidator validator = validators.find(docIndex);
+        if (validator == null) {
+            return downloadUnknown;
+        }
+        DocumentResponse metadata = validator.getMetadata();
+        if (declaredSize(metadata) >= thresholdBytes) {
+            return true;
+        }
+        try {
+            return largeTypes.contains(DocumentType.fromExtension(metadata.getCreatedByAppName()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Has OmniDocs write the document to the shared directory and moves it into the
+     * disk cache. Concurrent calls for the same document share one download.
+     *
+     * @param docIndex document index
+     * @return the cached file, pinned for the caller to release, or {@code null} if
+     *         the inline path should be used instead
+     * @throws com.newgen.cig.cayman.document.exception.DocumentNotFoundException if the document does not exist
+     * @throws com.newgen.cig.cayman.document.exception.SessionExpiredException when session is missing/expired
+     */
+    public DiskDocumentCacheService.CachedFile download(String docIndex) {
+        logger.trace("Entering download() method with docIndex: {}", docIndex);
+        DiskDocumentCacheService.CachedFile file = downloads.execute(docIndex, () -> {
+            DiskDocumentCacheService.CachedFile downloaded = downloadOnce(docIndex);
+            (downloaded != null ? successes : fallbacks).increment();
+            return downloaded;
+        });
+        return file != null && file.pin() ? file : null;
+    }
+
+    private DiskDocumentCacheService.CachedFile downloadOnce(String docIndex) {
+        String fileName = UUID.randomUUID() + ".download";
+        Path local = localRoot.resolve(fileName);
+        String remote = remoteDirectory.endsWith("/") || remoteDirectory.endsWith("\\")
+                ? remoteDirectory + fileName : remoteDirectory + "/" + fileName;
+
+        try {
+            DocumentResponse metadata = doc.downloadDoc(docIndex, remote);
+            if (!Files.isRegularFile(local)) {
+                logger.warn("OmniDocs reported success but no file appeared at {}. DocIndex: {}", local, docIndex);
+                return null;
+            }
+            long size = Files.size(local);
+            long declared = declaredSize(metadata);
+            if (declared >= 0 && declared != size) {
+                logger.warn("Downloaded file is incomplete. DocIndex: {}, Declared: {} bytes, Actual: {} bytes",
+                        docIndex, declared, size);
+                return null;
+            }
+
+            DiskDocumentCacheService.CachedFile file = diskCache.adopt(docIndex, local, metadata);
+            if (file == null) {
+                logger.warn("Downloaded document could not be cached. DocIndex: {}, Size: {} bytes", docIndex, size);
+                return null;
+            }
+            validators.record(docIndex, metadata, file.getDigest());
+            logger.info("Document fetched through download location. DocIndex: {}, Size: {} bytes", docIndex, size);
+            return file;
+        } catch (ExternalServiceException | JsonParsingException | IOException e) {
+            logger.warn("Download location fetch failed for docIndex: {}. Falling back to inline content.", docIndex, e);
+            return null;
+        } finally {
+            try {
+                Files.deleteIfExists(local);
+            } catch (IOException e) {
+                logger.warn("Unable to delete downloaded file {}", local, e);
+            }
+        }
+    }
+
+    private static long declaredSize(DocumentResponse metadata) {
+        try {
+            return Long.parseLong(metadata.getDocumentSize().trim());
+        } catch (RuntimeException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to observed latency using AIMD
+ * (additive increase, multiplicative decrease).
+ *
+ * <p>A call may start only while fewer than {@link #getLimit()} calls are in
+ * flight. A call that completes within the latency threshold while the limit is
+ * at least half used raises the limit by one. A call that is slower than the
+ * threshold, or that fails, multiplies the limit by the backoff ratio. The limit
+ * always stays between the configured minimum and maximum. All state is held in
+ * atomics, so permits are taken and returned without locking.</p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>{@code
+ * AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 50, Duration.ofSeconds(1).toNanos(), 0.9);
+ * if (!limit.tryAcquire()) {
+ *     throw new ServiceUnavailableException("Too many calls in flight", 1);
+ * }
+ * long start = System.nanoTime();
+ * try {
+ *     DocumentResponse result = doc.fetchDoc(docIndex);
+ *     limit.onSuccess(System.nanoTime() - start);
+ *     return result;
+ * } catch (RuntimeException e) {
+ *     limit.onDropped();
+ *     throw e;
+ * }
+ * }</pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param initialLimit starting limit
+     * @param minLimit lowest value the limit shrinks to
+     * @param maxLimit highest value the limit grows to
+     * @param latencyThresholdNanos calls slower than this shrink the limit
+     * @param backoffRatio factor applied to the limit when it shrinks, between 0 and 1
+     * @throws IllegalArgumentException if the bounds or ratio are inconsistent
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    long latencyThresholdNanos, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limit bounds must satisfy 1 <= min <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    /**
+     * Takes a permit if fewer calls than the current limit are in flight.
+     *
+     * @return {@code true} if the call may start; it must then report exactly one outcome
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the permit of a call that completed and adapts the limit to its latency.
+     *
+     * @param latencyNanos observed latency of the call
+     */
+    public void onSuccess(long latencyNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (inFlightAtCompletion * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * Returns the permit of a call that failed or timed out and shrinks the limit.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        decrease();
+    }
+
+    /**
+     * Returns the permit of a call whose outcome says nothing about the upstream,
+     * for example because the client went away, without changing the limit.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return current limit on calls in flight
+     */
+    public int getLimit() {
+        return limit.get();
+    }
+
+    /**
+     * @return calls currently in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void decrease() {
+        limit.updateAndGet(current -> Math.max(minLimit, Math.min(current - 1, (int) (current * backoffRatio))));
+    }
+}
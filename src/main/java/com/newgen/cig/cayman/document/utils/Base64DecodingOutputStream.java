@@ -0,0 +1,87 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Output stream that base64-decodes what is written to it into another stream,
+ * for callers that receive base64 text but also need the bytes it encodes.
+ *
+ * <p>Text is decoded in whole four-character quanta as it arrives; a partial quantum
+ * is held back until the next write or {@link #finish()}. The text must be plain
+ * base64 without line breaks. Closing the stream finishes it but does not close the
+ * target.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class Base64DecodingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final Base64.Decoder decoder = Base64.getDecoder();
+    private final byte[] quantum = new byte[4];
+    private int held;
+
+    public Base64DecodingOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (held > 0 && len > 0) {
+            quantum[held++] = b[off++];
+            len--;
+            if (held == quantum.length) {
+                decode(quantum, 0, held);
+                held = 0;
+            }
+        }
+        int whole = len - len % quantum.length;
+        if (whole > 0) {
+            decode(b, off, whole);
+        }
+        for (int i = whole; i < len; i++) {
+            quantum[held++] = b[off + i];
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Decodes the held partial quantum, which may omit its padding.
+     *
+     * @throws IOException if the text ended in the middle of a quantum or writing fails
+     */
+    public void finish() throws IOException {
+        if (held > 0) {
+            decode(quantum, 0, held);
+            held = 0;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    private void decode(byte[] b, int off, int len) throws IOException {
+        ByteBuffer decoded;
+        try {
+            decoded = decoder.decode(ByteBuffer.wrap(b, off, len));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid base64 content", e);
+        }
+        out.write(decoded.array(), decoded.arrayOffset() + decoded.position(), decoded.remaining());
+    }
+}
@@ -0,0 +1,99 @@
+package com.newgen.cig.cayman.document.utils;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Lets one thread abort the HTTP requests another thread is making.
+ *
+ * <p>Work run through {@link #call(Supplier)} is bound to the scope. Every OmniDocs
+ * request created on that thread meanwhile is registered with the scope by the
+ * RestTemplate request factory, and {@link #cancel()} aborts them, closing their
+ * connections. The blocked thread then fails with an I/O error instead of waiting
+ * for the response.</p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>{@code
+ * CancellationScope scope = new CancellationScope();
+ * CompletableFuture<DocumentResponse> attempt =
+ *         CompletableFuture.supplyAsync(() -> scope.call(() -> fetch(docIndex)), executor);
+ * // later, from another thread
+ * scope.cancel();
+ * }</pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class CancellationScope {
+
+    private static final ThreadLocal<CancellationScope> CURRENT = new ThreadLocal<>();
+
+    private final Queue<Cancellable> requests = new ConcurrentLinkedQueue<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Runs work bound to this scope on the current thread.
+     *
+     * @param work work that makes HTTP requests
+     * @param <T> result type
+     * @return result of the work
+     */
+    public <T> T call(Supplier<T> work) {
+        CancellationScope previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Registers a request with the scope bound to the current thread, if any. A
+     * request registered after the scope was cancelled is aborted immediately.
+     *
+     * @param request request about to be executed
+     */
+    public static void register(Cancellable request) {
+        CancellationScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.requests.add(request);
+            if (scope.cancelled) {
+                scope.cancel();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the current thread runs work of a cancelled scope
+     */
+    public static boolean isCurrentCancelled() {
+        CancellationScope scope = CURRENT.get();
+        return scope != null && scope.cancelled;
+    }
+
+    /**
+     * Aborts every request registered so far and any registered later.
+     */
+    public void cancel() {
+        cancelled = true;
+        Cancellable request;
+        while ((request = requests.poll()) != null) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * @return {@code true} once {@link #cancel()} has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
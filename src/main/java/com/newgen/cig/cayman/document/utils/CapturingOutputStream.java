@@ -0,0 +1,67 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that writes through to a delegate while keeping a copy of
+ * the bytes, up to a fixed limit.
+ *
+ * <p>Used to populate caches from a streamed download without buffering
+ * documents larger than the cache would accept. Once more than {@code limit}
+ * bytes have been written the copy is discarded and {@link #getCaptured()}
+ * returns {@code null}; the delegate keeps receiving every byte.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class CapturingOutputStream extends FilterOutputStream {
+
+    private final long limit;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    public CapturingOutputStream(OutputStream delegate, long limit) {
+        super(delegate);
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        capture(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        capture(b, off, len);
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        if (copy == null) {
+            return;
+        }
+        if (copy.size() + (long) len > limit) {
+            copy = null;
+            return;
+        }
+        copy.write(b, off, len);
+    }
+
+    /**
+     * Does not close the delegate; the owner of the delegate stream closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * @return copy of everything written, or {@code null} if the limit was exceeded
+     */
+    public byte[] getCaptured() {
+        return copy != null ? copy.toByteArray() : null;
+    }
+}
@@ -0,0 +1,222 @@
+package com.newgen.cig.cayman.document.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker that stops calls to an upstream once too many of
+ * the recent calls failed or were slow.
+ *
+ * <h3>States:</h3>
+ * <ul>
+ *   <li>{@code CLOSED} – calls pass; outcomes of the last {@code windowSize} calls are
+ *       kept, and once at least {@code minimumCalls} are recorded the breaker opens
+ *       when the failure rate or the slow-call rate reaches its threshold</li>
+ *   <li>{@code OPEN} – calls are rejected until {@code openDuration} has passed</li>
+ *   <li>{@code HALF_OPEN} – up to {@code halfOpenCalls} trial calls pass; a failure
+ *       reopens the breaker, otherwise it closes once all trials completed and the
+ *       slow-call rate among them is below the threshold</li>
+ * </ul>
+ *
+ * <p>State is guarded by a {@link ReentrantLock}; no I/O happens while it is held.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    /**
+     * Breaker state.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] window;
+    private int windowStart;
+    private int windowCount;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenStarted;
+
+    /**
+     * @param name name used in log messages
+     * @param windowSize number of recent calls whose outcomes are kept
+     * @param minimumCalls calls needed in the window before the rates are evaluated
+     * @param failureRateThreshold failure rate, in percent, that opens the breaker
+     * @param slowCallRateThreshold slow-call rate, in percent, that opens the breaker
+     * @param openDurationNanos time the breaker stays open before allowing trial calls
+     * @param halfOpenCalls trial calls allowed while half-open
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          int slowCallRateThreshold, long openDurationNanos, int halfOpenCalls) {
+        if (windowSize < 1 || minimumCalls < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Window size, minimum calls and half-open calls must be positive");
+        }
+        this.name = name;
+        this.window = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationNanos = openDurationNanos;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Asks whether a call may start. Moves an open breaker to half-open once the
+     * open duration has passed.
+     *
+     * @return {@code true} if the call may start; it must then report exactly one outcome
+     */
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenStarted >= halfOpenCalls) {
+                    return false;
+                }
+                halfOpenStarted++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a call that was allowed by {@link #tryAcquire()}.
+     *
+     * @param failed whether the upstream failed
+     * @param slow whether the call took longer than the slow-call duration
+     */
+    public void onResult(boolean failed, boolean slow) {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                return;
+            }
+            record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+            if (state == State.HALF_OPEN) {
+                if (failed) {
+                    open();
+                } else if (windowCount >= halfOpenCalls) {
+                    if (rate(slowCalls) >= slowCallRateThreshold) {
+                        open();
+                    } else {
+                        transition(State.CLOSED);
+                    }
+                }
+            } else if (windowCount >= minimumCalls
+                    && (rate(failures) >= failureRateThreshold || rate(slowCalls) >= slowCallRateThreshold)) {
+                logger.warn("Circuit breaker '{}' opening. FailureRate: {}%, SlowCallRate: {}%, Calls: {}",
+                        name, rate(failures), rate(slowCalls), windowCount);
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the permit of an allowed call whose outcome says nothing about the
+     * upstream, so that a half-open breaker can hand it to another trial call.
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && halfOpenStarted > windowCount) {
+                halfOpenStarted--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return current state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return seconds until trial calls are allowed again, at least 1
+     */
+    public long getRetryAfterSeconds() {
+        lock.lock();
+        try {
+            if (state != State.OPEN) {
+                return 1;
+            }
+            long remaining = openDurationNanos - (System.nanoTime() - openedAt);
+            return Math.max(1, (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        transition(State.OPEN);
+    }
+
+    private void transition(State next) {
+        logger.info("Circuit breaker '{}' state change. From: {}, To: {}", name, state, next);
+        state = next;
+        windowStart = 0;
+        windowCount = 0;
+        failures = 0;
+        slowCalls = 0;
+        halfOpenStarted = 0;
+    }
+
+    private void record(byte outcome) {
+        int slot;
+        if (windowCount == window.length) {
+            slot = windowStart;
+            byte evicted = window[slot];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+            windowStart = (windowStart + 1) % window.length;
+        } else {
+            slot = (windowStart + windowCount) % window.length;
+            windowCount++;
+        }
+        window[slot] = outcome;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+    }
+
+    private int rate(int count) {
+        return windowCount == 0 ? 0 : count * 100 / windowCount;
+    }
+}
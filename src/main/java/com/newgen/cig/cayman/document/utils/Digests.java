@@ -0,0 +1,108 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 helpers used for cache file names and content validators.
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class Digests {
+
+    private Digests() {
+    }
+
+    /**
+     * @return a new SHA-256 digest
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param data bytes to hash
+     * @return lower-case hex SHA-256 of {@code data}
+     */
+    public static String sha256Hex(byte[] data) {
+        return HexFormat.of().formatHex(sha256().digest(data));
+    }
+
+    /**
+     * @param text text to hash, encoded as UTF-8
+     * @return lower-case hex SHA-256 of {@code text}
+     */
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hashes the bytes encoded by a base64 string, decoding it as a stream so that
+     * no decoded copy of the whole document is held. Line breaks, as OmniDocs adds
+     * to some responses, are skipped.
+     *
+     * @param base64 base64 text, with or without line breaks
+     * @return lower-case hex SHA-256 of the decoded bytes
+     * @throws IllegalArgumentException if {@code base64} is not valid base64
+     */
+    public static String sha256HexOfBase64(CharSequence base64) {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[16 * 1024];
+        try (InputStream in = Base64.getMimeDecoder().wrap(new CharSequenceInputStream(base64))) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid base64 content: " + e.getMessage(), e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Reads the characters of base64 text as the ASCII bytes they encode to. */
+    private static final class CharSequenceInputStream extends InputStream {
+        private final CharSequence text;
+        private int position;
+
+        private CharSequenceInputStream(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            return position < text.length() ? ascii(text.charAt(position++)) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= text.length()) {
+                return -1;
+            }
+            int end = Math.min(text.length(), position + len);
+            for (int i = position; i < end; i++) {
+                b[off++] = (byte) ascii(text.charAt(i));
+            }
+            int read = end - position;
+            position = end;
+            return read;
+        }
+
+        /** Characters outside ASCII are never base64, and must not alias a base64 byte. */
+        private static int ascii(char c) {
+            return c < 0x80 ? c : '?';
+        }
+    }
+}
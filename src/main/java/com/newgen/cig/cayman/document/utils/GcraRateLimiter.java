@@ -0,0 +1,79 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free rate limiter based on the generic cell rate algorithm (GCRA).
+ *
+ * <p>Instead of counting tokens, each key keeps a single theoretical arrival time
+ * (TAT): the time at which the key would be back to an empty allowance if no further
+ * request came. A request is allowed when the TAT is no more than the burst tolerance
+ * ahead of now, and then moves the TAT one emission interval further.</p>
+ *
+ * <ul>
+ *   <li>Emission interval – {@code period / capacity}; one request's worth of allowance
+ *       comes back every interval, so refill is smooth rather than per period</li>
+ *   <li>Burst tolerance – {@code (capacity - 1)} intervals; an idle key can still send
+ *       {@code capacity} requests at once</li>
+ * </ul>
+ *
+ * <p>The state of a key is one {@link AtomicLong} created by {@link #newState()} and
+ * updated with compare-and-set, so concurrent requests for the same key never block
+ * each other. A rejected request does not write the state at all.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class GcraRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+
+    /**
+     * @param capacity requests allowed per period, and the largest burst
+     * @param periodNanos length of the period
+     * @throws IllegalArgumentException if capacity or period is not positive
+     */
+    public GcraRateLimiter(int capacity, long periodNanos) {
+        if (capacity < 1 || periodNanos < 1) {
+            throw new IllegalArgumentException("Capacity and period must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, periodNanos / capacity);
+        this.toleranceNanos = emissionIntervalNanos * (capacity - 1);
+    }
+
+    /**
+     * @return state of a new key, with its whole burst available
+     */
+    public AtomicLong newState() {
+        return new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Admits one request for a key if its allowance permits.
+     *
+     * @param state the key's theoretical arrival time
+     * @return {@code true} if the request is allowed
+     */
+    public boolean tryAcquire(AtomicLong state) {
+        long now = System.nanoTime();
+        while (true) {
+            long tat = state.get();
+            long start = tat - now > 0 ? tat : now;
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (state.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param state the key's theoretical arrival time
+     * @return nanoseconds until the key may send another request, 0 if it may now
+     */
+    public long waitNanos(AtomicLong state) {
+        return Math.max(0, state.get() - System.nanoTime() - toleranceNanos);
+    }
+}
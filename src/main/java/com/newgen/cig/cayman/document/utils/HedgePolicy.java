@@ -0,0 +1,146 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Decides when a second, hedged request is sent and how many may be sent.
+ *
+ * <p>The hedge delay is a percentile of the latencies of recent successful calls,
+ * kept in a ring of {@code windowSize} samples. Sorting the ring on every call would
+ * cost more than it saves, so the percentile is recomputed after every tenth of the
+ * window has been replaced. Until {@code minimumSamples} latencies are known no
+ * delay is offered and calls are not hedged.</p>
+ *
+ * <p>Hedges are paid for from a budget: every call earns {@code budgetPercent}
+ * hundredths of a hedge, up to {@code maxBurst} hedges, and every hedge spends one.
+ * Over time hedges therefore stay at or below {@code budgetPercent} of the calls,
+ * even when OmniDocs slows down as a whole. All state is held in atomics.</p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>{@code
+ * HedgePolicy policy = new HedgePolicy(1000, 95.0, 20, Duration.ofMillis(50).toNanos(), 5, 10);
+ * policy.onCall();
+ * long delay = policy.hedgeDelayNanos();
+ * if (delay >= 0 && !first.await(delay) && policy.tryAcquireHedge()) {
+ *     sendSecondRequest();
+ * }
+ * }</pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class HedgePolicy {
+
+    private static final long MILLI_HEDGES = 1000;
+
+    private final double percentile;
+    private final int minimumSamples;
+    private final long minDelayNanos;
+    private final long creditPerCall;
+    private final long maxCredit;
+
+    private final AtomicLongArray latencies;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicBoolean recomputing = new AtomicBoolean();
+    private final int recomputeEvery;
+    private volatile long delayNanos = -1;
+
+    private final AtomicLong credit;
+
+    /**
+     * @param windowSize number of recent latencies kept
+     * @param percentile latency percentile used as hedge delay, between 0 and 100
+     * @param minimumSamples latencies needed before calls are hedged
+     * @param minDelayNanos lowest hedge delay
+     * @param budgetPercent hedges allowed per 100 calls
+     * @param maxBurst hedges that may be sent back to back once credit has built up
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public HedgePolicy(int windowSize, double percentile, int minimumSamples, long minDelayNanos,
+                       int budgetPercent, int maxBurst) {
+        if (windowSize < 1 || minimumSamples < 1 || maxBurst < 1) {
+            throw new IllegalArgumentException("Window size, minimum samples and max burst must be positive");
+        }
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be greater than 0 and at most 100");
+        }
+        if (budgetPercent < 0 || budgetPercent > 100) {
+            throw new IllegalArgumentException("Budget percent must be between 0 and 100");
+        }
+        this.percentile = percentile;
+        this.minimumSamples = Math.min(minimumSamples, windowSize);
+        this.minDelayNanos = minDelayNanos;
+        this.creditPerCall = budgetPercent * MILLI_HEDGES / 100;
+        this.maxCredit = maxBurst * MILLI_HEDGES;
+        this.latencies = new AtomicLongArray(windowSize);
+        this.recomputeEvery = Math.max(1, windowSize / 10);
+        this.credit = new AtomicLong(0);
+    }
+
+    /**
+     * Adds a call's share of hedge budget.
+     */
+    public void onCall() {
+        if (creditPerCall > 0) {
+            credit.updateAndGet(current -> Math.min(maxCredit, current + creditPerCall));
+        }
+    }
+
+    /**
+     * @return delay after which a call should be hedged, or {@code -1} while too few latencies are known
+     */
+    public long hedgeDelayNanos() {
+        return delayNanos;
+    }
+
+    /**
+     * Spends budget on one hedge.
+     *
+     * @return {@code true} if the hedge may be sent
+     */
+    public boolean tryAcquireHedge() {
+        while (true) {
+            long current = credit.get();
+            if (current < MILLI_HEDGES) {
+                return false;
+            }
+            if (credit.compareAndSet(current, current - MILLI_HEDGES)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Records the latency of a successful call.
+     *
+     * @param latencyNanos observed latency
+     */
+    public void recordLatency(long latencyNanos) {
+        long sample = samples.getAndIncrement();
+        latencies.set((int) (sample % latencies.length()), latencyNanos);
+        long recorded = sample + 1;
+        if (recorded >= minimumSamples
+                && (delayNanos < 0 || recorded % recomputeEvery == 0)
+                && recomputing.compareAndSet(false, true)) {
+            try {
+                delayNanos = Math.max(minDelayNanos, computePercentile(recorded));
+            } finally {
+                recomputing.set(false);
+            }
+        }
+    }
+
+    private long computePercentile(long recorded) {
+        int count = (int) Math.min(recorded, latencies.length());
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+}
@@ -0,0 +1,132 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * Copies the base64 text of a JSON string value from a UTF-8 byte stream without
+ * decoding it.
+ *
+ * <p>The scanner starts just after the opening quote and stops at the closing one.
+ * Base64 characters are copied in runs straight from the read buffer. Escapes are
+ * resolved: {@code \/} becomes {@code /}, escaped line breaks, as MIME encoders
+ * emit, are dropped, and four-digit unicode escapes are accepted for base64 characters.
+ * Anything else is rejected, so the copy is always plain base64 that needs no
+ * escaping when written into another JSON string.</p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>{@code
+ * InputStream rest = JsonBase64Scanner.copy(body, out);
+ * // rest continues after the closing quote
+ * }</pre>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public final class JsonBase64Scanner {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final boolean[] BASE64 = new boolean[128];
+
+    private static final int TEXT = 0;
+    private static final int ESCAPE = 1;
+    private static final int UNICODE = 2;
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            BASE64[c] = true;
+            BASE64[c - 'A' + 'a'] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            BASE64[c] = true;
+        }
+        BASE64['+'] = true;
+        BASE64['/'] = true;
+        BASE64['='] = true;
+    }
+
+    private JsonBase64Scanner() {
+    }
+
+    /**
+     * Copies the remainder of a JSON string value to {@code out}.
+     *
+     * @param in stream positioned just after the opening quote
+     * @param out receives the base64 characters
+     * @return stream continuing right after the closing quote
+     * @throws IOException if reading or writing fails, the value holds anything but
+     *         base64, or the stream ends before the closing quote
+     */
+    public static InputStream copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int state = TEXT;
+        int code = 0;
+        int digits = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            int run = 0;
+            for (int i = 0; i < n; i++) {
+                int b = buffer[i] & 0xFF;
+                if (state == TEXT) {
+                    if (b < 128 && BASE64[b]) {
+                        continue;
+                    }
+                    out.write(buffer, run, i - run);
+                    if (b == '"') {
+                        return new SequenceInputStream(new ByteArrayInputStream(buffer, i + 1, n - i - 1), in);
+                    }
+                    if (b != '\\') {
+                        throw invalid(b);
+                    }
+                    state = ESCAPE;
+                } else if (state == ESCAPE) {
+                    if (b == 'u') {
+                        code = 0;
+                        digits = 0;
+                        state = UNICODE;
+                    } else {
+                        emit(unescape(b), out);
+                        state = TEXT;
+                    }
+                } else {
+                    int digit = Character.digit(b, 16);
+                    if (digit < 0) {
+                        throw invalid(b);
+                    }
+                    code = code * 16 + digit;
+                    if (++digits == 4) {
+                        emit(code, out);
+                        state = TEXT;
+                    }
+                }
+                run = i + 1;
+            }
+            out.write(buffer, run, n - run);
+        }
+        throw new EOFException("Base64 content ended before its closing quote");
+    }
+
+    private static int unescape(int b) {
+        return switch (b) {
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            default -> b;
+        };
+    }
+
+    private static void emit(int c, OutputStream out) throws IOException {
+        if (c < 128 && BASE64[c]) {
+            out.write(c);
+        } else if (c != '\n' && c != '\r') {
+            throw invalid(c);
+        }
+    }
+
+    private static IOException invalid(int c) {
+        return new IOException("Invalid character in base64 content: 0x" + Integer.toHexString(c));
+    }
+}
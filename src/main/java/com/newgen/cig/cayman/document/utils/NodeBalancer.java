@@ -0,0 +1,305 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side load balancer over a fixed list of upstream nodes.
+ *
+ * <h3>Selection:</h3>
+ * <ul>
+ *   <li>{@link Selection#LEAST_OUTSTANDING} – the node with the fewest calls in flight</li>
+ *   <li>{@link Selection#EWMA} – the node with the lowest
+ *       {@code ewmaLatency * (inFlight + 1)}, so a node that slows down receives
+ *       less traffic before it fails</li>
+ * </ul>
+ * <p>Ties are broken round-robin. The latency average decays with the time since its
+ * last sample, both when a sample is added and when nodes are compared, so a node
+ * that was slow a while ago and has not been called since is tried again.</p>
+ *
+ * <h3>Outlier Ejection:</h3>
+ * <p>A node whose last {@code consecutiveFailures} calls all failed or were slow is
+ * ejected for {@code baseEjection} times the number of times it was ejected in a row,
+ * up to {@code maxEjection}. A successful call resets both counts. A node is not
+ * ejected if that would leave no node available. Nodes can also be marked down by a
+ * health check ({@link Node#setHealthy(boolean)}). When no node is available, all
+ * nodes are considered again rather than failing the call.</p>
+ *
+ * <p>Outcome state of a node is guarded by a {@link ReentrantLock}; selection reads
+ * it without locking.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class NodeBalancer {
+
+    /**
+     * Node selection strategy.
+     */
+    public enum Selection {
+        LEAST_OUTSTANDING, EWMA;
+
+        /**
+         * @param name {@code least-outstanding} or {@code ewma}
+         * @return the strategy
+         * @throws IllegalArgumentException for any other name
+         */
+        public static Selection of(String name) {
+            return switch (name.trim().toLowerCase()) {
+                case "least-outstanding" -> LEAST_OUTSTANDING;
+                case "ewma" -> EWMA;
+                default -> throw new IllegalArgumentException("Unknown node selection: " + name);
+            };
+        }
+    }
+
+    private final List<Node> nodes;
+    private final Selection selection;
+    private final long decayNanos;
+    private final int consecutiveFailures;
+    private final long slowCallNanos;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param urls base URLs of the nodes
+     * @param selection selection strategy
+     * @param decayNanos time after which an old latency sample has lost about two thirds of its weight
+     * @param consecutiveFailures failed or slow calls in a row that eject a node
+     * @param slowCallNanos calls slower than this count as failures for ejection
+     * @param baseEjectionNanos time a node is ejected for the first time in a row
+     * @param maxEjectionNanos longest time a node is ejected
+     * @throws IllegalArgumentException if no node is given or a count is not positive
+     */
+    public NodeBalancer(List<String> urls, Selection selection, long decayNanos, int consecutiveFailures,
+                        long slowCallNanos, long baseEjectionNanos, long maxEjectionNanos) {
+        if (urls.isEmpty() || decayNanos < 1 || consecutiveFailures < 1) {
+            throw new IllegalArgumentException("At least one node, a positive decay and a positive failure count are required");
+        }
+        List<Node> created = new ArrayList<>();
+        for (String url : urls) {
+            created.add(new Node(url));
+        }
+        this.nodes = Collections.unmodifiableList(created);
+        this.selection = selection;
+        this.decayNanos = decayNanos;
+        this.consecutiveFailures = consecutiveFailures;
+        this.slowCallNanos = slowCallNanos;
+        this.baseEjectionNanos = baseEjectionNanos;
+        this.maxEjectionNanos = maxEjectionNanos;
+    }
+
+    /**
+     * @return all nodes, in configuration order
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Picks the node for a new call among the available nodes, or among all nodes
+     * when none is available.
+     *
+     * @return the chosen node
+     */
+    public Node choose() {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        long now = System.nanoTime();
+        Node best = pick(now, true);
+        return best != null ? best : pick(now, false);
+    }
+
+    /**
+     * @return {@code true} if at least one node is healthy and not ejected
+     */
+    public boolean hasAvailable() {
+        long now = System.nanoTime();
+        for (Node node : nodes) {
+            if (node.isAvailable(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Node pick(long now, boolean availableOnly) {
+        int size = nodes.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        Node best = null;
+        double bestCost = 0;
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get((start + i) % size);
+            if (availableOnly && !node.isAvailable(now)) {
+                continue;
+            }
+            double cost = selection == Selection.EWMA
+                    ? node.ewmaAt(now) * (node.inFlight.get() + 1)
+                    : node.inFlight.get();
+            if (best == null || cost < bestCost) {
+                best = node;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    private boolean othersAvailable(Node node, long now) {
+        for (Node other : nodes) {
+            if (other != node && other.isAvailable(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One upstream node with its load, latency and ejection state.
+     */
+    public final class Node {
+        private final String url;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile double ewmaNanos;
+        private volatile long lastSampleAt;
+        private int failuresInRow;
+        private int ejectionsInRow;
+        private volatile long ejectedUntil;
+        private volatile boolean ejected;
+        private volatile boolean healthy = true;
+
+        private Node(String url) {
+            this.url = url;
+        }
+
+        /**
+         * @return base URL of the node
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return calls in flight
+         */
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * @return average latency in nanoseconds, decayed to now, 0 before the first call
+         */
+        public double getEwmaNanos() {
+            return ewmaAt(System.nanoTime());
+        }
+
+        private double ewmaAt(long now) {
+            long sampledAt = lastSampleAt;
+            double ewma = ewmaNanos;
+            if (sampledAt == 0) {
+                return ewma;
+            }
+            return ewma * Math.exp(-(double) Math.max(0, now - sampledAt) / decayNanos);
+        }
+
+        /**
+         * @return {@code true} while the node is ejected
+         */
+        public boolean isEjected() {
+            return ejected && System.nanoTime() - ejectedUntil < 0;
+        }
+
+        /**
+         * @return {@code true} unless the last health check failed
+         */
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * Records the result of a health check.
+         *
+         * @param healthy whether the node answered
+         */
+        public void setHealthy(boolean healthy) {
+            this.healthy = healthy;
+        }
+
+        /**
+         * @return {@code true} if the node is healthy and not ejected
+         */
+        public boolean isAvailable() {
+            return isAvailable(System.nanoTime());
+        }
+
+        private boolean isAvailable(long now) {
+            return healthy && (!ejected || now - ejectedUntil >= 0);
+        }
+
+        /**
+         * Counts a call as in flight. It must be ended with exactly one {@link #complete(long, boolean)}.
+         */
+        public void start() {
+            inFlight.incrementAndGet();
+        }
+
+        /**
+         * Ends a call started with {@link #start()}.
+         *
+         * @param latencyNanos time the node took to answer
+         * @param failed whether the node failed to answer
+         * @return {@code true} if this call ejected the node
+         */
+        public boolean complete(long latencyNanos, boolean failed) {
+            inFlight.decrementAndGet();
+            boolean bad = failed || latencyNanos >= slowCallNanos;
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                if (lastSampleAt == 0 || ewmaNanos == 0) {
+                    ewmaNanos = latencyNanos;
+                } else {
+                    double weight = Math.exp(-(double) Math.max(0, now - lastSampleAt) / decayNanos);
+                    ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+                }
+                lastSampleAt = now;
+
+                if (!bad) {
+                    failuresInRow = 0;
+                    ejectionsInRow = 0;
+                    return false;
+                }
+                failuresInRow++;
+                if (failuresInRow < consecutiveFailures || !isAvailable(now) || !othersAvailable(this, now)) {
+                    return false;
+                }
+                ejectionsInRow++;
+                failuresInRow = 0;
+                long duration = Math.min(maxEjectionNanos, baseEjectionNanos * ejectionsInRow);
+                ejectedUntil = now + duration;
+                ejected = true;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Ends a call started with {@link #start()} without recording an outcome, for
+         * calls that were abandoned before the node answered.
+         */
+        public void abandon() {
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into a single execution.
+ *
+ * <p>The first caller for a key runs the supplier on its own thread; callers
+ * arriving while it is in flight wait for and share its result, or its
+ * exception. The key is released as soon as the call completes, so results
+ * are never cached beyond the lifetime of the call.</p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>{@code
+ * SingleFlight<String, DocumentResponse> flights = new SingleFlight<>();
+ * DocumentResponse result = flights.execute(docIndex, () -> doc.fetchDoc(docIndex));
+ * }</pre>
+ *
+ * @param <K> key type
+ * @param <V> result type; shared between callers, so it should be immutable
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code call} unless an identical call is already in flight.
+     *
+     * @param key identifies equivalent calls
+     * @param call the call to run if this caller is the leader
+     * @return result of the shared call
+     * @throws RuntimeException whatever the shared call threw
+     */
+    public V execute(K key, Supplier<V> call) {
+        return executeShared(key, call).value();
+    }
+
+    /**
+     * Like {@link #execute(Object, Supplier)}, but also reports whether the result
+     * came from another caller's call.
+     *
+     * @param key identifies equivalent calls
+     * @param call the call to run if this caller is the leader
+     * @return result of the shared call and whether this caller was a follower
+     * @throws RuntimeException whatever the shared call threw
+     */
+    public Result<V> executeShared(K key, Supplier<V> call) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return new Result<>(await(existing), true);
+        }
+
+        try {
+            V result = call.get();
+            mine.complete(result);
+            return new Result<>(result, false);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * @return number of keys currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight call", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * Result of a call and whether it was shared.
+     *
+     * @param value result of the call
+     * @param shared {@code true} if another caller performed the call
+     */
+    public record Result<V>(V value, boolean shared) {
+    }
+}
@@ -0,0 +1,256 @@
+package com.newgen.cig.cayman.document.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collapses concurrent calls that stream content for the same key into a single
+ * execution, like {@link SingleFlight}, and lets the leader spool the content to a
+ * temporary file that callers who joined the call read afterwards.
+ *
+ * <p>The leader decides whether to spool at all by calling {@link Spooler#open()};
+ * a leader whose content lands somewhere followers can find it anyway, such as a
+ * cache, need not. Spool write failures are recorded rather than thrown, so a full
+ * disk never breaks the leader's own transfer; followers then see no spool.</p>
+ *
+ * <p>The spool file is reference counted: one reference for the leader, and one
+ * for each follower, taken atomically with joining the call. The file is deleted
+ * once the leader has finished and every follower has closed its {@link Outcome}.</p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>{@code
+ * SpoolingSingleFlight<String, DocumentResponse> flights = new SpoolingSingleFlight<>();
+ * try (SpoolingSingleFlight.Outcome<DocumentResponse> outcome =
+ *          flights.execute(docIndex, spooler -> stream(docIndex, spooler))) {
+ *     if (outcome.shared()) {
+ *         try (InputStream in = outcome.openSpool()) { ... }
+ *     }
+ * }
+ * }</pre>
+ *
+ * @param <K> key type
+ * @param <V> result type; shared between callers, so it should be immutable
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class SpoolingSingleFlight<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpoolingSingleFlight.class);
+
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code call} unless an identical call is already in flight, in which case
+     * this caller waits for it and receives its result and spool.
+     *
+     * @param key identifies equivalent calls
+     * @param call the call to run if this caller is the leader
+     * @return outcome of the shared call; close it to release the spool
+     * @throws RuntimeException whatever the shared call threw
+     */
+    public Outcome<V> execute(K key, Call<V> call) {
+        Flight<V> mine = new Flight<>();
+        Flight<V> joined = inFlight.compute(key, (k, existing) -> {
+            if (existing == null) {
+                return mine;
+            }
+            existing.references.incrementAndGet();
+            return existing;
+        });
+        if (joined != mine) {
+            return follow(joined);
+        }
+
+        try {
+            V result = call.run(mine);
+            mine.closeSpool();
+            mine.future.complete(result);
+            return new Outcome<>(result, false, null);
+        } catch (RuntimeException | Error e) {
+            mine.closeSpool();
+            mine.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+            mine.release();
+        }
+    }
+
+    /**
+     * @return number of keys currently in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Outcome<V> follow(Flight<V> flight) {
+        try {
+            return new Outcome<>(flight.future.get(), true, flight);
+        } catch (InterruptedException e) {
+            flight.release();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight call", e);
+        } catch (ExecutionException e) {
+            flight.release();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * The leader's call.
+     *
+     * @param <V> result type
+     */
+    @FunctionalInterface
+    public interface Call<V> {
+        /**
+         * @param spooler opens the spool that followers will read, if the call chooses to
+         * @return result shared with followers
+         */
+        V run(Spooler spooler);
+    }
+
+    /**
+     * Opens the leader's spool file.
+     */
+    public interface Spooler {
+        /**
+         * Creates the spool file. Call at most once, before the first content byte.
+         *
+         * @return stream receiving the content; never throws
+         */
+        OutputStream open();
+    }
+
+    /**
+     * Result of a call, whether it was shared and, for a follower, the leader's spool.
+     *
+     * @param <V> result type
+     */
+    public static final class Outcome<V> implements AutoCloseable {
+        private final V value;
+        private final boolean shared;
+        private final Flight<V> flight;
+
+        private Outcome(V value, boolean shared, Flight<V> flight) {
+            this.value = value;
+            this.shared = shared;
+            this.flight = flight;
+        }
+
+        public V value() {
+            return value;
+        }
+
+        /**
+         * @return {@code true} if another caller performed the call
+         */
+        public boolean shared() {
+            return shared;
+        }
+
+        /**
+         * @return stream over the complete spooled content, or {@code null} if the
+         *         leader did not spool or its spool could not be written
+         * @throws IOException if the spool cannot be opened
+         */
+        public InputStream openSpool() throws IOException {
+            if (flight == null || flight.spool == null || flight.failed) {
+                return null;
+            }
+            return Files.newInputStream(flight.spool);
+        }
+
+        /**
+         * Releases this caller's reference to the spool.
+         */
+        @Override
+        public void close() {
+            if (flight != null) {
+                flight.release();
+            }
+        }
+    }
+
+    private static final class Flight<V> implements Spooler {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        /** The leader's reference plus one per follower. */
+        private final AtomicInteger references = new AtomicInteger(1);
+        private volatile Path spool;
+        private volatile boolean failed;
+        private OutputStream out;
+
+        @Override
+        public OutputStream open() {
+            try {
+                spool = Files.createTempFile("caymen-shared-", ".spool");
+                out = new BufferedOutputStream(Files.newOutputStream(spool));
+            } catch (IOException e) {
+                logger.warn("Unable to create spool file for shared call", e);
+                failed = true;
+                return OutputStream.nullOutputStream();
+            }
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    if (failed) {
+                        return;
+                    }
+                    try {
+                        out.write(b, off, len);
+                    } catch (IOException e) {
+                        logger.warn("Spool write failed for {}", spool, e);
+                        failed = true;
+                    }
+                }
+            };
+        }
+
+        private void closeSpool() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close spool file {}", spool, e);
+                failed = true;
+            }
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0 && spool != null) {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    logger.warn("Unable to delete spool file {}", spool, e);
+                }
+            }
+        }
+    }
+}
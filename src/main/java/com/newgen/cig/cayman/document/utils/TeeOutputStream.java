@@ -0,0 +1,47 @@
+package com.newgen.cig.cayman.document.utils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that writes every byte to a primary stream and a secondary copy.
+ *
+ * <p>Closing the tee flushes both streams but closes neither; their owners
+ * are responsible for closing them.</p>
+ *
+ * @author Tarun Vishwakarma
+ * @since 2025
+ */
+public class TeeOutputStream extends FilterOutputStream {
+
+    private final OutputStream copy;
+
+    public TeeOutputStream(OutputStream primary, OutputStream copy) {
+        super(primary);
+        this.copy = copy;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        copy.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        copy.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+        copy.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
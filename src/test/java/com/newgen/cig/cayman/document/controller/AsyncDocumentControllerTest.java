@@ -0,0 +1,93 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the asynchronous document endpoints and that they keep serving
+ * concurrent requests when the servlet container has only a few threads.
+ */
+@TestPropertySource(properties = {"server.tomcat.threads.max=4",
+        "server.tomcat.threads.min-spare=4",
+        "newgen.cayman.document.async.poolSize=32"})
+class AsyncDocumentControllerTest extends AbstractDocumentApiTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncDocumentControllerTest.class);
+    private static final int CONCURRENT_REQUESTS = 32;
+    private static final long OMNIDOCS_DELAY_MS = 300;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void asyncEndpointsServeTheRequestedDocument() throws Exception {
+        String docIndex = "9201";
+        byte[] content = OmniDocsStub.contentOf(docIndex);
+
+        HttpResponse<byte[]> download = get("/api/v1/async/download/" + docIndex);
+        assertEquals(200, download.statusCode());
+        assertArrayEquals(content, download.body());
+        assertTrue(download.headers().firstValue("Content-Disposition").orElse("").startsWith("attachment"));
+
+        HttpResponse<byte[]> bytes = get("/api/v1/async/fetchDoc/bytes/" + docIndex);
+        assertEquals(200, bytes.statusCode());
+        assertArrayEquals(content, bytes.body());
+
+        HttpResponse<byte[]> base64 = get("/api/v1/async/fetchDoc/base64/" + docIndex);
+        assertEquals(200, base64.statusCode());
+        JsonNode envelope = mapper.readTree(base64.body());
+        assertEquals(200, envelope.path("status").asInt());
+        assertArrayEquals(content, Base64.getDecoder().decode(envelope.path("data").asText()));
+
+        String etag = download.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<byte[]> conditional = get("/api/v1/async/download/" + docIndex, "If-None-Match", etag);
+        assertEquals(304, conditional.statusCode());
+    }
+
+    @Test
+    void asyncRequestsDoNotWaitForContainerThreads() throws Exception {
+        stub.setResponseDelayMillis(OMNIDOCS_DELAY_MS);
+        try {
+            long blocking = timeConcurrentRequests("/api/v1/download/sync-");
+            long async = timeConcurrentRequests("/api/v1/async/download/async-");
+            logger.info("{} concurrent downloads with 4 container threads and {} ms OmniDocs latency. "
+                    + "Blocking: {} ms, Async: {} ms", CONCURRENT_REQUESTS, OMNIDOCS_DELAY_MS, blocking, async);
+
+            assertTrue(blocking >= CONCURRENT_REQUESTS / 4 * OMNIDOCS_DELAY_MS,
+                    "blocking handlers are limited by container threads");
+            assertTrue(async < blocking / 2, "async handlers must not be limited by container threads");
+        } finally {
+            stub.setResponseDelayMillis(0);
+        }
+    }
+
+    private long timeConcurrentRequests(String pathPrefix) {
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            responses.add(client.sendAsync(request(pathPrefix + i).build(), HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            HttpResponse<byte[]> response = responses.get(i).join();
+            String docIndex = pathPrefix.substring(pathPrefix.lastIndexOf('/') + 1) + i;
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf(docIndex), response.body());
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
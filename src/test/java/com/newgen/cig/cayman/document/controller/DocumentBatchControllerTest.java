@@ -0,0 +1,163 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises {@code POST /api/v1/documents/batch} in both response formats and
+ * {@code POST /api/v1/documents/zip}, including a document OmniDocs reports as missing
+ * and documents too large for either cache tier.
+ */
+@TestPropertySource(properties = {"newgen.cayman.document.batch.parallelism=4",
+        "newgen.cayman.document.cache.memory.maxEntryBytes=1048576",
+        "newgen.cayman.document.cache.disk.maxEntryBytes=1048576"})
+class DocumentBatchControllerTest extends AbstractDocumentApiTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void ndjsonCarriesOneLinePerDocumentWithItsOwnStatus() throws Exception {
+        List<String> docIndexes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            docIndexes.add(String.valueOf(9000 + i));
+        }
+        docIndexes.add(OmniDocsStub.MISSING_PREFIX + "1");
+
+        HttpResponse<String> response = post(docIndexes, "application/x-ndjson");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+
+        Map<String, JsonNode> lines = new HashMap<>();
+        for (String line : response.body().split("\n")) {
+            JsonNode json = mapper.readTree(line);
+            lines.put(json.path("docIndex").asText(), json);
+        }
+        assertEquals(docIndexes.size(), lines.size());
+
+        for (int i = 0; i < 20; i++) {
+            String docIndex = String.valueOf(9000 + i);
+            JsonNode line = lines.get(docIndex);
+            assertEquals(200, line.path("status").asInt(), "status for " + docIndex);
+            assertEquals(Base64.getEncoder().encodeToString(OmniDocsStub.contentOf(docIndex)),
+                    line.path("data").asText(), "content for " + docIndex);
+        }
+        JsonNode missing = lines.get(OmniDocsStub.MISSING_PREFIX + "1");
+        assertEquals(404, missing.path("status").asInt());
+        assertEquals("ERR_009", missing.path("errorCode").asText());
+    }
+
+    @Test
+    void multipartCarriesOnePartPerDocument() throws Exception {
+        HttpResponse<String> response = post(List.of("9100", OmniDocsStub.MISSING_PREFIX + "2"), "multipart/mixed");
+        assertEquals(200, response.statusCode());
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        assertTrue(contentType.startsWith("multipart/mixed"));
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+
+        String body = response.body();
+        assertEquals(4, body.split("--" + boundary).length, "preamble, two parts and the closing delimiter");
+        assertTrue(body.contains("X-Document-Index: 9100\r\nX-Document-Status: 200"));
+        assertTrue(body.contains(new String(OmniDocsStub.contentOf("9100"), StandardCharsets.UTF_8)));
+        assertTrue(body.contains("X-Document-Status: 404"));
+        assertTrue(body.trim().endsWith("--" + boundary + "--"));
+    }
+
+    @Test
+    void zipContainsEveryDocumentAndListsFailures() throws Exception {
+        List<String> docIndexes = List.of("9200", "9201", "9202", "9203", OmniDocsStub.MISSING_PREFIX + "3");
+        Map<String, byte[]> entries = new HashMap<>();
+        Map<String, Integer> methods = new HashMap<>();
+        readZip(docIndexes, entries, methods);
+
+        assertEquals(5, entries.size(), "four documents and the error list");
+        for (String docIndex : docIndexes.subList(0, 4)) {
+            String extension = OmniDocsStub.extensionOf(docIndex);
+            String name = OmniDocsStub.nameOf(docIndex) + "." + extension;
+            assertArrayEquals(OmniDocsStub.contentOf(docIndex), entries.get(name), "content of " + name);
+            assertEquals("pdf".equals(extension) ? ZipEntry.STORED : ZipEntry.DEFLATED, methods.get(name),
+                    "method of " + name);
+        }
+        assertTrue(new String(entries.get("_errors.txt"), StandardCharsets.UTF_8)
+                .contains(OmniDocsStub.MISSING_PREFIX + "3"));
+    }
+
+    @Test
+    void zipOfDocumentsTooLargeToCacheIsSpooledAndCleanedUp() throws Exception {
+        List<String> docIndexes = List.of(OmniDocsStub.LARGE_PREFIX + "9300", OmniDocsStub.LARGE_PREFIX + "9301");
+        long spoolsBefore = spoolFiles();
+        Map<String, byte[]> entries = new HashMap<>();
+        readZip(docIndexes, entries, new HashMap<>());
+
+        assertEquals(2, entries.size());
+        for (String docIndex : docIndexes) {
+            String name = OmniDocsStub.nameOf(docIndex) + "." + OmniDocsStub.extensionOf(docIndex);
+            assertArrayEquals(OmniDocsStub.contentOf(docIndex), entries.get(name), "content of " + name);
+        }
+        assertEquals(spoolsBefore, spoolFiles(), "temporary copies must be deleted once archived");
+    }
+
+    @Test
+    void emptyBatchIsRejected() throws Exception {
+        assertEquals(400, post(List.of(), "application/x-ndjson").statusCode());
+    }
+
+    private void readZip(List<String> docIndexes, Map<String, byte[]> entries, Map<String, Integer> methods)
+            throws Exception {
+        String json = mapper.writeValueAsString(Map.of("docIndexes", docIndexes));
+        HttpRequest request = request("/api/v1/documents/zip")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        assertEquals("application/zip", response.headers().firstValue("Content-Type").orElse(null));
+
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.body()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+                methods.put(entry.getName(), entry.getMethod());
+            }
+        }
+    }
+
+    private static long spoolFiles() throws IOException {
+        try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(p -> p.getFileName().toString().startsWith("caymen-local-")).count();
+        }
+    }
+
+    private HttpResponse<String> post(List<String> docIndexes, String accept) throws Exception {
+        String json = mapper.writeValueAsString(Map.of("docIndexes", docIndexes));
+        HttpRequest request = request("/api/v1/documents/batch")
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
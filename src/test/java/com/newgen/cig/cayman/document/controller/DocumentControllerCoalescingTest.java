@@ -0,0 +1,95 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fires concurrent {@code /download} requests for one document while OmniDocs
+ * is slow to answer, and checks that they share a single OmniDocs call, both for
+ * a document the memory cache holds and for one too large for any cache tier,
+ * which the other requests read from the first request's spool file.
+ */
+@TestPropertySource(properties = {"newgen.cayman.document.cache.memory.maxEntryBytes=1048576",
+        "newgen.cayman.document.cache.disk.enabled=false"})
+class DocumentControllerCoalescingTest extends AbstractDocumentApiTest {
+
+    private static final int REQUESTS = 8;
+    private static final Path tempDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentDownloadsShareOneCall() throws Exception {
+        assertCoalesced("coalesced-1");
+    }
+
+    @Test
+    void concurrentDownloadsOfAnUncacheableDocumentShareTheSpool() throws Exception {
+        long spoolsBefore = spoolFiles();
+        assertCoalesced(OmniDocsStub.LARGE_PREFIX + "coalesced");
+        assertEquals(spoolsBefore, spoolFiles(), "the shared spool must be deleted once every request has read it");
+    }
+
+    private void assertCoalesced(String docIndex) throws Exception {
+        download("coalesced-warm");
+        int calls = stub.getDocumentCalls();
+        double coalesced = coalesced();
+
+        stub.stallNextDocumentCalls(1, 1500);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<HttpResponse<byte[]>>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return download(docIndex);
+                }));
+            }
+            start.countDown();
+            for (Future<HttpResponse<byte[]>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+                assertArrayEquals(OmniDocsStub.contentOf(docIndex), response.get().body());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(calls + 1, stub.getDocumentCalls(), "concurrent downloads should share one OmniDocs call");
+        assertEquals(coalesced + REQUESTS - 1, coalesced());
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("documents.fetch.coalesced").counter().count();
+    }
+
+    private HttpResponse<byte[]> download(String docIndex) throws Exception {
+        return get("/api/v1/download/" + docIndex);
+    }
+
+    private static long spoolFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("caymen-shared-")).count();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs hundreds of parallel document requests for distinct docIndexes against
+ * {@link OmniDocsStub} and checks that every response carries its own content,
+ * filename and content type.
+ */
+class DocumentControllerConcurrencyTest extends AbstractDocumentApiTest {
+
+    private static final int REQUESTS = 400;
+    private static final int CLIENT_THREADS = 64;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void parallelStreamedDownloadsReturnTheirOwnDocument() throws Exception {
+        runConcurrently(docIndex -> assertBinary(get("/api/v1/download/" + docIndex), "attachment", docIndex));
+    }
+
+    @Test
+    void parallelBase64FetchesReturnTheirOwnDocument() throws Exception {
+        runConcurrently(docIndex -> assertBase64(get("/api/v1/fetchDoc/base64/" + docIndex), docIndex));
+    }
+
+    @Nested
+    @TestPropertySource(properties = "newgen.cayman.document.streaming.enabled=false")
+    class Buffered extends AbstractDocumentApiTest {
+
+        @Test
+        void parallelBufferedDownloadsReturnTheirOwnDocument() throws Exception {
+            runConcurrently(docIndex -> assertBinary(get("/api/v1/fetchDoc/bytes/" + docIndex), "inline", docIndex));
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = "newgen.cayman.document.base64.passThrough=false")
+    class BufferedBase64 extends AbstractDocumentApiTest {
+
+        @Test
+        void parallelBufferedBase64FetchesReturnTheirOwnDocument() throws Exception {
+            runConcurrently(docIndex -> assertBase64(get("/api/v1/fetchDoc/base64/" + docIndex), docIndex));
+        }
+    }
+
+    private static Void assertBase64(HttpResponse<byte[]> response, String docIndex) throws Exception {
+        assertEquals(200, response.statusCode(), "status for " + docIndex);
+        JsonNode json = mapper.readTree(response.body());
+        assertEquals(Base64.getEncoder().encodeToString(OmniDocsStub.contentOf(docIndex)),
+                json.path("data").asText(), "content for " + docIndex);
+        assertEquals(200, json.path("status").asInt(), "envelope status for " + docIndex);
+        return null;
+    }
+
+    private static Void assertBinary(HttpResponse<byte[]> response, String disposition, String docIndex) {
+        assertEquals(200, response.statusCode(), "status for " + docIndex);
+
+        String expectedName = OmniDocsStub.nameOf(docIndex) + "." + OmniDocsStub.extensionOf(docIndex);
+        assertEquals(disposition + "; filename=\"" + expectedName + "\"",
+                response.headers().firstValue("Content-Disposition").orElse(null),
+                "disposition for " + docIndex);
+
+        String expectedType = "pdf".equals(OmniDocsStub.extensionOf(docIndex)) ? "application/pdf" : "text/plain";
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith(expectedType),
+                "content type for " + docIndex);
+
+        assertTrue(Arrays.equals(OmniDocsStub.contentOf(docIndex), response.body()), "content for " + docIndex);
+        return null;
+    }
+
+    private static void runConcurrently(CheckedCheck check) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                String docIndex = String.valueOf(1000 + i);
+                Callable<Void> task = () -> check.run(docIndex);
+                results.add(executor.submit(task));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface CheckedCheck {
+        Void run(String docIndex) throws Exception;
+    }
+}
@@ -0,0 +1,83 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks entity tags, {@code Cache-Control} and {@code 304 Not Modified} handling
+ * on the document endpoints, with the {@code Cache-Control} values of
+ * {@code application.yml}.
+ */
+class DocumentControllerConditionalTest extends AbstractDocumentApiTest {
+
+    @Test
+    void repeatViewWithMatchingEtagIsNotModifiedAndSkipsOmniDocs() throws Exception {
+        String docIndex = "8002";
+        // A streamed first view learns the entity tag only after the body is sent.
+        HttpResponse<byte[]> first = get("/api/v1/download/" + docIndex);
+        assertTrue(first.headers().firstValue("ETag").isEmpty(), "a streamed miss must not carry an ETag");
+        HttpResponse<byte[]> second = get("/api/v1/download/" + docIndex);
+        String etag = second.headers().firstValue("ETag").orElseThrow();
+
+        int upstreamCalls = stub.getDocumentCalls();
+        HttpResponse<byte[]> conditional = get("/api/v1/download/" + docIndex, "If-None-Match", etag);
+        assertEquals(304, conditional.statusCode());
+        assertEquals(0, conditional.body().length);
+        assertEquals(etag, conditional.headers().firstValue("ETag").orElse(null));
+        assertEquals(upstreamCalls, stub.getDocumentCalls(), "304 must not fetch the document");
+
+        HttpResponse<byte[]> stale = get("/api/v1/download/" + docIndex, "If-None-Match", "\"stale\"");
+        assertEquals(200, stale.statusCode());
+    }
+
+    @Test
+    void base64RepresentationHasItsOwnEtag() throws Exception {
+        String docIndex = "8004";
+        get("/api/v1/fetchDoc/bytes/" + docIndex);
+        String binaryEtag = get("/api/v1/fetchDoc/bytes/" + docIndex).headers().firstValue("ETag").orElseThrow();
+        HttpResponse<byte[]> base64 = get("/api/v1/fetchDoc/base64/" + docIndex);
+        String base64Etag = base64.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(binaryEtag, base64Etag);
+
+        assertEquals(304, get("/api/v1/fetchDoc/base64/" + docIndex, "If-None-Match", base64Etag).statusCode());
+        assertEquals(200, get("/api/v1/fetchDoc/base64/" + docIndex, "If-None-Match", binaryEtag).statusCode());
+    }
+
+    @Test
+    void cacheControlFollowsTheDocumentType() throws Exception {
+        String pdf = "8008";
+        String txt = "8001";
+        assertEquals("pdf", OmniDocsStub.extensionOf(pdf));
+        assertEquals("txt", OmniDocsStub.extensionOf(txt));
+
+        assertTrue(get("/api/v1/download/" + pdf).headers().firstValue("Cache-Control")
+                .orElse("").contains("max-age=3600"));
+        assertEquals("private, no-cache", get("/api/v1/download/" + txt).headers()
+                .firstValue("Cache-Control").orElse(null));
+    }
+
+    @Test
+    void invalidatedDocumentIsFetchedAgain() throws Exception {
+        String docIndex = "8006";
+        get("/api/v1/download/" + docIndex);
+        String etag = get("/api/v1/download/" + docIndex).headers().firstValue("ETag").orElseThrow();
+        int upstreamCalls = stub.getDocumentCalls();
+
+        HttpRequest invalidate = request("/api/v1/cache/" + docIndex).DELETE().build();
+        assertEquals(204, client.send(invalidate, HttpResponse.BodyHandlers.discarding()).statusCode());
+
+        HttpResponse<byte[]> refetched = get("/api/v1/download/" + docIndex, "If-None-Match", etag);
+        assertEquals(200, refetched.statusCode(), "a dropped validator must not answer 304");
+        assertArrayEquals(OmniDocsStub.contentOf(docIndex), refetched.body());
+        assertEquals(upstreamCalls + 1, stub.getDocumentCalls(), "an invalidated document must be fetched again");
+    }
+}
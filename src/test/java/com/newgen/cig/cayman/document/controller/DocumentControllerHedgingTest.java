@@ -0,0 +1,82 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a streamed {@code /download} whose OmniDocs request stalls is hedged
+ * with a second request that answers instead, and that the hedge budget caps how
+ * many hedges are sent.
+ */
+@TestPropertySource(properties = {"newgen.cayman.document.cache.memory.enabled=false",
+        "newgen.cayman.document.cache.disk.enabled=false",
+        "newgen.cayman.document.hedging.enabled=true",
+        "newgen.cayman.document.hedging.percentile=50",
+        "newgen.cayman.document.hedging.minimumSamples=5",
+        "newgen.cayman.document.hedging.minDelayMs=500",
+        "newgen.cayman.document.hedging.budgetPercent=10",
+        "newgen.cayman.document.hedging.maxBurst=1"})
+class DocumentControllerHedgingTest extends AbstractDocumentApiTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void stalledFetchIsAnsweredByTheHedge() throws Exception {
+        warmUp("hedge-warm-");
+        double sent = hedges("sent");
+        double won = hedges("won");
+
+        stub.stallNextDocumentCalls(1, 5000);
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = download("hedge-stalled");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("hedge-stalled"), response.body());
+        assertTrue(elapsedMillis < 3000, "hedge should answer long before the stalled call, took " + elapsedMillis + " ms");
+        assertEquals(sent + 1, hedges("sent"));
+        assertEquals(won + 1, hedges("won"));
+    }
+
+    @Test
+    void hedgesBeyondTheBudgetAreDenied() throws Exception {
+        warmUp("budget-warm-");
+        double sent = hedges("sent");
+        double denied = hedges("denied");
+
+        for (int i = 0; i < 3; i++) {
+            stub.stallNextDocumentCalls(1, 1000);
+            HttpResponse<byte[]> response = download("budget-" + i);
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf("budget-" + i), response.body());
+        }
+
+        assertEquals(sent + 1, hedges("sent"), "only one hedge fits in the budget");
+        assertEquals(denied + 2, hedges("denied"));
+    }
+
+    private void warmUp(String prefix) throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, download(prefix + i).statusCode());
+        }
+    }
+
+    private double hedges(String result) {
+        return meterRegistry.get("omnidocs.hedge.requests").tag("result", result).counter().count();
+    }
+
+    private HttpResponse<byte[]> download(String docIndex) throws Exception {
+        return get("/api/v1/download/" + docIndex);
+    }
+}
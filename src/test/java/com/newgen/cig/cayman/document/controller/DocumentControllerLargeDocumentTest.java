@@ -0,0 +1,94 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.service.DiskDocumentCacheService;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a large document is fetched through the OmniDocs download location
+ * the first time it is requested, that a document the download showed to be small
+ * goes inline afterwards, and that the inline path is used when OmniDocs does not
+ * write the file.
+ */
+@TestPropertySource(properties = {"newgen.cayman.document.cache.memory.enabled=false",
+        "newgen.cayman.document.largeDocument.enabled=true",
+        "newgen.cayman.document.largeDocument.thresholdBytes=1048576"})
+class DocumentControllerLargeDocumentTest extends AbstractDocumentApiTest {
+
+    private static Path downloadDirectory;
+
+    @Autowired
+    private DiskDocumentCacheService diskCache;
+
+    @DynamicPropertySource
+    static void downloadProperties(DynamicPropertyRegistry registry) throws Exception {
+        downloadDirectory = Files.createTempDirectory("caymen-download-test");
+        registry.add("newgen.cayman.document.largeDocument.directory", downloadDirectory::toString);
+        registry.add("newgen.cayman.document.largeDocument.remoteDirectory", downloadDirectory::toString);
+    }
+
+    @Test
+    void largeDocumentIsServedFromTheDownloadLocationOnItsFirstFetch() throws Exception {
+        String docIndex = OmniDocsStub.LARGE_PREFIX + "9101";
+        int inlineCalls = stub.getDocumentCalls() - stub.getDownloadCalls();
+        int downloads = stub.getDownloadCalls();
+
+        HttpResponse<byte[]> response = download(docIndex);
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf(docIndex), response.body());
+        assertEquals(downloads + 1, stub.getDownloadCalls());
+        assertEquals(inlineCalls, stub.getDocumentCalls() - stub.getDownloadCalls(), "no inline fetch first");
+        assertEquals(String.valueOf(OmniDocsStub.contentOf(docIndex).length),
+                response.headers().firstValue("Content-Length").orElse(null));
+
+        try (Stream<Path> leftovers = Files.list(downloadDirectory)) {
+            assertEquals(0, leftovers.count(), "downloaded file must be moved out of the shared location");
+        }
+
+        int upstreamCalls = stub.getDocumentCalls();
+        assertArrayEquals(OmniDocsStub.contentOf(docIndex), download(docIndex).body());
+        assertEquals(upstreamCalls, stub.getDocumentCalls(), "repeat view must be served from the disk cache");
+    }
+
+    @Test
+    void documentKnownToBeSmallIsFetchedInline() throws Exception {
+        String docIndex = "9103";
+        int downloads = stub.getDownloadCalls();
+        assertArrayEquals(OmniDocsStub.contentOf(docIndex), download(docIndex).body());
+        assertEquals(downloads + 1, stub.getDownloadCalls(), "an unseen document takes the download path");
+
+        diskCache.invalidate(docIndex);
+        int calls = stub.getDocumentCalls();
+        assertArrayEquals(OmniDocsStub.contentOf(docIndex), download(docIndex).body());
+        assertEquals(calls + 1, stub.getDocumentCalls());
+        assertEquals(downloads + 1, stub.getDownloadCalls(), "the recorded size sends it inline");
+    }
+
+    @Test
+    void missingDownloadFallsBackToInlineContent() throws Exception {
+        String docIndex = OmniDocsStub.INLINE_ONLY_PREFIX + "9102";
+        int downloads = stub.getDownloadCalls();
+
+        HttpResponse<byte[]> response = download(docIndex);
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf(docIndex), response.body());
+        assertEquals(downloads, stub.getDownloadCalls());
+    }
+
+    private HttpResponse<byte[]> download(String docIndex) throws Exception {
+        return get("/api/v1/download/" + docIndex);
+    }
+}
@@ -0,0 +1,101 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that document calls are spread over several OmniDocs nodes, that each
+ * session is only used on the node that created it, and that a failing node is
+ * ejected with its sessions renewed on the remaining node and ended on their own.
+ */
+@TestPropertySource(properties = {"newgen.cayman.connect.cabinet.session.poolSize=2",
+        "newgen.cayman.connect.cabinet.session.selection=round-robin",
+        "newgen.cayman.connect.cabinet.nodes.sticky=true",
+        "newgen.cayman.connect.cabinet.nodes.ejection.consecutiveFailures=1",
+        "newgen.cayman.connect.cabinet.nodes.ejection.baseMs=60000"})
+class DocumentControllerLoadBalancingTest extends AbstractDocumentApiTest {
+
+    @Autowired
+    @Qualifier("secondNode")
+    private OmniDocsStub second;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Adds a second OmniDocs node behind the one every test context has. */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SecondNode {
+
+        @Bean(destroyMethod = "stop")
+        OmniDocsStub secondNode() {
+            return OmniDocsStub.start();
+        }
+
+        @Bean
+        DynamicPropertyRegistrar nodeProperties(OmniDocsStub omniDocsStub,
+                                                @Qualifier("secondNode") OmniDocsStub secondNode) {
+            return registry -> registry.add("newgen.cayman.connect.cabinet.nodes.urls",
+                    () -> omniDocsStub.getBaseUrl() + "," + secondNode.getBaseUrl());
+        }
+    }
+
+    @Test
+    void callsAreSpreadAndMoveOffAFailingNode() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            HttpResponse<byte[]> response = download("balanced-" + i);
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf("balanced-" + i), response.body());
+        }
+        assertEquals(1, stub.getConnectCalls(), "one pooled session should be created on each node");
+        assertEquals(1, second.getConnectCalls(), "one pooled session should be created on each node");
+        assertTrue(stub.getDocumentCalls() >= 3 && second.getDocumentCalls() >= 3,
+        "document calls should be spread over both nodes");
+
+        second.setFailing(true);
+        try {
+            for (int i = 0; i < 2; i++) {
+                download("ejecting-" + i);
+            }
+            Counter ejections = meterRegistry.find("omnidocs.node.ejections")
+                    .tag("node", second.getBaseUrl()).counter();
+            assertNotNull(ejections);
+            assertEquals(1.0, ejections.count(), "the failing node should be ejected");
+            assertEquals(0.0, meterRegistry.get("omnidocs.node.available")
+                    .tag("node", second.getBaseUrl()).gauge().value());
+
+            int failedNodeCalls = second.getDocumentCalls();
+            for (int i = 0; i < 6; i++) {
+                HttpResponse<byte[]> response = download("recovered-" + i);
+                assertEquals(200, response.statusCode());
+                assertArrayEquals(OmniDocsStub.contentOf("recovered-" + i), response.body());
+            }
+            assertEquals(failedNodeCalls, second.getDocumentCalls(), "an ejected node must not be called");
+            assertEquals(2, stub.getConnectCalls(), "the ejected node's session should be renewed on the other node");
+            assertEquals(1, second.getDisconnectCalls(), "the replaced session should be ended on its own node");
+            assertTrue(meterRegistry.get("omnidocs.node.requests").tag("node", second.getBaseUrl())
+                    .tag("outcome", "failure").timer().count() >= 1);
+        } finally {
+            second.setFailing(false);
+        }
+    }
+
+    private HttpResponse<byte[]> download(String docIndex) throws Exception {
+        return get("/api/v1/download/" + docIndex);
+    }
+}
@@ -0,0 +1,168 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a second cabinet configured under {@code newgen.cayman.cabinets} is
+ * served from its own OmniDocs server, session pool, rate limit and bulkhead, and
+ * that its meters and sessions are reported per cabinet. Tomcat runs with few
+ * threads, so a slow cabinet without a bulkhead would take all of them.
+ */
+@TestPropertySource(properties = {"server.tomcat.threads.max=4",
+        "server.tomcat.threads.min-spare=4",
+        "newgen.cayman.cabinets.archive.cabinetName=worcarchive",
+        "newgen.cayman.cabinets.archive.rate.limit.capacity=3",
+        "newgen.cayman.cabinets.archive.document.bulkhead.maxConcurrent=2"})
+class DocumentControllerMultiCabinetTest extends AbstractDocumentApiTest {
+
+    private static final int SLOW_REQUESTS = 6;
+    private static final long SLOW_MILLIS = 3000;
+
+    @Autowired
+    @Qualifier("archiveStub")
+    private OmniDocsStub archiveStub;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** Serves the archive cabinet from an OmniDocs server of its own. */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class ArchiveCabinet {
+
+        @Bean(destroyMethod = "stop")
+        OmniDocsStub archiveStub() {
+            return OmniDocsStub.start();
+        }
+
+        @Bean
+        DynamicPropertyRegistrar archiveProperties(@Qualifier("archiveStub") OmniDocsStub archiveStub) {
+            return registry -> registry.add("newgen.cayman.cabinets.archive.siteURL", archiveStub::getBaseUrl);
+        }
+    }
+
+    @Test
+    void requestsAreRoutedToTheirCabinet() throws Exception {
+        int defaultCalls = stub.getDocumentCalls();
+        int archiveCalls = archiveStub.getDocumentCalls();
+
+        HttpResponse<byte[]> archived = send("/api/v1/cabinets/archive/download/multi-archived", null);
+        assertEquals(200, archived.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("multi-archived"), archived.body());
+        assertEquals(archiveCalls + 1, archiveStub.getDocumentCalls());
+        assertEquals(defaultCalls, stub.getDocumentCalls());
+
+        HttpResponse<byte[]> plain = send("/api/v1/download/multi-plain", null);
+        assertEquals(200, plain.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("multi-plain"), plain.body());
+        HttpResponse<byte[]> byName = send("/api/v1/cabinets/worcuat/fetchDoc/bytes/multi-by-name", null);
+        assertEquals(200, byName.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("multi-by-name"), byName.body());
+        assertEquals(defaultCalls + 2, stub.getDocumentCalls());
+        assertEquals(archiveCalls + 1, archiveStub.getDocumentCalls());
+
+        assertEquals(404, send("/api/v1/cabinets/unknown/download/multi-unknown", null).statusCode());
+        assertEquals(1, stub.getConnectCalls(), "the default cabinet keeps its own session");
+        assertEquals(1, archiveStub.getConnectCalls(), "the archive cabinet logs in on its own");
+
+        Counter created = meterRegistry.find("omnidocs.session.created").tag("cabinet", "archive").counter();
+        assertNotNull(created, "cabinet meters should be tagged with the cabinet key");
+        assertEquals(1.0, created.count());
+
+        HttpResponse<byte[]> sessions = send("/actuator/cabinetsessions/archive", null);
+        assertEquals(200, sessions.statusCode());
+        JsonNode slots = mapper.readTree(sessions.body());
+        assertEquals(1, slots.size());
+        assertEquals(404, send("/actuator/cabinetsessions/unknown", null).statusCode());
+    }
+
+    @Test
+    void rateLimitIsAppliedPerCabinet() throws Exception {
+        String address = "203.0.113.7";
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send("/api/v1/cabinets/archive/download/multi-limited-" + i, address).statusCode());
+        }
+        assertNotEquals(200, send("/api/v1/cabinets/archive/download/multi-limited-3", address).statusCode(),
+        "the archive cabinet's own limit should apply");
+        assertEquals(200, send("/api/v1/download/multi-unlimited", address).statusCode(),
+        "the default cabinet's bucket should be unaffected");
+    }
+
+    @Test
+    void slowCabinetDoesNotHoldUpAnother() throws Exception {
+        archiveStub.setResponseDelayMillis(SLOW_MILLIS);
+        ExecutorService executor = Executors.newFixedThreadPool(SLOW_REQUESTS);
+        try {
+            List<Future<HttpResponse<byte[]>>> slow = new ArrayList<>();
+            for (int i = 0; i < SLOW_REQUESTS; i++) {
+                String path = "/api/v1/cabinets/archive/download/multi-slow-" + i;
+                String address = "198.51.100." + i;
+                slow.add(executor.submit(() -> send(path, address)));
+            }
+            awaitTrue(() -> archiveActive() >= 2, "the slow requests should fill the archive bulkhead");
+            assertEquals(2.0, archiveActive());
+
+            long started = System.nanoTime();
+            HttpResponse<byte[]> plain = send("/api/v1/download/multi-beside-slow", null);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            assertEquals(200, plain.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf("multi-beside-slow"), plain.body());
+            assertTrue(elapsedMillis < SLOW_MILLIS / 2,
+                    "the default cabinet should not wait for the slow one, took " + elapsedMillis + " ms");
+
+            int served = 0;
+            int rejected = 0;
+            for (Future<HttpResponse<byte[]>> response : slow) {
+                int status = response.get().statusCode();
+                if (status == 200) {
+                    served++;
+                } else if (status == 503) {
+                    rejected++;
+                }
+            }
+            assertEquals(2, served);
+            assertEquals(SLOW_REQUESTS - 2, rejected);
+        } finally {
+            archiveStub.setResponseDelayMillis(0);
+            executor.shutdownNow();
+        }
+        assertEquals(0.0, archiveActive(), "permits should be returned once the responses are complete");
+    }
+
+    private double archiveActive() {
+        Gauge active = meterRegistry.find("cabinet.bulkhead.active").tag("cabinet", "archive").gauge();
+        return active != null ? active.value() : 0;
+    }
+
+    private HttpResponse<byte[]> send(String path, String forwardedFor) throws Exception {
+        return forwardedFor == null ? get(path) : get(path, "X-Forwarded-For", forwardedFor);
+    }
+}
@@ -0,0 +1,110 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the OmniDocs protection layer rejects calls beyond the concurrency
+ * limit and while the circuit breaker is open, answering {@code 503} with
+ * {@code Retry-After}, and that the breaker closes again once OmniDocs recovers.
+ */
+@TestPropertySource(properties = {"newgen.cayman.document.protection.enabled=true",
+        "newgen.cayman.document.protection.limit.initial=2",
+        "newgen.cayman.document.protection.limit.min=1",
+        "newgen.cayman.document.protection.limit.max=2",
+        "newgen.cayman.document.protection.limit.latencyThresholdMs=60000",
+        "newgen.cayman.document.protection.breaker.windowSize=10",
+        "newgen.cayman.document.protection.breaker.minimumCalls=4",
+        "newgen.cayman.document.protection.breaker.failureRateThreshold=50",
+        "newgen.cayman.document.protection.breaker.openDurationMs=500",
+        "newgen.cayman.document.protection.breaker.halfOpenCalls=1"})
+class DocumentControllerProtectionTest extends AbstractDocumentApiTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void circuitOpensOnFailuresAndClosesAfterRecovery() throws Exception {
+        stub.setFailing(true);
+        try {
+            for (int i = 0; i < 4; i++) {
+                assertEquals(503, download("breaker-" + i).statusCode());
+            }
+            int callsWhenOpened = stub.getDocumentCalls();
+
+            HttpResponse<byte[]> rejected = download("breaker-open");
+            assertEquals(503, rejected.statusCode());
+            assertTrue(rejected.headers().firstValue("Retry-After").isPresent());
+            assertEquals("ERR_503", mapper.readTree(rejected.body()).path("errorCode").asText());
+            assertEquals(callsWhenOpened, stub.getDocumentCalls(), "open breaker must not call OmniDocs");
+            assertEquals(1.0, meterRegistry.get("omnidocs.protection.circuit.state").tag("state", "open").gauge().value());
+        } finally {
+            stub.setFailing(false);
+        }
+
+        // Calls are rejected without reaching OmniDocs until the open duration is up.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        HttpResponse<byte[]> trial = download("breaker-trial");
+        while (trial.statusCode() == 503 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            trial = download("breaker-trial");
+        }
+        assertEquals(200, trial.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("breaker-trial"), trial.body());
+        assertEquals(1.0, meterRegistry.get("omnidocs.protection.circuit.state").tag("state", "closed").gauge().value());
+        assertEquals(200, download("breaker-closed").statusCode());
+    }
+
+    @Test
+    void callsBeyondTheConcurrencyLimitAreRejected() {
+        stub.setResponseDelayMillis(300);
+        try {
+            List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                responses.add(client.sendAsync(request("/api/v1/download/limit-" + i).build(),
+                        HttpResponse.BodyHandlers.ofByteArray()));
+            }
+
+            int served = 0;
+            int rejected = 0;
+            for (int i = 0; i < 6; i++) {
+                HttpResponse<byte[]> response = responses.get(i).join();
+                if (response.statusCode() == 200) {
+                    assertArrayEquals(OmniDocsStub.contentOf("limit-" + i), response.body());
+                    served++;
+                } else {
+                    assertEquals(503, response.statusCode());
+                    assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+                    rejected++;
+                }
+            }
+            assertTrue(served >= 2, "calls within the limit are served");
+            assertTrue(rejected >= 1, "calls beyond the limit are rejected");
+            assertEquals(2.0, meterRegistry.get("omnidocs.protection.limit").gauge().value());
+            assertTrue(meterRegistry.get("omnidocs.protection.rejected").tag("reason", "limit").counter().count() >= rejected);
+        } finally {
+            stub.setResponseDelayMillis(0);
+        }
+    }
+
+    private HttpResponse<byte[]> download(String docIndex) throws Exception {
+        return get("/api/v1/download/" + docIndex);
+    }
+}
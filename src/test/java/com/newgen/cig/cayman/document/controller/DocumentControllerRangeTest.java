@@ -0,0 +1,88 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@code Range} and {@code If-Range} handling on the download endpoint,
+ * with the in-memory cache off so ranges are served from the on-disk copy, and
+ * that a document too large for the on-disk cache is fetched only once per range.
+ */
+@TestPropertySource(properties = "newgen.cayman.document.cache.memory.enabled=false")
+class DocumentControllerRangeTest extends AbstractDocumentApiTest {
+
+    @Test
+    void singleRangesAreServedFromTheLocalCopy() throws Exception {
+        String docIndex = "7001";
+        byte[] content = OmniDocsStub.contentOf(docIndex);
+
+        HttpResponse<byte[]> first = range(docIndex, "bytes=0-9", null);
+        assertEquals(206, first.statusCode());
+        assertEquals("bytes 0-9/" + content.length, first.headers().firstValue("Content-Range").orElse(null));
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 10), first.body());
+
+        int upstreamCalls = stub.getDocumentCalls();
+        HttpResponse<byte[]> second = range(docIndex, "bytes=10-", null);
+        assertEquals(206, second.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(content, 10, content.length), second.body());
+        assertEquals(upstreamCalls, stub.getDocumentCalls(), "second range must not re-fetch the document");
+    }
+
+    @Test
+    void multipleRangesAreReturnedAsByteranges() throws Exception {
+        HttpResponse<byte[]> response = range("7002", "bytes=0-4,10-14", null);
+        assertEquals(206, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("multipart/byteranges"));
+    }
+
+    @Test
+    void ifRangeSendsPartialContentOnlyWhenTheValidatorMatches() throws Exception {
+        String docIndex = "7003";
+        byte[] content = OmniDocsStub.contentOf(docIndex);
+
+        String etag = range(docIndex, "bytes=0-0", null).headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> matching = range(docIndex, "bytes=0-9", etag);
+        assertEquals(206, matching.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(content, 0, 10), matching.body());
+
+        HttpResponse<byte[]> stale = range(docIndex, "bytes=0-9", "\"stale\"");
+        assertEquals(200, stale.statusCode());
+        assertArrayEquals(content, stale.body());
+    }
+
+    @Nested
+    @TestPropertySource(properties = "newgen.cayman.document.cache.disk.maxEntryBytes=16")
+    class Uncacheable extends AbstractDocumentApiTest {
+
+        @Test
+        void rangeOfADocumentTheCacheDoesNotKeepIsFetchedOnce() throws Exception {
+            String docIndex = "7101";
+            byte[] content = OmniDocsStub.contentOf(docIndex);
+            int upstreamCalls = stub.getDocumentCalls();
+
+            HttpResponse<byte[]> response = get("/api/v1/download/" + docIndex, "Range", "bytes=0-9");
+            assertEquals(206, response.statusCode());
+            assertArrayEquals(Arrays.copyOfRange(content, 0, 10), response.body());
+            assertEquals(upstreamCalls + 1, stub.getDocumentCalls(), "the first stream must be served");
+        }
+    }
+
+    private HttpResponse<byte[]> range(String docIndex, String range, String ifRange) throws Exception {
+        return get("/api/v1/download/" + docIndex, rangeHeaders(range, ifRange));
+    }
+
+    private static String[] rangeHeaders(String range, String ifRange) {
+        return ifRange == null ? new String[]{"Range", range} : new String[]{"Range", range, "If-Range", ifRange};
+    }
+}
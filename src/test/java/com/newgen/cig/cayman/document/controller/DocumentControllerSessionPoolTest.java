@@ -0,0 +1,66 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that concurrent document requests are spread over a pool of lazily
+ * created OmniDocs sessions, and that the pool is listed by the actuator.
+ */
+@TestPropertySource(properties = {"newgen.cayman.connect.cabinet.session.poolSize=4",
+        "newgen.cayman.connect.cabinet.session.eager=false"})
+class DocumentControllerSessionPoolTest extends AbstractDocumentApiTest {
+
+    private static final int POOL_SIZE = 4;
+    private static final int REQUESTS = 16;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void concurrentRequestsAreSpreadOverThePool() throws Exception {
+        stub.setResponseDelayMillis(300);
+        try {
+            List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(client.sendAsync(request("/api/v1/download/pool-" + i).build(),
+                        HttpResponse.BodyHandlers.ofByteArray()));
+            }
+            for (int i = 0; i < REQUESTS; i++) {
+                HttpResponse<byte[]> response = responses.get(i).join();
+                assertEquals(200, response.statusCode());
+                assertArrayEquals(OmniDocsStub.contentOf("pool-" + i), response.body());
+            }
+        } finally {
+            stub.setResponseDelayMillis(0);
+        }
+
+        assertEquals(POOL_SIZE, stub.getConnectCalls(), "every slot should be filled exactly once");
+        assertEquals(POOL_SIZE, stub.getSessionsUsed());
+
+        HttpResponse<String> actuator = client.send(request("/actuator/cabinetsessions").build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, actuator.statusCode());
+        JsonNode slots = mapper.readTree(actuator.body());
+        assertEquals(POOL_SIZE, slots.size());
+        long leases = 0;
+        for (JsonNode slot : slots) {
+            assertTrue(slot.path("sessionId").isTextual(), "slot should hold a session: " + slot);
+            assertEquals(0, slot.path("inFlight").asInt());
+            leases += slot.path("leases").asLong();
+        }
+        assertEquals(REQUESTS, leases);
+    }
+}
@@ -0,0 +1,104 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.model.dao.GlobalSessionService;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that pooled sessions are refreshed in the background ahead of expiry:
+ * a session OmniDocs still accepts is kept after a keep-alive, an invalid one is
+ * replaced by a new login, and a retired session is disconnected.
+ */
+@TestPropertySource(properties = {"newgen.cayman.connect.cabinet.session.ttlSeconds=2",
+        "newgen.cayman.connect.cabinet.session.refreshAhead=0.5",
+        "newgen.cayman.connect.cabinet.session.refreshCheckMs=100"})
+class DocumentControllerSessionRefreshTest extends AbstractDocumentApiTest {
+
+    @Autowired
+    private GlobalSessionService sessionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Test
+    void validSessionIsKeptAliveAheadOfExpiry() throws Exception {
+        GlobalSessionService.SessionSnapshot first = current();
+        assertTrue(first.refreshDueAt().isBefore(first.expiresAt()));
+        int connects = stub.getConnectCalls();
+        double reused = counter("omnidocs.session.reused");
+
+        GlobalSessionService.SessionSnapshot refreshed = awaitSnapshot(s -> !s.refreshedAt().equals(first.refreshedAt()));
+
+        assertEquals(first.sessionId(), refreshed.sessionId(), "a valid session should be kept");
+        assertTrue(refreshed.expiresAt().isAfter(first.expiresAt()));
+        assertEquals(connects, stub.getConnectCalls());
+        assertTrue(stub.getKeepAliveCalls() > 0);
+        assertTrue(counter("omnidocs.session.reused") > reused);
+    }
+
+    @Test
+    void invalidSessionIsReplacedAheadOfExpiry() throws Exception {
+        GlobalSessionService.SessionSnapshot first = current();
+        double created = counter("omnidocs.session.created");
+        stub.expireSession();
+
+        GlobalSessionService.SessionSnapshot replaced = awaitSnapshot(s -> !s.sessionId().equals(first.sessionId()));
+
+        assertNotEquals(first.sessionId(), replaced.sessionId());
+        assertEquals(replaced.sessionId(), current().sessionId());
+        assertTrue(counter("omnidocs.session.created") > created);
+    }
+
+    @Test
+    void retiredSessionIsDisconnected() throws Exception {
+        String sessionId = current().sessionId();
+        int disconnects = stub.getDisconnectCalls();
+        double disconnected = counter("omnidocs.session.disconnected");
+
+        sessionService.clearSession();
+
+        assertEquals(disconnects + 1, stub.getDisconnectCalls());
+        assertFalse(stub.isSessionValid(sessionId));
+        assertEquals(disconnected + 1, counter("omnidocs.session.disconnected"));
+        current();
+    }
+
+    /** Serves a document, which also fills an empty pool, and returns the current session. */
+    private GlobalSessionService.SessionSnapshot current() throws Exception {
+        String docIndex = "refresh-" + requests.incrementAndGet();
+        HttpResponse<byte[]> response = get("/api/v1/download/" + docIndex);
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf(docIndex), response.body());
+        return sessionService.getSnapshot();
+    }
+
+    /** Waits, without sending requests, until the background refresh has changed the session. */
+    private GlobalSessionService.SessionSnapshot awaitSnapshot(Predicate<GlobalSessionService.SessionSnapshot> condition)
+            throws Exception {
+        awaitTrue(() -> {
+            GlobalSessionService.SessionSnapshot snapshot = sessionService.getSnapshot();
+            return snapshot != null && condition.test(snapshot);
+        }, "session was not refreshed in time");
+        return sessionService.getSnapshot();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
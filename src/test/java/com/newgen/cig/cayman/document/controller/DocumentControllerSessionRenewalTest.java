@@ -0,0 +1,59 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a document request rejected for an expired session is replayed
+ * after one reconnect, and that concurrent requests share that reconnect.
+ */
+class DocumentControllerSessionRenewalTest extends AbstractDocumentApiTest {
+
+    private static final int REQUESTS = 16;
+
+    @Test
+    void concurrentStreamedDownloadsShareOneReconnect() {
+        stub.expireSession();
+        int connects = stub.getConnectCalls();
+
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.sendAsync(request("/api/v1/download/renew-stream-" + i).build(),
+                    HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpResponse<byte[]> response = responses.get(i).join();
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf("renew-stream-" + i), response.body());
+        }
+        assertEquals(connects + 1, stub.getConnectCalls(), "expired session must be renewed exactly once");
+    }
+
+    @Nested
+    @TestPropertySource(properties = "newgen.cayman.document.streaming.enabled=false")
+    class Buffered extends AbstractDocumentApiTest {
+
+        @Test
+        void bufferedFetchIsReplayedAfterRenewal() throws Exception {
+            stub.expireSession();
+            int connects = stub.getConnectCalls();
+
+            HttpResponse<byte[]> response = get("/api/v1/fetchDoc/bytes/renew-buffered");
+
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf("renew-buffered"), response.body());
+            assertEquals(connects + 1, stub.getConnectCalls());
+        }
+    }
+}
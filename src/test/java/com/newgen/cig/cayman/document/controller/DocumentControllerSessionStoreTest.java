@@ -0,0 +1,96 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.implementation.DecryptionServiceImpl;
+import com.newgen.cig.cayman.document.implementation.EncryptionServiceImpl;
+import com.newgen.cig.cayman.document.model.dao.CabinetSessionStore;
+import com.newgen.cig.cayman.document.model.dao.GlobalSessionService;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks that a session saved by a previous run is restored at startup and serves
+ * the first document without a cabinet login, and that a restored session
+ * OmniDocs rejects falls back to a login whose session is saved in its place.
+ */
+@TestPropertySource(properties = {"newgen.cayman.connect.cabinet.session.store.enabled=true",
+        "test.omnidocs.acceptedSessions=" + DocumentControllerSessionStoreTest.SAVED_SESSION})
+class DocumentControllerSessionStoreTest extends AbstractDocumentApiTest {
+
+    private static final String SECRET = "b229ad1a61e8a680a31a646cd634dbb1";
+    private static final String CABINET = "worcuat";
+    static final String SAVED_SESSION = "77001234";
+
+    private static final Path storeFile;
+
+    static {
+        try {
+            storeFile = Files.createTempDirectory("cabinet-session-store").resolve("cabinet-sessions.enc");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Instant now = Instant.now();
+        newStore().save(List.of(new GlobalSessionService.SessionSnapshot(SAVED_SESSION, now.minusSeconds(60),
+                now.minusSeconds(60), now.plusSeconds(540), now.plusSeconds(390))));
+    }
+
+    @Autowired
+    private GlobalSessionService sessionService;
+
+    @DynamicPropertySource
+    static void storeProperties(DynamicPropertyRegistry registry) {
+        registry.add("newgen.cayman.connect.cabinet.session.store.file", storeFile::toString);
+    }
+
+    @Test
+    void savedSessionIsReusedAndReplacedOnlyWhenRejected() throws Exception {
+        assertEquals(200, send("/actuator/health/readiness", HttpResponse.BodyHandlers.ofString()).statusCode());
+        HttpResponse<byte[]> restored = send("/api/v1/download/store-restored", HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, restored.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("store-restored"), restored.body());
+        assertEquals(0, stub.getConnectCalls(), "the restored session should serve the first document");
+        assertEquals(SAVED_SESSION, sessionService.getSessionId());
+
+        stub.expireSession();
+        HttpResponse<byte[]> renewed = send("/api/v1/download/store-renewed", HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, renewed.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("store-renewed"), renewed.body());
+        assertEquals(1, stub.getConnectCalls(), "a rejected session should fall back to one login");
+        String sessionId = sessionService.getSessionId();
+        assertNotEquals(SAVED_SESSION, sessionId);
+        assertEquals(sessionId, newStore().load().get(0).sessionId(), "the new session should be saved");
+
+        int disconnects = stub.getDisconnectCalls();
+        sessionService.shutdown();
+        assertEquals(disconnects, stub.getDisconnectCalls(), "saved sessions should stay open at shutdown");
+        assertFalse(newStore().load().isEmpty());
+    }
+
+    private static CabinetSessionStore newStore() {
+        return new CabinetSessionStore(new EncryptionServiceImpl(SECRET), new DecryptionServiceImpl(SECRET),
+                CABINET, true, storeFile.toString());
+    }
+
+    private <T> HttpResponse<T> send(String path, HttpResponse.BodyHandler<T> handler) throws Exception {
+        return client.send(request(path).build(), handler);
+    }
+}
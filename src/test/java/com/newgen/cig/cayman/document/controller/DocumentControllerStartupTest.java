@@ -0,0 +1,42 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a slow cabinet login does not hold up startup: the application
+ * reports not ready and answers document requests with {@code 503} and
+ * {@code Retry-After} until the first session exists, then serves them.
+ */
+@TestPropertySource(properties = {"newgen.cayman.connect.cabinet.session.startupWaitMs=200",
+        "test.omnidocs.connectDelayMillis=3000"})
+class DocumentControllerStartupTest extends AbstractDocumentApiTest {
+
+    @Test
+    void requestsAreRejectedUntilTheFirstSessionExists() throws Exception {
+        assertEquals(503, send("/actuator/health/readiness").statusCode());
+
+        HttpResponse<String> early = send("/api/v1/download/startup-early");
+        assertEquals(503, early.statusCode());
+        assertTrue(early.headers().firstValue("Retry-After").isPresent());
+
+        awaitTrue(() -> send("/actuator/health/readiness").statusCode() == 200,
+                "the application should be ready once the login completes");
+
+        HttpResponse<byte[]> ready = get("/api/v1/download/startup-ready");
+        assertEquals(200, ready.statusCode());
+        assertArrayEquals(OmniDocsStub.contentOf("startup-ready"), ready.body());
+    }
+
+    private HttpResponse<String> send(String path) throws Exception {
+        return client.send(request(path).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
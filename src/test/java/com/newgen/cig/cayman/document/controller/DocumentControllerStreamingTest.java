@@ -0,0 +1,166 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streams documents of several megabytes through {@code /download}, with content
+ * both ahead of and after the metadata in the OmniDocs response, and checks that
+ * the bytes arrive intact and that no spool or partial cache file is left behind,
+ * also when the client disconnects halfway through. Base64 requests pass OmniDocs'
+ * text through, and one whose upstream response breaks off after the envelope was
+ * sent ends with a dropped connection rather than a 200 with truncated JSON.
+ */
+@TestPropertySource(properties = "newgen.cayman.document.cache.memory.maxEntryBytes=1048576")
+class DocumentControllerStreamingTest extends AbstractDocumentApiTest {
+
+    private static final Path tempDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+
+    @Value("${newgen.cayman.document.cache.disk.directory}")
+    private Path cacheDirectory;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void largeDocumentsAreStreamedIntact() throws Exception {
+        Set<Path> spoolsBefore = spoolFiles();
+        for (String docIndex : List.of(largeDocIndex(true, 0), largeDocIndex(false, 0))) {
+            HttpResponse<byte[]> response = download(docIndex);
+
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf(docIndex), response.body(),
+                    "content-first: " + OmniDocsStub.isContentFirst(docIndex));
+        }
+        assertEquals(spoolsBefore, spoolFiles(), "spool files must be deleted once the document is sent");
+        assertEquals(List.of(), partialCacheFiles());
+    }
+
+    @Test
+    void clientDisconnectMidStreamLeavesNoTemporaryFiles() throws Exception {
+        Set<Path> spoolsBefore = spoolFiles();
+        List<String> docIndexes = List.of(largeDocIndex(true, 1), largeDocIndex(false, 1));
+        for (String docIndex : docIndexes) {
+            int before = stub.getDocumentCalls();
+            readPartiallyAndDisconnect(docIndex, 64 * 1024);
+            awaitCleanup(spoolsBefore, before + 1);
+        }
+
+        for (String docIndex : docIndexes) {
+            HttpResponse<byte[]> response = download(docIndex);
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf(docIndex), response.body(),
+                    "an interrupted transfer must not be cached");
+        }
+    }
+
+    @Test
+    void largeBase64DocumentsArePassedThroughIntact() throws Exception {
+        for (String docIndex : List.of(largeDocIndex(true, 2), largeDocIndex(false, 2))) {
+            HttpResponse<byte[]> response = get("/api/v1/fetchDoc/base64/" + docIndex);
+
+            assertEquals(200, response.statusCode());
+            assertEquals(Base64.getEncoder().encodeToString(OmniDocsStub.contentOf(docIndex)),
+                    mapper.readTree(response.body()).path("data").asText(),
+                    "content-first: " + OmniDocsStub.isContentFirst(docIndex));
+
+            int calls = stub.getDocumentCalls();
+            assertArrayEquals(OmniDocsStub.contentOf(docIndex), download(docIndex).body(),
+                    "the decoded copy cached alongside the pass-through must match");
+            assertEquals(calls, stub.getDocumentCalls());
+        }
+    }
+
+    @Test
+    void base64FailureAfterTheEnvelopeOpensAbortsTheConnection() throws Exception {
+        String docIndex = largeDocIndex(false, 3);
+        stub.truncateNextDocumentResponses(1);
+
+        assertThrows(IOException.class, () -> get("/api/v1/fetchDoc/base64/" + docIndex),
+                "a truncated envelope must not be completed as a 200");
+
+        HttpResponse<byte[]> retry = get("/api/v1/fetchDoc/base64/" + docIndex);
+        assertEquals(200, retry.statusCode());
+        assertEquals(Base64.getEncoder().encodeToString(OmniDocsStub.contentOf(docIndex)),
+                mapper.readTree(retry.body()).path("data").asText());
+    }
+
+    private void awaitCleanup(Set<Path> spoolsBefore, int documentCalls) throws Exception {
+        awaitTrue(() -> stub.getDocumentCalls() >= documentCalls
+                && spoolsBefore.equals(spoolFiles()) && partialCacheFiles().isEmpty(),
+                "temporary files left behind after client disconnect");
+        assertEquals(spoolsBefore, spoolFiles(), "spool file left behind after client disconnect");
+        assertEquals(List.of(), partialCacheFiles(), "partial cache file left behind after client disconnect");
+    }
+
+    private void readPartiallyAndDisconnect(String docIndex, int bytes) throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoLinger(true, 0);
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /api/v1/download/" + docIndex + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[8192];
+            int read = 0;
+            while (read < bytes) {
+                int n = in.read(buffer);
+                assertTrue(n > 0, "response ended before the disconnect");
+                read += n;
+            }
+        }
+    }
+
+    private HttpResponse<byte[]> download(String docIndex) throws Exception {
+        return get("/api/v1/download/" + docIndex);
+    }
+
+    /**
+     * @return the {@code n}th large docIndex whose response has content first, or last
+     */
+    private static String largeDocIndex(boolean contentFirst, int n) {
+        return IntStream.iterate(0, i -> i + 1)
+                .mapToObj(i -> OmniDocsStub.LARGE_PREFIX + i)
+                .filter(docIndex -> OmniDocsStub.isContentFirst(docIndex) == contentFirst)
+                .skip(n)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Set<Path> spoolFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("omnidocs-")
+                            && p.getFileName().toString().endsWith(".spool"))
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    private List<Path> partialCacheFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.filter(p -> p.getFileName().toString().contains(".tmp-")).toList();
+        }
+    }
+}
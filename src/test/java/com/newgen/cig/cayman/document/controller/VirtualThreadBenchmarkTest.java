@@ -0,0 +1,106 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.Application;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares download throughput with 1000 concurrent requests on Tomcat's platform
+ * thread pool and on virtual threads, against an OmniDocs stub answering after
+ * {@value #OMNIDOCS_DELAY_MS} ms. Each mode runs in its own application context.
+ *
+ * <p>Not part of the regular build; run with
+ * {@code mvn -Pjava21 test -Dtest=VirtualThreadBenchmarkTest -Dbenchmark=true}.</p>
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadBenchmarkTest.class);
+    private static final int CONCURRENT_REQUESTS = 1000;
+    private static final int WARMUP_REQUESTS = 100;
+    private static final long OMNIDOCS_DELAY_MS = 100;
+
+    private static final OmniDocsStub stub = OmniDocsStub.start(CONCURRENT_REQUESTS + WARMUP_REQUESTS);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop();
+    }
+
+    @Test
+    void virtualThreadsServeConcurrentDownloadsFaster() throws Exception {
+        stub.setResponseDelayMillis(OMNIDOCS_DELAY_MS);
+        try {
+            double platform = measure(false);
+            double virtual = measure(true);
+            logger.info("{} concurrent downloads, {} ms OmniDocs latency. Platform threads: {} req/s, "
+                    + "Virtual threads: {} req/s", CONCURRENT_REQUESTS, OMNIDOCS_DELAY_MS,
+                    String.format("%.0f", platform), String.format("%.0f", virtual));
+            assertTrue(virtual > platform, "virtual threads must not be limited by the Tomcat pool");
+        } finally {
+            stub.setResponseDelayMillis(0);
+        }
+    }
+
+    private double measure(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0",
+                        "server.tomcat.accept-count=" + CONCURRENT_REQUESTS,
+                        "rate.limit.capacity=1000000",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "newgen.cayman.connect.cabinet.siteURL=" + stub.getBaseUrl(),
+                        "newgen.cayman.connect.cabinet.http.maxTotal=" + CONCURRENT_REQUESTS,
+                        "newgen.cayman.connect.cabinet.http.maxPerRoute=" + CONCURRENT_REQUESTS,
+                        "newgen.cayman.document.cache.disk.directory="
+                                + Files.createTempDirectory("caymen-benchmark-" + mode))
+                .run()) {
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            downloadConcurrently(port, mode + "-warmup-", WARMUP_REQUESTS);
+
+            long start = System.nanoTime();
+            downloadConcurrently(port, mode + "-", CONCURRENT_REQUESTS);
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            logger.info("Mode: {}, Requests: {}, Elapsed: {} ms", mode, CONCURRENT_REQUESTS, elapsedMillis);
+            return CONCURRENT_REQUESTS * 1000.0 / elapsedMillis;
+        }
+    }
+
+    private void downloadConcurrently(int port, String docIndexPrefix, int requests) {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/v1/download/" + docIndexPrefix + i)).GET().build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        for (int i = 0; i < requests; i++) {
+            HttpResponse<byte[]> response = responses.get(i).join();
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf(docIndexPrefix + i), response.body());
+        }
+    }
+}
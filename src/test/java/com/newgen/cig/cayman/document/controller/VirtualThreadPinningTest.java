@@ -0,0 +1,91 @@
+package com.newgen.cig.cayman.document.controller;
+
+import com.newgen.cig.cayman.document.support.AbstractDocumentApiTest;
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs concurrent downloads with {@code spring.threads.virtual.enabled=true} under a
+ * JFR recording and fails if any {@code jdk.VirtualThreadPinned} event has application
+ * code on its stack, i.e. a virtual thread blocked inside a {@code synchronized}
+ * block of the session, cache or rate-limit hot path. Requires Java 21
+ * ({@code mvn -Pjava21 test}).
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@TestPropertySource(properties = {"spring.threads.virtual.enabled=true",
+        "newgen.cayman.document.cache.memory.enabled=false"})
+class VirtualThreadPinningTest extends AbstractDocumentApiTest {
+
+    private static final String APPLICATION_PACKAGE = "com.newgen.cig.cayman";
+    private static final int REQUESTS = 200;
+
+    @Test
+    void hotPathDoesNotPinCarrierThreads() throws Exception {
+        Path dump = Files.createTempFile("caymen-pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            stub.setResponseDelayMillis(20);
+            try {
+                // First round populates the disk cache, second round is served from it.
+                downloadConcurrently("/api/v1/download/pin-");
+                downloadConcurrently("/api/v1/download/pin-");
+                downloadConcurrently("/api/v1/async/download/pin-async-");
+            } finally {
+                stub.setResponseDelayMillis(0);
+            }
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<String> pinned = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if (event.getStackTrace() == null) {
+                continue;
+            }
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            boolean application = frames.stream()
+                    .anyMatch(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE));
+            if (application) {
+                pinned.add(frames.stream()
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                        .collect(Collectors.joining("\n    at ")));
+            }
+        }
+        Files.deleteIfExists(dump);
+        assertTrue(pinned.isEmpty(), "virtual threads pinned in application code:\n" + String.join("\n\n", pinned));
+    }
+
+    private void downloadConcurrently(String pathPrefix) {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.sendAsync(request(pathPrefix + i).build(), HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        String docIndexPrefix = pathPrefix.substring(pathPrefix.lastIndexOf('/') + 1);
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpResponse<byte[]> response = responses.get(i).join();
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(OmniDocsStub.contentOf(docIndexPrefix + i), response.body());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.newgen.cig.cayman.document.implementation;
+
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a call ending in an {@link Error} still returns its concurrency
+ * permit and is recorded by the circuit breaker.
+ */
+class ProtectedDocumentImplTest {
+
+    private static final int LIMIT = 4;
+    private static final int CALLS = LIMIT * 3;
+
+    @Test
+    void errorsReleaseTheirPermit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProtectedDocumentImpl protection = protection(registry, new DocumentImpl() {
+            @Override
+            public DocumentResponse fetchDoc(String docIndex) {
+                throw new StackOverflowError("simulated");
+            }
+        });
+
+        for (int i = 0; i < CALLS; i++) {
+            assertThrows(StackOverflowError.class, () -> protection.fetchDoc("9201"));
+        }
+
+        assertEquals(0, registry.get("omnidocs.protection.inflight").gauge().value(), "no permit may leak");
+        assertEquals(1, registry.get("omnidocs.protection.circuit.state").tag("state", "open").gauge().value(),
+                "errors count as failures, and the calls above were all let through");
+    }
+
+    private static ProtectedDocumentImpl protection(SimpleMeterRegistry registry, DocumentImpl delegate) {
+        ProtectedDocumentImpl protection = new ProtectedDocumentImpl();
+        ReflectionTestUtils.setField(protection, "delegate", delegate);
+        ReflectionTestUtils.setField(protection, "meterRegistry", registry);
+        ReflectionTestUtils.setField(protection, "enabled", true);
+        ReflectionTestUtils.setField(protection, "initialLimit", LIMIT);
+        ReflectionTestUtils.setField(protection, "minLimit", 1);
+        ReflectionTestUtils.setField(protection, "maxLimit", LIMIT);
+        ReflectionTestUtils.setField(protection, "latencyThresholdMs", 2000L);
+        ReflectionTestUtils.setField(protection, "backoffRatio", 0.9);
+        ReflectionTestUtils.setField(protection, "windowSize", 20);
+        ReflectionTestUtils.setField(protection, "minimumCalls", CALLS);
+        ReflectionTestUtils.setField(protection, "failureRateThreshold", 50);
+        ReflectionTestUtils.setField(protection, "slowCallRateThreshold", 80);
+        ReflectionTestUtils.setField(protection, "slowCallDurationMs", 10000L);
+        ReflectionTestUtils.setField(protection, "openDurationMs", 30000L);
+        ReflectionTestUtils.setField(protection, "halfOpenCalls", 2);
+        protection.init();
+        return protection;
+    }
+}
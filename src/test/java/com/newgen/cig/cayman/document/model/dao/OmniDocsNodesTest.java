@@ -0,0 +1,127 @@
+package com.newgen.cig.cayman.document.model.dao;
+
+import com.newgen.cig.cayman.document.support.OmniDocsStub;
+import com.newgen.cig.cayman.document.utils.NodeBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that health probes take a failing or hanging node out of rotation and put
+ * it back once it answers, without holding up the caller, and that a call ending in
+ * an {@link Error} is no longer counted as in flight.
+ */
+class OmniDocsNodesTest {
+
+    private static final int PROBE_TIMEOUT_MS = 300;
+
+    private static final OmniDocsStub healthy = OmniDocsStub.start();
+    private static final OmniDocsStub flaky = OmniDocsStub.start();
+
+    private OmniDocsNodes nodes;
+
+    @BeforeEach
+    void startNodes() {
+        nodes = nodes();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodes.shutdown();
+        flaky.setFailing(false);
+        flaky.setProbeDelayMillis(0);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        healthy.stop();
+        flaky.stop();
+    }
+
+    @Test
+    void failingNodeLeavesRotationUntilItsProbeSucceeds() throws InterruptedException {
+        NodeBalancer.Node node = nodes.getNodes().get(1);
+
+        flaky.setFailing(true);
+        nodes.probeNodes();
+        awaitTrue(() -> !node.isHealthy(), "a node answering 500 should be taken out of rotation");
+        for (int i = 0; i < 4; i++) {
+            assertSame(nodes.getNodes().get(0), nodes.choose());
+        }
+
+        flaky.setFailing(false);
+        nodes.probeNodes();
+        awaitTrue(node::isHealthy, "the node should be back in rotation once its probe succeeds");
+        boolean chosen = false;
+        for (int i = 0; i < 4 && !chosen; i++) {
+            chosen = nodes.choose() == node;
+        }
+        assertTrue(chosen, "a node back in rotation should be chosen again");
+    }
+
+    @Test
+    void hangingNodeIsProbedWithAShortTimeoutOffTheCallerThread() throws InterruptedException {
+        NodeBalancer.Node node = nodes.getNodes().get(1);
+        flaky.setProbeDelayMillis(PROBE_TIMEOUT_MS * 10L);
+
+        long started = System.nanoTime();
+        nodes.probeNodes();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < PROBE_TIMEOUT_MS,
+                "probing should not wait for the nodes");
+        awaitTrue(() -> !node.isHealthy(), "a node not answering within the probe timeout should be unhealthy");
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < PROBE_TIMEOUT_MS * 5L,
+                "the probe should give up after its own timeout");
+        assertTrue(nodes.getNodes().get(0).isHealthy());
+    }
+
+    @Test
+    void errorsEndTheCall() {
+        NodeBalancer.Node node = nodes.getNodes().get(0);
+        assertThrows(StackOverflowError.class, () -> nodes.call(node, attempt -> {
+            throw new StackOverflowError("simulated");
+        }));
+        assertEquals(0, node.getInFlight(), "the call must not stay in flight");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), message);
+    }
+
+    private static OmniDocsNodes nodes() {
+        CabinetProperties properties = new CabinetProperties();
+        ReflectionTestUtils.setField(properties, "cabinetName", "worcuat");
+        ReflectionTestUtils.setField(properties, "siteURL", healthy.getBaseUrl());
+        ReflectionTestUtils.setField(properties, "siteURI", OmniDocsStub.SITE_URI);
+
+        OmniDocsNodes nodes = new OmniDocsNodes();
+        ReflectionTestUtils.setField(nodes, "properties", properties);
+        ReflectionTestUtils.setField(nodes, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(nodes, "urls", new String[]{healthy.getBaseUrl(), flaky.getBaseUrl()});
+        ReflectionTestUtils.setField(nodes, "selection", "least-outstanding");
+        ReflectionTestUtils.setField(nodes, "ewmaDecayMs", 10000L);
+        ReflectionTestUtils.setField(nodes, "consecutiveFailures", 5);
+        ReflectionTestUtils.setField(nodes, "slowCallDurationMs", 10000L);
+        ReflectionTestUtils.setField(nodes, "ejectionBaseMs", 30000L);
+        ReflectionTestUtils.setField(nodes, "ejectionMaxMs", 300000L);
+        ReflectionTestUtils.setField(nodes, "probeEnabled", true);
+        ReflectionTestUtils.setField(nodes, "probeTimeoutMs", PROBE_TIMEOUT_MS);
+        ReflectionTestUtils.setField(nodes, "probePath", "");
+        nodes.init();
+        return nodes;
+    }
+}
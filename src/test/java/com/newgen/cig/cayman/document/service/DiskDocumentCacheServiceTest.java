@@ -0,0 +1,241 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.newgen.cig.cayman.document.model.dao.CabinetProperties;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks LRU eviction, the size bounds, including those of entries still being
+ * written, rebuilding the index after a restart, expiry, invalidation and that a
+ * file being read survives its eviction.
+ */
+class DiskDocumentCacheServiceTest {
+
+    private static final int KB = 1024;
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("caymen-disk-cache-test");
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() throws IOException {
+        DiskDocumentCacheService cache = cache(3 * KB, KB, 600);
+        put(cache, "a", KB);
+        put(cache, "b", KB);
+        put(cache, "c", KB);
+        cache.get("a").release();
+
+        put(cache, "d", KB);
+
+        assertNull(cache.get("b"));
+        for (String docIndex : List.of("a", "c", "d")) {
+            DiskDocumentCacheService.CachedFile file = cache.get(docIndex);
+            assertNotNull(file, docIndex);
+            assertArrayEquals(content(docIndex, KB), Files.readAllBytes(file.getPath()));
+            file.release();
+        }
+    }
+
+    @Test
+    void entriesStayWithinTheSizeBounds() {
+        DiskDocumentCacheService cache = cache(4 * KB, 2 * KB, 600);
+
+        assertNull(cache.begin("declared", 2 * KB + 1), "declared size above maxEntryBytes");
+        put(cache, "undeclared", 2 * KB + 1);
+        assertNull(cache.get("undeclared"), "actual size above maxEntryBytes");
+
+        for (int i = 0; i < 6; i++) {
+            put(cache, String.valueOf(i), 2 * KB);
+        }
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.getTotalBytes() <= 4 * KB);
+    }
+
+    @Test
+    void undeclaredEntryIsGivenUpOnceItOutgrowsTheEntryLimit() throws IOException {
+        DiskDocumentCacheService cache = cache(8 * KB, 2 * KB, 600);
+        DiskDocumentCacheService.PendingFile pending = cache.begin("growing", -1);
+
+        pending.stream().write(content("growing", 2 * KB));
+        assertEquals(1, temporaryFiles(), "an entry within the limit is written");
+        pending.stream().write(content("growing", KB));
+        assertEquals(0, temporaryFiles(), "an entry past the limit is deleted while still written");
+
+        pending.commit(metadata("growing", 3 * KB));
+        assertNull(cache.get("growing"));
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void entriesBeingWrittenCountTowardsTheBudget() throws IOException {
+        DiskDocumentCacheService cache = cache(3 * KB, 2 * KB, 600);
+        put(cache, "a", KB);
+        put(cache, "b", KB);
+
+        DiskDocumentCacheService.PendingFile c = cache.begin("c", -1);
+        c.stream().write(content("c", 2 * KB));
+        assertNull(cache.get("a"), "room for a pending entry is made by evicting the oldest");
+        DiskDocumentCacheService.PendingFile d = cache.begin("d", -1);
+        d.stream().write(content("d", 2 * KB));
+        assertNull(cache.get("b"));
+        assertEquals(1, temporaryFiles(), "a pending entry finding no room is given up");
+
+        c.commit(metadata("c", 2 * KB));
+        d.commit(metadata("d", 2 * KB));
+        DiskDocumentCacheService.CachedFile committed = cache.get("c");
+        assertNotNull(committed);
+        committed.release();
+        assertNull(cache.get("d"));
+        assertEquals(2 * KB, cache.getTotalBytes());
+    }
+
+    @Test
+    void indexIsRebuiltAfterRestart() throws IOException {
+        DiskDocumentCacheService first = cache(3 * KB, KB, 600);
+        put(first, "a", KB);
+        put(first, "b", KB);
+        put(first, "c", KB);
+        touch(first, "b", 1_000);
+        touch(first, "a", 2_000);
+        touch(first, "c", 3_000);
+        Path leftover = Files.createFile(directory.resolve("interrupted.bin.tmp-1"));
+        Path orphan = Files.createFile(directory.resolve("orphan.bin"));
+
+        DiskDocumentCacheService second = cache(3 * KB, KB, 600);
+        assertEquals(3, second.getEntryCount());
+        assertEquals(3 * KB, second.getTotalBytes());
+        assertFalse(Files.exists(leftover));
+        assertFalse(Files.exists(orphan));
+
+        put(second, "d", KB);
+        assertNull(second.get("b"), "oldest file by modification time is evicted first");
+        DiskDocumentCacheService.CachedFile a = second.get("a");
+        assertArrayEquals(content("a", KB), Files.readAllBytes(a.getPath()));
+        a.release();
+    }
+
+    @Test
+    void fileBeingReadSurvivesEviction() throws IOException {
+        DiskDocumentCacheService cache = cache(KB, KB, 600);
+        put(cache, "a", KB);
+        DiskDocumentCacheService.CachedFile reading = cache.get("a");
+
+        put(cache, "b", KB);
+        assertNull(cache.get("a"));
+        cache.sweep();
+        cache.sweep();
+        assertTrue(Files.exists(reading.getPath()), "a pinned file must not be deleted");
+        assertArrayEquals(content("a", KB), Files.readAllBytes(reading.getPath()));
+        assertEquals(KB, cache.getTotalBytes(), "a retired file does not count towards the budget");
+
+        reading.release();
+        cache.sweep();
+        assertTrue(Files.exists(reading.getPath()), "a file read recently is kept for one more sweep");
+        cache.sweep();
+        assertFalse(Files.exists(reading.getPath()));
+        assertFalse(reading.pin(), "a deleted file cannot be pinned");
+    }
+
+    @Test
+    void entriesExpireAfterTheirTimeToLive() throws Exception {
+        DiskDocumentCacheService cache = cache(4 * KB, KB, 1);
+        put(cache, "a", KB);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        DiskDocumentCacheService.CachedFile file;
+        while ((file = cache.get("a")) != null && System.nanoTime() < deadline) {
+            file.release();
+            Thread.sleep(20);
+        }
+        assertNull(file);
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void invalidatedEntryIsNoLongerReturned() {
+        DiskDocumentCacheService cache = cache(4 * KB, KB, 600);
+        put(cache, "a", KB);
+        put(cache, "b", KB);
+
+        cache.invalidate("a");
+
+        assertNull(cache.get("a"));
+        DiskDocumentCacheService.CachedFile b = cache.get("b");
+        assertNotNull(b);
+        b.release();
+        assertEquals(KB, cache.getTotalBytes());
+    }
+
+    private DiskDocumentCacheService cache(long maxSizeBytes, long maxEntryBytes, long ttlSeconds) {
+        CabinetProperties properties = new CabinetProperties();
+        properties.setCabinetName("worcuat");
+        DiskDocumentCacheService cache = new DiskDocumentCacheService();
+        ReflectionTestUtils.setField(cache, "properties", properties);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "directory", directory.toString());
+        ReflectionTestUtils.setField(cache, "maxSizeBytes", maxSizeBytes);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", maxEntryBytes);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", ttlSeconds);
+        cache.init();
+        return cache;
+    }
+
+    private static void put(DiskDocumentCacheService cache, String docIndex, int size) {
+        DiskDocumentCacheService.PendingFile pending = cache.begin(docIndex, -1);
+        try {
+            pending.stream().write(content(docIndex, size));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        pending.commit(metadata(docIndex, size));
+    }
+
+    private static DocumentResponse metadata(String docIndex, int size) {
+        return new DocumentResponse("pdf", null, docIndex, String.valueOf(size), "N", "Operation successful", "0");
+    }
+
+    private long temporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().contains(".tmp-")).count();
+        }
+    }
+
+    private static void touch(DiskDocumentCacheService cache, String docIndex, long millis) throws IOException {
+        DiskDocumentCacheService.CachedFile file = cache.get(docIndex);
+        Files.setLastModifiedTime(file.getPath(), FileTime.fromMillis(millis));
+        file.release();
+    }
+
+    private static byte[] content(String text, int size) {
+        byte[] unit = text.getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = unit[i % unit.length];
+        }
+        return content;
+    }
+}
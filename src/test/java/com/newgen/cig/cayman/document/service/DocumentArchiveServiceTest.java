@@ -0,0 +1,97 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.model.dto.LocalDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a local copy whose file is removed between the prefetch and the
+ * write is fetched again rather than aborting the archive, and that every local
+ * copy is closed.
+ */
+class DocumentArchiveServiceTest {
+
+    @Test
+    void copyRemovedBeforeItIsWrittenIsFetchedAgain() throws Exception {
+        Path directory = Files.createTempDirectory("caymen-archive-test");
+        RemovingDocumentService documents = new RemovingDocumentService(directory);
+        DocumentArchiveService archive = new DocumentArchiveService();
+        ReflectionTestUtils.setField(archive, "documentService", documents);
+        ReflectionTestUtils.setField(archive, "executor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(archive, "parallelism", 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        archive.writeZip(List.of("1", "2"), out);
+
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        assertEquals(2, entries.size(), "no error list expected");
+        assertArrayEquals(content("1"), entries.get("doc 1.pdf"));
+        assertArrayEquals(content("2"), entries.get("doc 2.pdf"));
+        assertEquals(List.of("1", "2", "1", "2"), documents.opened, "each removed copy is fetched once more");
+        assertTrue(documents.allClosed());
+    }
+
+    private static byte[] content(String docIndex) {
+        return ("content of document " + docIndex).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Hands out copies whose file is already gone the first time each document is opened. */
+    private static final class RemovingDocumentService extends DocumentService {
+        private final Path directory;
+        private final List<String> opened = new ArrayList<>();
+        private final List<boolean[]> closed = new ArrayList<>();
+
+        private RemovingDocumentService(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public LocalDocument openLocalCopy(String docIndex, boolean spool) {
+            opened.add(docIndex);
+            Path file = directory.resolve(docIndex + "-" + opened.size());
+            try {
+                Files.write(file, content(docIndex));
+                if (opened.stream().filter(docIndex::equals).count() == 1) {
+                    Files.delete(file);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            boolean[] flag = new boolean[1];
+            closed.add(flag);
+            DocumentResponse metadata = new DocumentResponse("pdf", null, "doc " + docIndex,
+                    String.valueOf(content(docIndex).length), "N", "Operation successful", "0");
+            return new LocalDocument(metadata, new FileSystemResource(file), content(docIndex).length, null,
+                    () -> flag[0] = true);
+        }
+
+        private boolean allClosed() {
+            return closed.stream().allMatch(flag -> flag[0]);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.newgen.cig.cayman.document.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.newgen.cig.cayman.document.model.dao.CabinetProperties;
+import com.newgen.cig.cayman.document.model.dao.DocumentResponse;
+import com.newgen.cig.cayman.document.model.dto.DocumentFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks hits, byte-weighted eviction, the per-entry cap, invalidation and that
+ * entries of different documents and cabinets never answer for each other.
+ */
+class DocumentCacheServiceTest {
+
+    private static final int KB = 1024;
+
+    @Test
+    void cachedDocumentIsReturnedOnTheNextGet() {
+        DocumentCacheService cache = cache("worcuat", 64 * KB, 16 * KB);
+        DocumentFile file = file("doc 1", 100);
+
+        assertNull(cache.get("1"));
+        cache.put("1", file);
+
+        assertSame(file, cache.get("1"));
+    }
+
+    @Test
+    void evictsByWeightOnceTheByteBudgetIsExceeded() {
+        DocumentCacheService cache = cache("worcuat", 64 * KB, 16 * KB);
+        for (int i = 0; i < 8; i++) {
+            cache.put(String.valueOf(i), file("doc " + i, 16 * KB));
+        }
+        cleanUp(cache);
+
+        long held = 0;
+        for (int i = 0; i < 8; i++) {
+            if (cache.get(String.valueOf(i)) != null) {
+                held++;
+            }
+        }
+        assertEquals(4, held, "64 KB budget holds four 16 KB documents");
+        assertTrue(weightedSize(cache) <= 64 * KB);
+    }
+
+    @Test
+    void documentsAboveTheEntryCapAreNotCached() {
+        DocumentCacheService cache = cache("worcuat", 64 * KB, 16 * KB);
+        cache.put("big", file("big", 16 * KB + 1));
+
+        assertNull(cache.get("big"));
+        assertTrue(cache.isCacheable(16 * KB));
+    }
+
+    @Test
+    void keysAreIsolatedByDocumentAndCabinet() {
+        DocumentCacheService first = cache("worcuat", 64 * KB, 16 * KB);
+        DocumentCacheService second = cache("worcarchive", 64 * KB, 16 * KB);
+        first.put("12", file("doc 12", 100));
+        first.put("123", file("doc 123", 100));
+        second.put("12", file("archive 12", 100));
+
+        assertArrayEquals(content("doc 12", 100), first.get("12").getContent());
+        assertArrayEquals(content("doc 123", 100), first.get("123").getContent());
+        assertArrayEquals(content("archive 12", 100), second.get("12").getContent());
+        assertNull(second.get("123"));
+        assertNotEquals(DocumentCacheService.cacheKey("worcuat", "12"),
+                DocumentCacheService.cacheKey("worcarchive", "12"));
+    }
+
+    @Test
+    void invalidatedDocumentIsNoLongerReturned() {
+        DocumentCacheService cache = cache("worcuat", 64 * KB, 16 * KB);
+        cache.put("1", file("doc 1", 100));
+        cache.put("2", file("doc 2", 100));
+
+        cache.invalidate("1");
+
+        assertNull(cache.get("1"));
+        assertNotNull(cache.get("2"));
+    }
+
+    private static DocumentCacheService cache(String cabinetName, long maxWeightBytes, long maxEntryBytes) {
+        CabinetProperties properties = new CabinetProperties();
+        properties.setCabinetName(cabinetName);
+        DocumentCacheService cache = new DocumentCacheService();
+        ReflectionTestUtils.setField(cache, "properties", properties);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxWeightBytes", maxWeightBytes);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", maxEntryBytes);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+        cache.init();
+        return cache;
+    }
+
+    private static DocumentFile file(String text, int size) {
+        DocumentResponse metadata = new DocumentResponse("pdf", null, text, String.valueOf(size), "N",
+                "Operation successful", "0");
+        return new DocumentFile(metadata, content(text, size));
+    }
+
+    private static byte[] content(String text, int size) {
+        byte[] unit = text.getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = unit[i % unit.length];
+        }
+        return content;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, DocumentFile> caffeine(DocumentCacheService cache) {
+        return (Cache<String, DocumentFile>) ReflectionTestUtils.getField(cache, "cache");
+    }
+
+    private static void cleanUp(DocumentCacheService cache) {
+        caffeine(cache).cleanUp();
+    }
+
+    private static long weightedSize(DocumentCacheService cache) {
+        return caffeine(cache).policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+}
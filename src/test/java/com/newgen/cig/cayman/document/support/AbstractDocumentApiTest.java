@@ -0,0 +1,82 @@
+package com.newgen.cig.cayman.document.support;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Base of the integration tests that run the application on a random port against
+ * an {@link OmniDocsStub} (see {@link OmniDocsStubConfiguration}).
+ *
+ * <p>The client rate limit is lifted so tests may send as many requests as they
+ * need. Subclasses add their own settings with {@link TestPropertySource}; classes
+ * with the same settings share one application context, and its stub.</p>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "rate.limit.capacity=1000000")
+@Import(OmniDocsStubConfiguration.class)
+public abstract class AbstractDocumentApiTest {
+
+    private static final long AWAIT_SECONDS = 10;
+
+    @LocalServerPort
+    protected int port;
+
+    @Autowired
+    protected OmniDocsStub stub;
+
+    protected final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * @param path request path, starting with {@code /}
+     * @return GET request builder for the path on the running application
+     */
+    protected HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+    }
+
+    /**
+     * Sends a GET request and reads the body as bytes.
+     *
+     * @param path request path, starting with {@code /}
+     * @param headers header names and values, alternating
+     * @return the response
+     */
+    protected HttpResponse<byte[]> get(String path, String... headers) throws Exception {
+        HttpRequest.Builder request = request(path);
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Waits until a condition holds, polling it every few milliseconds.
+     *
+     * @param condition condition to wait for
+     * @param message failure message if it does not hold within ten seconds
+     */
+    protected static void awaitTrue(Condition condition, String message) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_SECONDS);
+        while (!condition.holds() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.holds(), message);
+    }
+
+    /** Condition polled by {@link #awaitTrue(Condition, String)}; may send requests. */
+    @FunctionalInterface
+    protected interface Condition {
+        boolean holds() throws Exception;
+    }
+}
@@ -0,0 +1,329 @@
+package com.newgen.cig.cayman.document.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the OmniDocs REST web services used by integration tests.
+ *
+ * <p>Serves {@code executeAPIJSON} and {@code getDocumentJSON}. On {@code executeAPIJSON},
+ * NGOConnectCabinet logs in, NGODisconnectCabinet ends a session and any other option
+ * answers status 0 for a valid UserDBId, acting as keep-alive.
+ * Document content, name and extension are derived from the requested docIndex so
+ * tests can verify that every response belongs to its own request. About a third
+ * of docIndexes put {@code docContent} ahead of the status and metadata fields.
+ * DocIndexes starting with {@value #MISSING_PREFIX} are reported as not found, and
+ * those starting with {@value #LARGE_PREFIX} have a few megabytes of content.
+ * When a request carries a {@code downloadLocation}, the content is written to that
+ * path and left out of the response, except for docIndexes starting with
+ * {@value #INLINE_ONLY_PREFIX}, which ignore the option as older servers do.
+ * Every cabinet connect hands out a new UserDBId, and document calls carrying an
+ * unknown UserDBId are rejected as unauthorized. UserDBIds are unique across stubs,
+ * so several stubs can act as nodes that each keep their own sessions. {@link #expireSession()}
+ * invalidates every UserDBId handed out so far, and {@link #truncateNextDocumentResponses(int)}
+ * cuts document responses short. A GET on {@value #SITE_URI} itself answers a node
+ * health probe.</p>
+ */
+public class OmniDocsStub {
+
+    public static final String SITE_URI = "/OmniDocsRestWS/rest/services";
+    public static final String MISSING_PREFIX = "missing-";
+    public static final String INLINE_ONLY_PREFIX = "inline-";
+    public static final String LARGE_PREFIX = "large-";
+
+    private static final int LARGE_SIZE = 4 * 1024 * 1024;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final AtomicLong SESSION_IDS = new AtomicLong(-1904015498L);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger connectCalls = new AtomicInteger();
+    private final AtomicInteger keepAliveCalls = new AtomicInteger();
+    private final AtomicInteger disconnectCalls = new AtomicInteger();
+    private final AtomicInteger documentCalls = new AtomicInteger();
+    private final AtomicInteger downloadCalls = new AtomicInteger();
+    private volatile long responseDelayMillis;
+    private volatile long connectDelayMillis;
+    private volatile long probeDelayMillis;
+    private volatile boolean failing;
+    private final Set<String> validSessions = ConcurrentHashMap.newKeySet();
+    private final Set<String> usedSessions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger stalledCalls = new AtomicInteger();
+    private volatile long stallMillis;
+    private final AtomicInteger truncatedCalls = new AtomicInteger();
+
+    private OmniDocsStub(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static OmniDocsStub start() {
+        return start(64);
+    }
+
+    public static OmniDocsStub start(int threads) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), Math.max(512, threads));
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            OmniDocsStub stub = new OmniDocsStub(server, executor);
+            server.createContext(SITE_URI + "/executeAPIJSON", stub::handleExecuteApi);
+            server.createContext(SITE_URI + "/getDocumentJSON", stub::handleDocument);
+            server.createContext(SITE_URI, stub::handleProbe);
+            server.setExecutor(executor);
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start OmniDocs stub", e);
+        }
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getConnectCalls() {
+        return connectCalls.get();
+    }
+
+    /** executeAPIJSON calls other than connect and disconnect. */
+    public int getKeepAliveCalls() {
+        return keepAliveCalls.get();
+    }
+
+    public int getDisconnectCalls() {
+        return disconnectCalls.get();
+    }
+
+    /** Whether a UserDBId is still accepted. */
+    public boolean isSessionValid(String userDbId) {
+        return validSessions.contains(userDbId);
+    }
+
+    public int getDocumentCalls() {
+        return documentCalls.get();
+    }
+
+    /** Document calls that wrote the content to a download location. */
+    public int getDownloadCalls() {
+        return downloadCalls.get();
+    }
+
+    /** Delays every getDocumentJSON response, simulating a slow OmniDocs server. */
+    public void setResponseDelayMillis(long responseDelayMillis) {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    /** Delays every cabinet connect, simulating a slow OmniDocs login. */
+    public void setConnectDelayMillis(long connectDelayMillis) {
+        this.connectDelayMillis = connectDelayMillis;
+    }
+
+    /** Delays every health probe, simulating a node that accepts connections but hangs. */
+    public void setProbeDelayMillis(long probeDelayMillis) {
+        this.probeDelayMillis = probeDelayMillis;
+    }
+
+    /** Holds the next {@code calls} getDocumentJSON calls for {@code millis} before answering. */
+    public void stallNextDocumentCalls(int calls, long millis) {
+        this.stallMillis = millis;
+        this.stalledCalls.set(calls);
+    }
+
+    /**
+     * Makes the next {@code calls} successful getDocumentJSON responses send only the
+     * first half of their body before the connection is closed.
+     */
+    public void truncateNextDocumentResponses(int calls) {
+        this.truncatedCalls.set(calls);
+    }
+
+    /** Accepts a UserDBId issued before this stub started, as a server keeps sessions across client restarts. */
+    public void acceptSession(String userDbId) {
+        validSessions.add(userDbId);
+    }
+
+    /** Invalidates every session handed out so far. */
+    public void expireSession() {
+        validSessions.clear();
+    }
+
+    /** Distinct UserDBIds that document calls were served with. */
+    public int getSessionsUsed() {
+        return usedSessions.size();
+    }
+
+    /** Answers every getDocumentJSON call and health probe with HTTP 500, simulating a failing OmniDocs server. */
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    /** Expected decoded content for a docIndex. */
+    public static byte[] contentOf(String docIndex) {
+        String unit = "document " + docIndex + ";";
+        int repeat = docIndex.startsWith(LARGE_PREFIX)
+                ? LARGE_SIZE / unit.length() + 1
+                : 1 + Math.floorMod(docIndex.hashCode(), 2000);
+        return unit.repeat(repeat).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Whether the response for a docIndex carries docContent ahead of status and metadata. */
+    public static boolean isContentFirst(String docIndex) {
+        return Math.floorMod(docIndex.hashCode(), 3) == 0;
+    }
+
+    /** Expected document name for a docIndex. */
+    public static String nameOf(String docIndex) {
+        return "doc-" + docIndex;
+    }
+
+    /** Expected extension (createdByAppName) for a docIndex. */
+    public static String extensionOf(String docIndex) {
+        return Math.floorMod(docIndex.hashCode(), 2) == 0 ? "pdf" : "txt";
+    }
+
+    private void handleExecuteApi(HttpExchange exchange) throws IOException {
+        JsonNode inputData = MAPPER.readTree(exchange.getRequestBody()).path("NGOExecuteAPOBDO").path("inputData");
+        if (inputData.has("NGOConnectCabinet_Input")) {
+            handleConnect(exchange);
+            return;
+        }
+        JsonNode input = inputData.elements().hasNext() ? inputData.elements().next() : MAPPER.createObjectNode();
+        String userDbId = input.path("UserDBId").asText();
+        boolean valid;
+        if ("NGODisconnectCabinet".equals(input.path("Option").asText())) {
+            disconnectCalls.incrementAndGet();
+            valid = validSessions.remove(userDbId);
+        } else {
+            keepAliveCalls.incrementAndGet();
+            valid = validSessions.contains(userDbId);
+        }
+        write(exchange, "{\"NGOExecuteAPIResponseBDO\":{\"base64Encoded\":\"N\",\"statusCode\":\""
+                + (valid ? "0" : "-50146") + "\",\"outputData\":{}}}");
+    }
+
+    private void handleConnect(HttpExchange exchange) throws IOException {
+        connectCalls.incrementAndGet();
+        if (connectDelayMillis > 0) {
+            try {
+                Thread.sleep(connectDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long userDbId = SESSION_IDS.incrementAndGet();
+        validSessions.add(String.valueOf(userDbId));
+        String body = "{\"NGOExecuteAPIResponseBDO\":{\"base64Encoded\":\"N\",\"statusCode\":\"0\","
+                + "\"outputData\":{\"NGOConnectCabinet_Output\":{\"Status\":0,\"UserDBId\":" + userDbId + "}}}}";
+        write(exchange, body);
+    }
+
+    private void handleProbe(HttpExchange exchange) throws IOException {
+        if (probeDelayMillis > 0) {
+            try {
+                Thread.sleep(probeDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.sendResponseHeaders(failing ? 500 : 200, -1);
+        exchange.close();
+    }
+
+    private void handleDocument(HttpExchange exchange) throws IOException {
+        documentCalls.incrementAndGet();
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        long delay = stalledCalls.getAndUpdate(n -> Math.max(0, n - 1)) > 0 ? stallMillis : responseDelayMillis;
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String docIndex = request.path("docIndex").asText();
+
+        if (failing) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        String userDbId = request.path("userDBId").asText();
+        if (!validSessions.contains(userDbId)) {
+            write(exchange, "{\"NGOGetDocumentBDOResponse\":{\"statusCode\":\"401\","
+                    + "\"message\":\"Unauthorized: invalid session\"}}");
+            return;
+        }
+        usedSessions.add(userDbId);
+        if (docIndex.startsWith(MISSING_PREFIX)) {
+            write(exchange, "{\"NGOGetDocumentBDOResponse\":{\"statusCode\":\"-50146\","
+                    + "\"message\":\"Document not found\"}}");
+            return;
+        }
+
+        String downloadLocation = request.path("downloadLocation").asText("");
+        boolean download = !downloadLocation.isEmpty() && !docIndex.startsWith(INLINE_ONLY_PREFIX);
+        if (download) {
+            downloadCalls.incrementAndGet();
+            Files.write(Path.of(downloadLocation), contentOf(docIndex));
+        }
+
+        String content = download ? "\"docContent\":\"\""
+                : "\"docContent\":\"" + Base64.getEncoder().encodeToString(contentOf(docIndex)) + "\"";
+        String metadata = "\"createdByAppName\":\"" + extensionOf(docIndex) + "\","
+                + "\"documentName\":\"" + nameOf(docIndex) + "\","
+                + "\"documentType\":\"N\","
+                + "\"documentSize\":\"" + contentOf(docIndex).length + "\"";
+        String status = "\"statusCode\":\"0\",\"message\":\"Operation successful\"";
+
+        boolean contentFirst = isContentFirst(docIndex);
+        String body = "{\"NGOGetDocumentBDOResponse\":{"
+                + (contentFirst ? content + "," + status + "," + metadata : status + "," + metadata + "," + content)
+                + "}}";
+        if (truncatedCalls.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            writeTruncated(exchange, body);
+            return;
+        }
+        write(exchange, body);
+    }
+
+    private static void writeTruncated(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes, 0, bytes.length / 2);
+        out.flush();
+        exchange.close();
+    }
+
+    private static void write(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.newgen.cig.cayman.document.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.DynamicPropertyRegistrar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Gives each test application context an {@link OmniDocsStub} of its own, started
+ * with the context and stopped when it closes, so test classes with the same
+ * configuration share both the context and the stub.
+ *
+ * <p>The default cabinet is pointed at the stub, and the on-disk cache at a new
+ * temporary directory, so cached documents never leak between contexts. A stub
+ * that must be set up before the cabinet logs in is configured with properties:</p>
+ * <pre>
+ * test.omnidocs:
+ *   connectDelayMillis: 3000        # Delays every cabinet connect
+ *   acceptedSessions: 1904015498    # UserDBIds accepted as if issued before the stub started
+ * </pre>
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class OmniDocsStubConfiguration {
+
+    @Bean(destroyMethod = "stop")
+    @Primary
+    public OmniDocsStub omniDocsStub(Environment environment) {
+        OmniDocsStub stub = OmniDocsStub.start();
+        stub.setConnectDelayMillis(environment.getProperty("test.omnidocs.connectDelayMillis", Long.class, 0L));
+        for (String sessionId : environment.getProperty("test.omnidocs.acceptedSessions", String[].class, new String[0])) {
+            stub.acceptSession(sessionId);
+        }
+        return stub;
+    }
+
+    @Bean
+    public DynamicPropertyRegistrar omniDocsProperties(OmniDocsStub omniDocsStub) {
+        Path cacheDirectory;
+        try {
+            cacheDirectory = Files.createTempDirectory("caymen-test-cache");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return registry -> {
+            registry.add("newgen.cayman.connect.cabinet.siteURL", omniDocsStub::getBaseUrl);
+            registry.add("newgen.cayman.document.cache.disk.directory", cacheDirectory::toString);
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.newgen.cig.cayman.document.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that hashing base64 text matches hashing the decoded bytes, also for
+ * content larger than one read buffer and for line-wrapped base64.
+ */
+class DigestsTest {
+
+    private static final byte[] CONTENT = content(100_003);
+
+    @Test
+    void hashOfBase64MatchesHashOfDecodedBytes() {
+        String base64 = Base64.getEncoder().encodeToString(CONTENT);
+
+        assertEquals(Digests.sha256Hex(CONTENT), Digests.sha256HexOfBase64(base64));
+        assertEquals(Digests.sha256Hex(new byte[0]), Digests.sha256HexOfBase64(""));
+    }
+
+    @Test
+    void lineWrappedBase64IsHashedLikeUnwrapped() {
+        String mime = Base64.getMimeEncoder().encodeToString(CONTENT);
+        String unix = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(CONTENT);
+
+        assertEquals(Digests.sha256Hex(CONTENT), Digests.sha256HexOfBase64(mime));
+        assertEquals(Digests.sha256Hex(CONTENT), Digests.sha256HexOfBase64(unix));
+    }
+
+    @Test
+    void truncatedBase64IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Digests.sha256HexOfBase64("QUJD="));
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31 + i / 7);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,64 @@
+package com.newgen.cig.cayman.document.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a new key may send a burst of exactly {@code capacity} requests, that
+ * one request's allowance comes back every {@code period / capacity}, and that
+ * {@link GcraRateLimiter#waitNanos(AtomicLong)} reports when it does.
+ */
+class GcraRateLimiterTest {
+
+    private static final int CAPACITY = 5;
+    private static final long PERIOD = TimeUnit.SECONDS.toNanos(1);
+    private static final long INTERVAL = PERIOD / CAPACITY;
+
+    private final GcraRateLimiter limiter = new GcraRateLimiter(CAPACITY, PERIOD);
+
+    @Test
+    void burstOfCapacityIsAllowedAndTheNextRequestRejected() {
+        AtomicLong state = limiter.newState();
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(limiter.tryAcquire(state), "request " + (i + 1) + " of the burst");
+        }
+        long tat = state.get();
+        assertFalse(limiter.tryAcquire(state), "the request after the burst");
+        assertEquals(tat, state.get(), "a rejected request must not move the state");
+    }
+
+    @Test
+    void oneRequestIsAllowedAgainAfterAnEmissionInterval() throws InterruptedException {
+        AtomicLong state = limiter.newState();
+        for (int i = 0; i < CAPACITY; i++) {
+            limiter.tryAcquire(state);
+        }
+        assertFalse(limiter.tryAcquire(state));
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(limiter.waitNanos(state)) + 20);
+        assertTrue(limiter.tryAcquire(state), "one allowance should have come back");
+        assertFalse(limiter.tryAcquire(state), "only one allowance should have come back");
+    }
+
+    @Test
+    void waitNanosReportsTheTimeUntilTheNextAllowance() {
+        AtomicLong state = limiter.newState();
+        assertEquals(0, limiter.waitNanos(state), "a new key may send now");
+
+        for (int i = 0; i < CAPACITY - 1; i++) {
+            limiter.tryAcquire(state);
+        }
+        assertEquals(0, limiter.waitNanos(state), "one request of the burst is left");
+
+        limiter.tryAcquire(state);
+        long wait = limiter.waitNanos(state);
+        assertTrue(wait > INTERVAL / 2 && wait <= INTERVAL,
+                "the next allowance comes back within one emission interval, was " + wait + " ns");
+    }
+}
@@ -0,0 +1,77 @@
+package com.newgen.cig.cayman.document.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the scanner copies base64 text larger than its buffer, resolves
+ * escapes even when they are split across reads, hands back the rest of the
+ * stream and rejects anything that is not base64.
+ */
+class JsonBase64ScannerTest {
+
+    @Test
+    void base64TextIsCopiedAndTheRestOfTheStreamIsReturned() throws IOException {
+        String base64 = Base64.getEncoder().encodeToString(content(100_003));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        InputStream rest = JsonBase64Scanner.copy(stream(base64 + "\",\"message\":\"OK\"}}"), out);
+
+        assertEquals(base64, out.toString(StandardCharsets.US_ASCII));
+        assertEquals(",\"message\":\"OK\"}}", new String(rest.readAllBytes(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void escapesAreResolvedAcrossReads() throws IOException {
+        String escaped = "QU\\/J\\u0044\\r\\nRA==\"}";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        InputStream rest = JsonBase64Scanner.copy(oneByteAtATime(stream(escaped)), out);
+
+        assertEquals("QU/JDRA==", out.toString(StandardCharsets.US_ASCII));
+        assertArrayEquals("}".getBytes(StandardCharsets.US_ASCII), rest.readAllBytes());
+    }
+
+    @Test
+    void anythingButBase64IsRejected() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(IOException.class, () -> JsonBase64Scanner.copy(stream("QU JD\""), out));
+        assertThrows(IOException.class, () -> JsonBase64Scanner.copy(stream("QU\\\"JD\""), out));
+        assertThrows(IOException.class, () -> JsonBase64Scanner.copy(stream("QU\\u00e9\""), out));
+        assertThrows(EOFException.class, () -> JsonBase64Scanner.copy(stream("QUJD"), out));
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream oneByteAtATime(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+}
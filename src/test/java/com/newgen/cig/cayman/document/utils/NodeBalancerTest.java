@@ -0,0 +1,62 @@
+package com.newgen.cig.cayman.document.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks EWMA node selection: the faster node is preferred, calls in flight raise a
+ * node's cost, and a slow sample loses its weight with time even when no further
+ * call reaches the node.
+ */
+class NodeBalancerTest {
+
+    private static final long DECAY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void ewmaPrefersTheFasterNodeWeightedByCallsInFlight() {
+        NodeBalancer balancer = balancer();
+        NodeBalancer.Node slow = balancer.getNodes().get(0);
+        NodeBalancer.Node fast = balancer.getNodes().get(1);
+        sample(slow, TimeUnit.MILLISECONDS.toNanos(30));
+        sample(fast, TimeUnit.MILLISECONDS.toNanos(10));
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(fast, balancer.choose());
+        }
+
+        for (int i = 0; i < 3; i++) {
+            fast.start();
+        }
+        assertSame(slow, balancer.choose(), "four times the fast node's latency exceeds the slow node's");
+    }
+
+    @Test
+    void ewmaDecaysAtSelectionTime() throws InterruptedException {
+        NodeBalancer balancer = balancer();
+        NodeBalancer.Node slow = balancer.getNodes().get(0);
+        NodeBalancer.Node fast = balancer.getNodes().get(1);
+        sample(slow, TimeUnit.SECONDS.toNanos(1));
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(DECAY) * 6);
+        sample(fast, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertSame(slow, balancer.choose(),
+                "a slow sample six decay periods old should weigh less than a fresh fast one");
+        assertTrue(slow.getEwmaNanos() < TimeUnit.MILLISECONDS.toNanos(3),
+                "the reported latency should be decayed to now as well");
+    }
+
+    private static NodeBalancer balancer() {
+        return new NodeBalancer(List.of("http://node-1", "http://node-2"), NodeBalancer.Selection.EWMA,
+                DECAY, 5, TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(30), TimeUnit.MINUTES.toNanos(5));
+    }
+
+    private static void sample(NodeBalancer.Node node, long latencyNanos) {
+        node.start();
+        node.complete(latencyNanos, false);
+    }
+}
@@ -0,0 +1,160 @@
+package com.newgen.cig.cayman.document.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JMH benchmark of the rate limit check made by
+ * {@link com.newgen.cig.cayman.document.config.RateLimitFilter} for every request,
+ * with all threads sending from one IP address as an office behind NAT does. The
+ * lock-free {@link GcraRateLimiter} is compared with the lock-guarded token bucket it
+ * replaced, from 1 to {@value #MAX_THREADS} threads, both while the address is within
+ * its limit and once it is over it.
+ *
+ * <p>Not part of the regular build; run with
+ * {@code mvn test -Dtest=RateLimiterBenchmarkTest -Dbenchmark=true}.</p>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RateLimiterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterBenchmarkTest.class);
+    private static final int MAX_THREADS = 64;
+    private static final String ADDRESS = "203.0.113.7";
+
+    /** {@code within}: the address never reaches its limit; {@code over}: it is past its limit. */
+    @Param({"within", "over"})
+    public String load;
+
+    private Cache<String, AtomicLong> states;
+    private Cache<String, LockingTokenBucket> buckets;
+    private GcraRateLimiter limiter;
+    private int capacity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        capacity = "within".equals(load) ? Integer.MAX_VALUE : 100;
+        limiter = new GcraRateLimiter(capacity, TimeUnit.MINUTES.toNanos(1));
+        states = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).maximumSize(10000).build();
+        buckets = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).maximumSize(10000).build();
+        if ("over".equals(load)) {
+            AtomicLong state = states.get(ADDRESS, k -> limiter.newState());
+            LockingTokenBucket bucket = buckets.get(ADDRESS, k -> new LockingTokenBucket(capacity, 1));
+            for (int i = 0; i < capacity; i++) {
+                limiter.tryAcquire(state);
+                bucket.tryConsume();
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean gcra() {
+        return limiter.tryAcquire(states.get(ADDRESS, k -> limiter.newState()));
+    }
+
+    @Benchmark
+    public boolean tokenBucket() {
+        return buckets.get(ADDRESS, k -> new LockingTokenBucket(capacity, 1)).tryConsume();
+    }
+
+    @Test
+    void gcraScalesWithContendingThreads() throws Exception {
+        List<String> lines = new ArrayList<>();
+        double gcraAtMax = 0;
+        double tokenBucketAtMax = 0;
+        for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(RateLimiterBenchmarkTest.class.getName() + "\\.")
+                    .threads(threads)
+                    .forks(1)
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(3)
+                    .measurementTime(TimeValue.seconds(1))
+                    .build();
+            for (RunResult result : new Runner(options).run()) {
+                String method = result.getParams().getBenchmark()
+                        .substring(RateLimiterBenchmarkTest.class.getName().length() + 1);
+                String param = result.getParams().getParam("load");
+                double score = result.getPrimaryResult().getScore();
+                lines.add(String.format("%-12s %-7s %3d threads %10.1f ops/us", method, param, threads, score));
+                if (threads == MAX_THREADS && "over".equals(param)) {
+                    if ("gcra".equals(method)) {
+                        gcraAtMax = score;
+                    } else {
+                        tokenBucketAtMax = score;
+                    }
+                }
+            }
+        }
+        logger.info("Rate limiter throughput, one address:\n{}", String.join("\n", lines));
+        assertTrue(gcraAtMax > tokenBucketAtMax,
+                "rejecting over-limit requests must not serialize threads on a lock");
+    }
+
+    /**
+     * Token bucket formerly used by the filter: the whole capacity is refilled once
+     * per duration, under a lock.
+     */
+    private static final class LockingTokenBucket {
+        private final int capacity;
+        private final long refillIntervalNanos;
+        private long availableTokens;
+        private long lastRefillTimestamp;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        LockingTokenBucket(int capacity, int durationMinutes) {
+            this.capacity = capacity;
+            this.availableTokens = capacity;
+            this.lastRefillTimestamp = System.nanoTime();
+            this.refillIntervalNanos = TimeUnit.MINUTES.toNanos(durationMinutes);
+        }
+
+        boolean tryConsume() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                long timePassed = now - lastRefillTimestamp;
+                if (timePassed >= refillIntervalNanos) {
+                    availableTokens = Math.min(capacity, availableTokens + (timePassed / refillIntervalNanos) * capacity);
+                    lastRefillTimestamp = now - (timePassed % refillIntervalNanos);
+                }
+                if (availableTokens > 0) {
+                    availableTokens--;
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}